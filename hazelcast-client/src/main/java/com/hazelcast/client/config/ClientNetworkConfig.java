@@ -68,6 +68,18 @@ public class ClientNetworkConfig {
      */
     private int connectionAttemptPeriod = 3000;
 
+    /**
+     * Maximum number of requests to the same member sent together in one frame and executed by the member
+     * in one task. 1 sends every request on its own.
+     */
+    private int requestBatchSize = 1;
+
+    /**
+     * Time in microseconds a request may wait for more requests to the same member to be sent with, if batching
+     * is enabled with a {@link ClientNetworkConfig#requestBatchSize} larger than 1. With 0 requests are sent right
+     * away, together with the requests other threads send in the meantime.
+     */
+    private int requestBatchDelayMicros = 0;
 
     /**
      * Will be called with the Socket, each time client creates a connection to any Member.
@@ -132,6 +144,30 @@ public class ClientNetworkConfig {
         return this;
     }
 
+    public int getRequestBatchSize() {
+        return requestBatchSize;
+    }
+
+    public ClientNetworkConfig setRequestBatchSize(int requestBatchSize) {
+        if (requestBatchSize < 1) {
+            throw new IllegalArgumentException("Request batch size must be positive: " + requestBatchSize);
+        }
+        this.requestBatchSize = requestBatchSize;
+        return this;
+    }
+
+    public int getRequestBatchDelayMicros() {
+        return requestBatchDelayMicros;
+    }
+
+    public ClientNetworkConfig setRequestBatchDelayMicros(int requestBatchDelayMicros) {
+        if (requestBatchDelayMicros < 0) {
+            throw new IllegalArgumentException("Request batch delay cannot be negative: " + requestBatchDelayMicros);
+        }
+        this.requestBatchDelayMicros = requestBatchDelayMicros;
+        return this;
+    }
+
     public ClientNetworkConfig addAddress(String... addresses) {
         Collections.addAll(addressList, addresses);
         return this;
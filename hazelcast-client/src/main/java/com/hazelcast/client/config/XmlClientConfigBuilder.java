@@ -206,11 +206,35 @@ public class XmlClientConfigBuilder extends AbstractXmlConfigHelper {
                 nearCacheConfig.setInvalidateOnChange(Boolean.parseBoolean(getTextContent(child)));
             } else if ("cache-local-entries".equals(nodeName)) {
                 nearCacheConfig.setCacheLocalEntries(Boolean.parseBoolean(getTextContent(child)));
+            } else if ("preloader".equals(nodeName)) {
+                nearCacheConfig.setPreloaderConfig(handleNearCachePreloader(child));
             }
         }
         clientConfig.addNearCacheConfig(name, nearCacheConfig);
     }
 
+    private NearCachePreloaderConfig handleNearCachePreloader(Node node) {
+        final NearCachePreloaderConfig preloaderConfig = new NearCachePreloaderConfig();
+        final NamedNodeMap attributes = node.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            final Node attribute = attributes.item(i);
+            final String attributeName = cleanNodeName(attribute.getNodeName());
+            final String value = getTextContent(attribute).trim();
+            if ("enabled".equals(attributeName)) {
+                preloaderConfig.setEnabled(checkTrue(value));
+            } else if ("directory".equals(attributeName)) {
+                preloaderConfig.setDirectory(value);
+            } else if ("store-initial-delay-seconds".equals(attributeName)) {
+                preloaderConfig.setStoreInitialDelaySeconds(Integer.parseInt(value));
+            } else if ("store-interval-seconds".equals(attributeName)) {
+                preloaderConfig.setStoreIntervalSeconds(Integer.parseInt(value));
+            } else if ("batch-size".equals(attributeName)) {
+                preloaderConfig.setBatchSize(Integer.parseInt(value));
+            }
+        }
+        return preloaderConfig;
+    }
+
     private void handleLoadBalancer(Node node) {
         final String type = getAttribute(node, "type");
         if ("random".equals(type)) {
@@ -236,6 +260,10 @@ public class XmlClientConfigBuilder extends AbstractXmlConfigHelper {
                 clientNetworkConfig.setConnectionAttemptPeriod(Integer.parseInt(getTextContent(child)));
             } else if ("connection-attempt-limit".equals(nodeName)) {
                 clientNetworkConfig.setConnectionAttemptLimit(Integer.parseInt(getTextContent(child)));
+            } else if ("request-batch-size".equals(nodeName)) {
+                clientNetworkConfig.setRequestBatchSize(Integer.parseInt(getTextContent(child)));
+            } else if ("request-batch-delay-micros".equals(nodeName)) {
+                clientNetworkConfig.setRequestBatchDelayMicros(Integer.parseInt(getTextContent(child)));
             } else if ("socket-options".equals(nodeName)) {
                 handleSocketOptions(child, clientNetworkConfig);
             } else if ("socket-interceptor".equals(nodeName)) {
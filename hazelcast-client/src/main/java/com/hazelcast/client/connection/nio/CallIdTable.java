@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.client.connection.nio;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The calls of a connection waiting for their responses, by call id.
+ * <p/>
+ * Call ids are handed out in sequence, so a call is kept in the slot its id maps to, which is set and cleared
+ * with a single compare-and-set. Only when a slot is still taken by a call that has been waiting for as long as
+ * thousands of others were sent, the call is kept in an overflow map.
+ */
+final class CallIdTable<V> {
+
+    private static final int CAPACITY = 1 << 12;
+
+    private final AtomicReferenceArray<Entry<V>> slots = new AtomicReferenceArray<Entry<V>>(CAPACITY);
+    private final ConcurrentMap<Integer, V> overflow = new ConcurrentHashMap<Integer, V>();
+
+    void put(int callId, V call) {
+        if (!slots.compareAndSet(slot(callId), null, new Entry<V>(callId, call))) {
+            overflow.put(callId, call);
+        }
+    }
+
+    V remove(int callId) {
+        final int slot = slot(callId);
+        final Entry<V> entry = slots.get(slot);
+        if (entry != null && entry.callId == callId && slots.compareAndSet(slot, entry, null)) {
+            return entry.call;
+        }
+        return overflow.isEmpty() ? null : overflow.remove(callId);
+    }
+
+    /**
+     * Removes all calls.
+     *
+     * @return the removed calls by call id.
+     */
+    Map<Integer, V> removeAll() {
+        final Map<Integer, V> calls = new HashMap<Integer, V>();
+        for (int i = 0; i < CAPACITY; i++) {
+            final Entry<V> entry = slots.getAndSet(i, null);
+            if (entry != null) {
+                calls.put(entry.callId, entry.call);
+            }
+        }
+        for (Integer callId : overflow.keySet()) {
+            final V call = overflow.remove(callId);
+            if (call != null) {
+                calls.put(callId, call);
+            }
+        }
+        return calls;
+    }
+
+    private static int slot(int callId) {
+        return callId & (CAPACITY - 1);
+    }
+
+    private static final class Entry<V> {
+        final int callId;
+        final V call;
+
+        Entry(int callId, V call) {
+            this.callId = callId;
+            this.call = call;
+        }
+    }
+}
@@ -69,6 +69,10 @@ public abstract class ClientAbstractIOSelector extends Thread implements IOSelec
         selector.wakeup();
     }
 
+    public boolean isSelectorThread() {
+        return Thread.currentThread() == this;
+    }
+
     public void shutdown() {
         selectorQueue.clear();
         try {
@@ -35,6 +35,7 @@ import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.nio.serialization.DataAdapter;
 import com.hazelcast.nio.serialization.SerializationService;
 import com.hazelcast.spi.exception.TargetDisconnectedException;
+import com.hazelcast.spi.exception.TargetNotMemberException;
 import com.hazelcast.util.ExceptionUtil;
 
 import java.io.Closeable;
@@ -70,8 +71,7 @@ public class ClientConnection implements Connection, Closeable {
 
     private volatile Address remoteEndpoint;
 
-    private final ConcurrentMap<Integer, ClientCallFuture> callIdMap
-            = new ConcurrentHashMap<Integer, ClientCallFuture>();
+    private final CallIdTable<ClientCallFuture> callIdTable = new CallIdTable<ClientCallFuture>();
     private final ConcurrentMap<Integer, ClientCallFuture> eventHandlerMap
             = new ConcurrentHashMap<Integer, ClientCallFuture>();
     private final ByteBuffer readBuffer;
@@ -79,6 +79,7 @@ public class ClientConnection implements Connection, Closeable {
     private final ClientExecutionService executionService;
     private boolean readFromSocket = true;
     private final AtomicInteger packetCount = new AtomicInteger(0);
+    private final ClientRequestBatcher batcher;
 
     public ClientConnection(ClientConnectionManagerImpl connectionManager, IOSelector in, IOSelector out,
                 int connectionId, SocketChannelWrapper socketChannelWrapper,
@@ -92,6 +93,9 @@ public class ClientConnection implements Connection, Closeable {
         this.readHandler = new ClientReadHandler(this, in, socket.getReceiveBufferSize());
         this.writeHandler = new ClientWriteHandler(this, out, socket.getSendBufferSize());
         this.readBuffer = ByteBuffer.allocate(socket.getReceiveBufferSize());
+        final int batchSize = connectionManager.getRequestBatchSize();
+        this.batcher = batchSize > 1 ? new ClientRequestBatcher(this, serializationService, executionService, batchSize,
+                connectionManager.getRequestBatchDelayMicros()) : null;
     }
 
     public void incrementPacketCount() {
@@ -105,14 +109,14 @@ public class ClientConnection implements Connection, Closeable {
     public void registerCallId(ClientCallFuture future) {
         final int callId = connectionManager.newCallId();
         future.getRequest().setCallId(callId);
-        callIdMap.put(callId, future);
+        callIdTable.put(callId, future);
         if (future.getHandler() != null) {
             eventHandlerMap.put(callId, future);
         }
     }
 
     public ClientCallFuture deRegisterCallId(int callId) {
-        return callIdMap.remove(callId);
+        return callIdTable.remove(callId);
     }
 
     public ClientCallFuture deRegisterEventHandler(int callId) {
@@ -127,6 +131,25 @@ public class ClientConnection implements Connection, Closeable {
         return future.getHandler();
     }
 
+    /**
+     * Sends a request registered with {@link #registerCallId(ClientCallFuture)}, batched with other requests
+     * if request batching is enabled.
+     */
+    public void send(ClientCallFuture future, Data request) {
+        if (batcher != null && !future.getRequest().isSingleConnection()) {
+            batcher.add(future, request);
+        } else if (!write(new DataAdapter(request))) {
+            notifyWriteFailed(future);
+        }
+    }
+
+    void notifyWriteFailed(ClientCallFuture future) {
+        final int callId = future.getRequest().getCallId();
+        deRegisterCallId(callId);
+        deRegisterEventHandler(callId);
+        future.notify(new TargetNotMemberException("Address : " + getRemoteEndpoint()));
+    }
+
     @Override
     public boolean write(SocketWritable packet) {
         if (!live) {
@@ -313,10 +336,7 @@ public class ClientConnection implements Connection, Closeable {
     }
 
     private void cleanResources(HazelcastException response){
-        final Iterator<Map.Entry<Integer,ClientCallFuture>> iter = callIdMap.entrySet().iterator();
-        while (iter.hasNext()) {
-            final Map.Entry<Integer, ClientCallFuture> entry = iter.next();
-            iter.remove();
+        for (Map.Entry<Integer, ClientCallFuture> entry : callIdTable.removeAll().entrySet()) {
             entry.getValue().notify(response);
             eventHandlerMap.remove(entry.getKey());
         }
@@ -103,6 +103,9 @@ public class ClientConnectionManagerImpl implements ClientConnectionManager {
     private final ConcurrentMap<Address, ClientConnection> connections
             = new ConcurrentHashMap<Address, ClientConnection>();
 
+    private final int requestBatchSize;
+    private final int requestBatchDelayMicros;
+
     private volatile boolean live = false;
 
     public ClientConnectionManagerImpl(HazelcastClient client, LoadBalancer loadBalancer) {
@@ -128,6 +131,8 @@ public class ClientConnectionManagerImpl implements ClientConnectionManager {
         }
 
         this.smartRouting = networkConfig.isSmartRouting();
+        this.requestBatchSize = networkConfig.getRequestBatchSize();
+        this.requestBatchDelayMicros = networkConfig.getRequestBatchDelayMicros();
         this.executionService = client.getClientExecutionService();
         this.credentials = c;
         router = new Router(loadBalancer);
@@ -165,6 +170,14 @@ public class ClientConnectionManagerImpl implements ClientConnectionManager {
 
     }
 
+    public int getRequestBatchSize() {
+        return requestBatchSize;
+    }
+
+    public int getRequestBatchDelayMicros() {
+        return requestBatchDelayMicros;
+    }
+
     public boolean isLive() {
         return live;
     }
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.client.connection.nio;
+
+import com.hazelcast.client.ClientBatchRequest;
+import com.hazelcast.client.spi.ClientExecutionService;
+import com.hazelcast.client.spi.impl.ClientCallFuture;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.DataAdapter;
+import com.hazelcast.nio.serialization.SerializationService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects the requests sent through a connection and writes them as {@link ClientBatchRequest}s of up to
+ * the batch size.
+ * <p/>
+ * A batch is written as soon as it is full. Otherwise, without a delay the thread sending a request writes it
+ * together with the requests queued by other threads in the meantime; with a delay a task writes the requests
+ * queued when the delay has passed.
+ */
+final class ClientRequestBatcher {
+
+    private final ClientConnection connection;
+    private final SerializationService serializationService;
+    private final ClientExecutionService executionService;
+    private final int batchSize;
+    private final int delayMicros;
+    private final Queue<QueuedRequest> queue = new ConcurrentLinkedQueue<QueuedRequest>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flushScheduled.set(false);
+            flush();
+        }
+    };
+
+    ClientRequestBatcher(ClientConnection connection, SerializationService serializationService,
+                         ClientExecutionService executionService, int batchSize, int delayMicros) {
+        this.connection = connection;
+        this.serializationService = serializationService;
+        this.executionService = executionService;
+        this.batchSize = batchSize;
+        this.delayMicros = delayMicros;
+    }
+
+    void add(ClientCallFuture future, Data request) {
+        queue.offer(new QueuedRequest(future, request));
+        if (queued.incrementAndGet() >= batchSize || delayMicros == 0) {
+            flush();
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            executionService.schedule(flushTask, delayMicros, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    private void flush() {
+        List<QueuedRequest> batch = drain();
+        while (!batch.isEmpty()) {
+            write(batch);
+            batch = batch.size() == batchSize ? drain() : new ArrayList<QueuedRequest>(0);
+        }
+    }
+
+    private List<QueuedRequest> drain() {
+        final List<QueuedRequest> batch = new ArrayList<QueuedRequest>();
+        QueuedRequest request;
+        while (batch.size() < batchSize && (request = queue.poll()) != null) {
+            batch.add(request);
+        }
+        queued.addAndGet(-batch.size());
+        return batch;
+    }
+
+    private void write(List<QueuedRequest> batch) {
+        final Data data;
+        if (batch.size() == 1) {
+            data = batch.get(0).request;
+        } else {
+            final List<Data> requests = new ArrayList<Data>(batch.size());
+            for (QueuedRequest request : batch) {
+                requests.add(request.request);
+            }
+            data = serializationService.toData(new ClientBatchRequest(requests));
+        }
+        if (!connection.write(new DataAdapter(data))) {
+            for (QueuedRequest request : batch) {
+                connection.notifyWriteFailed(request.future);
+            }
+        }
+    }
+
+    private static final class QueuedRequest {
+        final ClientCallFuture future;
+        final Data request;
+
+        QueuedRequest(ClientCallFuture future, Data request) {
+            this.future = future;
+            this.request = request;
+        }
+    }
+}
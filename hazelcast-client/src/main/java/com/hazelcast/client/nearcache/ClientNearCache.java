@@ -23,30 +23,37 @@ import com.hazelcast.client.spi.EventHandler;
 import com.hazelcast.client.util.ListenerUtil;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.config.NearCachePreloaderConfig;
 import com.hazelcast.logging.Logger;
-import com.hazelcast.map.client.MapAddEntryListenerRequest;
+import com.hazelcast.map.NearCacheEvictor;
+import com.hazelcast.map.NearCacheInvalidationBatch;
+import com.hazelcast.map.NearCacheSequenceTracker;
+import com.hazelcast.map.client.MapAddNearCacheInvalidationListenerRequest;
 import com.hazelcast.map.client.MapRemoveEntryListenerRequest;
 import com.hazelcast.monitor.impl.NearCacheStatsImpl;
 import com.hazelcast.nio.serialization.Data;
-import com.hazelcast.spi.impl.PortableEntryEvent;
 import com.hazelcast.util.Clock;
 import com.hazelcast.util.ExceptionUtil;
 
-import java.util.Comparator;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
-import java.util.TreeSet;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 /**
  * @ali 7/18/13
  */
 public class ClientNearCache<K> {
 
-    public static final int EVICTION_PERCENTAGE = 20;
     public static final int TTL_CLEANUP_INTERVAL_MILLS = 5000;
     final ClientNearCacheType cacheType;
     final int maxSize;
@@ -59,22 +66,17 @@ public class ClientNearCache<K> {
     final String mapName;
     final ClientContext context;
     final AtomicBoolean canCleanUp;
-    final AtomicBoolean canEvict;
     final ConcurrentMap<K, CacheRecord<K>> cache;
+    final NearCacheEvictor<K, CacheRecord<K>> evictor;
     public static final Object NULL_OBJECT = new Object();
     String registrationId = null;
     final NearCacheStatsImpl clientNearCacheStats;
-    private final Comparator<CacheRecord<K>> comparator = new Comparator<CacheRecord<K>>() {
-        public int compare(CacheRecord<K> o1, CacheRecord<K> o2) {
-            if (EvictionPolicy.LRU.equals(evictionPolicy))
-                return ((Long) o1.lastAccessTime).compareTo((o2.lastAccessTime));
-            else if (EvictionPolicy.LFU.equals(evictionPolicy))
-                return ((Integer) o1.hit.get()).compareTo((o2.hit.get()));
-
-            return 0;
-        }
-    };
-
+    final NearCacheSequenceTracker sequenceTracker;
+    final NearCachePreloaderConfig preloaderConfig;
+    final ClientNearCachePreloader preloader;
+    volatile ScheduledFuture<?> storeFuture;
+    // keys and partitions invalidated while the preloader fetches values, null when not preloading
+    volatile PreloadInvalidations preloadInvalidations;
 
     public ClientNearCache(String mapName, ClientNearCacheType cacheType, ClientContext context, NearCacheConfig nearCacheConfig) {
         this.mapName = mapName;
@@ -88,9 +90,13 @@ public class ClientNearCache<K> {
         evictionPolicy = EvictionPolicy.valueOf(nearCacheConfig.getEvictionPolicy());
         cache = new ConcurrentHashMap<K, CacheRecord<K>>();
         canCleanUp = new AtomicBoolean(true);
-        canEvict = new AtomicBoolean(true);
         lastCleanup = Clock.currentTimeMillis();
         clientNearCacheStats = new NearCacheStatsImpl();
+        evictor = new NearCacheEvictor<K, CacheRecord<K>>(cache, evictionPolicy == EvictionPolicy.LFU, clientNearCacheStats);
+        sequenceTracker = new NearCacheSequenceTracker(context.getPartitionService().getPartitionCount());
+        preloaderConfig = nearCacheConfig.getPreloaderConfig();
+        preloader = preloaderConfig.isEnabled()
+                ? new ClientNearCachePreloader(mapName, context, preloaderConfig, clientNearCacheStats) : null;
         if (invalidateOnChange) {
             addInvalidateListener();
         }
@@ -101,10 +107,10 @@ public class ClientNearCache<K> {
             ClientRequest request;
             EventHandler handler;
             if (cacheType == ClientNearCacheType.Map) {
-                request = new MapAddEntryListenerRequest(mapName, false);
-                handler = new EventHandler<PortableEntryEvent>() {
-                    public void handle(PortableEntryEvent event) {
-                        cache.remove(event.getKey());
+                request = new MapAddNearCacheInvalidationListenerRequest(mapName);
+                handler = new EventHandler<NearCacheInvalidationBatch>() {
+                    public void handle(NearCacheInvalidationBatch batch) {
+                        invalidate(batch);
                     }
                 };
             } else {
@@ -117,6 +123,30 @@ public class ClientNearCache<K> {
 
     }
 
+    /**
+     * Fetches the keys stored by the preloader, if enabled, and starts storing the keys periodically.
+     */
+    public void preload() {
+        if (preloader == null) {
+            return;
+        }
+        preloader.load((ClientNearCache<Data>) this);
+        storeFuture = context.getExecutionService().scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                storeKeys();
+            }
+        }, preloaderConfig.getStoreInitialDelaySeconds(), preloaderConfig.getStoreIntervalSeconds(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stores the keys for the preloader, if enabled.
+     */
+    public void storeKeys() {
+        if (preloader != null) {
+            preloader.store((Collection<Data>) cache.keySet());
+        }
+    }
+
     static enum EvictionPolicy {
         NONE, LRU, LFU
     }
@@ -127,7 +157,7 @@ public class ClientNearCache<K> {
             return;
         }
         if (evictionPolicy != EvictionPolicy.NONE && cache.size() >= maxSize) {
-            fireEvictCache();
+            evictor.evict(maxSize);
         }
         Object value;
         if (object == null) {
@@ -138,34 +168,6 @@ public class ClientNearCache<K> {
         cache.put(key, new CacheRecord<K>(key, value));
     }
 
-    private void fireEvictCache() {
-        if (canEvict.compareAndSet(true, false)) {
-            try {
-                context.getExecutionService().execute(new Runnable() {
-                    public void run() {
-                        try {
-                            TreeSet<CacheRecord<K>> records = new TreeSet<CacheRecord<K>>(comparator);
-                            records.addAll(cache.values());
-                            int evictSize = cache.size() * EVICTION_PERCENTAGE / 100;
-                            int i = 0;
-                            for (CacheRecord<K> record : records) {
-                                cache.remove(record.key);
-                                if (++i > evictSize)
-                                    break;
-                            }
-                        } finally {
-                            canEvict.set(true);
-                        }
-                    }
-                });
-            } catch (RejectedExecutionException e) {
-                canEvict.set(true);
-            } catch (Exception e) {
-                throw ExceptionUtil.rethrow(e);
-            }
-        }
-    }
-
     private void fireTtlCleanup() {
         if (Clock.currentTimeMillis() < (lastCleanup + TTL_CLEANUP_INTERVAL_MILLS))
             return;
@@ -195,9 +197,78 @@ public class ClientNearCache<K> {
     }
 
     public void invalidate(K key) {
+        recordPreloadInvalidation(key);
         cache.remove(key);
     }
 
+    /**
+     * Starts recording the invalidations received, so the values fetched by the preloader before an invalidation
+     * of their key are not cached, see {@link #putPreloaded(Object, Object)}.
+     */
+    void startPreload() {
+        preloadInvalidations = new PreloadInvalidations(context.getPartitionService().getPartitionCount());
+    }
+
+    void endPreload() {
+        preloadInvalidations = null;
+    }
+
+    /**
+     * Puts a value fetched by the preloader, unless its key was invalidated since the preloading started.
+     *
+     * @return <tt>true</tt> if the value was put.
+     */
+    boolean putPreloaded(K key, Object object) {
+        final PreloadInvalidations invalidations = preloadInvalidations;
+        if (invalidations.isInvalidated(key)) {
+            return false;
+        }
+        put(key, object);
+        // an invalidation recorded after the check above may have had nothing to remove yet
+        if (invalidations.isInvalidated(key)) {
+            cache.remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    private void recordPreloadInvalidation(Object key) {
+        final PreloadInvalidations invalidations = preloadInvalidations;
+        if (invalidations != null) {
+            invalidations.keys.add(key);
+        }
+    }
+
+    /**
+     * Invalidates the keys of the batch, after dropping the entries of the partitions
+     * for which invalidations were missed.
+     */
+    void invalidate(NearCacheInvalidationBatch batch) {
+        final BitSet missed = sequenceTracker.track(batch);
+        if (missed != null) {
+            final PreloadInvalidations invalidations = preloadInvalidations;
+            if (invalidations != null) {
+                for (int p = missed.nextSetBit(0); p >= 0; p = missed.nextSetBit(p + 1)) {
+                    invalidations.partitions.set(p, 1);
+                }
+            }
+            for (K key : cache.keySet()) {
+                if (missed.get(context.getPartitionService().getPartitionId(key))) {
+                    cache.remove(key);
+                }
+            }
+            clientNearCacheStats.incrementRepairs(missed.cardinality());
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            final Data key = batch.getKey(i);
+            if (key != null) {
+                recordPreloadInvalidation(key);
+                cache.remove(key);
+                clientNearCacheStats.incrementInvalidations();
+            }
+        }
+    }
+
     public Object get(K key) {
         fireTtlCleanup();
         CacheRecord<K> record = cache.get(key);
@@ -235,6 +306,10 @@ public class ClientNearCache<K> {
     }
 
     public void destroy() {
+        final ScheduledFuture<?> future = storeFuture;
+        if (future != null) {
+            future.cancel(false);
+        }
         if (registrationId != null) {
             BaseClientRemoveListenerRequest request;
             if (cacheType == ClientNearCacheType.Map) {
@@ -248,7 +323,20 @@ public class ClientNearCache<K> {
     }
 
 
-    class CacheRecord<K> {
+    final class PreloadInvalidations {
+        final Set<Object> keys = Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>());
+        final AtomicIntegerArray partitions;
+
+        PreloadInvalidations(int partitionCount) {
+            partitions = new AtomicIntegerArray(partitionCount);
+        }
+
+        boolean isInvalidated(Object key) {
+            return keys.contains(key) || partitions.get(context.getPartitionService().getPartitionId(key)) != 0;
+        }
+    }
+
+    class CacheRecord<K> implements NearCacheEvictor.Evictable {
         final K key;
         final Object value;
         volatile long lastAccessTime;
@@ -270,6 +358,14 @@ public class ClientNearCache<K> {
             lastAccessTime = Clock.currentTimeMillis();
         }
 
+        public long getLastAccessTime() {
+            return lastAccessTime;
+        }
+
+        public int getHits() {
+            return hit.get();
+        }
+
         public long getCost() {
             // todo find object size  if not a Data instance.
             if (!(value instanceof Data)) return 0;
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.client.nearcache;
+
+import com.hazelcast.client.spi.ClientContext;
+import com.hazelcast.config.NearCachePreloaderConfig;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.map.MapEntrySet;
+import com.hazelcast.map.client.MapGetAllRequest;
+import com.hazelcast.monitor.impl.NearCacheStatsImpl;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.ObjectDataInputStream;
+import com.hazelcast.nio.serialization.ObjectDataOutputStream;
+import com.hazelcast.nio.serialization.SerializationService;
+import com.hazelcast.util.Clock;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+/**
+ * Stores the keys of a {@link ClientNearCache} in a local file and, when the near cache is created again,
+ * fetches the values of these keys in batches, one request for up to {@link NearCachePreloaderConfig#getBatchSize()}
+ * keys owned by the same member.
+ * <p/>
+ * The file holds a magic number, the number of keys and the serialized keys. It is written to a temporary file
+ * first and then renamed, so a crash while storing leaves the previous keys. A file that cannot be read, or whose
+ * number of keys does not fit its length, is ignored like a missing one.
+ */
+final class ClientNearCachePreloader {
+
+    private static final int MAGIC = 0x4E435031;
+    private static final String FILE_PREFIX = "nearcache-";
+    private static final String FILE_SUFFIX = ".keys";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int HEADER_SIZE = 8;
+    // a serialized key takes at least its type, class id, buffer length and partition hash
+    private static final int MIN_KEY_SIZE = 16;
+
+    private final ILogger logger = Logger.getLogger(ClientNearCachePreloader.class);
+    private final String mapName;
+    private final ClientContext context;
+    private final NearCachePreloaderConfig config;
+    private final NearCacheStatsImpl stats;
+    private final File file;
+
+    ClientNearCachePreloader(String mapName, ClientContext context, NearCachePreloaderConfig config,
+                             NearCacheStatsImpl stats) {
+        this.mapName = mapName;
+        this.context = context;
+        this.config = config;
+        this.stats = stats;
+        this.file = new File(config.getDirectory(), FILE_PREFIX + toFileName(mapName) + FILE_SUFFIX);
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Writes the keys to the file, replacing the keys stored before.
+     */
+    void store(Collection<Data> keys) {
+        final long start = Clock.currentTimeMillis();
+        final List<Data> snapshot = new ArrayList<Data>(keys);
+        final File temp = new File(file.getPath() + TEMP_SUFFIX);
+        final SerializationService serializationService = context.getSerializationService();
+        ObjectDataOutputStream out = null;
+        try {
+            final File directory = file.getAbsoluteFile().getParentFile();
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Could not create directory " + directory);
+            }
+            out = serializationService.createObjectDataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            out.writeInt(MAGIC);
+            out.writeInt(snapshot.size());
+            for (Data key : snapshot) {
+                key.writeData(out);
+            }
+            out.close();
+            out = null;
+            if ((file.exists() && !file.delete()) || !temp.renameTo(file)) {
+                throw new IOException("Could not rename " + temp + " to " + file);
+            }
+            final long now = Clock.currentTimeMillis();
+            stats.setLastPersistence(now, now - start, snapshot.size());
+        } catch (IOException e) {
+            logger.warning("Could not store the near cache keys of map " + mapName + " in " + file, e);
+        } finally {
+            IOUtil.closeResource(out);
+            if (temp.exists() && !temp.delete()) {
+                logger.finest("Could not delete " + temp);
+            }
+        }
+    }
+
+    /**
+     * Fetches the values of the stored keys and puts them in the near cache, except for the keys invalidated
+     * while their values are fetched.
+     */
+    void load(ClientNearCache<Data> nearCache) {
+        if (!file.exists()) {
+            return;
+        }
+        final long start = Clock.currentTimeMillis();
+        final List<Data> keys;
+        try {
+            keys = readKeys(nearCache.maxSize);
+        } catch (Exception e) {
+            logger.finest("Ignoring the near cache key file " + file + " of map " + mapName, e);
+            return;
+        }
+        nearCache.startPreload();
+        try {
+            final List<Future> futures = new ArrayList<Future>();
+            for (Map.Entry<Address, List<Data>> entry : groupByOwner(keys).entrySet()) {
+                final List<Data> ownerKeys = entry.getValue();
+                for (int from = 0; from < ownerKeys.size(); from += config.getBatchSize()) {
+                    final int to = Math.min(ownerKeys.size(), from + config.getBatchSize());
+                    final Set<Data> batch = new HashSet<Data>(ownerKeys.subList(from, to));
+                    futures.add(invoke(new MapGetAllRequest(mapName, batch), entry.getKey()));
+                }
+            }
+            final SerializationService serializationService = context.getSerializationService();
+            for (Future future : futures) {
+                final MapEntrySet entrySet = serializationService.toObject(future.get());
+                int preloaded = 0;
+                for (Map.Entry<Data, Data> entry : entrySet.getEntrySet()) {
+                    if (nearCache.putPreloaded(entry.getKey(), serializationService.toObject(entry.getValue()))) {
+                        preloaded++;
+                    }
+                }
+                stats.addPreloadedEntryCount(preloaded);
+            }
+            stats.setPreloadDuration(Clock.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.warning("Could not preload the near cache of map " + mapName + " from " + file, e);
+        } finally {
+            nearCache.endPreload();
+        }
+    }
+
+    // keys beyond the max size of the near cache would be evicted right away, so they are not read
+    private List<Data> readKeys(int maxSize) throws IOException {
+        final SerializationService serializationService = context.getSerializationService();
+        ObjectDataInputStream in = null;
+        try {
+            in = serializationService.createObjectDataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a near cache key file");
+            }
+            final int size = in.readInt();
+            if (size < 0 || size > (file.length() - HEADER_SIZE) / MIN_KEY_SIZE) {
+                throw new IOException(file + " cannot hold " + size + " keys");
+            }
+            final int count = Math.min(size, maxSize);
+            final List<Data> keys = new ArrayList<Data>(count);
+            for (int i = 0; i < count; i++) {
+                final Data key = new Data();
+                key.readData(in);
+                keys.add(key);
+            }
+            return keys;
+        } finally {
+            IOUtil.closeResource(in);
+        }
+    }
+
+    // keys of partitions without a known owner are fetched through any member, grouped under null
+    private Map<Address, List<Data>> groupByOwner(List<Data> keys) {
+        final Map<Address, List<Data>> groups = new HashMap<Address, List<Data>>();
+        for (Data key : keys) {
+            final int partitionId = context.getPartitionService().getPartitionId(key);
+            final Address owner = context.getPartitionService().getPartitionOwner(partitionId);
+            List<Data> group = groups.get(owner);
+            if (group == null) {
+                group = new ArrayList<Data>();
+                groups.put(owner, group);
+            }
+            group.add(key);
+        }
+        return groups;
+    }
+
+    private Future invoke(MapGetAllRequest request, Address owner) throws Exception {
+        if (owner == null) {
+            return context.getInvocationService().invokeOnRandomTarget(request);
+        }
+        return context.getInvocationService().invokeOnTarget(request, owner);
+    }
+
+    private static String toFileName(String mapName) {
+        final StringBuilder sb = new StringBuilder(mapName.length());
+        for (int i = 0; i < mapName.length(); i++) {
+            final char c = mapName.charAt(i);
+            sb.append(Character.isLetterOrDigit(c) || c == '-' || c == '.' ? c : '_');
+        }
+        return sb.toString();
+    }
+}
@@ -16,8 +16,11 @@
 
 package com.hazelcast.client.proxy;
 
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.client.ClientRequest;
 import com.hazelcast.client.nearcache.ClientNearCache;
 import com.hazelcast.client.nearcache.ClientNearCacheType;
+import com.hazelcast.client.spi.ClientPartitionService;
 import com.hazelcast.client.spi.ClientProxy;
 import com.hazelcast.client.spi.EventHandler;
 import com.hazelcast.client.spi.impl.ClientCallFuture;
@@ -26,18 +29,27 @@ import com.hazelcast.core.EntryEvent;
 import com.hazelcast.core.EntryListener;
 import com.hazelcast.core.EntryView;
 import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.core.HazelcastInstanceNotActiveException;
 import com.hazelcast.core.ICompletableFuture;
 import com.hazelcast.core.IMap;
 import com.hazelcast.core.Member;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
 import com.hazelcast.map.EntryProcessor;
 import com.hazelcast.map.MapEntrySet;
 import com.hazelcast.map.MapInterceptor;
 import com.hazelcast.map.MapKeySet;
 import com.hazelcast.map.MapValueCollection;
+import com.hazelcast.map.QueryCache;
+import com.hazelcast.map.QueryCacheImpl;
+import com.hazelcast.map.QueryCursorPage;
+import com.hazelcast.map.QueryPageIterator;
 import com.hazelcast.map.SimpleEntryView;
 import com.hazelcast.map.client.MapAddEntryListenerRequest;
 import com.hazelcast.map.client.MapAddIndexRequest;
 import com.hazelcast.map.client.MapAddInterceptorRequest;
+import com.hazelcast.map.client.MapAddQueryCacheListenerRequest;
+import com.hazelcast.map.client.MapAggregateRequest;
 import com.hazelcast.map.client.MapClearRequest;
 import com.hazelcast.map.client.MapContainsKeyRequest;
 import com.hazelcast.map.client.MapContainsValueRequest;
@@ -48,6 +60,7 @@ import com.hazelcast.map.client.MapExecuteOnAllKeysRequest;
 import com.hazelcast.map.client.MapExecuteOnKeyRequest;
 import com.hazelcast.map.client.MapExecuteOnKeysRequest;
 import com.hazelcast.map.client.MapExecuteWithPredicateRequest;
+import com.hazelcast.map.client.MapExplainRequest;
 import com.hazelcast.map.client.MapFlushRequest;
 import com.hazelcast.map.client.MapGetAllRequest;
 import com.hazelcast.map.client.MapGetEntryViewRequest;
@@ -59,6 +72,7 @@ import com.hazelcast.map.client.MapPutAllRequest;
 import com.hazelcast.map.client.MapPutIfAbsentRequest;
 import com.hazelcast.map.client.MapPutRequest;
 import com.hazelcast.map.client.MapPutTransientRequest;
+import com.hazelcast.map.client.MapQueryPageRequest;
 import com.hazelcast.map.client.MapQueryRequest;
 import com.hazelcast.map.client.MapRemoveEntryListenerRequest;
 import com.hazelcast.map.client.MapRemoveIfSameRequest;
@@ -74,11 +88,19 @@ import com.hazelcast.map.client.MapUnlockRequest;
 import com.hazelcast.map.client.MapValuesRequest;
 import com.hazelcast.monitor.LocalMapStats;
 import com.hazelcast.monitor.impl.LocalMapStatsImpl;
+import com.hazelcast.nio.Address;
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.projection.Projection;
+import com.hazelcast.projection.impl.ProjectionAggregator;
 import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.PagingPredicateAccessor;
 import com.hazelcast.query.Predicate;
+import com.hazelcast.query.QueryPlan;
+import com.hazelcast.spi.exception.TargetDisconnectedException;
+import com.hazelcast.spi.exception.TargetNotMemberException;
+import com.hazelcast.spi.impl.AbstractCompletableFuture;
 import com.hazelcast.spi.impl.PortableEntryEvent;
+import com.hazelcast.spi.impl.SerializableCollection;
 import com.hazelcast.util.ExceptionUtil;
 import com.hazelcast.util.IterationType;
 import com.hazelcast.util.QueryResultSet;
@@ -87,6 +109,7 @@ import com.hazelcast.util.SortingUtil;
 import com.hazelcast.util.ThreadUtil;
 import com.hazelcast.util.executor.CompletedFuture;
 import com.hazelcast.util.executor.DelegatingFuture;
+import com.hazelcast.util.executor.ReducingFuture;
 
 import java.util.AbstractMap;
 import java.util.ArrayList;
@@ -99,8 +122,14 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -108,9 +137,14 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 public final class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
 
+    private static final ILogger LOGGER = Logger.getLogger(ClientMapProxy.class);
+    private static final int PUT_ALL_RETRY_COUNT = 20;
+    private static final long PUT_ALL_RETRY_DELAY_MILLIS = 250;
+
     private final String name;
     private volatile ClientNearCache<Data> nearCache;
     private final AtomicBoolean nearCacheInitialized = new AtomicBoolean();
+    private final ConcurrentMap<String, QueryCacheImpl> queryCaches = new ConcurrentHashMap<String, QueryCacheImpl>();
 
     public ClientMapProxy(String instanceName, String serviceName, String name) {
         super(instanceName, serviceName, name);
@@ -203,7 +237,7 @@ public final class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V
     }
 
     @Override
-    public Future<V> getAsync(final K key) {
+    public ICompletableFuture<V> getAsync(final K key) {
         initNearCache();
         final Data keyData = toData(key);
         if (nearCache != null) {
@@ -237,12 +271,12 @@ public final class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V
     }
 
     @Override
-    public Future<V> putAsync(final K key, final V value) {
+    public ICompletableFuture<V> putAsync(final K key, final V value) {
         return putAsync(key, value, -1, null);
     }
 
     @Override
-    public Future<V> putAsync(final K key, final V value, final long ttl, final TimeUnit timeunit) {
+    public ICompletableFuture<V> putAsync(final K key, final V value, final long ttl, final TimeUnit timeunit) {
         final Data keyData = toData(key);
         final Data valueData = toData(value);
         invalidateNearCache(keyData);
@@ -256,7 +290,7 @@ public final class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V
     }
 
     @Override
-    public Future<V> removeAsync(final K key) {
+    public ICompletableFuture<V> removeAsync(final K key) {
         final Data keyData = toData(key);
         invalidateNearCache(keyData);
         MapRemoveRequest request = new MapRemoveRequest(name, keyData, ThreadUtil.getThreadId());
@@ -268,6 +302,77 @@ public final class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V
         }
     }
 
+    @Override
+    public ICompletableFuture<Void> setAsync(final K key, final V value) {
+        return setAsync(key, value, -1, null);
+    }
+
+    @Override
+    public ICompletableFuture<Void> setAsync(final K key, final V value, final long ttl, final TimeUnit timeunit) {
+        final Data keyData = toData(key);
+        final Data valueData = toData(value);
+        invalidateNearCache(keyData);
+        MapSetRequest request = new MapSetRequest(name, keyData, valueData, ThreadUtil.getThreadId(),
+                getTimeInMillis(ttl, timeunit));
+        return invokeAsync(request, keyData, true);
+    }
+
+    @Override
+    public ICompletableFuture<V> putIfAbsentAsync(final K key, final V value) {
+        final Data keyData = toData(key);
+        final Data valueData = toData(value);
+        invalidateNearCache(keyData);
+        MapPutIfAbsentRequest request = new MapPutIfAbsentRequest(name, keyData, valueData, ThreadUtil.getThreadId(), -1);
+        return invokeAsync(request, keyData, false);
+    }
+
+    @Override
+    public ICompletableFuture<V> replaceAsync(final K key, final V value) {
+        final Data keyData = toData(key);
+        final Data valueData = toData(value);
+        invalidateNearCache(keyData);
+        MapReplaceRequest request = new MapReplaceRequest(name, keyData, valueData, ThreadUtil.getThreadId());
+        return invokeAsync(request, keyData, false);
+    }
+
+    @Override
+    public ICompletableFuture<Boolean> replaceAsync(final K key, final V oldValue, final V newValue) {
+        final Data keyData = toData(key);
+        final Data oldValueData = toData(oldValue);
+        final Data newValueData = toData(newValue);
+        invalidateNearCache(keyData);
+        MapReplaceIfSameRequest request = new MapReplaceIfSameRequest(name, keyData, oldValueData, newValueData,
+                ThreadUtil.getThreadId());
+        return invokeAsync(request, keyData, false);
+    }
+
+    @Override
+    public ICompletableFuture<Boolean> containsKeyAsync(final K key) {
+        initNearCache();
+        final Data keyData = toData(key);
+        if (nearCache != null) {
+            Object cached = nearCache.get(keyData);
+            if (cached != null) {
+                return new CompletedFuture<Boolean>(getContext().getSerializationService(),
+                        !ClientNearCache.NULL_OBJECT.equals(cached), getContext().getExecutionService().getAsyncExecutor());
+            }
+        }
+        return invokeAsync(new MapContainsKeyRequest(name, keyData), keyData, false);
+    }
+
+    // the void operations complete with null instead of the response of the member
+    private <T> ICompletableFuture<T> invokeAsync(ClientRequest request, Data keyData, boolean discardResponse) {
+        try {
+            final ICompletableFuture future = getContext().getInvocationService().invokeOnKeyOwner(request, keyData);
+            if (discardResponse) {
+                return new DelegatingFuture<T>(future, getContext().getSerializationService(), null);
+            }
+            return new DelegatingFuture<T>(future, getContext().getSerializationService());
+        } catch (Exception e) {
+            throw ExceptionUtil.rethrow(e);
+        }
+    }
+
     @Override
     public boolean tryRemove(K key, long timeout, TimeUnit timeunit) {
         final Data keyData = toData(key);
@@ -502,29 +607,73 @@ public final class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V
     @Override
     public Map<K, V> getAll(Set<K> keys) {
         initNearCache();
-        Set<Data> keySet = new HashSet(keys.size());
+        Set<Data> keySet = toDataKeys(keys);
         Map<K, V> result = new HashMap<K, V>();
-        for (Object key : keys) {
-            keySet.add(toData(key));
+        getAllFromNearCache(keySet, result);
+        if (keySet.isEmpty()) {
+            return result;
         }
-        if (nearCache != null) {
-            final Iterator<Data> iterator = keySet.iterator();
-            while (iterator.hasNext()) {
-                Data key = iterator.next();
-                Object cached = nearCache.get(key);
-                if (cached != null && !ClientNearCache.NULL_OBJECT.equals(cached)) {
-                    result.put((K) toObject(key), (V) cached);
-                    iterator.remove();
+        final List<MapGetAllRequest> requests = new ArrayList<MapGetAllRequest>();
+        final List<Address> targets = new ArrayList<Address>();
+        for (Entry<Address, Set<Data>> entry : groupKeys(keySet).entrySet()) {
+            requests.add(new MapGetAllRequest(name, entry.getValue()));
+            targets.add(entry.getKey());
+        }
+        for (Object response : invokeAll(requests, targets)) {
+            putAllResponse((MapEntrySet) response, result);
+        }
+        return result;
+    }
+
+    @Override
+    public ICompletableFuture<Map<K, V>> getAllAsync(final Set<K> keys) {
+        initNearCache();
+        final Set<Data> keySet = toDataKeys(keys);
+        final Map<K, V> entries = new HashMap<K, V>();
+        getAllFromNearCache(keySet, entries);
+        final List<ICompletableFuture> futures = new ArrayList<ICompletableFuture>();
+        if (!keySet.isEmpty()) {
+            for (Entry<Address, Set<Data>> entry : groupKeys(keySet).entrySet()) {
+                futures.add(invokeOn(new MapGetAllRequest(name, entry.getValue()), entry.getKey()));
+            }
+        }
+        return new ReducingFuture<Map<K, V>>(futures, getContext().getExecutionService().getAsyncExecutor(), LOGGER) {
+            @Override
+            protected Map<K, V> reduce(List<Object> responses) {
+                for (Object response : responses) {
+                    putAllResponse((MapEntrySet) toObject(response), entries);
                 }
+                return entries;
             }
+        };
+    }
+
+    private Set<Data> toDataKeys(Set<K> keys) {
+        final Set<Data> keySet = new HashSet<Data>(keys.size());
+        for (Object key : keys) {
+            keySet.add(toData(key));
         }
-        if (keys.isEmpty()) {
-            return result;
+        return keySet;
+    }
+
+    // moves the values of the keys found in the near cache to the result, removing the keys from the set
+    private void getAllFromNearCache(Set<Data> keys, Map<K, V> result) {
+        if (nearCache == null) {
+            return;
         }
-        MapGetAllRequest request = new MapGetAllRequest(name, keySet);
-        MapEntrySet mapEntrySet = invoke(request);
-        Set<Entry<Data, Data>> entrySet = mapEntrySet.getEntrySet();
-        for (Entry<Data, Data> dataEntry : entrySet) {
+        final Iterator<Data> iterator = keys.iterator();
+        while (iterator.hasNext()) {
+            Data key = iterator.next();
+            Object cached = nearCache.get(key);
+            if (cached != null && !ClientNearCache.NULL_OBJECT.equals(cached)) {
+                result.put((K) toObject(key), (V) cached);
+                iterator.remove();
+            }
+        }
+    }
+
+    private void putAllResponse(MapEntrySet entrySet, Map<K, V> result) {
+        for (Entry<Data, Data> dataEntry : entrySet.getEntrySet()) {
             final V value = (V) toObject(dataEntry.getValue());
             final K key = (K) toObject(dataEntry.getKey());
             result.put(key, value);
@@ -532,7 +681,73 @@ public final class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V
                 nearCache.put(dataEntry.getKey(), value);
             }
         }
-        return result;
+    }
+
+    private boolean isSmartRouting() {
+        return getContext().getClientConfig().getNetworkConfig().isSmartRouting();
+    }
+
+    // with smart routing the keys are sent to their owners, otherwise all of them to the connected member;
+    // keys grouped under null, which includes those of partitions without a known owner, are sent to any member
+    private Map<Address, Set<Data>> groupKeys(Set<Data> keys) {
+        if (keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        if (!isSmartRouting()) {
+            return Collections.singletonMap(null, keys);
+        }
+        final ClientPartitionService partitionService = getContext().getPartitionService();
+        final Map<Address, Set<Data>> keysByOwner = new HashMap<Address, Set<Data>>();
+        for (Data key : keys) {
+            final Address owner = partitionService.getPartitionOwner(partitionService.getPartitionId(key));
+            Set<Data> ownerKeys = keysByOwner.get(owner);
+            if (ownerKeys == null) {
+                ownerKeys = new HashSet<Data>();
+                keysByOwner.put(owner, ownerKeys);
+            }
+            ownerKeys.add(key);
+        }
+        return keysByOwner;
+    }
+
+    // groups the entries by the targets of their keys like groupKeys
+    private Map<Address, MapEntrySet> groupEntries(Map<Data, Data> entries) {
+        final Map<Address, MapEntrySet> entriesByOwner = new HashMap<Address, MapEntrySet>();
+        for (Entry<Address, Set<Data>> group : groupKeys(entries.keySet()).entrySet()) {
+            final MapEntrySet entrySet = new MapEntrySet();
+            for (Data key : group.getValue()) {
+                entrySet.add(key, entries.get(key));
+            }
+            entriesByOwner.put(group.getKey(), entrySet);
+        }
+        return entriesByOwner;
+    }
+
+    // sends the requests to their targets in parallel, a null target meaning any member, and waits for all responses
+    private List<Object> invokeAll(List<? extends ClientRequest> requests, List<Address> targets) {
+        try {
+            final List<Future> futures = new ArrayList<Future>(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                futures.add(invokeOn(requests.get(i), targets.get(i)));
+            }
+            final List<Object> responses = new ArrayList<Object>(futures.size());
+            for (Future future : futures) {
+                responses.add(toObject(future.get()));
+            }
+            return responses;
+        } catch (Exception e) {
+            throw ExceptionUtil.rethrow(e);
+        }
+    }
+
+    private ICompletableFuture invokeOn(ClientRequest request, Address target) {
+        try {
+            return target == null
+                    ? getContext().getInvocationService().invokeOnRandomTarget(request)
+                    : getContext().getInvocationService().invokeOnTarget(request, target);
+        } catch (Exception e) {
+            throw ExceptionUtil.rethrow(e);
+        }
     }
 
     @Override
@@ -703,10 +918,92 @@ public final class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V
 
     @Override
     public void addIndex(String attribute, boolean ordered) {
-        MapAddIndexRequest request = new MapAddIndexRequest(name, attribute, ordered);
+        addIndex(attribute, ordered, false);
+    }
+
+    @Override
+    public void addIndex(String attribute, boolean ordered, boolean bitmap) {
+        MapAddIndexRequest request = new MapAddIndexRequest(name, attribute, ordered, bitmap);
         invoke(request);
     }
 
+    @Override
+    public Collection<QueryPlan> explain(Predicate predicate) {
+        MapExplainRequest request = new MapExplainRequest(name, predicate);
+        SerializableCollection result = invoke(request);
+        List<QueryPlan> plans = new ArrayList<QueryPlan>(result.getCollection().size());
+        for (Data data : result) {
+            plans.add((QueryPlan) toObject(data));
+        }
+        return plans;
+    }
+
+    @Override
+    public <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator) {
+        return aggregate(aggregator, null);
+    }
+
+    @Override
+    public <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator, Predicate predicate) {
+        if (aggregator == null) {
+            throw new NullPointerException("Aggregator should not be null!");
+        }
+        MapAggregateRequest request = new MapAggregateRequest(name, aggregator, predicate);
+        return invoke(request);
+    }
+
+    @Override
+    public <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection) {
+        return project(projection, null);
+    }
+
+    @Override
+    public <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection, Predicate predicate) {
+        if (projection == null) {
+            throw new NullPointerException("Projection should not be null!");
+        }
+        ProjectionAggregator<Map.Entry<K, V>, R> aggregator = new ProjectionAggregator<Map.Entry<K, V>, R>(projection);
+        MapAggregateRequest request = new MapAggregateRequest(name, aggregator, predicate);
+        return invoke(request);
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> queryIterator(Predicate predicate, int fetchSize) {
+        final ClientPartitionService partitionService = getContext().getPartitionService();
+        return new QueryPageIterator<K, V>(getContext().getSerializationService(), partitionService.getPartitionCount(),
+                predicate, fetchSize) {
+            @Override
+            protected QueryCursorPage fetch(Predicate predicate, int partitionId, String cursorId, int page, int fetchSize) {
+                final MapQueryPageRequest request = new MapQueryPageRequest(name, predicate, partitionId, cursorId,
+                        page, fetchSize);
+                // the member forwards the request to the owner if the partition table of the client is outdated
+                final Address owner = isSmartRouting() ? partitionService.getPartitionOwner(partitionId) : null;
+                try {
+                    return toObject(invokeOn(request, owner).get());
+                } catch (Exception e) {
+                    throw ExceptionUtil.rethrow(e);
+                }
+            }
+        };
+    }
+
+    @Override
+    public QueryCache<K, V> getQueryCache(String name, Predicate predicate) {
+        QueryCacheImpl.checkPredicate(predicate);
+        synchronized (queryCaches) {
+            QueryCacheImpl<K, V> queryCache = queryCaches.get(name);
+            if (queryCache == null) {
+                queryCache = new QueryCacheImpl<K, V>(name, this, predicate, getContext().getSerializationService(),
+                        queryCaches);
+                MapAddQueryCacheListenerRequest request = new MapAddQueryCacheListenerRequest(this.name, predicate);
+                String registrationId = listen(request, null, createHandler(queryCache, true));
+                queryCache.load(registrationId);
+                queryCaches.put(name, queryCache);
+            }
+            return queryCache;
+        }
+    }
+
     @Override
     public LocalMapStats getLocalMapStats() {
         initNearCache();
@@ -735,7 +1032,7 @@ public final class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V
         }
     }
 
-    public Future submitToKey(K key, EntryProcessor entryProcessor) {
+    public ICompletableFuture submitToKey(K key, EntryProcessor entryProcessor) {
         final Data keyData = toData(key);
         final MapExecuteOnKeyRequest request = new MapExecuteOnKeyRequest(name, entryProcessor, keyData);
         try {
@@ -794,6 +1091,34 @@ public final class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V
 
     }
 
+    @Override
+    public ICompletableFuture<Map<K, Object>> executeOnKeysAsync(Set<K> keys, EntryProcessor entryProcessor) {
+        Set<Data> dataKeys = new HashSet<Data>(keys.size());
+        for (K key : keys) {
+            final Data keyData = toData(key);
+            invalidateNearCache(keyData);
+            dataKeys.add(keyData);
+        }
+        final List<ICompletableFuture> futures = new ArrayList<ICompletableFuture>();
+        for (Entry<Address, Set<Data>> entry : groupKeys(dataKeys).entrySet()) {
+            futures.add(invokeOn(new MapExecuteOnKeysRequest(name, entryProcessor, entry.getValue()), entry.getKey()));
+        }
+        return new ReducingFuture<Map<K, Object>>(futures, getContext().getExecutionService().getAsyncExecutor(), LOGGER) {
+            @Override
+            protected Map<K, Object> reduce(List<Object> responses) {
+                Map<K, Object> result = new HashMap<K, Object>();
+                for (Object response : responses) {
+                    MapEntrySet entrySet = (MapEntrySet) toObject(response);
+                    for (Entry<Data, Data> dataEntry : entrySet.getEntrySet()) {
+                        K key = toObject(dataEntry.getKey());
+                        result.put(key, toObject(dataEntry.getValue()));
+                    }
+                }
+                return result;
+            }
+        };
+    }
+
     @Override
     public void set(K key, V value) {
         set(key, value, -1, null);
@@ -813,14 +1138,140 @@ public final class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V
 
     @Override
     public void putAll(Map<? extends K, ? extends V> m) {
-        MapEntrySet entrySet = new MapEntrySet();
+        final Map<Address, MapEntrySet> entriesByOwner = groupEntries(toDataEntries(m));
+        if (entriesByOwner.isEmpty()) {
+            return;
+        }
+        try {
+            invokePutAll(entriesByOwner, 0).get();
+        } catch (Exception e) {
+            throw ExceptionUtil.rethrow(e);
+        }
+    }
+
+    @Override
+    public ICompletableFuture<Void> putAllAsync(Map<? extends K, ? extends V> m) {
+        return invokePutAll(groupEntries(toDataEntries(m)), 0);
+    }
+
+    // sends a MapPutAllRequest per target in parallel, the entries of a failed target are sent again to their new owners
+    private ICompletableFuture<Void> invokePutAll(Map<Address, MapEntrySet> entriesByOwner, int attempt) {
+        final List<ICompletableFuture> futures = new ArrayList<ICompletableFuture>(entriesByOwner.size());
+        for (Entry<Address, MapEntrySet> entry : entriesByOwner.entrySet()) {
+            futures.add(new PutAllFuture(entry.getValue(), entry.getKey(), attempt));
+        }
+        return new ReducingFuture<Void>(futures, getContext().getExecutionService().getAsyncExecutor(), LOGGER) {
+            @Override
+            protected Void reduce(List<Object> responses) {
+                return null;
+            }
+        };
+    }
+
+    private static boolean isTargetFailure(Throwable t) {
+        final Throwable cause = t instanceof ExecutionException && t.getCause() != null ? t.getCause() : t;
+        return cause instanceof TargetDisconnectedException || cause instanceof TargetNotMemberException
+                || cause instanceof HazelcastInstanceNotActiveException;
+    }
+
+    /**
+     * The result of the MapPutAllRequest of a target. MapPutAllRequest is not a RetryableRequest, so when the
+     * target fails, the entries are regrouped by the owners of their partitions and sent again after a delay,
+     * which lets the partition table catch up with the member that left. Putting the same entries twice is harmless.
+     */
+    private final class PutAllFuture extends AbstractCompletableFuture<Object> {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final MapEntrySet entrySet;
+        private final int attempt;
+
+        private PutAllFuture(MapEntrySet entrySet, Address target, int attempt) {
+            super(null, LOGGER);
+            this.entrySet = entrySet;
+            this.attempt = attempt;
+            invokeOn(new MapPutAllRequest(name, entrySet), target).andThen(new ExecutionCallback<Object>() {
+                public void onResponse(Object response) {
+                    setResult(null);
+                }
+
+                public void onFailure(Throwable t) {
+                    if (attempt < PUT_ALL_RETRY_COUNT && isTargetFailure(t)) {
+                        getContext().getExecutionService().schedule(new Runnable() {
+                            public void run() {
+                                retry();
+                            }
+                        }, PUT_ALL_RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                    } else {
+                        setResult(t);
+                    }
+                }
+            }, getAsyncExecutor());
+        }
+
+        private void retry() {
+            final Map<Data, Data> entries = new HashMap<Data, Data>();
+            for (Entry<Data, Data> entry : entrySet.getEntrySet()) {
+                entries.put(entry.getKey(), entry.getValue());
+            }
+            try {
+                invokePutAll(groupEntries(entries), attempt + 1).andThen(new ExecutionCallback<Void>() {
+                    public void onResponse(Void response) {
+                        setResult(null);
+                    }
+
+                    public void onFailure(Throwable t) {
+                        setResult(t);
+                    }
+                });
+            } catch (Throwable t) {
+                setResult(t);
+            }
+        }
+
+        @Override
+        public void setResult(Object result) {
+            super.setResult(result);
+            latch.countDown();
+        }
+
+        @Override
+        public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            if (!latch.await(timeout, unit)) {
+                throw new TimeoutException("Timeout reached while putting " + entrySet.getEntrySet().size() + " entries");
+            }
+            final Object result = this.result;
+            if (result instanceof Throwable) {
+                throw result instanceof ExecutionException
+                        ? (ExecutionException) result : new ExecutionException((Throwable) result);
+            }
+            return result;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        protected ExecutorService getAsyncExecutor() {
+            return getContext().getExecutionService().getAsyncExecutor();
+        }
+    }
+
+    // serializes the entries and invalidates the near cache entries of their keys
+    private Map<Data, Data> toDataEntries(Map<? extends K, ? extends V> m) {
+        final Map<Data, Data> entries = new HashMap<Data, Data>(m.size());
         for (Entry<? extends K, ? extends V> entry : m.entrySet()) {
             final Data keyData = toData(entry.getKey());
             invalidateNearCache(keyData);
-            entrySet.add(new AbstractMap.SimpleImmutableEntry<Data, Data>(keyData, toData(entry.getValue())));
+            entries.put(keyData, toData(entry.getValue()));
         }
-        MapPutAllRequest request = new MapPutAllRequest(name, entrySet);
-        invoke(request);
+        return entries;
     }
 
     @Override
@@ -842,6 +1293,9 @@ public final class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V
 
     @Override
     protected void onShutdown() {
+        if (nearCache != null) {
+            nearCache.storeKeys();
+        }
         destroyNearCache();
     }
 
@@ -896,6 +1350,7 @@ public final class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V
             }
             ClientNearCache<Data> _nearCache = new ClientNearCache<Data>(
                     name, ClientNearCacheType.Map, getContext(), nearCacheConfig);
+            _nearCache.preload();
             nearCache = _nearCache;
         }
     }
@@ -25,9 +25,7 @@ import com.hazelcast.client.spi.EventHandler;
 import com.hazelcast.core.ICompletableFuture;
 import com.hazelcast.nio.Address;
 import com.hazelcast.nio.serialization.Data;
-import com.hazelcast.nio.serialization.DataAdapter;
 import com.hazelcast.nio.serialization.SerializationService;
-import com.hazelcast.spi.exception.TargetNotMemberException;
 
 import java.util.Collections;
 import java.util.Iterator;
@@ -171,12 +169,7 @@ public final class ClientInvocationServiceImpl implements ClientInvocationServic
         future.setConnection(connection);
         final SerializationService ss = client.getSerializationService();
         final Data data = ss.toData(future.getRequest());
-        if (!connection.write(new DataAdapter(data))) {
-            final int callId = future.getRequest().getCallId();
-            connection.deRegisterCallId(callId);
-            connection.deRegisterEventHandler(callId);
-            future.notify(new TargetNotMemberException("Address : " + connection.getRemoteEndpoint()));
-        }
+        connection.send(future, data);
     }
 
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.client.spi.impl;
+
+import com.hazelcast.client.GetSchemaRequest;
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.PutSchemaRequest;
+import com.hazelcast.nio.serialization.Schema;
+import com.hazelcast.nio.serialization.SchemaReplicator;
+import com.hazelcast.util.ExceptionUtil;
+
+import java.util.concurrent.Future;
+
+/**
+ * Publishes the schemas of compact serializable classes derived on the client to the cluster, synchronously so
+ * the schema is known before the first value reaches a member, and looks up schemas of values read on the client.
+ */
+public final class ClientSchemaReplicator implements SchemaReplicator {
+
+    private final HazelcastClient client;
+
+    public ClientSchemaReplicator(HazelcastClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public void publish(Schema schema) {
+        try {
+            final Future future = client.getInvocationService().invokeOnRandomTarget(new PutSchemaRequest(schema));
+            future.get();
+        } catch (Exception e) {
+            throw ExceptionUtil.rethrow(e);
+        }
+    }
+
+    @Override
+    public Schema fetch(long fingerprint) {
+        try {
+            final Future future = client.getInvocationService().invokeOnRandomTarget(new GetSchemaRequest(fingerprint));
+            return client.getSerializationService().toObject(future.get());
+        } catch (Exception e) {
+            throw ExceptionUtil.rethrow(e);
+        }
+    }
+}
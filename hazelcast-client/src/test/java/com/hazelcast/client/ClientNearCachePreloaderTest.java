@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.client;
+
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.monitor.NearCacheStats;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class ClientNearCachePreloaderTest {
+
+    private static final String MAP_NAME = "preloadedMap";
+    private static final int KEY_COUNT = 1000;
+
+    private File directory;
+
+    @Before
+    public void setup() {
+        directory = new File(System.getProperty("java.io.tmpdir"), "nearcache-" + System.nanoTime());
+        Hazelcast.newHazelcastInstance();
+    }
+
+    @After
+    public void cleanup() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testKeysStoredOnShutdownArePreloaded() {
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(newClientConfig());
+        IMap<Integer, String> map = client.getMap(MAP_NAME);
+        for (int i = 0; i < KEY_COUNT; i++) {
+            map.put(i, "value" + i);
+        }
+        // only half of the keys are hot
+        for (int i = 0; i < KEY_COUNT / 2; i++) {
+            map.get(i);
+        }
+        client.shutdown();
+        assertTrue(new File(directory, "nearcache-" + MAP_NAME + ".keys").exists());
+
+        client = HazelcastClient.newHazelcastClient(newClientConfig());
+        map = client.getMap(MAP_NAME);
+        NearCacheStats stats = map.getLocalMapStats().getNearCacheStats();
+        assertEquals(KEY_COUNT / 2, stats.getPreloadedEntryCount());
+        assertEquals(KEY_COUNT / 2, stats.getOwnedEntryCount());
+        assertTrue(stats.getPreloadDuration() >= 0);
+
+        for (int i = 0; i < KEY_COUNT / 2; i++) {
+            assertEquals("value" + i, map.get(i));
+        }
+        stats = map.getLocalMapStats().getNearCacheStats();
+        assertEquals(KEY_COUNT / 2, stats.getHits());
+        assertEquals(0, stats.getMisses());
+    }
+
+    @Test
+    public void testMissingKeyFileIsIgnored() {
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(newClientConfig());
+        IMap<Integer, String> map = client.getMap(MAP_NAME);
+        map.put(1, "value");
+
+        NearCacheStats stats = map.getLocalMapStats().getNearCacheStats();
+        assertEquals(0, stats.getPreloadedEntryCount());
+        assertEquals("value", map.get(1));
+    }
+
+    @Test
+    public void testCorruptKeyFileIsIgnored() throws Exception {
+        assertTrue(directory.mkdirs());
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(new File(directory, "nearcache-" + MAP_NAME + ".keys")));
+        try {
+            // the magic number followed by a key count the file cannot hold
+            out.writeInt(0x4E435031);
+            out.writeInt(Integer.MAX_VALUE);
+            out.writeInt(0);
+        } finally {
+            out.close();
+        }
+
+        HazelcastInstance client = HazelcastClient.newHazelcastClient(newClientConfig());
+        IMap<Integer, String> map = client.getMap(MAP_NAME);
+        map.put(1, "value");
+
+        NearCacheStats stats = map.getLocalMapStats().getNearCacheStats();
+        assertEquals(0, stats.getPreloadedEntryCount());
+        assertEquals("value", map.get(1));
+    }
+
+    private ClientConfig newClientConfig() {
+        NearCacheConfig nearCacheConfig = new NearCacheConfig();
+        nearCacheConfig.setName(MAP_NAME);
+        nearCacheConfig.setInvalidateOnChange(false);
+        nearCacheConfig.getPreloaderConfig()
+                .setEnabled(true)
+                .setDirectory(directory.getAbsolutePath())
+                .setBatchSize(100);
+        ClientConfig clientConfig = new ClientConfig();
+        clientConfig.addNearCacheConfig(nearCacheConfig);
+        return clientConfig;
+    }
+}
@@ -344,16 +344,10 @@ public class ClientNearCacheTest {
             map.get(i);
         }
 
-        final int evictionSize = (int) (MAX_CACHE_SIZE * (ClientNearCache.EVICTION_PERCENTAGE / 100.0));
-        final int remainingSize = MAX_CACHE_SIZE - evictionSize;
-
-        HazelcastTestSupport.assertTrueEventually(new AssertTask() {
-            @Override
-            public void run() throws Exception {
-                final NearCacheStats stats = map.getLocalMapStats().getNearCacheStats();
-                assertEquals(remainingSize, stats.getOwnedEntryCount());
-            }
-        });
+        // a full near cache evicts just enough entries to make room
+        final NearCacheStats stats = map.getLocalMapStats().getNearCacheStats();
+        assertEquals(MAX_CACHE_SIZE, stats.getOwnedEntryCount());
+        assertEquals(1, stats.getEvictions());
     }
 
     @Test
@@ -416,11 +410,15 @@ public class ClientNearCacheTest {
         final String mapName = randomMapName(NEAR_CACHE_WITH_INVALIDATION);
         final IMap nodeMap = h1.getMap(mapName);
         final IMap clientMap = client.getMap(mapName);
+        //creates the near cache, which starts listening for invalidations
+        clientMap.getLocalMapStats();
 
         final int size = 118;
         for (int i = 0; i < size; i++) {
             nodeMap.put(i, i);
         }
+        //invalidations are sent in batches, wait for the ones of the puts above
+        waitForInvalidations(clientMap, size);
         //populate near cache
         for (int i = 0; i < size; i++) {
             clientMap.get(i);
@@ -440,6 +438,69 @@ public class ClientNearCacheTest {
             public void run() throws Exception {
                 NearCacheStats stats = clientMap.getLocalMapStats().getNearCacheStats();
                 assertEquals(0, stats.getOwnedEntryCount());
+                assertEquals(2 * size, stats.getInvalidations());
+            }
+        });
+    }
+
+    @Test
+    public void testNearCacheInvalidatedOnClear() {
+        final String mapName = randomMapName(NEAR_CACHE_WITH_INVALIDATION);
+        final IMap nodeMap = h1.getMap(mapName);
+        final IMap clientMap = client.getMap(mapName);
+        //creates the near cache, which starts listening for invalidations
+        clientMap.getLocalMapStats();
+
+        final int size = 118;
+        for (int i = 0; i < size; i++) {
+            nodeMap.put(i, i);
+        }
+        //invalidations are sent in batches, wait for the ones of the puts above
+        waitForInvalidations(clientMap, size);
+        //populate near cache
+        for (int i = 0; i < size; i++) {
+            clientMap.get(i);
+        }
+        assertEquals(size, clientMap.getLocalMapStats().getNearCacheStats().getOwnedEntryCount());
+
+        //clear announces new sequences for all partitions, dropping their entries
+        nodeMap.clear();
+
+        assertTrueEventually(new AssertTask() {
+            public void run() throws Exception {
+                NearCacheStats stats = clientMap.getLocalMapStats().getNearCacheStats();
+                assertEquals(0, stats.getOwnedEntryCount());
+                assertTrue(stats.getRepairs() > 0);
+            }
+        });
+        for (int i = 0; i < size; i++) {
+            assertNull(clientMap.get(i));
+        }
+    }
+
+    @Test
+    public void testNearCacheInvalidatedWhenRegisteredAfterWrites() {
+        final String mapName = randomMapName(NEAR_CACHE_WITH_INVALIDATION);
+        final IMap nodeMap = h1.getMap(mapName);
+        //the member looks up the listeners of the map before the near cache registers
+        nodeMap.put(1, 1);
+        final IMap clientMap = client.getMap(mapName);
+        assertEquals(1, clientMap.get(1));
+
+        //the member may not see the listener yet, the partition is invalidated once it does
+        nodeMap.put(1, 2);
+
+        assertTrueEventually(new AssertTask() {
+            public void run() throws Exception {
+                assertEquals(2, clientMap.get(1));
+            }
+        });
+    }
+
+    private static void waitForInvalidations(final IMap clientMap, final long count) {
+        assertTrueEventually(new AssertTask() {
+            public void run() throws Exception {
+                assertEquals(count, clientMap.getLocalMapStats().getNearCacheStats().getInvalidations());
             }
         });
     }
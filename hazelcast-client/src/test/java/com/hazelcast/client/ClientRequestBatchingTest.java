@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.client;
+
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class ClientRequestBatchingTest {
+
+    private static final int COUNT = 2000;
+
+    @Before
+    public void init() {
+        Hazelcast.newHazelcastInstance();
+    }
+
+    @After
+    public void destroy() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testAsyncRequestsWithoutDelay() throws Exception {
+        testAsyncRequests(newClient(32, 0));
+    }
+
+    @Test
+    public void testAsyncRequestsWithDelay() throws Exception {
+        testAsyncRequests(newClient(32, 200));
+    }
+
+    private HazelcastInstance newClient(int batchSize, int delayMicros) {
+        ClientConfig config = new ClientConfig();
+        config.getNetworkConfig().setRequestBatchSize(batchSize).setRequestBatchDelayMicros(delayMicros);
+        return HazelcastClient.newHazelcastClient(config);
+    }
+
+    private void testAsyncRequests(HazelcastInstance client) throws Exception {
+        IMap<Integer, Integer> map = client.getMap("batched");
+        List<Future> puts = new ArrayList<Future>(COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            puts.add(map.putAsync(i, i * 2));
+        }
+        for (Future put : puts) {
+            put.get();
+        }
+        List<Future<Integer>> gets = new ArrayList<Future<Integer>>(COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            gets.add(map.getAsync(i));
+        }
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals(i * 2, (int) gets.get(i).get());
+        }
+        // synchronous requests are sent in batches of one
+        assertEquals(COUNT, map.size());
+        assertEquals(42, (int) map.get(21));
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.hazelcast.client.config;
 
+import com.hazelcast.config.NearCachePreloaderConfig;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import com.hazelcast.test.annotation.QuickTest;
 import org.junit.Assert;
@@ -43,6 +44,24 @@ public class XmlClientConfigBuilderTest {
         Assert.assertEquals(18, clientConfig.getExecutorPoolSize());
     }
 
+    @Test
+    public void readNearCachePreloader() {
+        String xml =
+                "<hazelcast-client>\n" +
+                        "<near-cache name=\"default\">" +
+                        "<preloader enabled=\"true\" directory=\"/tmp/nearcache\" store-initial-delay-seconds=\"30\"" +
+                        " store-interval-seconds=\"60\" batch-size=\"500\"/>" +
+                        "</near-cache>" +
+                        "</hazelcast-client>";
+        final ClientConfig clientConfig = buildConfig(xml);
+        final NearCachePreloaderConfig preloaderConfig = clientConfig.getNearCacheConfig("default").getPreloaderConfig();
+        Assert.assertTrue(preloaderConfig.isEnabled());
+        Assert.assertEquals("/tmp/nearcache", preloaderConfig.getDirectory());
+        Assert.assertEquals(30, preloaderConfig.getStoreInitialDelaySeconds());
+        Assert.assertEquals(60, preloaderConfig.getStoreIntervalSeconds());
+        Assert.assertEquals(500, preloaderConfig.getBatchSize());
+    }
+
     private ClientConfig buildConfig(String xml) {
         ByteArrayInputStream bis = new ByteArrayInputStream(xml.getBytes());
         XmlClientConfigBuilder configBuilder = new XmlClientConfigBuilder(bis);
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.client.connection.nio;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(QuickTest.class)
+public class CallIdTableTest {
+
+    @Test
+    public void testSlotsAndOverflow() {
+        CallIdTable<Object> table = new CallIdTable<Object>();
+        Object[] calls = new Object[10000];
+        for (int callId = 0; callId < calls.length; callId++) {
+            calls[callId] = new Object();
+            table.put(callId, calls[callId]);
+        }
+        // ids mapping to the same slot as an earlier id are kept in the overflow map
+        assertSame(calls[9000], table.remove(9000));
+        assertSame(calls[1], table.remove(1));
+        assertNull(table.remove(1));
+        assertNull(table.remove(20000));
+
+        Map<Integer, Object> remaining = table.removeAll();
+        assertEquals(calls.length - 2, remaining.size());
+        assertSame(calls[5000], remaining.get(5000));
+        assertEquals(0, table.removeAll().size());
+    }
+}
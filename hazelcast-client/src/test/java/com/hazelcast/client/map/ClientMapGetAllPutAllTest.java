@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.client.map;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.MapStoreAdapter;
+import com.hazelcast.core.Member;
+import com.hazelcast.core.Partition;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.test.HazelcastTestSupport.assertTrueEventually;
+import static com.hazelcast.test.HazelcastTestSupport.randomString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class ClientMapGetAllPutAllTest {
+
+    private static final int ENTRY_COUNT = 10000;
+
+    private static HazelcastInstance[] members;
+    private static HazelcastInstance smartClient;
+    private static HazelcastInstance dummyClient;
+
+    @BeforeClass
+    public static void init() {
+        members = new HazelcastInstance[]{
+                Hazelcast.newHazelcastInstance(),
+                Hazelcast.newHazelcastInstance(),
+                Hazelcast.newHazelcastInstance(),
+        };
+        smartClient = HazelcastClient.newHazelcastClient();
+        ClientConfig dummyConfig = new ClientConfig();
+        dummyConfig.getNetworkConfig().setSmartRouting(false);
+        dummyClient = HazelcastClient.newHazelcastClient(dummyConfig);
+    }
+
+    @AfterClass
+    public static void destroy() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testGetAllPutAll_withSmartRouting() {
+        testGetAllPutAll(smartClient);
+    }
+
+    @Test
+    public void testGetAllPutAll_withoutSmartRouting() {
+        testGetAllPutAll(dummyClient);
+    }
+
+    @Test
+    public void testGetAllPutAll_whenEmpty() {
+        IMap<Integer, Integer> map = smartClient.getMap(randomString());
+        map.putAll(new HashMap<Integer, Integer>());
+        assertEquals(0, map.size());
+        assertEquals(0, map.getAll(new HashSet<Integer>()).size());
+    }
+
+    @Test
+    public void testPutAll_whenMemberLeaves() throws Exception {
+        // the leaving member blocks in its map store, so it leaves while the putAll request sent to it is running
+        final CountDownLatch storeStarted = new CountDownLatch(1);
+        final CountDownLatch storeReleased = new CountDownLatch(1);
+        Config config = new Config();
+        config.getMapConfig("leaving*").setMapStoreConfig(new MapStoreConfig().setEnabled(true)
+                .setImplementation(new MapStoreAdapter<Integer, String>() {
+                    @Override
+                    public void store(Integer key, String value) {
+                        storeStarted.countDown();
+                        try {
+                            storeReleased.await(30, TimeUnit.SECONDS);
+                        } catch (InterruptedException ignored) {
+                        }
+                    }
+                }));
+        final HazelcastInstance leavingMember = Hazelcast.newHazelcastInstance(config);
+        final Member leaving = leavingMember.getCluster().getLocalMember();
+        assertTrueEventually(new AssertTask() {
+            public void run() {
+                boolean ownsPartition = false;
+                for (Partition partition : smartClient.getPartitionService().getPartitions()) {
+                    ownsPartition |= leaving.equals(partition.getOwner());
+                }
+                assertTrue(ownsPartition);
+            }
+        });
+
+        new Thread() {
+            public void run() {
+                try {
+                    storeStarted.await();
+                } catch (InterruptedException ignored) {
+                }
+                leavingMember.getLifecycleService().terminate();
+                storeReleased.countDown();
+            }
+        }.start();
+        IMap<Integer, String> map = smartClient.getMap("leaving" + randomString());
+        Map<Integer, String> entries = new HashMap<Integer, String>();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            entries.put(i, "value" + i);
+        }
+        map.putAll(entries);
+
+        assertEquals(ENTRY_COUNT, map.size());
+        assertEquals(entries, map.getAll(entries.keySet()));
+    }
+
+    private void testGetAllPutAll(HazelcastInstance client) {
+        String name = randomString();
+        IMap<Integer, String> map = client.getMap(name);
+        Map<Integer, String> entries = new HashMap<Integer, String>();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            entries.put(i, "value" + i);
+        }
+        map.putAll(entries);
+
+        assertEquals(ENTRY_COUNT, map.size());
+        long ownedEntryCount = 0;
+        for (HazelcastInstance member : members) {
+            long memberEntryCount = member.getMap(name).getLocalMapStats().getOwnedEntryCount();
+            assertFalse(memberEntryCount == 0);
+            ownedEntryCount += memberEntryCount;
+        }
+        assertEquals(ENTRY_COUNT, ownedEntryCount);
+
+        Set<Integer> keys = new HashSet<Integer>(entries.keySet());
+        keys.add(-1);
+        Map<Integer, String> result = map.getAll(keys);
+        assertEquals(entries, result);
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.hazelcast.client.map;
 
+import com.hazelcast.aggregation.Aggregators;
 import com.hazelcast.client.AuthenticationRequest;
 import com.hazelcast.client.HazelcastClient;
 import com.hazelcast.config.Config;
@@ -29,13 +30,18 @@ import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
 import com.hazelcast.core.MapStoreAdapter;
 import com.hazelcast.core.PartitionAware;
+import com.hazelcast.instance.TestUtil;
 import com.hazelcast.map.AbstractEntryProcessor;
+import com.hazelcast.map.MapService;
+import com.hazelcast.map.QueryCache;
 import com.hazelcast.monitor.LocalMapStats;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.DataSerializable;
+import com.hazelcast.projection.Projections;
 import com.hazelcast.query.SqlPredicate;
 import com.hazelcast.security.UsernamePasswordCredentials;
+import com.hazelcast.test.AssertTask;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import com.hazelcast.test.annotation.QuickTest;
 import org.junit.AfterClass;
@@ -49,14 +55,17 @@ import java.io.Serializable;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.hazelcast.test.HazelcastTestSupport.assertOpenEventually;
+import static com.hazelcast.test.HazelcastTestSupport.assertTrueEventually;
 import static com.hazelcast.test.HazelcastTestSupport.randomString;
 import static org.junit.Assert.*;
 
@@ -261,6 +270,147 @@ public class ClientMapTest {
         assertEquals(9, map.size());
     }
 
+    @Test
+    public void testAsyncSingleKeyOperations() throws Exception {
+        final IMap<String, String> map = createMap();
+        assertNull(map.setAsync("key", "value1").get());
+        assertEquals("value1", map.putIfAbsentAsync("key", "value2").get());
+        assertTrue(map.containsKeyAsync("key").get());
+        assertFalse(map.containsKeyAsync("missing").get());
+        assertEquals("value1", map.replaceAsync("key", "value2").get());
+        assertTrue(map.replaceAsync("key", "value2", "value3").get());
+        assertEquals("value3", map.get("key"));
+    }
+
+    @Test
+    public void testAsyncMultiKeyOperations() throws Exception {
+        final IMap<Integer, Integer> map = createMap();
+        final Map<Integer, Integer> entries = new HashMap<Integer, Integer>();
+        for (int i = 0; i < 100; i++) {
+            entries.put(i, i);
+        }
+        assertNull(map.putAllAsync(entries).get());
+        assertEquals(entries, map.getAllAsync(entries.keySet()).get());
+
+        final Set<Integer> keys = new HashSet<Integer>();
+        keys.add(1);
+        keys.add(4);
+        final Map<Integer, Object> resultMap = map.executeOnKeysAsync(keys, new IncrementorEntryProcessor()).get();
+        assertEquals(2, resultMap.size());
+        assertEquals(2, resultMap.get(1));
+        assertEquals(5, resultMap.get(4));
+        assertEquals(5, (int) map.get(4));
+    }
+
+    @Test
+    public void testAsyncCallbackReceivesValue() throws Exception {
+        final IMap<String, String> map = createMap();
+        fillMap(map);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Object> response = new AtomicReference<Object>();
+        map.putAsync("key1", "value").andThen(new ExecutionCallback<String>() {
+            public void onResponse(String oldValue) {
+                response.set(oldValue);
+                latch.countDown();
+            }
+
+            public void onFailure(Throwable t) {
+                response.set(t);
+                latch.countDown();
+            }
+        });
+        assertOpenEventually(latch);
+        assertEquals("value1", response.get());
+    }
+
+    @Test
+    public void testAggregate() throws Exception {
+        final IMap<Integer, Integer> map = createMap();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        final SqlPredicate predicate = new SqlPredicate("this >= 50");
+        assertEquals(100, (long) map.aggregate(Aggregators.<Integer, Integer>count()));
+        assertEquals(50, (long) map.aggregate(Aggregators.<Integer, Integer>count(), predicate));
+        assertEquals(3725, (long) map.aggregate(Aggregators.<Integer, Integer>longSum("this"), predicate));
+        assertEquals(99, (int) map.aggregate(Aggregators.<Integer, Integer, Integer>max("this")));
+        assertNull(map.aggregate(Aggregators.<Integer, Integer>average("this"), new SqlPredicate("this > 100")));
+    }
+
+    @Test
+    public void testProject() throws Exception {
+        final IMap<Integer, Integer> map = createMap();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        final Collection<Object[]> tuples = map.project(Projections.<Integer, Integer>multiAttribute("__key", "this"),
+                new SqlPredicate("this >= 90"));
+        assertEquals(10, tuples.size());
+        for (Object[] tuple : tuples) {
+            assertEquals(tuple[0], tuple[1]);
+            assertTrue((Integer) tuple[1] >= 90);
+        }
+        assertEquals(100, map.project(Projections.<Integer, Integer, Integer>singleAttribute("this")).size());
+    }
+
+    @Test
+    public void testQueryCache() throws Exception {
+        final IMap<Integer, Integer> map = createMap();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        final QueryCache<Integer, Integer> queryCache = map.getQueryCache("high", new SqlPredicate("this >= 90"));
+        queryCache.addIndex("this", true);
+        assertEquals(10, queryCache.size());
+
+        map.put(95, 5);
+        map.put(50, 150);
+        map.remove(99);
+        assertTrueEventually(new AssertTask() {
+            public void run() {
+                assertEquals(9, queryCache.size());
+                assertFalse(queryCache.containsKey(95));
+                assertFalse(queryCache.containsKey(99));
+                assertEquals(150, (int) queryCache.get(50));
+            }
+        });
+        assertEquals(2, queryCache.keySet(new SqlPredicate("this > 97")).size());
+
+        queryCache.destroy();
+        assertTrue(queryCache.isEmpty());
+    }
+
+    @Test
+    public void testAddBitmapIndex() throws Exception {
+        final IMap<Integer, Integer> map = createMap();
+        map.addIndex("this", false, true);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i % 4);
+        }
+
+        MapService mapService = TestUtil.getNode(server).nodeEngine.getService(MapService.SERVICE_NAME);
+        assertTrue(mapService.getMapContainer(map.getName()).getIndexService().addOrGetIndex("this", false).isBitmap());
+        assertEquals(25, map.values(new SqlPredicate("this = 1")).size());
+        assertEquals(50, map.keySet(new SqlPredicate("this = 1 or this = 2")).size());
+    }
+
+    @Test
+    public void testQueryIterator() throws Exception {
+        final IMap<Integer, Integer> map = createMap();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        final Set<Integer> keys = new HashSet<Integer>();
+        final Iterator<Map.Entry<Integer, Integer>> iterator = map.queryIterator(new SqlPredicate("this >= 900"), 3);
+        while (iterator.hasNext()) {
+            final Map.Entry<Integer, Integer> entry = iterator.next();
+            assertEquals(entry.getKey(), entry.getValue());
+            assertTrue(keys.add(entry.getKey()));
+        }
+        assertEquals(100, keys.size());
+        assertEquals(map.keySet(new SqlPredicate("this >= 900")), keys);
+    }
+
     @Test
     public void testTryPutRemove() throws Exception {
         final IMap map = createMap();
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation;
+
+import java.io.Serializable;
+
+/**
+ * Computes an aggregated value, like a count, a sum or a set of distinct values, from map entries.
+ * <p/>
+ * {@link com.hazelcast.core.IMap#aggregate(Aggregator, com.hazelcast.query.Predicate)} sends the aggregator to each
+ * member, accumulates the matching entries of each partition in a copy of it, combines the copies of a member
+ * and, on the caller, the copies of all members. The result is then taken from the combined aggregator.
+ * <p/>
+ * The entries accumulated on the members are {@link com.hazelcast.query.impl.QueryableEntry queryable entries},
+ * so the attributes of the value can be read the way predicates read them. {@link Aggregators} provides
+ * the common aggregations.
+ *
+ * @param <I> the type of the accumulated entries
+ * @param <R> the type of the aggregated value
+ */
+public abstract class Aggregator<I, R> implements Serializable {
+
+    /**
+     * Adds an entry to the aggregation.
+     *
+     * @param input the entry
+     */
+    public abstract void accumulate(I input);
+
+    /**
+     * Adds what another aggregator of the same type has accumulated to this aggregator.
+     *
+     * @param aggregator the other aggregator
+     */
+    public abstract void combine(Aggregator aggregator);
+
+    /**
+     * @return the aggregated value of the entries accumulated and combined.
+     */
+    public abstract R aggregate();
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation;
+
+import com.hazelcast.aggregation.impl.AverageAggregator;
+import com.hazelcast.aggregation.impl.ComparableAggregator;
+import com.hazelcast.aggregation.impl.CountAggregator;
+import com.hazelcast.aggregation.impl.DistinctValuesAggregator;
+import com.hazelcast.aggregation.impl.DoubleSumAggregator;
+import com.hazelcast.aggregation.impl.LongSumAggregator;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates the common {@link Aggregator aggregators}.
+ * <p/>
+ * The attribute path is read like predicates read attributes, e.g. <tt>age</tt>, <tt>address.city</tt> or
+ * <tt>this</tt> for the value itself. Values that are <tt>null</tt> are skipped.
+ * <pre>
+ *   long adults = map.aggregate(Aggregators.&lt;String, Employee&gt;count(), Predicates.greaterEqual("age", 18));
+ *   Double averageSalary = map.aggregate(Aggregators.&lt;String, Employee&gt;average("salary"));
+ * </pre>
+ */
+public final class Aggregators {
+
+    private Aggregators() {
+    }
+
+    /**
+     * @return an aggregator counting the entries.
+     */
+    public static <K, V> Aggregator<Map.Entry<K, V>, Long> count() {
+        return new CountAggregator<K, V>(null);
+    }
+
+    /**
+     * @return an aggregator counting the values of the attribute.
+     */
+    public static <K, V> Aggregator<Map.Entry<K, V>, Long> count(String attributePath) {
+        return new CountAggregator<K, V>(attributePath);
+    }
+
+    /**
+     * @return an aggregator summing the values of the numeric attribute as longs.
+     */
+    public static <K, V> Aggregator<Map.Entry<K, V>, Long> longSum(String attributePath) {
+        return new LongSumAggregator<K, V>(attributePath);
+    }
+
+    /**
+     * @return an aggregator summing the values of the numeric attribute as doubles.
+     */
+    public static <K, V> Aggregator<Map.Entry<K, V>, Double> doubleSum(String attributePath) {
+        return new DoubleSumAggregator<K, V>(attributePath);
+    }
+
+    /**
+     * @return an aggregator averaging the values of the numeric attribute, aggregating to <tt>null</tt> if there are
+     * no values.
+     */
+    public static <K, V> Aggregator<Map.Entry<K, V>, Double> average(String attributePath) {
+        return new AverageAggregator<K, V>(attributePath);
+    }
+
+    /**
+     * @return an aggregator finding the smallest value of the attribute, aggregating to <tt>null</tt> if there are
+     * no values.
+     */
+    public static <K, V, R extends Comparable> Aggregator<Map.Entry<K, V>, R> min(String attributePath) {
+        return new ComparableAggregator<K, V, R>(attributePath, false);
+    }
+
+    /**
+     * @return an aggregator finding the largest value of the attribute, aggregating to <tt>null</tt> if there are
+     * no values.
+     */
+    public static <K, V, R extends Comparable> Aggregator<Map.Entry<K, V>, R> max(String attributePath) {
+        return new ComparableAggregator<K, V, R>(attributePath, true);
+    }
+
+    /**
+     * @return an aggregator collecting the distinct values of the attribute.
+     */
+    public static <K, V, R> Aggregator<Map.Entry<K, V>, Set<R>> distinct(String attributePath) {
+        return new DistinctValuesAggregator<K, V, R>(attributePath);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation.impl;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.query.impl.EntryAttributeReader;
+import com.hazelcast.query.impl.MultiResult;
+
+import java.util.Map;
+
+/**
+ * Base class of the aggregators of {@link com.hazelcast.aggregation.Aggregators}, reading an attribute of the entries.
+ * <p/>
+ * The attribute is read like predicates read it, so <tt>this</tt> is the value itself and an attribute of a
+ * portable is read without deserializing the value. Each value of a multi-valued attribute is accumulated
+ * on its own, <tt>null</tt> values are skipped.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @param <R> the type of the aggregated value
+ */
+public abstract class AbstractAggregator<K, V, R> extends Aggregator<Map.Entry<K, V>, R> {
+
+    private final String attributePath;
+
+    protected AbstractAggregator(String attributePath) {
+        this.attributePath = attributePath;
+    }
+
+    public String getAttributePath() {
+        return attributePath;
+    }
+
+    @Override
+    public final void accumulate(Map.Entry<K, V> entry) {
+        final Object value = EntryAttributeReader.read(entry, attributePath);
+        if (value instanceof MultiResult) {
+            for (Comparable element : ((MultiResult) value).getValues()) {
+                if (element != null) {
+                    accumulateValue(element);
+                }
+            }
+        } else if (value != null) {
+            accumulateValue(value);
+        }
+    }
+
+    /**
+     * Adds a value read from an entry, never <tt>null</tt>.
+     */
+    protected abstract void accumulateValue(Object value);
+}
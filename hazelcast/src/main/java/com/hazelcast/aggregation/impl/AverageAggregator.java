@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation.impl;
+
+import com.hazelcast.aggregation.Aggregator;
+
+/**
+ * Averages the values of a numeric attribute, <tt>null</tt> if there are none.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public final class AverageAggregator<K, V> extends AbstractAggregator<K, V, Double> {
+
+    private double sum;
+    private long count;
+
+    public AverageAggregator(String attributePath) {
+        super(attributePath);
+    }
+
+    @Override
+    protected void accumulateValue(Object value) {
+        sum += ((Number) value).doubleValue();
+        count++;
+    }
+
+    @Override
+    public void combine(Aggregator aggregator) {
+        final AverageAggregator other = (AverageAggregator) aggregator;
+        sum += other.sum;
+        count += other.count;
+    }
+
+    @Override
+    public Double aggregate() {
+        return count == 0 ? null : sum / count;
+    }
+}
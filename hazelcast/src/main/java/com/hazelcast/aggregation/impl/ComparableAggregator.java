@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation.impl;
+
+import com.hazelcast.aggregation.Aggregator;
+
+/**
+ * Finds the smallest or the largest value of an attribute, <tt>null</tt> if there are none.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @param <R> the type of the attribute
+ */
+public final class ComparableAggregator<K, V, R extends Comparable> extends AbstractAggregator<K, V, R> {
+
+    private final boolean max;
+    private R extreme;
+
+    public ComparableAggregator(String attributePath, boolean max) {
+        super(attributePath);
+        this.max = max;
+    }
+
+    @Override
+    protected void accumulateValue(Object value) {
+        accumulateComparable((R) value);
+    }
+
+    private void accumulateComparable(R value) {
+        if (extreme == null) {
+            extreme = value;
+            return;
+        }
+        final int comparison = value.compareTo(extreme);
+        if (max ? comparison > 0 : comparison < 0) {
+            extreme = value;
+        }
+    }
+
+    @Override
+    public void combine(Aggregator aggregator) {
+        final R other = ((ComparableAggregator<K, V, R>) aggregator).extreme;
+        if (other != null) {
+            accumulateComparable(other);
+        }
+    }
+
+    @Override
+    public R aggregate() {
+        return extreme;
+    }
+}
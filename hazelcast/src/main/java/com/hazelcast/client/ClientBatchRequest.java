@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.client;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.Portable;
+import com.hazelcast.nio.serialization.PortableReader;
+import com.hazelcast.nio.serialization.PortableWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Requests a client sends to the same member in one frame. The member processes them one by one in a single task,
+ * each with its own call id, and responds to each of them separately. Only requests that may block until they are
+ * done, i.e. those that do not just start an invocation on a partition or member, are handed off to their own tasks.
+ */
+public final class ClientBatchRequest implements Portable {
+
+    private List<Data> requests;
+
+    public ClientBatchRequest() {
+    }
+
+    public ClientBatchRequest(List<Data> requests) {
+        this.requests = requests;
+    }
+
+    public List<Data> getRequests() {
+        return requests;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return ClientPortableHook.ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return ClientPortableHook.BATCH;
+    }
+
+    @Override
+    public void writePortable(PortableWriter writer) throws IOException {
+        final ObjectDataOutput out = writer.getRawDataOutput();
+        out.writeInt(requests.size());
+        for (Data request : requests) {
+            request.writeData(out);
+        }
+    }
+
+    @Override
+    public void readPortable(PortableReader reader) throws IOException {
+        final ObjectDataInput in = reader.getRawDataInput();
+        final int size = in.readInt();
+        requests = new ArrayList<Data>(size);
+        for (int i = 0; i < size; i++) {
+            final Data request = new Data();
+            request.readData(in);
+            requests.add(request);
+        }
+    }
+}
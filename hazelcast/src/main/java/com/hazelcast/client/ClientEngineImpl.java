@@ -116,7 +116,7 @@ public class ClientEngineImpl implements ClientEngine, CoreService,
     }
 
     public void handlePacket(ClientPacket packet) {
-        executor.execute(new ClientPacketProcessor(packet));
+        executor.execute(new ClientPacketProcessor(packet, null));
     }
 
     @Override
@@ -419,18 +419,63 @@ public class ClientEngineImpl implements ClientEngine, CoreService,
 
     private final class ClientPacketProcessor implements Runnable {
         final ClientPacket packet;
+        // a request of a batch handed off to its own task, null for the request of the packet
+        final ClientRequest batchedRequest;
 
-        private ClientPacketProcessor(ClientPacket packet) {
+        private ClientPacketProcessor(ClientPacket packet, ClientRequest batchedRequest) {
             this.packet = packet;
+            this.batchedRequest = batchedRequest;
         }
 
         @Override
         public void run() {
+            if (batchedRequest != null) {
+                process(batchedRequest);
+                return;
+            }
+            final Object object;
+            try {
+                object = serializationService.toObject(packet.getData());
+            } catch (Throwable e) {
+                handleProcessingFailure(getEndpoint(packet.getConn()), null, e);
+                return;
+            }
+            if (object instanceof ClientBatchRequest) {
+                processBatch((ClientBatchRequest) object);
+            } else {
+                process(object);
+            }
+        }
+
+        // requests that only start an invocation are processed in the task of the batch,
+        // the others may block until they are done and run in their own tasks
+        private void processBatch(ClientBatchRequest batch) {
+            for (Data requestData : batch.getRequests()) {
+                final Object object;
+                try {
+                    object = serializationService.toObject(requestData);
+                } catch (Throwable e) {
+                    handleProcessingFailure(getEndpoint(packet.getConn()), null, e);
+                    continue;
+                }
+                if (object instanceof ClientRequest && !startsInvocationOnly(object)) {
+                    executor.execute(new ClientPacketProcessor(packet, (ClientRequest) object));
+                } else {
+                    process(object);
+                }
+            }
+        }
+
+        private boolean startsInvocationOnly(Object request) {
+            return request instanceof PartitionClientRequest || request instanceof TargetClientRequest;
+        }
+
+        private void process(Object object) {
             Connection conn = packet.getConn();
             ClientEndpoint endpoint = getEndpoint(conn);
             ClientRequest request = null;
             try {
-                request = loadRequest();
+                request = (ClientRequest) object;
                 if (request == null) {
                     handlePacketWithNullRequest();
                 } else if (request instanceof AuthenticationRequest) {
@@ -452,11 +497,6 @@ public class ClientEngineImpl implements ClientEngine, CoreService,
             }
         }
 
-        private ClientRequest loadRequest() {
-            Data data = packet.getData();
-            return serializationService.toObject(data);
-        }
-
         private void handleEndpointNotCreatedConnectionNotAlive() {
             logger.warning("Dropped: " + packet + " -> endpoint not created for AuthenticationRequest, "
                     + "connection not alive");
@@ -51,6 +51,12 @@ public class ClientPortableFactory implements PortableFactory {
                 return new GetPartitionsRequest();
             case ClientPortableHook.REMOVE_LISTENER:
                 return new RemoveDistributedObjectListenerRequest();
+            case ClientPortableHook.PUT_SCHEMA:
+                return new PutSchemaRequest();
+            case ClientPortableHook.GET_SCHEMA:
+                return new GetSchemaRequest();
+            case ClientPortableHook.BATCH:
+                return new ClientBatchRequest();
             default:
                 return null;
         }
@@ -44,6 +44,9 @@ public class ClientPortableHook implements PortableHook {
     public static final int CLIENT_PING = 11;
     public static final int GET_PARTITIONS = 12;
     public static final int REMOVE_LISTENER = 13;
+    public static final int PUT_SCHEMA = 14;
+    public static final int GET_SCHEMA = 15;
+    public static final int BATCH = 16;
 
     public int getFactoryId() {
         return ID;
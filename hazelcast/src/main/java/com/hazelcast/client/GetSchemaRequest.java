@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.client;
+
+import com.hazelcast.nio.serialization.PortableReader;
+import com.hazelcast.nio.serialization.PortableWriter;
+import com.hazelcast.spi.impl.SchemaService;
+
+import java.io.IOException;
+import java.security.Permission;
+
+/**
+ * Looks up the schema of a {@link com.hazelcast.nio.serialization.CompactSerializable} value read on a client.
+ */
+public class GetSchemaRequest extends CallableClientRequest implements RetryableRequest {
+
+    private long fingerprint;
+
+    public GetSchemaRequest() {
+    }
+
+    public GetSchemaRequest(long fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    @Override
+    public Object call() throws Exception {
+        return getClientEngine().getSerializationService().getSchemaRegistry().getSchema(fingerprint);
+    }
+
+    @Override
+    public String getServiceName() {
+        return SchemaService.SERVICE_NAME;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return ClientPortableHook.ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return ClientPortableHook.GET_SCHEMA;
+    }
+
+    @Override
+    public void write(PortableWriter writer) throws IOException {
+        writer.writeLong("f", fingerprint);
+    }
+
+    @Override
+    public void read(PortableReader reader) throws IOException {
+        fingerprint = reader.readLong("f");
+    }
+
+    @Override
+    public Permission getRequiredPermission() {
+        return null;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.client;
+
+import com.hazelcast.nio.serialization.PortableReader;
+import com.hazelcast.nio.serialization.PortableWriter;
+import com.hazelcast.nio.serialization.Schema;
+import com.hazelcast.spi.impl.SchemaService;
+
+import java.io.IOException;
+import java.security.Permission;
+
+/**
+ * Publishes the schema of a {@link com.hazelcast.nio.serialization.CompactSerializable} class derived on a client.
+ */
+public class PutSchemaRequest extends CallableClientRequest implements RetryableRequest {
+
+    private Schema schema;
+
+    public PutSchemaRequest() {
+    }
+
+    public PutSchemaRequest(Schema schema) {
+        this.schema = schema;
+    }
+
+    @Override
+    public Object call() throws Exception {
+        final SchemaService schemaService = getService();
+        schemaService.putSchema(schema);
+        return Boolean.TRUE;
+    }
+
+    @Override
+    public String getServiceName() {
+        return SchemaService.SERVICE_NAME;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return ClientPortableHook.ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return ClientPortableHook.PUT_SCHEMA;
+    }
+
+    @Override
+    public void write(PortableWriter writer) throws IOException {
+        schema.writeData(writer.getRawDataOutput());
+    }
+
+    @Override
+    public void read(PortableReader reader) throws IOException {
+        schema = new Schema();
+        schema.readData(reader.getRawDataInput());
+    }
+
+    @Override
+    public Permission getRequiredPermission() {
+        return null;
+    }
+}
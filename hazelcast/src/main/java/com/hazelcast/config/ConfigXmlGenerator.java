@@ -220,6 +220,8 @@ public class ConfigXmlGenerator {
         for (MapConfig m : mCfgs) {
             xml.append("<map name=\"").append(m.getName()).append("\">");
             xml.append("<in-memory-format>").append(m.getInMemoryFormat()).append("</in-memory-format>");
+            xml.append("<record-store-type>").append(m.getRecordStoreType()).append("</record-store-type>");
+            xml.append("<compression-threshold>").append(m.getCompressionThreshold()).append("</compression-threshold>");
             xml.append("<backup-count>").append(m.getBackupCount()).append("</backup-count>");
             xml.append("<async-backup-count>").append(m.getAsyncBackupCount()).append("</async-backup-count>");
             xml.append("<time-to-live-seconds>").append(m.getTimeToLiveSeconds()).append("</time-to-live-seconds>");
@@ -265,7 +267,8 @@ public class ConfigXmlGenerator {
             if (!m.getMapIndexConfigs().isEmpty()) {
                 xml.append("<indexes>");
                 for (MapIndexConfig indexCfg : m.getMapIndexConfigs()) {
-                    xml.append("<index ordered=\"").append(indexCfg.isOrdered()).append("\">");
+                    xml.append("<index ordered=\"").append(indexCfg.isOrdered())
+                            .append("\" bitmap=\"").append(indexCfg.isBitmap()).append("\">");
                     xml.append(indexCfg.getAttribute());
                     xml.append("</index>");
                 }
@@ -25,6 +25,7 @@ public class JobTrackerConfig {
     public static final int DEFAULT_CHUNK_SIZE = 1000;
     public static final int DEFAULT_QUEUE_SIZE = 0;
     public static final boolean DEFAULT_COMMUNICATE_STATS = true;
+    public static final long DEFAULT_SPILL_THRESHOLD = 0;
     public static final TopologyChangedStrategy DEFAULT_TOPOLOGY_CHANGED_STRATEGY = TopologyChangedStrategy.CANCEL_RUNNING_OPERATION;
 
     private String name;
@@ -34,6 +35,8 @@ public class JobTrackerConfig {
     private int queueSize = DEFAULT_QUEUE_SIZE;
     private boolean communicateStats = DEFAULT_COMMUNICATE_STATS;
     private TopologyChangedStrategy topologyChangedStrategy = DEFAULT_TOPOLOGY_CHANGED_STRATEGY;
+    private long spillThreshold = DEFAULT_SPILL_THRESHOLD;
+    private String spillDirectory;
 
     public JobTrackerConfig() {
     }
@@ -46,6 +49,8 @@ public class JobTrackerConfig {
         this.queueSize = source.queueSize;
         this.communicateStats = source.communicateStats;
         this.topologyChangedStrategy = source.topologyChangedStrategy;
+        this.spillThreshold = source.spillThreshold;
+        this.spillDirectory = source.spillDirectory;
     }
 
     public JobTrackerConfig setName(String name) {
@@ -108,4 +113,38 @@ public class JobTrackerConfig {
     public void setTopologyChangedStrategy(TopologyChangedStrategy topologyChangedStrategy) {
         this.topologyChangedStrategy = topologyChangedStrategy;
     }
+
+    /**
+     * @return the number of bytes of intermediate chunks the reducers of the jobs of this job tracker keep in memory
+     * on a member before spilling them to disk, <tt>0</tt> if chunks are never spilled.
+     */
+    public long getSpillThreshold() {
+        return spillThreshold;
+    }
+
+    /**
+     * Sets the memory budget for the intermediate chunks the reducers of all jobs of this job tracker received
+     * on a member. Beyond it the chunks are sorted by key and written to temporary files, which are merged when
+     * the results are requested, so jobs with more intermediate data than free heap do not fail with an
+     * {@link OutOfMemoryError}. The sizes are estimated from the serialized chunk values.
+     *
+     * @param spillThreshold the number of bytes, <tt>0</tt> (the default) to keep all chunks in memory.
+     */
+    public void setSpillThreshold(long spillThreshold) {
+        if (spillThreshold < 0) {
+            throw new IllegalArgumentException("spillThreshold must not be negative");
+        }
+        this.spillThreshold = spillThreshold;
+    }
+
+    /**
+     * @return the directory spilled chunks are written to, <tt>null</tt> for the default temporary directory.
+     */
+    public String getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    public void setSpillDirectory(String spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
 }
@@ -60,4 +60,13 @@ public class JobTrackerConfigReadOnly
         throw new UnsupportedOperationException("This config is read-only");
     }
 
+    @Override
+    public void setSpillThreshold(long spillThreshold) {
+        throw new UnsupportedOperationException("This config is read-only");
+    }
+
+    @Override
+    public void setSpillDirectory(String spillDirectory) {
+        throw new UnsupportedOperationException("This config is read-only");
+    }
 }
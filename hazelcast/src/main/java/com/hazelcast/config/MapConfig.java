@@ -39,6 +39,8 @@ public class MapConfig {
     public final static EvictionPolicy DEFAULT_EVICTION_POLICY = EvictionPolicy.NONE;
     public final static String DEFAULT_MAP_MERGE_POLICY = PutIfAbsentMapMergePolicy.class.getName();
     public final static InMemoryFormat DEFAULT_IN_MEMORY_FORMAT = InMemoryFormat.BINARY;
+    public final static RecordStoreType DEFAULT_RECORD_STORE_TYPE = RecordStoreType.HEAP;
+    public final static int DEFAULT_COMPRESSION_THRESHOLD = 0;
 
     private String name = null;
 
@@ -68,6 +70,10 @@ public class MapConfig {
 
     private InMemoryFormat inMemoryFormat = DEFAULT_IN_MEMORY_FORMAT;
 
+    private RecordStoreType recordStoreType = DEFAULT_RECORD_STORE_TYPE;
+
+    private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+
     private WanReplicationRef wanReplicationRef;
 
     private List<EntryListenerConfig> listenerConfigs;
@@ -84,6 +90,17 @@ public class MapConfig {
         LRU, LFU, NONE
     }
 
+    /**
+     * Structure holding the entries of a map partition.
+     * <p/>
+     * HEAP (default): entries are kept in a hash map on the Java heap.
+     * OFFHEAP : keys, values and entry metadata are kept in an open addressing hash table outside of the Java heap,
+     * requires {@link InMemoryFormat#BINARY} in-memory format.
+     */
+    public enum RecordStoreType {
+        HEAP, OFFHEAP
+    }
+
     public MapConfig(String name) {
         this.name = name;
     }
@@ -101,6 +118,8 @@ public class MapConfig {
         this.maxSizeConfig = config.maxSizeConfig != null ? new MaxSizeConfig(config.maxSizeConfig) : null;
         this.evictionPolicy = config.evictionPolicy;
         this.inMemoryFormat = config.inMemoryFormat;
+        this.recordStoreType = config.recordStoreType;
+        this.compressionThreshold = config.compressionThreshold;
         this.mapStoreConfig = config.mapStoreConfig != null ? new MapStoreConfig(config.mapStoreConfig) : null;
         this.nearCacheConfig = config.nearCacheConfig != null ? new NearCacheConfig(config.nearCacheConfig) : null;
         this.readBackupData = config.readBackupData;
@@ -151,10 +170,69 @@ public class MapConfig {
      * OFFHEAP : values will be stored in non-heap region of JVM
      *
      * @param inMemoryFormat the record type to set
-     * @throws IllegalArgumentException if inMemoryFormat is null.
+     * @throws IllegalArgumentException if inMemoryFormat is null, or is not BINARY while the record store type
+     *                                  is OFFHEAP.
      */
     public MapConfig setInMemoryFormat(InMemoryFormat inMemoryFormat) {
-        this.inMemoryFormat = isNotNull(inMemoryFormat,"inMemoryFormat");
+        isNotNull(inMemoryFormat, "inMemoryFormat");
+        checkOffHeapFormat(recordStoreType, inMemoryFormat);
+        this.inMemoryFormat = inMemoryFormat;
+        return this;
+    }
+
+    /**
+     * @return structure that will be used for holding the entries of a partition.
+     */
+    public RecordStoreType getRecordStoreType() {
+        return recordStoreType;
+    }
+
+    /**
+     * Structure that will be used for holding the entries of a partition.
+     * Possible values:
+     * HEAP (default): entries will be kept in a hash map on the Java heap
+     * OFFHEAP : keys, values and entry metadata will be kept outside of the Java heap,
+     * only BINARY in-memory format is supported
+     *
+     * @param recordStoreType the record store type to set
+     * @throws IllegalArgumentException if recordStoreType is null, or is OFFHEAP while the in-memory format
+     *                                  is not BINARY.
+     */
+    public MapConfig setRecordStoreType(RecordStoreType recordStoreType) {
+        isNotNull(recordStoreType, "recordStoreType");
+        checkOffHeapFormat(recordStoreType, inMemoryFormat);
+        this.recordStoreType = recordStoreType;
+        return this;
+    }
+
+    // the off-heap record store copies the serialized values of the records into native memory
+    private static void checkOffHeapFormat(RecordStoreType recordStoreType, InMemoryFormat inMemoryFormat) {
+        if (recordStoreType == RecordStoreType.OFFHEAP && inMemoryFormat != InMemoryFormat.BINARY) {
+            throw new IllegalArgumentException("OFFHEAP record store type supports only BINARY in-memory format, not "
+                    + inMemoryFormat);
+        }
+    }
+
+    /**
+     * @return size in bytes from which serialized values are kept compressed, 0 if compression is disabled.
+     */
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * Size in bytes from which serialized values will be kept compressed in memory and decompressed on every read.
+     * Only values that compress well are kept compressed. Applies to BINARY in-memory format only.
+     * 0 (default) disables compression.
+     *
+     * @param compressionThreshold the size in bytes to set
+     * @throws IllegalArgumentException if compressionThreshold is negative.
+     */
+    public MapConfig setCompressionThreshold(int compressionThreshold) {
+        if (compressionThreshold < 0) {
+            throw new IllegalArgumentException("Compression threshold can not be negative: " + compressionThreshold);
+        }
+        this.compressionThreshold = compressionThreshold;
         return this;
     }
 
@@ -500,6 +578,9 @@ public class MapConfig {
                         this.readBackupData == other.readBackupData &&
                         (this.mergePolicy != null ? this.mergePolicy.equals(other.mergePolicy) : other.mergePolicy == null) &&
                         (this.inMemoryFormat != null ? this.inMemoryFormat.equals(other.inMemoryFormat) : other.inMemoryFormat == null) &&
+                        (this.recordStoreType != null ? this.recordStoreType.equals(other.recordStoreType)
+                                : other.recordStoreType == null) &&
+                        this.compressionThreshold == other.compressionThreshold &&
                         (this.evictionPolicy != null ? this.evictionPolicy.equals(other.evictionPolicy)
                                 : other.evictionPolicy == null) &&
                         (this.mapStoreConfig != null ? this.mapStoreConfig.equals(other.mapStoreConfig)
@@ -514,6 +595,8 @@ public class MapConfig {
         sb.append("MapConfig");
         sb.append("{name='").append(name).append('\'');
         sb.append(", inMemoryFormat=").append(inMemoryFormat).append('\'');
+        sb.append(", recordStoreType=").append(recordStoreType);
+        sb.append(", compressionThreshold=").append(compressionThreshold);
         sb.append(", backupCount=").append(backupCount);
         sb.append(", asyncBackupCount=").append(asyncBackupCount);
         sb.append(", timeToLiveSeconds=").append(timeToLiveSeconds);
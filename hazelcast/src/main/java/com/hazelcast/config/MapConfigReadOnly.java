@@ -171,4 +171,12 @@ public class MapConfigReadOnly extends MapConfig {
         throw new UnsupportedOperationException("This config is read-only map: " + getName());
     }
 
+    public MapConfig setRecordStoreType(RecordStoreType recordStoreType) {
+        throw new UnsupportedOperationException("This config is read-only map: " + getName());
+    }
+
+    public MapConfig setCompressionThreshold(int compressionThreshold) {
+        throw new UnsupportedOperationException("This config is read-only map: " + getName());
+    }
+
 }
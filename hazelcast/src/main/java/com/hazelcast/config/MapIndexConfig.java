@@ -27,6 +27,7 @@ public class MapIndexConfig {
 
     private String attribute;
     private boolean ordered = false;
+    private boolean bitmap = false;
     private MapIndexConfigReadOnly readOnly;
 
     /**
@@ -51,6 +52,7 @@ public class MapIndexConfig {
     public MapIndexConfig(MapIndexConfig config) {
         attribute = config.getAttribute();
         ordered = config.isOrdered();
+        bitmap = config.isBitmap();
     }
 
     public MapIndexConfigReadOnly getAsReadOnly() {
@@ -62,6 +64,10 @@ public class MapIndexConfig {
 
     /**
      * Gets the attribute that is going to be indexed. If no attribute is set, null is returned.
+     * <p/>
+     * A comma separated list of attributes, e.g. <tt>"status,region"</tt>, defines a composite index. Queries
+     * with equality predicates on all the attributes of a composite index, or on its leading attributes, optionally
+     * followed by a range predicate on the next attribute if the index is ordered, use the composite index.
      *
      * @return the attribute to be indexed.
      * @see #setAttribute(String)
@@ -105,11 +111,36 @@ public class MapIndexConfig {
         return this;
     }
 
+    /**
+     * Checks if the index is a bitmap index.
+     *
+     * @return true if bitmap, false otherwise.
+     * @see #setBitmap(boolean)
+     */
+    public boolean isBitmap() {
+        return bitmap;
+    }
+
+    /**
+     * Configures the index to be a bitmap index or not. A bitmap index keeps a compressed bitmap of the entries per
+     * attribute value, which makes sense for attributes with few distinct values, e.g. a status or a region.
+     * Bitmaps of several attributes are intersected and merged directly when a query combines them. Bitmap indexes
+     * are not ordered, so the ordered setting is ignored.
+     *
+     * @param bitmap if the index should be a bitmap index.
+     * @return the updated MapIndexConfig.
+     */
+    public MapIndexConfig setBitmap(boolean bitmap) {
+        this.bitmap = bitmap;
+        return this;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("MapIndexConfig{");
         sb.append("attribute='").append(attribute).append('\'');
         sb.append(", ordered=").append(ordered);
+        sb.append(", bitmap=").append(bitmap);
         sb.append('}');
         return sb.toString();
     }
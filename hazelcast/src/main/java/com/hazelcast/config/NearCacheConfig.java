@@ -41,6 +41,8 @@ public class NearCacheConfig {
 
     private boolean cacheLocalEntries = false;
 
+    private NearCachePreloaderConfig preloaderConfig = new NearCachePreloaderConfig();
+
     public NearCacheConfig(int timeToLiveSeconds, int maxSize, String evictionPolicy, int maxIdleSeconds, boolean invalidateOnChange, InMemoryFormat inMemoryFormat) {
         this.timeToLiveSeconds = timeToLiveSeconds;
         this.maxSize = maxSize;
@@ -59,6 +61,7 @@ public class NearCacheConfig {
         maxSize = config.getMaxSize();
         timeToLiveSeconds = config.getTimeToLiveSeconds();
         cacheLocalEntries = config.isCacheLocalEntries();
+        preloaderConfig = new NearCachePreloaderConfig(config.getPreloaderConfig());
     }
 
     public NearCacheConfigReadOnly getAsReadOnly() {
@@ -142,6 +145,18 @@ public class NearCacheConfig {
         return this;
     }
 
+    public NearCachePreloaderConfig getPreloaderConfig() {
+        return preloaderConfig;
+    }
+
+    public NearCacheConfig setPreloaderConfig(NearCachePreloaderConfig preloaderConfig) {
+        if (preloaderConfig == null) {
+            throw new IllegalArgumentException("preloaderConfig cannot be null");
+        }
+        this.preloaderConfig = preloaderConfig;
+        return this;
+    }
+
     // this setter is for reflection based configuration building
     public NearCacheConfig setInMemoryFormat(String inMemoryFormat) {
         this.inMemoryFormat = InMemoryFormat.valueOf(inMemoryFormat);
@@ -158,6 +173,7 @@ public class NearCacheConfig {
         sb.append(", invalidateOnChange=").append(invalidateOnChange);
         sb.append(", inMemoryFormat=").append(inMemoryFormat);
         sb.append(", cacheLocalEntries=").append(cacheLocalEntries);
+        sb.append(", preloaderConfig=").append(preloaderConfig);
         sb.append('}');
         return sb.toString();
     }
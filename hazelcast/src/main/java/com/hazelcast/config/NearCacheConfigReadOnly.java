@@ -56,4 +56,8 @@ public class NearCacheConfigReadOnly extends NearCacheConfig {
     public NearCacheConfig setInMemoryFormat(String inMemoryFormat) {
         throw new UnsupportedOperationException("This config is read-only");
     }
+
+    public NearCacheConfig setPreloaderConfig(NearCachePreloaderConfig preloaderConfig) {
+        throw new UnsupportedOperationException("This config is read-only");
+    }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.config;
+
+/**
+ * Configuration of the near cache preloader, which periodically stores the keys of a client near cache
+ * in a local file and, when the near cache is created again, fetches the values of these keys before
+ * the map is used.
+ */
+public class NearCachePreloaderConfig {
+
+    public static final int DEFAULT_STORE_INITIAL_DELAY_SECONDS = 600;
+    public static final int DEFAULT_STORE_INTERVAL_SECONDS = 600;
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private boolean enabled;
+    private String directory = "";
+    private int storeInitialDelaySeconds = DEFAULT_STORE_INITIAL_DELAY_SECONDS;
+    private int storeIntervalSeconds = DEFAULT_STORE_INTERVAL_SECONDS;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    public NearCachePreloaderConfig() {
+    }
+
+    public NearCachePreloaderConfig(NearCachePreloaderConfig config) {
+        enabled = config.enabled;
+        directory = config.directory;
+        storeInitialDelaySeconds = config.storeInitialDelaySeconds;
+        storeIntervalSeconds = config.storeIntervalSeconds;
+        batchSize = config.batchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public NearCachePreloaderConfig setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        return this;
+    }
+
+    /**
+     * @return the directory of the key files, the working directory if empty.
+     */
+    public String getDirectory() {
+        return directory;
+    }
+
+    public NearCachePreloaderConfig setDirectory(String directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("directory cannot be null");
+        }
+        this.directory = directory;
+        return this;
+    }
+
+    public int getStoreInitialDelaySeconds() {
+        return storeInitialDelaySeconds;
+    }
+
+    public NearCachePreloaderConfig setStoreInitialDelaySeconds(int storeInitialDelaySeconds) {
+        if (storeInitialDelaySeconds <= 0) {
+            throw new IllegalArgumentException("storeInitialDelaySeconds must be positive");
+        }
+        this.storeInitialDelaySeconds = storeInitialDelaySeconds;
+        return this;
+    }
+
+    public int getStoreIntervalSeconds() {
+        return storeIntervalSeconds;
+    }
+
+    public NearCachePreloaderConfig setStoreIntervalSeconds(int storeIntervalSeconds) {
+        if (storeIntervalSeconds <= 0) {
+            throw new IllegalArgumentException("storeIntervalSeconds must be positive");
+        }
+        this.storeIntervalSeconds = storeIntervalSeconds;
+        return this;
+    }
+
+    /**
+     * @return the maximum number of keys fetched from a member in one request while preloading.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public NearCachePreloaderConfig setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "NearCachePreloaderConfig{"
+                + "enabled=" + enabled
+                + ", directory='" + directory + '\''
+                + ", storeInitialDelaySeconds=" + storeInitialDelaySeconds
+                + ", storeIntervalSeconds=" + storeIntervalSeconds
+                + ", batchSize=" + batchSize
+                + '}';
+    }
+}
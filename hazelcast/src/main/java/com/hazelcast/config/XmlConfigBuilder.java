@@ -840,6 +840,11 @@ public class XmlConfigBuilder extends AbstractXmlConfigHelper implements ConfigB
                 mapConfig.setBackupCount(getIntegerValue("backup-count", value, MapConfig.DEFAULT_BACKUP_COUNT));
             } else if ("in-memory-format".equals(nodeName)) {
                 mapConfig.setInMemoryFormat(InMemoryFormat.valueOf(upperCaseInternal(value)));
+            } else if ("record-store-type".equals(nodeName)) {
+                mapConfig.setRecordStoreType(MapConfig.RecordStoreType.valueOf(upperCaseInternal(value)));
+            } else if ("compression-threshold".equals(nodeName)) {
+                mapConfig.setCompressionThreshold(getIntegerValue("compression-threshold", value,
+                        MapConfig.DEFAULT_COMPRESSION_THRESHOLD));
             } else if ("async-backup-count".equals(nodeName)) {
                 mapConfig.setAsyncBackupCount(getIntegerValue("async-backup-count", value, MapConfig.MIN_BACKUP_COUNT));
             } else if ("eviction-policy".equals(nodeName)) {
@@ -907,8 +912,9 @@ public class XmlConfigBuilder extends AbstractXmlConfigHelper implements ConfigB
                     if ("index".equals(cleanNodeName(indexNode))) {
                         final NamedNodeMap attrs = indexNode.getAttributes();
                         boolean ordered = checkTrue(getTextContent(attrs.getNamedItem("ordered")));
+                        boolean bitmap = checkTrue(getTextContent(attrs.getNamedItem("bitmap")));
                         String attribute = getTextContent(indexNode);
-                        mapConfig.addMapIndexConfig(new MapIndexConfig(attribute, ordered));
+                        mapConfig.addMapIndexConfig(new MapIndexConfig(attribute, ordered).setBitmap(bitmap));
                     }
                 }
             } else if ("entry-listeners".equals(nodeName)) {
@@ -1041,6 +1047,10 @@ public class XmlConfigBuilder extends AbstractXmlConfigHelper implements ConfigB
                 jConfig.setRetryCount(getIntegerValue("retry-count", value, JobTrackerConfig.DEFAULT_RETRY_COUNT));
             } else if ("chunk-size".equals(nodeName)) {
                 jConfig.setChunkSize(getIntegerValue("chunk-size", value, JobTrackerConfig.DEFAULT_CHUNK_SIZE));
+            } else if ("spill-threshold".equals(nodeName)) {
+                jConfig.setSpillThreshold(getLongValue("spill-threshold", value, JobTrackerConfig.DEFAULT_SPILL_THRESHOLD));
+            } else if ("spill-directory".equals(nodeName)) {
+                jConfig.setSpillDirectory(value);
             } else if ("communicate-stats".equals(nodeName)) {
                 jConfig.setCommunicateStats(value == null || value.length() == 0 ?
                         JobTrackerConfig.DEFAULT_COMMUNICATE_STATS : Boolean.parseBoolean(value));
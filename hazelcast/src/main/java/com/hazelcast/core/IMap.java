@@ -16,16 +16,20 @@
 
 package com.hazelcast.core;
 
+import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.map.EntryProcessor;
 import com.hazelcast.map.MapInterceptor;
+import com.hazelcast.map.QueryCache;
 import com.hazelcast.monitor.LocalMapStats;
+import com.hazelcast.projection.Projection;
 import com.hazelcast.query.Predicate;
+import com.hazelcast.query.QueryPlan;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -237,7 +241,7 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, BaseMap<K, V> {
      * @throws NullPointerException if the specified key is null
      * @see java.util.concurrent.Future
      */
-    Future<V> getAsync(K key);
+    ICompletableFuture<V> getAsync(K key);
 
     /**
      * Asynchronously puts the given key and value.
@@ -270,7 +274,7 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, BaseMap<K, V> {
      * @throws NullPointerException if the specified key or value is null
      * @see java.util.concurrent.Future
      */
-    Future<V> putAsync(K key, V value);
+    ICompletableFuture<V> putAsync(K key, V value);
 
     /**
      * Asynchronously puts the given key and value into this map with a given ttl (time to live) value.
@@ -308,7 +312,7 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, BaseMap<K, V> {
      * @throws NullPointerException if the specified key or value is null
      * @see java.util.concurrent.Future
      */
-    Future<V> putAsync(K key, V value, long ttl, TimeUnit timeunit);
+    ICompletableFuture<V> putAsync(K key, V value, long ttl, TimeUnit timeunit);
 
     /**
      * Asynchronously removes the given key.
@@ -323,7 +327,104 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, BaseMap<K, V> {
      *         removed from the map can be retrieved.
      * @throws NullPointerException if the specified key is null
      */
-    Future<V> removeAsync(K key);
+    ICompletableFuture<V> removeAsync(K key);
+
+    /**
+     * Asynchronously puts the given key and value, without returning the old value.
+     * <p/>
+     * Like all asynchronous methods of this map, it returns immediately and the callbacks registered with
+     * {@link ICompletableFuture#andThen(ExecutionCallback)} are called with the result, so no thread has to
+     * wait for the operation.
+     *
+     * @param key   the key of the map entry
+     * @param value the new value of the map entry
+     * @return ICompletableFuture completed when the value is set.
+     * @throws NullPointerException if the specified key or value is null
+     * @see #set(Object, Object)
+     */
+    ICompletableFuture<Void> setAsync(K key, V value);
+
+    /**
+     * Asynchronously puts the given key and value with a given ttl (time to live) value, without returning
+     * the old value.
+     *
+     * @param key      the key of the map entry
+     * @param value    the new value of the map entry
+     * @param ttl      maximum time for this entry to stay in the map, 0 means infinite.
+     * @param timeunit time unit for the ttl
+     * @return ICompletableFuture completed when the value is set.
+     * @throws NullPointerException if the specified key or value is null
+     * @see #set(Object, Object, long, TimeUnit)
+     */
+    ICompletableFuture<Void> setAsync(K key, V value, long ttl, TimeUnit timeunit);
+
+    /**
+     * Asynchronously puts the given key and value if the key is not mapped yet.
+     *
+     * @param key   the key of the map entry
+     * @param value the new value of the map entry
+     * @return ICompletableFuture from which the old value of the key, <tt>null</tt> if the value was put,
+     *         can be retrieved.
+     * @throws NullPointerException if the specified key or value is null
+     * @see #putIfAbsent(Object, Object)
+     */
+    ICompletableFuture<V> putIfAbsentAsync(K key, V value);
+
+    /**
+     * Asynchronously replaces the value of the key if it is mapped.
+     *
+     * @param key   the key of the map entry
+     * @param value the new value of the map entry
+     * @return ICompletableFuture from which the replaced value, <tt>null</tt> if the key was not mapped,
+     *         can be retrieved.
+     * @throws NullPointerException if the specified key or value is null
+     * @see #replace(Object, Object)
+     */
+    ICompletableFuture<V> replaceAsync(K key, V value);
+
+    /**
+     * Asynchronously replaces the value of the key if it is mapped to the given old value.
+     *
+     * @param key      the key of the map entry
+     * @param oldValue the value expected to be mapped to the key
+     * @param newValue the new value of the map entry
+     * @return ICompletableFuture from which whether the value was replaced can be retrieved.
+     * @throws NullPointerException if any of the arguments is null
+     * @see #replace(Object, Object, Object)
+     */
+    ICompletableFuture<Boolean> replaceAsync(K key, V oldValue, V newValue);
+
+    /**
+     * Asynchronously checks if the map contains the key.
+     *
+     * @param key the key to check
+     * @return ICompletableFuture from which whether the key is mapped can be retrieved.
+     * @throws NullPointerException if the specified key is null
+     * @see #containsKey(Object)
+     */
+    ICompletableFuture<Boolean> containsKeyAsync(K key);
+
+    /**
+     * Asynchronously gets the entries of the given keys. The keys of each partition are read by one
+     * operation, and the future is completed when all of them are.
+     *
+     * @param keys keys to get
+     * @return ICompletableFuture from which the map of the entries can be retrieved.
+     * @throws NullPointerException if any of the specified keys are null
+     * @see #getAll(Set)
+     */
+    ICompletableFuture<Map<K, V>> getAllAsync(Set<K> keys);
+
+    /**
+     * Asynchronously copies all of the mappings from the given map to this map. The entries of each partition
+     * are put by one operation, and the future is completed when all of them are.
+     *
+     * @param m mappings to be stored in this map
+     * @return ICompletableFuture completed when all of the entries are put.
+     * @throws NullPointerException if any of the keys or values are null
+     * @see #putAll(Map)
+     */
+    ICompletableFuture<Void> putAllAsync(Map<? extends K, ? extends V> m);
 
     /**
      * Tries to remove the entry with the given key from this map
@@ -990,6 +1091,129 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, BaseMap<K, V> {
      */
     void addIndex(String attribute, boolean ordered);
 
+    /**
+     * Adds an index to this map for the specified entries, which can be a bitmap index.
+     * <p/>
+     * A bitmap index keeps a compressed bitmap of the entries per attribute value, which makes sense
+     * for attributes with few distinct values, e.g. a status or a region. Bitmap indexes are not ordered,
+     * so <tt>ordered</tt> is ignored for them.
+     *
+     * @param attribute attribute of value
+     * @param ordered   <tt>true</tt> if index should be ordered,
+     *                  <tt>false</tt> otherwise.
+     * @param bitmap    <tt>true</tt> if index should be a bitmap index,
+     *                  <tt>false</tt> otherwise.
+     * @see #addIndex(String, boolean)
+     */
+    void addIndex(String attribute, boolean ordered, boolean bitmap);
+
+    /**
+     * Runs the query on each member and returns how the members ran it, without returning the matching entries.
+     * <p/>
+     * A member whose indexes can answer the query looks up the index of its most selective predicate, estimated
+     * from the statistics of the indexes, and checks the other predicates on the entries found. The plan of such a
+     * member lists these steps with their estimates. A member that cannot use its indexes scans its partitions,
+     * and its plan has the time spent on each partition.
+     *
+     * @param predicate query criteria
+     * @return the plans of the members that ran the query.
+     * @see QueryPlan
+     */
+    Collection<QueryPlan> explain(Predicate predicate);
+
+    /**
+     * Aggregates all entries of the map on the members, see {@link #aggregate(Aggregator, Predicate)}.
+     *
+     * @param aggregator aggregator to accumulate the entries in
+     * @return the aggregated value.
+     */
+    <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator);
+
+    /**
+     * Aggregates the entries matching the predicate on the members, without running a MapReduce job.
+     * <p/>
+     * Each member accumulates its matching entries in a copy of the aggregator, using its indexes if they can
+     * answer the predicate and otherwise scanning its partitions in parallel, and combines the copies. The
+     * caller combines the aggregators of the members and returns the aggregated value. The aggregator passed
+     * is not changed.
+     * <pre>
+     *   Double averageAge = map.aggregate(Aggregators.&lt;String, Employee&gt;average("age"),
+     *           Predicates.equal("active", true));
+     * </pre>
+     *
+     * @param aggregator aggregator to accumulate the entries in
+     * @param predicate  query criteria
+     * @return the aggregated value.
+     * @see com.hazelcast.aggregation.Aggregators
+     */
+    <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator, Predicate predicate);
+
+    /**
+     * Projects all entries of the map on the members, see {@link #project(Projection, Predicate)}.
+     *
+     * @param projection projection to transform the entries with
+     * @return the projected values.
+     */
+    <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection);
+
+    /**
+     * Returns the projected values of the entries matching the predicate, instead of the whole values.
+     * <p/>
+     * The members find the matching entries like {@link #aggregate(Aggregator, Predicate)} does, transform them
+     * with the projection and respond with the transformed values only, so reading a few attributes of large
+     * values moves and deserializes only these attributes.
+     * <pre>
+     *   Collection&lt;Object[]&gt; namesAndAges = map.project(Projections.&lt;String, Employee&gt;multiAttribute("name", "age"),
+     *           Predicates.equal("active", true));
+     * </pre>
+     * <p/>
+     * The collection is <b>NOT</b> backed by the map and holds one value per matching entry, in no particular order.
+     *
+     * @param projection projection to transform the entries with
+     * @param predicate  query criteria
+     * @return the projected values.
+     * @see com.hazelcast.projection.Projections
+     */
+    <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection, Predicate predicate);
+
+    /**
+     * Returns an iterator over the entries matching the predicate, which fetches them lazily in pages from the
+     * owners of the partitions, one partition after the other.
+     * <p/>
+     * Unlike a query with a {@link com.hazelcast.query.PagingPredicate}, the query is not run again for each page:
+     * the owners keep a cursor per partition, so fetching a page costs the same wherever it is. Neither the caller
+     * nor the members hold more than a page at a time, so all entries of a huge map can be exported this way.
+     * The entries are not sorted, and entries changed while iterating may or may not be returned.
+     * <p/>
+     * If a partition migrates while it is iterated over, or the iteration pauses for longer than five minutes,
+     * its cursor is lost and the iterator throws a {@link java.util.ConcurrentModificationException}.
+     *
+     * @param predicate predicate of the entries to iterate over, <tt>null</tt> for all entries;
+     *                  not a {@link com.hazelcast.query.PagingPredicate}
+     * @param fetchSize the maximum number of entries fetched at once
+     * @return an iterator over the matching entries, which does not support {@link Iterator#remove()}.
+     */
+    Iterator<Map.Entry<K, V>> queryIterator(Predicate predicate, int fetchSize);
+
+    /**
+     * Returns the query cache of the given name, creating it for the predicate if this map proxy has none with
+     * this name yet.
+     * <p/>
+     * A query cache keeps the entries matching the predicate locally and updates them from the entry events of
+     * the map, so reading it, or querying it with further predicates, does not query the cluster. Creating it
+     * registers an entry listener and queries the map once.
+     * <pre>
+     *   QueryCache&lt;String, Employee&gt; active = map.getQueryCache("active", new SqlPredicate("active"));
+     *   Collection&lt;Employee&gt; activeManagers = active.values(new SqlPredicate("title = 'manager'"));
+     * </pre>
+     *
+     * @param name      name of the query cache
+     * @param predicate predicate of the entries to keep, not a {@link com.hazelcast.query.PagingPredicate}
+     * @return the query cache.
+     * @see com.hazelcast.map.QueryCache
+     */
+    QueryCache<K, V> getQueryCache(String name, Predicate predicate);
+
     /**
      * Returns LocalMapStats for this map.
      * LocalMapStats is the statistics for the local portion of this
@@ -1024,6 +1248,17 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, BaseMap<K, V> {
      */
     Map<K,Object> executeOnKeys(Set<K> keys, EntryProcessor entryProcessor);
 
+    /**
+     * Asynchronously applies the user defined EntryProcessor to the entries mapped by the keys.
+     *
+     * @param keys           keys to be processed
+     * @param entryProcessor processor to process the keys
+     * @return ICompletableFuture from which the results mapped by each key can be retrieved.
+     * @throws NullPointerException if any of the specified keys are null
+     * @see #executeOnKeys(Set, EntryProcessor)
+     */
+    ICompletableFuture<Map<K, Object>> executeOnKeysAsync(Set<K> keys, EntryProcessor entryProcessor);
+
 
     /**
      * Applies the user defined EntryProcessor to the entry mapped by the key with
@@ -1046,7 +1281,7 @@ public interface IMap<K, V> extends ConcurrentMap<K, V>, BaseMap<K, V> {
      * @return Future from which the result of the operation can be retrieved.
      * @see java.util.concurrent.Future
      */
-    Future submitToKey(K key, EntryProcessor entryProcessor);
+    ICompletableFuture submitToKey(K key, EntryProcessor entryProcessor);
 
 
     /**
@@ -17,8 +17,11 @@
 package com.hazelcast.instance;
 
 import com.hazelcast.logging.ILogger;
+import com.hazelcast.memory.MemorySize;
+import com.hazelcast.memory.MemoryUnit;
 import com.hazelcast.security.SecurityContext;
 import com.hazelcast.storage.DataRef;
+import com.hazelcast.storage.OffHeapStorage;
 import com.hazelcast.storage.Storage;
 
 public class DefaultNodeInitializer implements NodeInitializer {
@@ -28,6 +31,7 @@ public class DefaultNodeInitializer implements NodeInitializer {
     protected Node node;
     protected String version;
     protected String build;
+    protected Storage<DataRef> offHeapStorage;
 
     @Override
     public void beforeInitialize(Node node) {
@@ -35,6 +39,20 @@ public class DefaultNodeInitializer implements NodeInitializer {
         systemLogger = node.getLogger("com.hazelcast.system");
         logger = node.getLogger("com.hazelcast.initializer");
         parseSystemProps();
+        if (node.groupProperties.ELASTIC_MEMORY_ENABLED.getBoolean()) {
+            offHeapStorage = createOffHeapStorage();
+        }
+    }
+
+    protected Storage<DataRef> createOffHeapStorage() {
+        final GroupProperties props = node.groupProperties;
+        final long totalSize = MemorySize.parse(props.ELASTIC_MEMORY_TOTAL_SIZE.getString(), MemoryUnit.MEGABYTES).bytes();
+        final int chunkSize = (int) MemorySize.parse(props.ELASTIC_MEMORY_CHUNK_SIZE.getString(), MemoryUnit.KILOBYTES).bytes();
+        final int slabSize = (int) MemorySize.parse(props.ELASTIC_MEMORY_SLAB_SIZE.getString(), MemoryUnit.MEGABYTES).bytes();
+        final boolean useUnsafe = props.ELASTIC_MEMORY_UNSAFE_ENABLED.getBoolean();
+        final OffHeapStorage storage = new OffHeapStorage(totalSize, chunkSize, slabSize, useUnsafe);
+        logger.info("Created " + storage);
+        return storage;
     }
 
     @Override
@@ -61,11 +79,18 @@ public class DefaultNodeInitializer implements NodeInitializer {
 
     @Override
     public Storage<DataRef> getOffHeapStorage() {
-        throw new UnsupportedOperationException("Offheap feature is only available on Hazelcast Enterprise Edition!");
+        if (offHeapStorage == null) {
+            throw new UnsupportedOperationException("Offheap storage is not enabled! Set '"
+                    + GroupProperties.PROP_ELASTIC_MEMORY_ENABLED + "' property to true.");
+        }
+        return offHeapStorage;
     }
 
     @Override
     public void destroy() {
         logger.info("Destroying node initializer.");
+        if (offHeapStorage != null) {
+            offHeapStorage.destroy();
+        }
     }
 }
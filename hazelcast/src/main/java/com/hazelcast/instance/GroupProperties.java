@@ -32,8 +32,13 @@ public class GroupProperties {
     public static final String PROP_VERSION_CHECK_ENABLED = "hazelcast.version.check.enabled";
     public static final String PROP_PREFER_IPv4_STACK = "hazelcast.prefer.ipv4.stack";
     public static final String PROP_IO_THREAD_COUNT = "hazelcast.io.thread.count";
+    public static final String PROP_IO_THREAD_PER_CORE = "hazelcast.io.thread.per.core";
     public static final String PROP_PARTITION_OPERATION_THREAD_COUNT = "hazelcast.operation.thread.count";
     public static final String PROP_GENERIC_OPERATION_THREAD_COUNT = "hazelcast.operation.generic.thread.count";
+    public static final String PROP_OPERATION_QUEUE_TYPE = "hazelcast.operation.queue.type";
+    public static final String PROP_OPERATION_QUEUE_CAPACITY = "hazelcast.operation.queue.capacity";
+    public static final String PROP_OPERATION_IDLE_STRATEGY = "hazelcast.operation.idle.strategy";
+    public static final String PROP_OPERATION_DRAIN_BATCH_SIZE = "hazelcast.operation.drain.batch.size";
     public static final String PROP_EVENT_THREAD_COUNT = "hazelcast.event.thread.count";
     public static final String PROP_EVENT_QUEUE_CAPACITY = "hazelcast.event.queue.capacity";
     public static final String PROP_EVENT_QUEUE_TIMEOUT_MILLIS = "hazelcast.event.queue.timeout.millis";
@@ -41,6 +46,11 @@ public class GroupProperties {
     public static final String PROP_MEMCACHE_ENABLED = "hazelcast.memcache.enabled";
     public static final String PROP_REST_ENABLED = "hazelcast.rest.enabled";
     public static final String PROP_MAP_LOAD_CHUNK_SIZE = "hazelcast.map.load.chunk.size";
+    public static final String PROP_MAP_EVICTION_SAMPLE_COUNT = "hazelcast.map.eviction.sample.count";
+    public static final String PROP_MAP_INVALIDATION_BATCH_SIZE = "hazelcast.map.invalidation.batch.size";
+    public static final String PROP_MAP_INVALIDATION_BATCH_FREQUENCY_MILLIS = "hazelcast.map.invalidation.batch.frequency.millis";
+    public static final String PROP_MAP_INVALIDATION_RECONCILIATION_INTERVAL_SECONDS
+            = "hazelcast.map.invalidation.reconciliation.interval.seconds";
     public static final String PROP_MERGE_FIRST_RUN_DELAY_SECONDS = "hazelcast.merge.first.run.delay.seconds";
     public static final String PROP_MERGE_NEXT_RUN_DELAY_SECONDS = "hazelcast.merge.next.run.delay.seconds";
     public static final String PROP_OPERATION_CALL_TIMEOUT_MILLIS = "hazelcast.operation.call.timeout.millis";
@@ -49,6 +59,7 @@ public class GroupProperties {
     public static final String PROP_SOCKET_CLIENT_BIND_ANY = "hazelcast.socket.client.bind.any";
     public static final String PROP_SOCKET_CLIENT_BIND = "hazelcast.socket.client.bind";
     public static final String PROP_SOCKET_RECEIVE_BUFFER_SIZE = "hazelcast.socket.receive.buffer.size";
+    public static final String PROP_PACKET_COMPRESSION_THRESHOLD = "hazelcast.packet.compression.threshold";
     public static final String PROP_SOCKET_SEND_BUFFER_SIZE = "hazelcast.socket.send.buffer.size";
     public static final String PROP_SOCKET_LINGER_SECONDS = "hazelcast.socket.linger.seconds";
     public static final String PROP_SOCKET_KEEP_ALIVE = "hazelcast.socket.keep.alive";
@@ -91,6 +102,7 @@ public class GroupProperties {
     public static final String PROP_ELASTIC_MEMORY_ENABLED = "hazelcast.elastic.memory.enabled";
     public static final String PROP_ELASTIC_MEMORY_TOTAL_SIZE = "hazelcast.elastic.memory.total.size";
     public static final String PROP_ELASTIC_MEMORY_CHUNK_SIZE = "hazelcast.elastic.memory.chunk.size";
+    public static final String PROP_ELASTIC_MEMORY_SLAB_SIZE = "hazelcast.elastic.memory.slab.size";
     public static final String PROP_ELASTIC_MEMORY_SHARED_STORAGE = "hazelcast.elastic.memory.shared.storage";
     public static final String PROP_ELASTIC_MEMORY_UNSAFE_ENABLED = "hazelcast.elastic.memory.unsafe.enabled";
     public static final String PROP_ENTERPRISE_LICENSE_KEY = "hazelcast.enterprise.license.key";
@@ -104,6 +116,10 @@ public class GroupProperties {
 
     public final GroupProperty PARTITION_OPERATION_THREAD_COUNT;
     public final GroupProperty GENERIC_OPERATION_THREAD_COUNT;
+    public final GroupProperty OPERATION_QUEUE_TYPE;
+    public final GroupProperty OPERATION_QUEUE_CAPACITY;
+    public final GroupProperty OPERATION_IDLE_STRATEGY;
+    public final GroupProperty OPERATION_DRAIN_BATCH_SIZE;
 
     public final GroupProperty EVENT_THREAD_COUNT;
 
@@ -113,6 +129,8 @@ public class GroupProperties {
 
     public final GroupProperty IO_THREAD_COUNT;
 
+    public final GroupProperty IO_THREAD_PER_CORE;
+
     public final GroupProperty EVENT_QUEUE_CAPACITY;
 
     public final GroupProperty EVENT_QUEUE_TIMEOUT_MILLIS;
@@ -129,6 +147,14 @@ public class GroupProperties {
 
     public final GroupProperty MAP_LOAD_CHUNK_SIZE;
 
+    public final GroupProperty MAP_EVICTION_SAMPLE_COUNT;
+
+    public final GroupProperty MAP_INVALIDATION_BATCH_SIZE;
+
+    public final GroupProperty MAP_INVALIDATION_BATCH_FREQUENCY_MILLIS;
+
+    public final GroupProperty MAP_INVALIDATION_RECONCILIATION_INTERVAL_SECONDS;
+
     public final GroupProperty MERGE_FIRST_RUN_DELAY_SECONDS;
 
     public final GroupProperty MERGE_NEXT_RUN_DELAY_SECONDS;
@@ -144,6 +170,8 @@ public class GroupProperties {
     // number of kilobytes
     public final GroupProperty SOCKET_RECEIVE_BUFFER_SIZE;
 
+    public final GroupProperty PACKET_COMPRESSION_THRESHOLD;
+
     // number of kilobytes
     public final GroupProperty SOCKET_SEND_BUFFER_SIZE;
 
@@ -223,6 +251,8 @@ public class GroupProperties {
 
     public final GroupProperty ELASTIC_MEMORY_CHUNK_SIZE;
 
+    public final GroupProperty ELASTIC_MEMORY_SLAB_SIZE;
+
     public final GroupProperty ELASTIC_MEMORY_SHARED_STORAGE;
 
     public final GroupProperty ELASTIC_MEMORY_UNSAFE_ENABLED;
@@ -242,8 +272,13 @@ public class GroupProperties {
         VERSION_CHECK_ENABLED = new GroupProperty(config, PROP_VERSION_CHECK_ENABLED, "true");
         PREFER_IPv4_STACK = new GroupProperty(config, PROP_PREFER_IPv4_STACK, "true");
         IO_THREAD_COUNT = new GroupProperty(config, PROP_IO_THREAD_COUNT, "3");
+        IO_THREAD_PER_CORE = new GroupProperty(config, PROP_IO_THREAD_PER_CORE, "false");
         PARTITION_OPERATION_THREAD_COUNT = new GroupProperty(config, PROP_PARTITION_OPERATION_THREAD_COUNT, "-1");
         GENERIC_OPERATION_THREAD_COUNT = new GroupProperty(config, PROP_GENERIC_OPERATION_THREAD_COUNT, "-1");
+        OPERATION_QUEUE_TYPE = new GroupProperty(config, PROP_OPERATION_QUEUE_TYPE, "blocking");
+        OPERATION_QUEUE_CAPACITY = new GroupProperty(config, PROP_OPERATION_QUEUE_CAPACITY, "65536");
+        OPERATION_IDLE_STRATEGY = new GroupProperty(config, PROP_OPERATION_IDLE_STRATEGY, "backoff");
+        OPERATION_DRAIN_BATCH_SIZE = new GroupProperty(config, PROP_OPERATION_DRAIN_BATCH_SIZE, "64");
         EVENT_THREAD_COUNT = new GroupProperty(config, PROP_EVENT_THREAD_COUNT, "5");
         EVENT_QUEUE_CAPACITY = new GroupProperty(config, PROP_EVENT_QUEUE_CAPACITY, "1000000");
         EVENT_QUEUE_TIMEOUT_MILLIS = new GroupProperty(config, PROP_EVENT_QUEUE_TIMEOUT_MILLIS, "250");
@@ -251,6 +286,11 @@ public class GroupProperties {
         MEMCACHE_ENABLED = new GroupProperty(config, PROP_MEMCACHE_ENABLED, "true");
         REST_ENABLED = new GroupProperty(config, PROP_REST_ENABLED, "true");
         MAP_LOAD_CHUNK_SIZE = new GroupProperty(config, PROP_MAP_LOAD_CHUNK_SIZE, "1000");
+        MAP_EVICTION_SAMPLE_COUNT = new GroupProperty(config, PROP_MAP_EVICTION_SAMPLE_COUNT, "8");
+        MAP_INVALIDATION_BATCH_SIZE = new GroupProperty(config, PROP_MAP_INVALIDATION_BATCH_SIZE, "100");
+        MAP_INVALIDATION_BATCH_FREQUENCY_MILLIS = new GroupProperty(config, PROP_MAP_INVALIDATION_BATCH_FREQUENCY_MILLIS, "100");
+        MAP_INVALIDATION_RECONCILIATION_INTERVAL_SECONDS
+                = new GroupProperty(config, PROP_MAP_INVALIDATION_RECONCILIATION_INTERVAL_SECONDS, "60");
         MERGE_FIRST_RUN_DELAY_SECONDS = new GroupProperty(config, PROP_MERGE_FIRST_RUN_DELAY_SECONDS, "300");
         MERGE_NEXT_RUN_DELAY_SECONDS = new GroupProperty(config, PROP_MERGE_NEXT_RUN_DELAY_SECONDS, "120");
         OPERATION_CALL_TIMEOUT_MILLIS = new GroupProperty(config, PROP_OPERATION_CALL_TIMEOUT_MILLIS, "60000");
@@ -259,6 +299,7 @@ public class GroupProperties {
         SOCKET_CLIENT_BIND_ANY = new GroupProperty(config, PROP_SOCKET_CLIENT_BIND_ANY, SOCKET_BIND_ANY);
         SOCKET_CLIENT_BIND = new GroupProperty(config, PROP_SOCKET_CLIENT_BIND, "true");
         SOCKET_RECEIVE_BUFFER_SIZE = new GroupProperty(config, PROP_SOCKET_RECEIVE_BUFFER_SIZE, "32");
+        PACKET_COMPRESSION_THRESHOLD = new GroupProperty(config, PROP_PACKET_COMPRESSION_THRESHOLD, "0");
         SOCKET_SEND_BUFFER_SIZE = new GroupProperty(config, PROP_SOCKET_SEND_BUFFER_SIZE, "32");
         SOCKET_LINGER_SECONDS = new GroupProperty(config, PROP_SOCKET_LINGER_SECONDS, "0");
         SOCKET_KEEP_ALIVE = new GroupProperty(config, PROP_SOCKET_KEEP_ALIVE, "true");
@@ -301,6 +342,7 @@ public class GroupProperties {
         ELASTIC_MEMORY_ENABLED = new GroupProperty(config, PROP_ELASTIC_MEMORY_ENABLED, "false");
         ELASTIC_MEMORY_TOTAL_SIZE = new GroupProperty(config, PROP_ELASTIC_MEMORY_TOTAL_SIZE, "128M");
         ELASTIC_MEMORY_CHUNK_SIZE = new GroupProperty(config, PROP_ELASTIC_MEMORY_CHUNK_SIZE, "1K");
+        ELASTIC_MEMORY_SLAB_SIZE = new GroupProperty(config, PROP_ELASTIC_MEMORY_SLAB_SIZE, "1M");
         ELASTIC_MEMORY_SHARED_STORAGE = new GroupProperty(config, PROP_ELASTIC_MEMORY_SHARED_STORAGE, "false");
         ELASTIC_MEMORY_UNSAFE_ENABLED = new GroupProperty(config, PROP_ELASTIC_MEMORY_UNSAFE_ENABLED, "false");
         ENTERPRISE_LICENSE_KEY = new GroupProperty(config, PROP_ENTERPRISE_LICENSE_KEY);
@@ -18,8 +18,11 @@ package com.hazelcast.jmx;
 
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.spi.OperationService;
+import com.hazelcast.spi.impl.InternalOperationService;
+import com.hazelcast.spi.impl.OperationThreadStats;
 
 import java.util.Hashtable;
+import java.util.List;
 
 import static com.hazelcast.jmx.ManagementService.quote;
 
@@ -73,4 +76,18 @@ public class OperationServiceMBean extends HazelcastMBean<OperationService> {
     public long getOperationThreadCount() {
         return managedObject.getPartitionOperationThreadCount();
     }
+
+    @ManagedAnnotation("operationThreadStats")
+    @ManagedDescription("Queue depth and drain batch histograms of the threads executing operations")
+    public String[] getOperationThreadStats() {
+        if (!(managedObject instanceof InternalOperationService)) {
+            return new String[0];
+        }
+        final List<OperationThreadStats> stats = ((InternalOperationService) managedObject).getOperationThreadStats();
+        final String[] result = new String[stats.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = stats.get(i).toString();
+        }
+        return result;
+    }
 }
@@ -23,6 +23,7 @@ import com.hazelcast.config.MapConfig;
 import com.hazelcast.core.EntryView;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.map.eviction.EvictionHelper;
+import com.hazelcast.map.eviction.EvictionPool;
 import com.hazelcast.map.merge.MapMergePolicy;
 import com.hazelcast.map.operation.PutAllOperation;
 import com.hazelcast.map.record.Record;
@@ -73,7 +74,7 @@ public class DefaultRecordStore implements RecordStore {
     private static final byte POST_READ_CHECK_POINT = 0x3F;
     private final String name;
     private final int partitionId;
-    private final ConcurrentMap<Data, Record> records = new ConcurrentHashMap<Data, Record>(1000);
+    private final ConcurrentMap<Data, Record> records;
     private final MapContainer mapContainer;
     private final MapService mapService;
     private final LockStore lockStore;
@@ -96,9 +97,19 @@ public class DefaultRecordStore implements RecordStore {
      * used for lru eviction.
      */
     private long lruAccessSequenceNumber;
+    /**
+     * Eviction candidates sampled from records, created lazily on first eviction.
+     */
+    private EvictionPool evictionPool;
 
     public DefaultRecordStore(String name, MapService mapService, int partitionId) {
+        this(name, mapService, partitionId, new ConcurrentHashMap<Data, Record>(1000));
+    }
+
+    protected DefaultRecordStore(String name, MapService mapService, int partitionId,
+                                 ConcurrentMap<Data, Record> records) {
         this.name = name;
+        this.records = records;
         this.partitionId = partitionId;
         this.mapService = mapService;
         this.mapContainer = mapService.getMapContainer(name);
@@ -192,6 +203,10 @@ public class DefaultRecordStore implements RecordStore {
         return Collections.unmodifiableMap(records);
     }
 
+    public Iterator<Record> cursorIterator() {
+        return getReadonlyRecordMap().values().iterator();
+    }
+
     public void clearPartition() {
         final LockService lockService = mapService.getNodeEngine().getSharedService(LockService.SERVICE_NAME);
         if (lockService != null) {
@@ -208,7 +223,7 @@ public class DefaultRecordStore implements RecordStore {
         resetAccessSequenceNumber();
     }
 
-    private void clearRecordsMap(Map<Data, Record> excludeRecords) {
+    protected void clearRecordsMap(Map<Data, Record> excludeRecords) {
         InMemoryFormat inMemoryFormat = recordFactory.getStorageFormat();
         switch (inMemoryFormat) {
             case BINARY:
@@ -414,7 +429,7 @@ public class DefaultRecordStore implements RecordStore {
                 updateSizeEstimator(calculateRecordSize(record));
             }
         }
-        Set<Data> keysToDelete = records.keySet();
+        Set<Data> keysToDelete = new HashSet<Data>(records.keySet());
         keysToDelete.removeAll(lockedRecords.keySet());
 
         final MapStoreWrapper store = mapContainer.getStore();
@@ -913,9 +928,9 @@ public class DefaultRecordStore implements RecordStore {
             value = mapService.interceptPut(name, null, value);
             value = mapStoreWrite(key, value, record);
             record = mapService.createRecord(name, key, value, ttl);
+            updateTtl(record, ttl);
             records.put(key, record);
             updateSizeEstimator(calculateRecordSize(record));
-            updateTtl(record, ttl);
         }
         saveIndex(record);
         removeFromWriteBehindWaitingDeletions(key);
@@ -1015,7 +1030,11 @@ public class DefaultRecordStore implements RecordStore {
         if (!evictable) {
             return;
         }
-        EvictionHelper.removeEvictableRecords(DefaultRecordStore.this,
+        if (evictionPool == null) {
+            final int sampleCount = mapService.getNodeEngine().getGroupProperties().MAP_EVICTION_SAMPLE_COUNT.getInteger();
+            evictionPool = new EvictionPool(sampleCount);
+        }
+        EvictionHelper.removeEvictableRecords(DefaultRecordStore.this, evictionPool,
                 mapContainer.getMapConfig(), mapService);
         lastEvictionTime = now;
         readCountBeforeCleanUp = 0;
@@ -1185,7 +1204,7 @@ public class DefaultRecordStore implements RecordStore {
         sizeEstimator.add(recordSize);
     }
 
-    private long calculateRecordSize(Record record) {
+    protected long calculateRecordSize(Record record) {
         return sizeEstimator.getCost(record);
     }
 
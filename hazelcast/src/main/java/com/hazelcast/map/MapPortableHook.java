@@ -70,6 +70,12 @@ public class MapPortableHook implements PortableHook {
     public static final int EXECUTE_WITH_PREDICATE = 43;
     public static final int REMOVE_ENTRY_LISTENER = 44;
     public static final int EXECUTE_ON_KEYS = 45;
+    public static final int EXPLAIN = 46;
+    public static final int NEAR_CACHE_INVALIDATION_BATCH = 47;
+    public static final int ADD_NEAR_CACHE_INVALIDATION_LISTENER = 48;
+    public static final int AGGREGATE = 49;
+    public static final int ADD_QUERY_CACHE_LISTENER = 50;
+    public static final int QUERY_PAGE = 51;
 
     public int getFactoryId() {
         return F_ID;
@@ -77,7 +83,8 @@ public class MapPortableHook implements PortableHook {
 
     public PortableFactory createFactory() {
         return new PortableFactory() {
-            final ConstructorFunction<Integer, Portable> constructors[] = new ConstructorFunction[EXECUTE_ON_KEYS + 1];
+            final ConstructorFunction<Integer, Portable> constructors[]
+                    = new ConstructorFunction[QUERY_PAGE + 1];
             {
                 constructors[GET] = new ConstructorFunction<Integer, Portable>() {
                     public Portable createNew(Integer arg) {
@@ -325,6 +332,41 @@ public class MapPortableHook implements PortableHook {
                     }
                 };
 
+                constructors[EXPLAIN] = new ConstructorFunction<Integer, Portable>() {
+                    public Portable createNew(Integer arg) {
+                        return new MapExplainRequest();
+                    }
+                };
+
+                constructors[NEAR_CACHE_INVALIDATION_BATCH] = new ConstructorFunction<Integer, Portable>() {
+                    public Portable createNew(Integer arg) {
+                        return new NearCacheInvalidationBatch();
+                    }
+                };
+
+                constructors[ADD_NEAR_CACHE_INVALIDATION_LISTENER] = new ConstructorFunction<Integer, Portable>() {
+                    public Portable createNew(Integer arg) {
+                        return new MapAddNearCacheInvalidationListenerRequest();
+                    }
+                };
+
+                constructors[AGGREGATE] = new ConstructorFunction<Integer, Portable>() {
+                    public Portable createNew(Integer arg) {
+                        return new MapAggregateRequest();
+                    }
+                };
+
+                constructors[ADD_QUERY_CACHE_LISTENER] = new ConstructorFunction<Integer, Portable>() {
+                    public Portable createNew(Integer arg) {
+                        return new MapAddQueryCacheListenerRequest();
+                    }
+                };
+                constructors[QUERY_PAGE] = new ConstructorFunction<Integer, Portable>() {
+                    public Portable createNew(Integer arg) {
+                        return new MapQueryPageRequest();
+                    }
+                };
+
 
             }
 
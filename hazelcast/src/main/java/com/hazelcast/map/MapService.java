@@ -16,28 +16,26 @@
 
 package com.hazelcast.map;
 
+import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.cluster.ClusterService;
 import com.hazelcast.concurrent.lock.LockService;
 import com.hazelcast.concurrent.lock.LockStoreInfo;
+import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.core.EntryEvent;
 import com.hazelcast.core.EntryEventType;
 import com.hazelcast.core.EntryListener;
 import com.hazelcast.core.EntryView;
-import com.hazelcast.core.HazelcastException;
 import com.hazelcast.core.Member;
 import com.hazelcast.core.PartitioningStrategy;
-import com.hazelcast.instance.MemberImpl;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.map.merge.HigherHitsMapMergePolicy;
 import com.hazelcast.map.merge.LatestUpdateMapMergePolicy;
 import com.hazelcast.map.merge.MapMergePolicy;
 import com.hazelcast.map.merge.PassThroughMergePolicy;
 import com.hazelcast.map.merge.PutIfAbsentMapMergePolicy;
-import com.hazelcast.map.operation.InvalidateNearCacheOperation;
 import com.hazelcast.map.operation.MapReplicationOperation;
 import com.hazelcast.map.operation.MergeOperation;
-import com.hazelcast.map.operation.NearCacheKeySetInvalidationOperation;
 import com.hazelcast.map.operation.PostJoinMapOperation;
 import com.hazelcast.map.operation.WanOriginatedDeleteOperation;
 import com.hazelcast.map.proxy.MapProxyImpl;
@@ -79,7 +77,10 @@ import com.hazelcast.spi.ReplicationSupportingService;
 import com.hazelcast.spi.SplitBrainHandlerService;
 import com.hazelcast.spi.TransactionalService;
 import com.hazelcast.spi.impl.EventServiceImpl;
+import com.hazelcast.storage.DataRef;
+import com.hazelcast.storage.Storage;
 import com.hazelcast.transaction.impl.TransactionSupport;
+import com.hazelcast.util.Clock;
 import com.hazelcast.util.ConcurrencyUtil;
 import com.hazelcast.util.ConstructorFunction;
 import com.hazelcast.util.ExceptionUtil;
@@ -91,8 +92,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -108,17 +111,22 @@ import java.util.concurrent.atomic.AtomicReference;
  * The SPI Service for the Map.
  */
 public class MapService implements ManagedService, MigrationAwareService,
-        TransactionalService, RemoteService, EventPublishingService<EventData, EntryListener>,
+        TransactionalService, RemoteService, EventPublishingService<Object, Object>,
         PostJoinAwareService, SplitBrainHandlerService, ReplicationSupportingService {
     /**
      * Service name.
      */
     public static final String SERVICE_NAME = "hz:impl:mapService";
+    /**
+     * Time after which an idle query cursor is removed, see {@link QueryCursorSweeper}.
+     */
+    private static final long QUERY_CURSOR_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
     private final ILogger logger;
     private final NodeEngine nodeEngine;
     private final PartitionContainer[] partitionContainers;
     private final ConcurrentMap<String, MapContainer> mapContainers = new ConcurrentHashMap<String, MapContainer>();
     private final ConcurrentMap<String, NearCache> nearCacheMap = new ConcurrentHashMap<String, NearCache>();
+    private final NearCacheInvalidator nearCacheInvalidator;
     private final AtomicReference<List<Integer>> ownedPartitions;
     private final Map<String, MapMergePolicy> mergePolicyMap;
     // we added following latency to be sure the ongoing migration is completed if the owner of
@@ -134,7 +142,7 @@ public class MapService implements ManagedService, MigrationAwareService,
         mergePolicyMap.put(HigherHitsMapMergePolicy.class.getName(), new HigherHitsMapMergePolicy());
         mergePolicyMap.put(PassThroughMergePolicy.class.getName(), new PassThroughMergePolicy());
         mergePolicyMap.put(LatestUpdateMapMergePolicy.class.getName(), new LatestUpdateMapMergePolicy());
-
+        nearCacheInvalidator = new NearCacheInvalidator(this);
     }
 
     private final ConcurrentMap<String, LocalMapStatsImpl> statsMap = new ConcurrentHashMap<String, LocalMapStatsImpl>(1000);
@@ -153,6 +161,9 @@ public class MapService implements ManagedService, MigrationAwareService,
         for (int i = 0; i < partitionCount; i++) {
             partitionContainers[i] = new PartitionContainer(this, i);
         }
+        nearCacheInvalidator.start();
+        nodeEngine.getExecutionService().scheduleAtFixedRate(new QueryCursorSweeper(), QUERY_CURSOR_TIMEOUT_MILLIS,
+                QUERY_CURSOR_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
         final LockService lockService = nodeEngine.getSharedService(LockService.SERVICE_NAME);
         if (lockService != null) {
             lockService.registerLockStoreConstructor(SERVICE_NAME, new ConstructorFunction<ObjectNamespace, LockStoreInfo>() {
@@ -253,7 +264,12 @@ public class MapService implements ManagedService, MigrationAwareService,
                         records = new ArrayList<Record>();
                         recordMap.put(mapContainer, records);
                     }
-                    records.addAll(recordStore.getReadonlyRecordMap().values());
+                    if (recordStore instanceof OffHeapRecordStore) {
+                        // off-heap records are views and do not survive the reset below
+                        records.addAll(((OffHeapRecordStore) recordStore).copyRecords());
+                    } else {
+                        records.addAll(recordStore.getReadonlyRecordMap().values());
+                    }
                 }
                 // clear all records either owned or backup
                 recordStore.reset();
@@ -439,6 +455,7 @@ public class MapService implements ManagedService, MigrationAwareService,
                 mapPartition.clearPartition();
             }
             container.getMaps().clear();
+            container.getQueryCursors().clear();
         }
     }
 
@@ -521,30 +538,30 @@ public class MapService implements ManagedService, MigrationAwareService,
         }
     }
 
+    /**
+     * Invalidates the key in the near caches of all members and clients. Invalidations are sent in batches,
+     * see {@link NearCacheInvalidator}.
+     */
     public void invalidateAllNearCaches(String mapName, Data key) {
-        if (!isNearCacheEnabled(mapName)) {
-            return;
-        }
-        Collection<MemberImpl> members = nodeEngine.getClusterService().getMemberList();
-        for (MemberImpl member : members) {
-            try {
-                if (member.localMember())
-                    continue;
-                Operation operation = new InvalidateNearCacheOperation(mapName, key).setServiceName(SERVICE_NAME);
-                nodeEngine.getOperationService().send(operation, member.getAddress());
-            } catch (Throwable throwable) {
-                throw new HazelcastException(throwable);
-            }
-        }
+        nearCacheInvalidator.invalidate(mapName, key);
         // below local invalidation is for the case the data is cached before partition is owned/migrated
         invalidateNearCache(mapName, key);
     }
 
+    /**
+     * Invalidates all entries of the partition in the near caches of all members and clients.
+     */
+    public void invalidateAllNearCaches(String mapName, int partitionId) {
+        if (isNearCacheAndInvalidationEnabled(mapName)) {
+            nearCacheInvalidator.invalidatePartition(mapName, partitionId);
+        }
+    }
 
     public boolean isNearCacheAndInvalidationEnabled(String mapName) {
         final MapContainer mapContainer = getMapContainer(mapName);
-        return mapContainer.isNearCacheEnabled()
-                && mapContainer.getMapConfig().getNearCacheConfig().isInvalidateOnChange();
+        return (mapContainer.isNearCacheEnabled()
+                && mapContainer.getMapConfig().getNearCacheConfig().isInvalidateOnChange())
+                || nearCacheInvalidator.hasListeners(mapName);
     }
 
     public boolean isNearCacheEnabled(String mapName) {
@@ -553,27 +570,11 @@ public class MapService implements ManagedService, MigrationAwareService,
     }
 
     public void invalidateAllNearCaches(String mapName, Set<Data> keys) {
-        if (!isNearCacheEnabled(mapName)) {
-            return;
-        }
         if (keys == null || keys.isEmpty()) {
             return;
         }
-        //send operation.
-        Operation operation = new NearCacheKeySetInvalidationOperation(mapName, keys).setServiceName(SERVICE_NAME);
-        Collection<MemberImpl> members = nodeEngine.getClusterService().getMemberList();
-        for (MemberImpl member : members) {
-            try {
-                if (member.localMember())
-                    continue;
-                nodeEngine.getOperationService().send(operation, member.getAddress());
-            } catch (Throwable throwable) {
-                logger.warning(throwable);
-            }
-        }
-        // below local invalidation is for the case the data is cached before partition is owned/migrated
-        for (final Data key : keys) {
-            invalidateNearCache(mapName, key);
+        for (Data key : keys) {
+            invalidateAllNearCaches(mapName, key);
         }
     }
 
@@ -721,8 +722,27 @@ public class MapService implements ManagedService, MigrationAwareService,
         Object oldValue = null;
         for (EventRegistration candidate : candidates) {
             EventFilter filter = candidate.getFilter();
-            if (filter instanceof EventServiceImpl.EmptyFilter) {
+            if (filter instanceof NearCacheInvalidationFilter) {
+                continue;
+            } else if (filter instanceof EventServiceImpl.EmptyFilter) {
                 registrationsWithValue.add(candidate);
+            } else if (filter instanceof QueryCacheEventFilter) {
+                QueryCacheEventFilter queryCacheEventFilter = (QueryCacheEventFilter) filter;
+                key = key != null ? key : toObject(dataKey);
+                boolean matches = false;
+                if (eventType == EntryEventType.ADDED || eventType == EntryEventType.UPDATED) {
+                    value = value != null ? value : toObject(dataValue);
+                    matches = queryCacheEventFilter.eval(new QueryEntry(getSerializationService(), dataKey, key, value));
+                }
+                if (!matches && eventType != EntryEventType.ADDED) {
+                    // without the old value the entry may have matched, the query cache ignores unknown removals
+                    oldValue = oldValue != null ? oldValue : toObject(dataOldValue);
+                    matches = oldValue == null
+                            || queryCacheEventFilter.eval(new QueryEntry(getSerializationService(), dataKey, key, oldValue));
+                }
+                if (matches) {
+                    registrationsWithValue.add(candidate);
+                }
             } else if (filter instanceof QueryEventFilter) {
                 Object testValue;
                 if (eventType == EntryEventType.REMOVED || eventType == EntryEventType.EVICTED) {
@@ -773,6 +793,15 @@ public class MapService implements ManagedService, MigrationAwareService,
         return registration.getId();
     }
 
+    /**
+     * Registers a listener for the near cache invalidations of the map, used by client near caches.
+     */
+    public String addNearCacheInvalidationListener(NearCacheInvalidationListener listener, String mapName) {
+        EventRegistration registration = nodeEngine.getEventService().registerListener(SERVICE_NAME, mapName,
+                new NearCacheInvalidationFilter(), listener);
+        return registration.getId();
+    }
+
     public String addEventListener(EntryListener entryListener, EventFilter eventFilter, String mapName) {
         EventRegistration registration = nodeEngine.getEventService().registerListener(SERVICE_NAME, mapName, eventFilter, entryListener);
         return registration.getId();
@@ -900,6 +929,14 @@ public class MapService implements ManagedService, MigrationAwareService,
     }
 
     @SuppressWarnings("unchecked")
+    public void dispatchEvent(Object event, Object listener) {
+        if (event instanceof NearCacheInvalidationBatch) {
+            ((NearCacheInvalidationListener) listener).onInvalidate((NearCacheInvalidationBatch) event);
+        } else {
+            dispatchEvent((EventData) event, (EntryListener) listener);
+        }
+    }
+
     public void dispatchEvent(EventData eventData, EntryListener listener) {
         Member member = nodeEngine.getClusterService().getMember(eventData.getCaller());
         EntryEvent event = new DataAwareEntryEvent(member, eventData.getEventType(), eventData.getMapName(),
@@ -969,6 +1006,120 @@ public class MapService implements ManagedService, MigrationAwareService,
         return result;
     }
 
+    /**
+     * Accumulates the entries of the partition matching the predicate, all entries if it is <tt>null</tt>.
+     */
+    public void aggregateOnPartition(String mapName, Aggregator aggregator, Predicate predicate, int partitionId) {
+        PartitionContainer container = getPartitionContainer(partitionId);
+        RecordStore recordStore = container.getRecordStore(mapName);
+        SerializationService serializationService = nodeEngine.getSerializationService();
+        for (Record record : recordStore.getReadonlyRecordMap().values()) {
+            Data key = record.getKey();
+            Object value = record.getValue();
+            if (value == null) {
+                continue;
+            }
+            QueryEntry queryEntry = new QueryEntry(serializationService, key, key, value);
+            if (predicate == null || predicate.apply(queryEntry)) {
+                aggregator.accumulate(queryEntry);
+            }
+        }
+    }
+
+    /**
+     * Fetches a page of the entries of a partition matching the predicate, continuing the query of the cursor.
+     * Has to be called by the partition thread.
+     *
+     * @param cursorId  the id of the cursor, chosen by the caller for its query.
+     * @param page      the number of the page; the first page opens the cursor, the previous page is sent again.
+     * @param fetchSize the maximum number of entries of the page.
+     * @throws ConcurrentModificationException if the cursor was lost, because it expired, its partition migrated
+     *                                         or its off-heap record store was resized.
+     */
+    public QueryCursorPage fetchQueryPage(String mapName, Predicate predicate, int partitionId, String cursorId,
+                                          int page, int fetchSize) {
+        final PartitionContainer container = getPartitionContainer(partitionId);
+        final ConcurrentMap<String, QueryCursor> cursors = container.getQueryCursors();
+        final long now = Clock.currentTimeMillis();
+        QueryCursor cursor = cursors.get(cursorId);
+        if (page == 0 && cursor == null) {
+            removeExpiredQueryCursors(cursors, now, true);
+            final RecordStore recordStore = container.getExistingRecordStore(mapName);
+            if (recordStore == null) {
+                final QueryCursorPage empty = new QueryCursorPage(0);
+                empty.setLast(true);
+                return empty;
+            }
+            cursor = new QueryCursor(recordStore, predicate, now);
+            cursors.put(cursorId, cursor);
+        } else if (cursor != null && cursor.getPage() == page + 1) {
+            cursor.setLastAccessTime(now);
+            return cursor.getLastPage();
+        } else if (cursor == null || cursor.getPage() != page
+                || cursor.getRecordStore() != container.getExistingRecordStore(mapName)) {
+            cursors.remove(cursorId);
+            throw new ConcurrentModificationException("Query cursor " + cursorId + " of map " + mapName
+                    + " on partition " + partitionId + " was lost, its partition migrated or it expired");
+        }
+        final QueryCursorPage result = new QueryCursorPage(fetchSize);
+        final SerializationService serializationService = nodeEngine.getSerializationService();
+        final Iterator<Record> records = cursor.getRecords();
+        try {
+            while (result.size() < fetchSize && records.hasNext()) {
+                final Record record = records.next();
+                final Data key = record.getKey();
+                final Object value = record.getValue();
+                if (value == null) {
+                    continue;
+                }
+                if (cursor.getPredicate() == null
+                        || cursor.getPredicate().apply(new QueryEntry(serializationService, key, key, value))) {
+                    result.add(key, serializationService.toData(value));
+                }
+            }
+            result.setLast(!records.hasNext());
+        } catch (ConcurrentModificationException e) {
+            cursors.remove(cursorId);
+            throw new ConcurrentModificationException("Query cursor " + cursorId + " of map " + mapName
+                    + " on partition " + partitionId + " was lost, its records cannot be iterated on: " + e.getMessage());
+        }
+        cursor.setLastPage(result);
+        cursor.setLastAccessTime(now);
+        // a finished cursor keeps its last page, in case its request is retried, until the next cursor opens or it expires
+        return result;
+    }
+
+    /**
+     * @param removeFinished if the cursors which sent their last page should be removed too; only the partition
+     *                       thread can tell, other threads remove idle cursors only.
+     */
+    private void removeExpiredQueryCursors(ConcurrentMap<String, QueryCursor> cursors, long now, boolean removeFinished) {
+        for (Map.Entry<String, QueryCursor> entry : cursors.entrySet()) {
+            final QueryCursor cursor = entry.getValue();
+            if (now - cursor.getLastAccessTime() > QUERY_CURSOR_TIMEOUT_MILLIS
+                    || (removeFinished && cursor.getLastPage() != null && cursor.getLastPage().isLast())) {
+                cursors.remove(entry.getKey(), cursor);
+            }
+        }
+    }
+
+    /**
+     * Removes the query cursors abandoned by their callers, on partitions no other cursor is opened on.
+     * A cursor removed while its page is being fetched still completes that page, the next page request fails
+     * as for any expired cursor.
+     */
+    private class QueryCursorSweeper implements Runnable {
+
+        public void run() {
+            final long now = Clock.currentTimeMillis();
+            for (PartitionContainer container : partitionContainers) {
+                if (container != null && !container.getQueryCursors().isEmpty()) {
+                    removeExpiredQueryCursors(container.getQueryCursors(), now, false);
+                }
+            }
+        }
+    }
+
     public LocalMapStatsImpl createLocalMapStats(String mapName) {
         MapContainer mapContainer = getMapContainer(mapName);
         LocalMapStatsImpl localMapStats = getLocalMapStatsImpl(mapName);
@@ -984,6 +1135,7 @@ public class MapService implements ManagedService, MigrationAwareService,
         long hits = 0;
         long lockedEntryCount = 0;
         long heapCost = 0;
+        long offHeapUsedMemory = 0;
 
         int backupCount = mapContainer.getTotalBackupCount();
         ClusterService clusterService = nodeEngine.getClusterService();
@@ -1005,6 +1157,7 @@ public class MapService implements ManagedService, MigrationAwareService,
                 //we ask for 'getExistingRecordStore' instead of 'getRecordStore' which does the load.
                 if (recordStore != null) {
                     heapCost += recordStore.getHeapCost();
+                    offHeapUsedMemory += getOffHeapUsedMemory(recordStore);
                     Map<Data, Record> records = recordStore.getReadonlyRecordMap();
                     for (Record record : records.values()) {
                         RecordStatistics stats = record.getStatistics();
@@ -1038,6 +1191,7 @@ public class MapService implements ManagedService, MigrationAwareService,
                         PartitionContainer partitionContainer = getPartitionContainer(partitionId);
                         RecordStore recordStore = partitionContainer.getRecordStore(mapName);
                         heapCost += recordStore.getHeapCost();
+                        offHeapUsedMemory += getOffHeapUsedMemory(recordStore);
 
                         Map<Data, Record> records = recordStore.getReadonlyRecordMap();
                         for (Record record : records.values()) {
@@ -1062,6 +1216,13 @@ public class MapService implements ManagedService, MigrationAwareService,
         // add near cache heap cost.
         heapCost += mapContainer.getNearCacheSizeEstimator().getSize();
         localMapStats.setHeapCost(heapCost);
+        if (mapContainer.getMapConfig().getInMemoryFormat() == InMemoryFormat.OFFHEAP) {
+            final Storage<DataRef> storage = nodeEngine.getOffHeapStorage();
+            localMapStats.setOffHeapMemory(storage.getUsedMemory(), storage.getFreeMemory(),
+                    storage.getFragmentedMemory());
+        } else if (mapContainer.getMapConfig().getRecordStoreType() == MapConfig.RecordStoreType.OFFHEAP) {
+            localMapStats.setOffHeapMemory(offHeapUsedMemory, 0L, 0L);
+        }
         if (mapContainer.getMapConfig().isNearCacheEnabled()) {
             NearCacheStatsImpl nearCacheStats = getNearCache(mapName).getNearCacheStats();
             localMapStats.setNearCacheStats(nearCacheStats);
@@ -1070,6 +1231,13 @@ public class MapService implements ManagedService, MigrationAwareService,
         return localMapStats;
     }
 
+    private static long getOffHeapUsedMemory(RecordStore recordStore) {
+        if (recordStore instanceof OffHeapRecordStore) {
+            return ((OffHeapRecordStore) recordStore).getOffHeapUsedMemory();
+        }
+        return 0L;
+    }
+
     static long zeroOrPositive(long value) {
         return (value > 0) ? value : 0;
     }
@@ -21,14 +21,15 @@ import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.monitor.impl.NearCacheStatsImpl;
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.partition.InternalPartitionService;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.util.Clock;
 import com.hazelcast.util.ExceptionUtil;
 
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.RejectedExecutionException;
@@ -44,8 +45,6 @@ public class NearCache {
      * Used when caching nonexistent values.
      */
     public static final Object NULL_OBJECT = new Object();
-    private static final int HUNDRED_PERCENT = 100;
-    private static final int EVICTION_PERCENTAGE = 20;
     private static final int CLEANUP_INTERVAL = 5000;
     private final int maxSize;
     private volatile long lastCleanup;
@@ -56,10 +55,11 @@ public class NearCache {
     private final MapService mapService;
     private final NodeEngine nodeEngine;
     private final AtomicBoolean canCleanUp;
-    private final AtomicBoolean canEvict;
     private final ConcurrentMap<Data, CacheRecord> cache;
+    private final NearCacheEvictor<Data, CacheRecord> evictor;
     private final MapContainer mapContainer;
     private final NearCacheStatsImpl nearCacheStats;
+    private final NearCacheSequenceTracker sequenceTracker;
 
     /**
      * @param mapName
@@ -78,8 +78,14 @@ public class NearCache {
         evictionPolicy = EvictionPolicy.valueOf(nearCacheConfig.getEvictionPolicy());
         cache = new ConcurrentHashMap<Data, CacheRecord>();
         canCleanUp = new AtomicBoolean(true);
-        canEvict = new AtomicBoolean(true);
         nearCacheStats = new NearCacheStatsImpl();
+        evictor = new NearCacheEvictor<Data, CacheRecord>(cache, evictionPolicy == EvictionPolicy.LFU, nearCacheStats) {
+            @Override
+            protected void onEvict(CacheRecord record) {
+                updateSizeEstimator(-calculateCost(record));
+            }
+        };
+        sequenceTracker = new NearCacheSequenceTracker(nodeEngine.getPartitionService().getPartitionCount());
         lastCleanup = Clock.currentTimeMillis();
     }
 
@@ -96,7 +102,7 @@ public class NearCache {
             return;
         }
         if (evictionPolicy != EvictionPolicy.NONE && cache.size() >= maxSize) {
-            fireEvictCache();
+            evictor.evict(maxSize);
         }
         final Object value;
         if (data == null) {
@@ -125,35 +131,6 @@ public class NearCache {
         return nearCacheStats;
     }
 
-    private void fireEvictCache() {
-        if (canEvict.compareAndSet(true, false)) {
-            try {
-                nodeEngine.getExecutionService().execute("hz:near-cache", new Runnable() {
-                    public void run() {
-                        try {
-                            TreeSet<CacheRecord> records = new TreeSet<CacheRecord>(cache.values());
-                            int evictSize = cache.size() * EVICTION_PERCENTAGE / HUNDRED_PERCENT;
-                            int i = 0;
-                            for (CacheRecord record : records) {
-                                cache.remove(record.key);
-                                updateSizeEstimator(-calculateCost(record));
-                                if (++i > evictSize) {
-                                    break;
-                                }
-                            }
-                        } finally {
-                            canEvict.set(true);
-                        }
-                    }
-                });
-            } catch (RejectedExecutionException e) {
-                canEvict.set(true);
-            } catch (Exception e) {
-                throw ExceptionUtil.rethrow(e);
-            }
-        }
-    }
-
     private void fireTtlCleanup() {
         if (Clock.currentTimeMillis() < (lastCleanup + CLEANUP_INTERVAL)) {
             return;
@@ -223,6 +200,34 @@ public class NearCache {
         }
     }
 
+    /**
+     * Invalidates the keys of the batch, after dropping the entries of the partitions
+     * for which invalidations were missed.
+     */
+    public void invalidate(NearCacheInvalidationBatch batch) {
+        final BitSet missed = sequenceTracker.track(batch);
+        if (missed != null) {
+            repair(missed);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            final Data key = batch.getKey(i);
+            if (key != null) {
+                invalidate(key);
+                nearCacheStats.incrementInvalidations();
+            }
+        }
+    }
+
+    private void repair(BitSet partitions) {
+        final InternalPartitionService partitionService = nodeEngine.getPartitionService();
+        for (Data key : cache.keySet()) {
+            if (partitions.get(partitionService.getPartitionId(key))) {
+                invalidate(key);
+            }
+        }
+        nearCacheStats.incrementRepairs(partitions.cardinality());
+    }
+
     public int size() {
         return cache.size();
     }
@@ -239,7 +244,7 @@ public class NearCache {
     /**
      * CacheRecord.
      */
-    public class CacheRecord implements Comparable<CacheRecord> {
+    public class CacheRecord implements NearCacheEvictor.Evictable {
         final Data key;
         final Object value;
         final long creationTime;
@@ -267,28 +272,12 @@ public class NearCache {
                     || (timeToLiveMillis > 0 && time > creationTime + timeToLiveMillis);
         }
 
-        public int compareTo(CacheRecord o) {
-            if (EvictionPolicy.LRU.equals(evictionPolicy)) {
-                return ((Long) this.lastAccessTime).compareTo((o.lastAccessTime));
-            } else if (EvictionPolicy.LFU.equals(evictionPolicy)) {
-                return ((Integer) this.hit.get()).compareTo((o.hit.get()));
-            }
-            return 0;
-        }
-
-        public boolean equals(Object o) {
-            if (o != null && o instanceof CacheRecord) {
-                return this.compareTo((CacheRecord) o) == 0;
-            }
-            return false;
+        public long getLastAccessTime() {
+            return lastAccessTime;
         }
 
-        // If you don't think instances of this class will ever be inserted into a HashMap/HashTable,
-        // the recommended hashCode implementation to use is:
-        public int hashCode() {
-            assert false : "hashCode not designed";
-            // any arbitrary constant will do.
-            return 42;
+        public int getHits() {
+            return hit.get();
         }
 
         public long getCost() {
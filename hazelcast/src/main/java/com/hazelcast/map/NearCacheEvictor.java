@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map;
+
+import com.hazelcast.monitor.impl.NearCacheStatsImpl;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Evicts entries of a full near cache by sampling instead of sorting the whole cache.
+ * <p/>
+ * Each call of {@link #evict(int)} reads the next {@link #SAMPLE_SIZE} entries of the cache, continuing where
+ * the previous call stopped, and removes the least recently (LRU) or least frequently (LFU) used of them. So a
+ * put into a full cache evicts just the entries needed to make room, instead of a fifth of the cache at once.
+ * <p/>
+ * Only one thread evicts at a time. Threads putting concurrently do not wait for it, so the cache can exceed
+ * its maximum size by a few entries until the following puts evict them.
+ *
+ * @param <K> the type of the keys.
+ * @param <R> the type of the records.
+ */
+public class NearCacheEvictor<K, R extends NearCacheEvictor.Evictable> {
+
+    /**
+     * The number of entries compared to choose one to evict.
+     */
+    public static final int SAMPLE_SIZE = 15;
+
+    /**
+     * Bounds the entries a single call evicts when concurrent puts made the cache exceed its maximum size.
+     */
+    private static final int MAX_EVICTIONS_PER_CALL = 4;
+
+    /**
+     * A near cache record the evictor can compare.
+     */
+    public interface Evictable {
+
+        long getLastAccessTime();
+
+        int getHits();
+    }
+
+    private final ConcurrentMap<K, R> cache;
+    private final boolean lfu;
+    private final NearCacheStatsImpl stats;
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    // only used by the thread that set evicting
+    private Iterator<Map.Entry<K, R>> cursor;
+
+    public NearCacheEvictor(ConcurrentMap<K, R> cache, boolean lfu, NearCacheStatsImpl stats) {
+        this.cache = cache;
+        this.lfu = lfu;
+        this.stats = stats;
+    }
+
+    /**
+     * Evicts sampled entries while the cache has <tt>maxSize</tt> or more entries, unless another thread is
+     * already evicting.
+     *
+     * @return the number of evicted entries.
+     */
+    public int evict(int maxSize) {
+        if (!evicting.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            final long start = System.nanoTime();
+            int evicted = 0;
+            while (cache.size() >= maxSize && evicted < MAX_EVICTIONS_PER_CALL) {
+                final Map.Entry<K, R> victim = sample();
+                if (victim == null) {
+                    break;
+                }
+                final R record = victim.getValue();
+                if (cache.remove(victim.getKey(), record)) {
+                    onEvict(record);
+                    evicted++;
+                }
+            }
+            stats.incrementEvictions(evicted, System.nanoTime() - start);
+            return evicted;
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * Called for each evicted record.
+     */
+    protected void onEvict(R record) {
+    }
+
+    private Map.Entry<K, R> sample() {
+        Map.Entry<K, R> victim = null;
+        boolean restarted = false;
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            if (cursor == null || !cursor.hasNext()) {
+                // a cache smaller than the sample is read once
+                if (restarted) {
+                    break;
+                }
+                cursor = cache.entrySet().iterator();
+                restarted = true;
+                if (!cursor.hasNext()) {
+                    break;
+                }
+            }
+            final Map.Entry<K, R> entry = cursor.next();
+            if (victim == null || isLessUsed(entry.getValue(), victim.getValue())) {
+                victim = entry;
+            }
+        }
+        return victim;
+    }
+
+    private boolean isLessUsed(Evictable record, Evictable other) {
+        if (lfu && record.getHits() != other.getHits()) {
+            return record.getHits() < other.getHits();
+        }
+        return record.getLastAccessTime() < other.getLastAccessTime();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map;
+
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.Portable;
+import com.hazelcast.nio.serialization.PortableReader;
+import com.hazelcast.nio.serialization.PortableWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The near cache invalidations of one map collected by a member over a short window.
+ * <p/>
+ * Each invalidation carries the partition of the key and the sequence the member, as owner of the partition,
+ * assigned to it. An invalidation without a key announces the current sequence of the partition; it is sent
+ * when all entries of the partition are invalidated and periodically, so near caches find out about
+ * invalidations they missed even when no further invalidations follow.
+ */
+public class NearCacheInvalidationBatch implements Portable {
+
+    private String mapName;
+    private String source;
+    private List<Data> keys;
+    private int[] partitionIds;
+    private long[] sequences;
+
+    public NearCacheInvalidationBatch() {
+    }
+
+    public NearCacheInvalidationBatch(String mapName, String source, List<Data> keys, int[] partitionIds, long[] sequences) {
+        this.mapName = mapName;
+        this.source = source;
+        this.keys = keys;
+        this.partitionIds = partitionIds;
+        this.sequences = sequences;
+    }
+
+    public String getMapName() {
+        return mapName;
+    }
+
+    /**
+     * @return the uuid of the member that sent the invalidations.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * @return the key of the i-th invalidation, or <tt>null</tt> if it announces the sequence of a partition.
+     */
+    public Data getKey(int i) {
+        return keys.get(i);
+    }
+
+    public int getPartitionId(int i) {
+        return partitionIds[i];
+    }
+
+    public long getSequence(int i) {
+        return sequences[i];
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MapPortableHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return MapPortableHook.NEAR_CACHE_INVALIDATION_BATCH;
+    }
+
+    @Override
+    public void writePortable(PortableWriter writer) throws IOException {
+        writer.writeUTF("n", mapName);
+        writer.writeUTF("s", source);
+        writer.writeIntArray("p", partitionIds);
+        writer.writeLongArray("q", sequences);
+        final ObjectDataOutput out = writer.getRawDataOutput();
+        for (Data key : keys) {
+            IOUtil.writeNullableData(out, key);
+        }
+    }
+
+    @Override
+    public void readPortable(PortableReader reader) throws IOException {
+        mapName = reader.readUTF("n");
+        source = reader.readUTF("s");
+        partitionIds = reader.readIntArray("p");
+        sequences = reader.readLongArray("q");
+        final ObjectDataInput in = reader.getRawDataInput();
+        keys = new ArrayList<Data>(partitionIds.length);
+        for (int i = 0; i < partitionIds.length; i++) {
+            keys.add(IOUtil.readNullableData(in));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NearCacheInvalidationBatch{mapName='" + mapName + "', source='" + source + "', size=" + keys.size() + '}';
+    }
+}
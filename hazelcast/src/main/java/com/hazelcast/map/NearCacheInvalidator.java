@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map;
+
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.instance.MemberImpl;
+import com.hazelcast.map.operation.NearCacheInvalidationOperation;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.EventRegistration;
+import com.hazelcast.spi.EventService;
+import com.hazelcast.spi.ExecutionService;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.util.Clock;
+import com.hazelcast.util.ConcurrencyUtil;
+import com.hazelcast.util.ConstructorFunction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collects the near cache invalidations of the partitions this member owns and sends them in batches,
+ * one per map to each member and to the client near caches listening, when a batch is full or at the latest
+ * after the batch frequency. Writes only queue their invalidations, the batches are sent from the executors.
+ * <p/>
+ * Each invalidation gets the next sequence of its partition, see {@link NearCacheSequenceTracker}.
+ * The current sequences of the owned partitions are announced at the reconciliation interval.
+ * <p/>
+ * The listeners of client near caches are looked up at most once per {@link #LISTENER_CHECK_INTERVAL_MILLIS},
+ * since writes check for them. A near cache that registers in between may miss invalidations, so the owned
+ * partitions are invalidated once for it when its registration is seen.
+ */
+class NearCacheInvalidator {
+
+    static final long LISTENER_CHECK_INTERVAL_MILLIS = 1000;
+
+    private final MapService mapService;
+    private final NodeEngine nodeEngine;
+    private final int batchSize;
+    private final long batchFrequencyMillis;
+    private final long reconciliationIntervalSeconds;
+    private final ConcurrentMap<String, MapInvalidations> invalidations = new ConcurrentHashMap<String, MapInvalidations>();
+    private final ConcurrentMap<String, ListenerRegistrations> listenerRegistrations
+            = new ConcurrentHashMap<String, ListenerRegistrations>();
+    private final ConstructorFunction<String, MapInvalidations> invalidationsConstructor
+            = new ConstructorFunction<String, MapInvalidations>() {
+        public MapInvalidations createNew(String mapName) {
+            return new MapInvalidations(nodeEngine.getPartitionService().getPartitionCount());
+        }
+    };
+
+    NearCacheInvalidator(MapService mapService) {
+        this.mapService = mapService;
+        this.nodeEngine = mapService.getNodeEngine();
+        final GroupProperties groupProperties = nodeEngine.getGroupProperties();
+        batchSize = Math.max(1, groupProperties.MAP_INVALIDATION_BATCH_SIZE.getInteger());
+        batchFrequencyMillis = groupProperties.MAP_INVALIDATION_BATCH_FREQUENCY_MILLIS.getLong();
+        reconciliationIntervalSeconds = groupProperties.MAP_INVALIDATION_RECONCILIATION_INTERVAL_SECONDS.getLong();
+    }
+
+    void start() {
+        final ExecutionService executionService = nodeEngine.getExecutionService();
+        if (batchFrequencyMillis > 0) {
+            executionService.scheduleWithFixedDelay(new Runnable() {
+                public void run() {
+                    flushAll();
+                }
+            }, batchFrequencyMillis, batchFrequencyMillis, TimeUnit.MILLISECONDS);
+        }
+        if (reconciliationIntervalSeconds > 0) {
+            executionService.scheduleWithFixedDelay(new Runnable() {
+                public void run() {
+                    announceSequences();
+                }
+            }, reconciliationIntervalSeconds, reconciliationIntervalSeconds, TimeUnit.SECONDS);
+        }
+        executionService.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                checkListeners();
+            }
+        }, LISTENER_CHECK_INTERVAL_MILLIS, LISTENER_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return <tt>true</tt> if a client near cache listens to the invalidations of the map.
+     */
+    boolean hasListeners(String mapName) {
+        return !getListenerRegistrations(mapName).isEmpty();
+    }
+
+    void invalidate(String mapName, Data key) {
+        final int partitionId = nodeEngine.getPartitionService().getPartitionId(key);
+        add(mapName, key, partitionId);
+    }
+
+    /**
+     * Invalidates all entries of the partition by announcing a new sequence for it.
+     */
+    void invalidatePartition(String mapName, int partitionId) {
+        add(mapName, null, partitionId);
+    }
+
+    // Writes of a partition run on its partition thread, so its sequences are queued in order. Other threads
+    // invalidating a partition or announcing its sequence may queue theirs out of order: a receiver then sees a gap
+    // and drops the partition, or ignores the older sequence, so entries are never kept by mistake.
+    private void add(String mapName, Data key, int partitionId) {
+        final MapInvalidations mapInvalidations = getMapInvalidations(mapName);
+        final long sequence = mapInvalidations.sequences.incrementAndGet(partitionId);
+        mapInvalidations.queue.offer(new Invalidation(key, partitionId, sequence));
+        if (mapInvalidations.size.incrementAndGet() >= batchSize || batchFrequencyMillis <= 0) {
+            scheduleFlush(mapName, mapInvalidations);
+        }
+    }
+
+    // the batch is sent from the async executor, never from the partition thread of the write
+    private void scheduleFlush(final String mapName, final MapInvalidations mapInvalidations) {
+        if (!mapInvalidations.flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        nodeEngine.getExecutionService().execute(ExecutionService.ASYNC_EXECUTOR, new Runnable() {
+            public void run() {
+                // reset first, so the invalidations added during the flush are sent by the next one
+                mapInvalidations.flushScheduled.set(false);
+                flush(mapName, mapInvalidations);
+            }
+        });
+    }
+
+    private MapInvalidations getMapInvalidations(String mapName) {
+        return ConcurrencyUtil.getOrPutIfAbsent(invalidations, mapName, invalidationsConstructor);
+    }
+
+    void flushAll() {
+        for (Map.Entry<String, MapInvalidations> entry : invalidations.entrySet()) {
+            flush(entry.getKey(), entry.getValue());
+        }
+    }
+
+    // looks up the listeners of the maps checked before, so new ones are seen even when no writes follow
+    private void checkListeners() {
+        for (String mapName : listenerRegistrations.keySet()) {
+            getListenerRegistrations(mapName);
+        }
+    }
+
+    private void announceSequences() {
+        final List<Integer> ownedPartitions = mapService.getOwnedPartitions();
+        for (Map.Entry<String, MapInvalidations> entry : invalidations.entrySet()) {
+            final MapInvalidations mapInvalidations = entry.getValue();
+            for (Integer partitionId : ownedPartitions) {
+                final long sequence = mapInvalidations.sequences.get(partitionId);
+                if (sequence == 0) {
+                    continue;
+                }
+                mapInvalidations.queue.offer(new Invalidation(null, partitionId, sequence));
+                mapInvalidations.size.incrementAndGet();
+            }
+            flush(entry.getKey(), mapInvalidations);
+        }
+    }
+
+    // batches of a map are sent one after the other so that members receive their sequences in order
+    private void flush(String mapName, MapInvalidations mapInvalidations) {
+        synchronized (mapInvalidations) {
+            while (mapInvalidations.size.get() > 0) {
+                final List<Data> keys = new ArrayList<Data>();
+                final int[] partitionIds = new int[batchSize];
+                final long[] sequences = new long[batchSize];
+                Invalidation invalidation;
+                while (keys.size() < batchSize && (invalidation = mapInvalidations.queue.poll()) != null) {
+                    partitionIds[keys.size()] = invalidation.partitionId;
+                    sequences[keys.size()] = invalidation.sequence;
+                    keys.add(invalidation.key);
+                }
+                if (keys.isEmpty()) {
+                    return;
+                }
+                mapInvalidations.size.addAndGet(-keys.size());
+                send(new NearCacheInvalidationBatch(mapName, nodeEngine.getLocalMember().getUuid(), keys,
+                        trim(partitionIds, keys.size()), trim(sequences, keys.size())));
+            }
+        }
+    }
+
+    private void send(NearCacheInvalidationBatch batch) {
+        final String mapName = batch.getMapName();
+        if (mapService.isNearCacheEnabled(mapName)) {
+            final int orderingPartitionId = nodeEngine.getPartitionService().getPartitionId(mapName);
+            final Collection<MemberImpl> members = nodeEngine.getClusterService().getMemberList();
+            for (MemberImpl member : members) {
+                if (member.localMember()) {
+                    continue;
+                }
+                final Operation operation = new NearCacheInvalidationOperation(batch)
+                        .setServiceName(MapService.SERVICE_NAME).setPartitionId(orderingPartitionId);
+                nodeEngine.getOperationService().send(operation, member.getAddress());
+            }
+        }
+        final Collection<EventRegistration> registrations = getListenerRegistrations(mapName);
+        if (!registrations.isEmpty()) {
+            nodeEngine.getEventService().publishEvent(MapService.SERVICE_NAME, registrations, batch, mapName.hashCode());
+        }
+    }
+
+    private Collection<EventRegistration> getListenerRegistrations(String mapName) {
+        final long now = Clock.currentTimeMillis();
+        final ListenerRegistrations cached = listenerRegistrations.get(mapName);
+        if (cached != null && now < cached.expirationTime) {
+            return cached.registrations;
+        }
+        final Collection<EventRegistration> registrations = lookupListenerRegistrations(mapName);
+        listenerRegistrations.put(mapName, new ListenerRegistrations(registrations, now + LISTENER_CHECK_INTERVAL_MILLIS));
+        if (cached != null && !cached.registrations.containsAll(registrations)) {
+            for (Integer partitionId : mapService.getOwnedPartitions()) {
+                invalidatePartition(mapName, partitionId);
+            }
+        }
+        return registrations;
+    }
+
+    private Collection<EventRegistration> lookupListenerRegistrations(String mapName) {
+        final EventService eventService = nodeEngine.getEventService();
+        final Collection<EventRegistration> candidates = eventService.getRegistrations(MapService.SERVICE_NAME, mapName);
+        List<EventRegistration> registrations = null;
+        for (EventRegistration candidate : candidates) {
+            if (candidate.getFilter() instanceof NearCacheInvalidationFilter) {
+                if (registrations == null) {
+                    registrations = new ArrayList<EventRegistration>(candidates.size());
+                }
+                registrations.add(candidate);
+            }
+        }
+        return registrations == null ? Collections.<EventRegistration>emptyList() : registrations;
+    }
+
+    private static int[] trim(int[] array, int length) {
+        if (array.length == length) {
+            return array;
+        }
+        final int[] trimmed = new int[length];
+        System.arraycopy(array, 0, trimmed, 0, length);
+        return trimmed;
+    }
+
+    private static long[] trim(long[] array, int length) {
+        if (array.length == length) {
+            return array;
+        }
+        final long[] trimmed = new long[length];
+        System.arraycopy(array, 0, trimmed, 0, length);
+        return trimmed;
+    }
+
+    private static final class MapInvalidations {
+        final AtomicLongArray sequences;
+        final Queue<Invalidation> queue = new ConcurrentLinkedQueue<Invalidation>();
+        final AtomicInteger size = new AtomicInteger();
+        final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+        MapInvalidations(int partitionCount) {
+            sequences = new AtomicLongArray(partitionCount);
+        }
+    }
+
+    private static final class ListenerRegistrations {
+        final Collection<EventRegistration> registrations;
+        final long expirationTime;
+
+        ListenerRegistrations(Collection<EventRegistration> registrations, long expirationTime) {
+            this.registrations = registrations;
+            this.expirationTime = expirationTime;
+        }
+    }
+
+    private static final class Invalidation {
+        final Data key;
+        final int partitionId;
+        final long sequence;
+
+        Invalidation(Data key, int partitionId, long sequence) {
+            this.key = key;
+            this.partitionId = partitionId;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map;
+
+import java.util.BitSet;
+
+/**
+ * Tracks, for the near cache of a map, the last invalidation sequence seen for each partition and the member
+ * that assigned it, to detect invalidations the near cache missed.
+ * <p/>
+ * Sequences of a partition are assigned by its owner one by one, so a gap between the last sequence seen and
+ * the sequence of an invalidation, or an announced sequence higher than the last one seen, means invalidations
+ * were lost. When the owner of a partition changes its sequences start over, so the entries cached before can no
+ * longer be checked either. In both cases the entries of the partition have to be dropped from the near cache.
+ * The first invalidation seen for a key of a partition is taken as is, while the first announced sequence
+ * drops the entries of the partition as it may announce that all of them were invalidated.
+ */
+public final class NearCacheSequenceTracker {
+
+    private final String[] sources;
+    private final long[] sequences;
+
+    public NearCacheSequenceTracker(int partitionCount) {
+        sources = new String[partitionCount];
+        sequences = new long[partitionCount];
+    }
+
+    /**
+     * @return the partitions whose entries have to be dropped because invalidations were missed,
+     * or <tt>null</tt> if none were.
+     */
+    public synchronized BitSet track(NearCacheInvalidationBatch batch) {
+        BitSet missed = null;
+        final String source = batch.getSource();
+        for (int i = 0; i < batch.size(); i++) {
+            final int partitionId = batch.getPartitionId(i);
+            final long sequence = batch.getSequence(i);
+            final long expected = batch.getKey(i) == null ? sequences[partitionId] : sequences[partitionId] + 1;
+            final boolean known = sources[partitionId] != null;
+            if (!source.equals(sources[partitionId])) {
+                sources[partitionId] = source;
+                sequences[partitionId] = sequence;
+                if (!known && batch.getKey(i) != null) {
+                    continue;
+                }
+            } else if (sequence <= expected) {
+                sequences[partitionId] = Math.max(sequences[partitionId], sequence);
+                continue;
+            } else {
+                sequences[partitionId] = sequence;
+            }
+            if (missed == null) {
+                missed = new BitSet(sequences.length);
+            }
+            missed.set(partitionId);
+        }
+        return missed;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.map.record.OffHeapRecordMap;
+import com.hazelcast.map.record.Record;
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Record store keeping keys, values and entry metadata of a partition in an {@link OffHeapRecordMap}.
+ * <p/>
+ * Used for maps configured with {@link com.hazelcast.config.MapConfig.RecordStoreType#OFFHEAP}.
+ * Entries do not contribute to the heap cost of the map; their native memory is reported
+ * through {@link #getOffHeapUsedMemory()}.
+ */
+public class OffHeapRecordStore extends DefaultRecordStore {
+
+    private final OffHeapRecordMap records;
+
+    public OffHeapRecordStore(String name, MapService mapService, int partitionId) {
+        this(name, mapService, partitionId, new OffHeapRecordMap(
+                mapService.getSerializationService().getSerializationContext(),
+                mapService.getMapContainer(name).getMapConfig().isStatisticsEnabled()));
+    }
+
+    private OffHeapRecordStore(String name, MapService mapService, int partitionId, OffHeapRecordMap records) {
+        super(name, mapService, partitionId, records);
+        this.records = records;
+    }
+
+    public long getOffHeapUsedMemory() {
+        return records.getUsedMemory();
+    }
+
+    /**
+     * Records of this store are views over native memory which do not survive removal of the entry,
+     * this method returns detached on-heap copies of them.
+     *
+     * @return on-heap copies of all records.
+     */
+    public Collection<Record> copyRecords() {
+        final Collection<Record> copies = new ArrayList<Record>(records.size());
+        final MapService mapService = getMapContainer().getMapService();
+        for (Record record : records.values()) {
+            final Record copy = mapService.createRecord(getName(), record.getKey(), record.getValue(), -1L, false);
+            copy.setVersion(record.getVersion());
+            copy.setEvictionCriteriaNumber(record.getEvictionCriteriaNumber());
+            copy.setTtl(record.getTtl());
+            copy.setCreationTime(record.getCreationTime());
+            copy.setLastAccessTime(record.getLastAccessTime());
+            copy.setLastUpdatedTime(record.getLastUpdatedTime());
+            if (record.getStatistics() != null) {
+                copy.setStatistics(record.getStatistics());
+            }
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    @Override
+    public Iterator<Record> cursorIterator() {
+        return records.valuesFailingOnResize();
+    }
+
+    @Override
+    protected long calculateRecordSize(Record record) {
+        return 0L;
+    }
+
+    @Override
+    protected void clearRecordsMap(Map<Data, Record> excludeRecords) {
+        if (excludeRecords == null || excludeRecords.isEmpty()) {
+            records.clear();
+            return;
+        }
+        // excluded records are views, so they are kept in place instead of being put back
+        final Iterator<Data> iterator = records.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (!excludeRecords.containsKey(iterator.next())) {
+                iterator.remove();
+            }
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.hazelcast.map;
 
+import com.hazelcast.config.MapConfig;
 import com.hazelcast.util.ConcurrencyUtil;
 import com.hazelcast.util.ConstructorFunction;
 
@@ -26,6 +27,7 @@ public class PartitionContainer {
     private final MapService mapService;
     private final int partitionId;
     private final ConcurrentMap<String, RecordStore> maps = new ConcurrentHashMap<String, RecordStore>(1000);
+    private final ConcurrentMap<String, QueryCursor> queryCursors = new ConcurrentHashMap<String, QueryCursor>();
 
     public PartitionContainer(final MapService mapService, final int partitionId) {
         this.mapService = mapService;
@@ -35,6 +37,10 @@ public class PartitionContainer {
     private final ConstructorFunction<String, RecordStore> recordStoreConstructor
             = new ConstructorFunction<String, RecordStore>() {
         public RecordStore createNew(String name) {
+            final MapConfig mapConfig = mapService.getMapContainer(name).getMapConfig();
+            if (mapConfig.getRecordStoreType() == MapConfig.RecordStoreType.OFFHEAP) {
+                return new OffHeapRecordStore(name, mapService, partitionId);
+            }
             return new DefaultRecordStore(name, mapService, partitionId);
         }
     };
@@ -51,6 +57,13 @@ public class PartitionContainer {
         return mapService;
     }
 
+    /**
+     * @return the open query cursors of the partition by cursor id, see {@link MapService#fetchQueryPage}.
+     */
+    ConcurrentMap<String, QueryCursor> getQueryCursors() {
+        return queryCursors;
+    }
+
     public RecordStore getRecordStore(String name) {
         return ConcurrencyUtil.getOrPutSynchronized(maps, name, this,recordStoreConstructor);
     }
@@ -70,6 +83,7 @@ public class PartitionContainer {
             recordStore.clearPartition();
         }
         maps.clear();
+        queryCursors.clear();
     }
 
 
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.query.Predicate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A local view of the entries of a map matching a predicate, created by
+ * {@link com.hazelcast.core.IMap#getQueryCache(String, Predicate)}.
+ * <p/>
+ * The view is loaded with the result of the query once and then kept up to date by the entry events of the map,
+ * so reading it does not query the cluster. Updates become visible shortly after they are applied to the map.
+ * The view can be indexed and queried like a map, the queries run locally.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public interface QueryCache<K, V> {
+
+    /**
+     * @return the name of the query cache.
+     */
+    String getName();
+
+    /**
+     * @return the predicate of the entries the query cache holds.
+     */
+    Predicate getPredicate();
+
+    V get(Object key);
+
+    boolean containsKey(Object key);
+
+    boolean containsValue(Object value);
+
+    int size();
+
+    boolean isEmpty();
+
+    /**
+     * @return a copy of the keys.
+     */
+    Set<K> keySet();
+
+    /**
+     * @return a copy of the values.
+     */
+    Collection<V> values();
+
+    /**
+     * @return a copy of the entries.
+     */
+    Set<Map.Entry<K, V>> entrySet();
+
+    /**
+     * Queries the entries of the query cache, using its indexes if they can answer the predicate.
+     *
+     * @return a copy of the keys of the matching entries.
+     */
+    Set<K> keySet(Predicate predicate);
+
+    /**
+     * @see #keySet(Predicate)
+     */
+    Collection<V> values(Predicate predicate);
+
+    /**
+     * @see #keySet(Predicate)
+     */
+    Set<Map.Entry<K, V>> entrySet(Predicate predicate);
+
+    /**
+     * Adds an index on an attribute of the values of the query cache, see
+     * {@link com.hazelcast.core.IMap#addIndex(String, boolean)}.
+     */
+    void addIndex(String attribute, boolean ordered);
+
+    /**
+     * Stops listening to the map and clears the query cache. Getting the query cache from the map again creates
+     * a new one.
+     */
+    void destroy();
+}
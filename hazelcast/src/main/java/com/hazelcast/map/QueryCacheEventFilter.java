@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.spi.EventFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Filters the events of a {@link QueryCache}. Unlike {@link QueryEventFilter}, which tests the new value only,
+ * an update or removal is delivered if the entry matched before it too, so the query cache can drop entries that
+ * stop matching. Events are always delivered with values.
+ */
+public class QueryCacheEventFilter implements EventFilter, DataSerializable {
+
+    private Predicate predicate;
+
+    public QueryCacheEventFilter() {
+    }
+
+    public QueryCacheEventFilter(Predicate predicate) {
+        this.predicate = predicate;
+    }
+
+    public Predicate getPredicate() {
+        return predicate;
+    }
+
+    public boolean eval(Object arg) {
+        return predicate.apply((Map.Entry) arg);
+    }
+
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeObject(predicate);
+    }
+
+    public void readData(ObjectDataInput in) throws IOException {
+        predicate = in.readObject();
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.EntryEventType;
+import com.hazelcast.core.EntryListener;
+import com.hazelcast.core.IMap;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.SerializationService;
+import com.hazelcast.query.PagingPredicate;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.IndexService;
+import com.hazelcast.query.impl.QueryEntry;
+import com.hazelcast.query.impl.QueryableEntry;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The {@link QueryCache} of the member and client map proxies. It listens to the map with a
+ * {@link QueryCacheEventFilter}, so it receives the events of the entries that match or matched the predicate.
+ * <p/>
+ * Events are buffered in a queue and applied in batches by whichever event thread finds the queue not being
+ * drained, so the index updates of a burst of events are done under one lock. Until the result of the query
+ * is loaded, the events are only buffered; they are applied over the loaded entries afterwards, so an entry
+ * updated while the query ran ends up with its latest value.
+ */
+public class QueryCacheImpl<K, V> implements QueryCache<K, V>, EntryListener<K, V> {
+
+    private final String name;
+    private final IMap<K, V> map;
+    private final Predicate predicate;
+    private final SerializationService serializationService;
+    private final ConcurrentMap<String, QueryCacheImpl> registry;
+    private final ConcurrentMap<Data, QueryEntry> entries = new ConcurrentHashMap<Data, QueryEntry>();
+    private final IndexService indexService = new IndexService();
+    private final Queue<EntryEvent<K, V>> events = new ConcurrentLinkedQueue<EntryEvent<K, V>>();
+    private final Lock lock = new ReentrantLock();
+    private volatile boolean loaded;
+    private volatile String registrationId;
+
+    /**
+     * @param registry the query caches of the map proxy, which the query cache is removed from when destroyed.
+     */
+    public QueryCacheImpl(String name, IMap<K, V> map, Predicate predicate, SerializationService serializationService,
+                          ConcurrentMap<String, QueryCacheImpl> registry) {
+        this.name = name;
+        this.map = map;
+        this.predicate = predicate;
+        this.serializationService = serializationService;
+        this.registry = registry;
+    }
+
+    /**
+     * Checks the predicate can define a query cache: paging predicates cannot, their query returns one page only.
+     */
+    public static void checkPredicate(Predicate predicate) {
+        if (predicate == null) {
+            throw new NullPointerException("Predicate should not be null!");
+        }
+        if (predicate instanceof PagingPredicate) {
+            throw new IllegalArgumentException("A query cache cannot be created for a PagingPredicate");
+        }
+    }
+
+    /**
+     * Loads the entries matching the predicate. The query cache has to be registered as listener of the map before,
+     * so no update is missed.
+     *
+     * @param registrationId the id of the listener registration, to remove it when the query cache is destroyed.
+     */
+    public void load(String registrationId) {
+        this.registrationId = registrationId;
+        lock.lock();
+        try {
+            for (Map.Entry<K, V> entry : map.entrySet(predicate)) {
+                apply(entry.getKey(), entry.getValue());
+            }
+            loaded = true;
+        } finally {
+            lock.unlock();
+        }
+        drain();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Predicate getPredicate() {
+        return predicate;
+    }
+
+    public V get(Object key) {
+        final QueryEntry entry = entries.get(serializationService.toData(key));
+        return entry == null ? null : (V) entry.getValue();
+    }
+
+    public boolean containsKey(Object key) {
+        return entries.containsKey(serializationService.toData(key));
+    }
+
+    public boolean containsValue(Object value) {
+        for (QueryEntry entry : entries.values()) {
+            if (entry.getValue().equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public Set<K> keySet() {
+        return keySet(entries.values());
+    }
+
+    public Collection<V> values() {
+        return values(entries.values());
+    }
+
+    public Set<Map.Entry<K, V>> entrySet() {
+        return entrySet(entries.values());
+    }
+
+    public Set<K> keySet(Predicate predicate) {
+        return keySet(query(predicate));
+    }
+
+    public Collection<V> values(Predicate predicate) {
+        return values(query(predicate));
+    }
+
+    public Set<Map.Entry<K, V>> entrySet(Predicate predicate) {
+        return entrySet(query(predicate));
+    }
+
+    private Collection<? extends QueryableEntry> query(Predicate predicate) {
+        final Set<QueryableEntry> indexed = indexService.hasIndex() ? indexService.query(predicate) : null;
+        if (indexed != null) {
+            return indexed;
+        }
+        final List<QueryableEntry> result = new LinkedList<QueryableEntry>();
+        for (QueryEntry entry : entries.values()) {
+            if (predicate.apply(entry)) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    private Set<K> keySet(Collection<? extends QueryableEntry> queryableEntries) {
+        final Set<K> keys = new HashSet<K>(queryableEntries.size());
+        for (QueryableEntry entry : queryableEntries) {
+            keys.add((K) entry.getKey());
+        }
+        return keys;
+    }
+
+    private Collection<V> values(Collection<? extends QueryableEntry> queryableEntries) {
+        final List<V> values = new ArrayList<V>(queryableEntries.size());
+        for (QueryableEntry entry : queryableEntries) {
+            values.add((V) entry.getValue());
+        }
+        return values;
+    }
+
+    private Set<Map.Entry<K, V>> entrySet(Collection<? extends QueryableEntry> queryableEntries) {
+        final Set<Map.Entry<K, V>> result = new HashSet<Map.Entry<K, V>>(queryableEntries.size());
+        for (QueryableEntry entry : queryableEntries) {
+            result.add(new AbstractMap.SimpleImmutableEntry<K, V>((K) entry.getKey(), (V) entry.getValue()));
+        }
+        return result;
+    }
+
+    public void addIndex(String attribute, boolean ordered) {
+        lock.lock();
+        try {
+            final Index index = indexService.addOrGetIndex(attribute, ordered);
+            for (QueryEntry entry : entries.values()) {
+                index.saveEntryIndex(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void destroy() {
+        registry.remove(name, this);
+        final String id = registrationId;
+        if (id != null) {
+            map.removeEntryListener(id);
+        }
+        lock.lock();
+        try {
+            loaded = false;
+            events.clear();
+            for (Data key : entries.keySet()) {
+                remove(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void entryAdded(EntryEvent<K, V> event) {
+        publish(event);
+    }
+
+    public void entryRemoved(EntryEvent<K, V> event) {
+        publish(event);
+    }
+
+    public void entryUpdated(EntryEvent<K, V> event) {
+        publish(event);
+    }
+
+    public void entryEvicted(EntryEvent<K, V> event) {
+        publish(event);
+    }
+
+    private void publish(EntryEvent<K, V> event) {
+        events.offer(event);
+        drain();
+    }
+
+    // a thread failing to get the lock leaves its event to the draining thread, which checks the queue after unlocking
+    private void drain() {
+        while (loaded && !events.isEmpty() && lock.tryLock()) {
+            try {
+                EntryEvent<K, V> event;
+                while ((event = events.poll()) != null) {
+                    final EntryEventType eventType = event.getEventType();
+                    if (eventType == EntryEventType.ADDED || eventType == EntryEventType.UPDATED) {
+                        apply(event.getKey(), event.getValue());
+                    } else {
+                        remove(serializationService.toData(event.getKey()));
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void apply(K key, V value) {
+        final Data keyData = serializationService.toData(key);
+        final QueryEntry entry = new QueryEntry(serializationService, keyData, key, value);
+        if (value != null && predicate.apply(entry)) {
+            entries.put(keyData, entry);
+            if (indexService.hasIndex()) {
+                indexService.saveEntryIndex(entry);
+            }
+        } else {
+            remove(keyData);
+        }
+    }
+
+    private void remove(Data keyData) {
+        if (entries.remove(keyData) != null && indexService.hasIndex()) {
+            indexService.removeEntryIndex(keyData);
+        }
+    }
+}
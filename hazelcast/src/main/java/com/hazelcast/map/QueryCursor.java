@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.map.record.Record;
+import com.hazelcast.query.Predicate;
+
+import java.util.Iterator;
+
+/**
+ * The state of a paged query over the records of a map partition: an iterator over the records, which
+ * continues where the previous page stopped, and the last page, which is sent again if its request is retried.
+ * <p/>
+ * Cursors are only used by the partition thread, idle cursors are removed by any thread. The iterator of the record
+ * store is weakly consistent, so entries added or removed while the cursor is open may or may not be returned,
+ * but no entry is returned twice: an off-heap record store fails the cursor if its table is resized between pages.
+ */
+final class QueryCursor {
+
+    private final RecordStore recordStore;
+    private final Predicate predicate;
+    private final Iterator<Record> records;
+    private int page;
+    private QueryCursorPage lastPage;
+    // read by the sweeper of idle cursors too
+    private volatile long lastAccessTime;
+
+    QueryCursor(RecordStore recordStore, Predicate predicate, long lastAccessTime) {
+        this.recordStore = recordStore;
+        this.predicate = predicate;
+        this.lastAccessTime = lastAccessTime;
+        this.records = recordStore.cursorIterator();
+    }
+
+    RecordStore getRecordStore() {
+        return recordStore;
+    }
+
+    Predicate getPredicate() {
+        return predicate;
+    }
+
+    Iterator<Record> getRecords() {
+        return records;
+    }
+
+    /**
+     * @return the number of the next page.
+     */
+    int getPage() {
+        return page;
+    }
+
+    QueryCursorPage getLastPage() {
+        return lastPage;
+    }
+
+    void setLastPage(QueryCursorPage lastPage) {
+        this.lastPage = lastPage;
+        page++;
+    }
+
+    long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    void setLastAccessTime(long lastAccessTime) {
+        this.lastAccessTime = lastAccessTime;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A page of the entries of a partition matching a query, fetched through a server side cursor.
+ */
+public final class QueryCursorPage implements IdentifiedDataSerializable {
+
+    private List<Data> keys;
+    private List<Data> values;
+    private boolean last;
+
+    public QueryCursorPage() {
+    }
+
+    public QueryCursorPage(int capacity) {
+        keys = new ArrayList<Data>(capacity);
+        values = new ArrayList<Data>(capacity);
+    }
+
+    void add(Data key, Data value) {
+        keys.add(key);
+        values.add(value);
+    }
+
+    void setLast(boolean last) {
+        this.last = last;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    public Data getKey(int index) {
+        return keys.get(index);
+    }
+
+    public Data getValue(int index) {
+        return values.get(index);
+    }
+
+    /**
+     * @return <tt>true</tt> if the cursor reached the end of the partition, so no further page has to be fetched.
+     */
+    public boolean isLast() {
+        return last;
+    }
+
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeBoolean(last);
+        out.writeInt(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            keys.get(i).writeData(out);
+            values.get(i).writeData(out);
+        }
+    }
+
+    public void readData(ObjectDataInput in) throws IOException {
+        last = in.readBoolean();
+        final int size = in.readInt();
+        keys = new ArrayList<Data>(size);
+        values = new ArrayList<Data>(size);
+        for (int i = 0; i < size; i++) {
+            keys.add(IOUtil.readData(in));
+            values.add(IOUtil.readData(in));
+        }
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MapDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getId() {
+        return MapDataSerializerHook.QUERY_CURSOR_PAGE;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.nio.serialization.SerializationService;
+import com.hazelcast.query.PagingPredicate;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.util.UuidUtil;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the entries of a map matching a query, fetching them partition by partition in pages through
+ * query cursors on the partition owners. Only one page is held at a time, so a query with more matching
+ * entries than fit in memory can be iterated over.
+ * <p/>
+ * The entries are not sorted. If a partition migrates, its cursor expires or, for an OFFHEAP record store, its
+ * table is resized while it is iterated over, {@link #next()} throws a {@link java.util.ConcurrentModificationException}.
+ */
+public abstract class QueryPageIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+
+    private final SerializationService serializationService;
+    private final int partitionCount;
+    private final Predicate predicate;
+    private final int fetchSize;
+    private final String cursorId = UuidUtil.buildRandomUuidString();
+    private int partitionId;
+    private int page;
+    private QueryCursorPage current;
+    private int index;
+
+    /**
+     * @param predicate the predicate of the entries, <tt>null</tt> for all entries.
+     * @param fetchSize the maximum number of entries fetched at once from a partition.
+     */
+    protected QueryPageIterator(SerializationService serializationService, int partitionCount, Predicate predicate,
+                                int fetchSize) {
+        if (predicate instanceof PagingPredicate) {
+            throw new IllegalArgumentException("Query results are iterated over in pages already, use another predicate");
+        }
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("fetchSize must be positive");
+        }
+        this.serializationService = serializationService;
+        this.partitionCount = partitionCount;
+        this.predicate = predicate;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Fetches a page from the owner of the partition, see {@link MapService#fetchQueryPage}.
+     */
+    protected abstract QueryCursorPage fetch(Predicate predicate, int partitionId, String cursorId, int page, int fetchSize);
+
+    public boolean hasNext() {
+        while (current == null || index == current.size()) {
+            if (current != null && current.isLast()) {
+                partitionId++;
+                page = 0;
+                current = null;
+            }
+            if (partitionId == partitionCount) {
+                return false;
+            }
+            current = fetch(predicate, partitionId, cursorId, page++, fetchSize);
+            index = 0;
+        }
+        return true;
+    }
+
+    public Map.Entry<K, V> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final K key = serializationService.toObject(current.getKey(index));
+        final V value = serializationService.toObject(current.getValue(index));
+        index++;
+        return new AbstractMap.SimpleImmutableEntry<K, V>(key, value);
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException("Query results cannot be removed through the iterator");
+    }
+}
@@ -24,6 +24,7 @@ import com.hazelcast.map.writebehind.WriteBehindQueue;
 import com.hazelcast.nio.serialization.Data;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -80,6 +81,12 @@ public interface RecordStore {
 
     Map<Data, Record> getReadonlyRecordMap();
 
+    /**
+     * @return an iterator over the records which returns no record twice, for iterations spanning several
+     * operations; it throws a {@link java.util.ConcurrentModificationException} if it cannot go on where it stopped.
+     */
+    Iterator<Record> cursorIterator();
+
     Set<Data> keySet();
 
     int size();
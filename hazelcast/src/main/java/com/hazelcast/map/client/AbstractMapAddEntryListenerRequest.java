@@ -96,17 +96,18 @@ public abstract class AbstractMapAddEntryListenerRequest extends CallableClientR
             }
         };
 
-        EventFilter eventFilter;
-        if (getPredicate() == null) {
-            eventFilter = new EntryEventFilter(includeValue, key);
-        } else {
-            eventFilter = new QueryEventFilter(includeValue, key, getPredicate());
-        }
-        String registrationId = mapService.addEventListener(listener, eventFilter, name);
+        String registrationId = mapService.addEventListener(listener, createEventFilter(), name);
         endpoint.setListenerRegistration(MapService.SERVICE_NAME, name, registrationId);
         return registrationId;
     }
 
+    protected EventFilter createEventFilter() {
+        if (getPredicate() == null) {
+            return new EntryEventFilter(includeValue, key);
+        }
+        return new QueryEventFilter(includeValue, key, getPredicate());
+    }
+
     public String getServiceName() {
         return MapService.SERVICE_NAME;
     }
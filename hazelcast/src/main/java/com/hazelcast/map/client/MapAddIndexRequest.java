@@ -37,14 +37,20 @@ public class MapAddIndexRequest extends AllPartitionsClientRequest implements Po
     private String name;
     private String attribute;
     private boolean ordered;
+    private boolean bitmap;
 
     public MapAddIndexRequest() {
     }
 
     public MapAddIndexRequest(String name, String attribute, boolean ordered) {
+        this(name, attribute, ordered, false);
+    }
+
+    public MapAddIndexRequest(String name, String attribute, boolean ordered, boolean bitmap) {
         this.name = name;
         this.attribute = attribute;
         this.ordered = ordered;
+        this.bitmap = bitmap;
     }
 
 
@@ -65,16 +71,18 @@ public class MapAddIndexRequest extends AllPartitionsClientRequest implements Po
         writer.writeUTF("n", name);
         writer.writeUTF("a", attribute);
         writer.writeBoolean("o", ordered);
+        writer.writeBoolean("b", bitmap);
     }
 
     public void read(PortableReader reader) throws IOException {
         name = reader.readUTF("n");
         attribute = reader.readUTF("a");
         ordered = reader.readBoolean("o");
+        bitmap = reader.readBoolean("b");
     }
 
     protected OperationFactory createOperationFactory() {
-        return new AddIndexOperationFactory(name, attribute, ordered);
+        return new AddIndexOperationFactory(name, attribute, ordered, bitmap);
     }
 
     protected Object reduce(Map<Integer, Object> map) {
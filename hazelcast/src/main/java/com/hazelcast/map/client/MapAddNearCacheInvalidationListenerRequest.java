@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.client;
+
+import com.hazelcast.client.CallableClientRequest;
+import com.hazelcast.client.ClientEndpoint;
+import com.hazelcast.client.RetryableRequest;
+import com.hazelcast.client.SecureRequest;
+import com.hazelcast.map.MapPortableHook;
+import com.hazelcast.map.MapService;
+import com.hazelcast.map.NearCacheInvalidationBatch;
+import com.hazelcast.map.NearCacheInvalidationListener;
+import com.hazelcast.nio.serialization.Portable;
+import com.hazelcast.nio.serialization.PortableReader;
+import com.hazelcast.nio.serialization.PortableWriter;
+import com.hazelcast.security.permission.ActionConstants;
+import com.hazelcast.security.permission.MapPermission;
+
+import java.io.IOException;
+import java.security.Permission;
+
+/**
+ * Registers a client near cache for the batched invalidations of a map.
+ */
+public class MapAddNearCacheInvalidationListenerRequest extends CallableClientRequest
+        implements Portable, SecureRequest, RetryableRequest {
+
+    private String name;
+
+    public MapAddNearCacheInvalidationListenerRequest() {
+    }
+
+    public MapAddNearCacheInvalidationListenerRequest(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public Object call() {
+        final ClientEndpoint endpoint = getEndpoint();
+        final MapService mapService = getService();
+        NearCacheInvalidationListener listener = new NearCacheInvalidationListener() {
+            public void onInvalidate(NearCacheInvalidationBatch batch) {
+                if (endpoint.live()) {
+                    endpoint.sendEvent(batch, getCallId());
+                }
+            }
+        };
+        String registrationId = mapService.addNearCacheInvalidationListener(listener, name);
+        endpoint.setListenerRegistration(MapService.SERVICE_NAME, name, registrationId);
+        return registrationId;
+    }
+
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MapPortableHook.F_ID;
+    }
+
+    public int getClassId() {
+        return MapPortableHook.ADD_NEAR_CACHE_INVALIDATION_LISTENER;
+    }
+
+    public void write(PortableWriter writer) throws IOException {
+        writer.writeUTF("n", name);
+    }
+
+    public void read(PortableReader reader) throws IOException {
+        name = reader.readUTF("n");
+    }
+
+    public Permission getRequiredPermission() {
+        return new MapPermission(name, ActionConstants.ACTION_LISTEN);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.client;
+
+import com.hazelcast.client.RetryableRequest;
+import com.hazelcast.map.MapPortableHook;
+import com.hazelcast.map.QueryCacheEventFilter;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.PortableReader;
+import com.hazelcast.nio.serialization.PortableWriter;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.spi.EventFilter;
+
+import java.io.IOException;
+
+/**
+ * Registers the listener of a client {@link com.hazelcast.map.QueryCache}, filtered by a
+ * {@link QueryCacheEventFilter}.
+ */
+public class MapAddQueryCacheListenerRequest extends AbstractMapAddEntryListenerRequest implements RetryableRequest {
+
+    private Predicate predicate;
+
+    public MapAddQueryCacheListenerRequest() {
+    }
+
+    public MapAddQueryCacheListenerRequest(String name, Predicate predicate) {
+        super(name, true);
+        this.predicate = predicate;
+    }
+
+    public int getClassId() {
+        return MapPortableHook.ADD_QUERY_CACHE_LISTENER;
+    }
+
+    @Override
+    protected Predicate getPredicate() {
+        return predicate;
+    }
+
+    @Override
+    protected EventFilter createEventFilter() {
+        return new QueryCacheEventFilter(predicate);
+    }
+
+    public void write(PortableWriter writer) throws IOException {
+        writer.writeUTF("name", name);
+        final ObjectDataOutput out = writer.getRawDataOutput();
+        out.writeObject(predicate);
+    }
+
+    public void read(PortableReader reader) throws IOException {
+        name = reader.readUTF("name");
+        includeValue = true;
+        final ObjectDataInput in = reader.getRawDataInput();
+        predicate = in.readObject();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.client;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.client.InvocationClientRequest;
+import com.hazelcast.client.RetryableRequest;
+import com.hazelcast.client.SecureRequest;
+import com.hazelcast.instance.MemberImpl;
+import com.hazelcast.map.AggregationResult;
+import com.hazelcast.map.MapPortableHook;
+import com.hazelcast.map.MapService;
+import com.hazelcast.map.operation.AggregationOperation;
+import com.hazelcast.map.operation.AggregationPartitionOperation;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.Portable;
+import com.hazelcast.nio.serialization.PortableReader;
+import com.hazelcast.nio.serialization.PortableWriter;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.security.permission.ActionConstants;
+import com.hazelcast.security.permission.MapPermission;
+import com.hazelcast.util.ExceptionUtil;
+
+import java.io.IOException;
+import java.security.Permission;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+import static com.hazelcast.map.MapService.SERVICE_NAME;
+
+/**
+ * Aggregates the entries of a map on the members, like the map proxy does, and responds with the aggregated value.
+ */
+public class MapAggregateRequest extends InvocationClientRequest implements Portable, RetryableRequest, SecureRequest {
+
+    private String name;
+    private Aggregator aggregator;
+    private Predicate predicate;
+
+    public MapAggregateRequest() {
+    }
+
+    public MapAggregateRequest(String name, Aggregator aggregator, Predicate predicate) {
+        this.name = name;
+        this.aggregator = aggregator;
+        this.predicate = predicate;
+    }
+
+    @Override
+    protected void invoke() {
+        Collection<MemberImpl> members = getClientEngine().getClusterService().getMemberList();
+        int partitionCount = getClientEngine().getPartitionService().getPartitionCount();
+        Set<Integer> plist = new HashSet<Integer>(partitionCount);
+        // the aggregator of the request is a copy already, the members get copies of it before it accumulates
+        Data aggregatorData = getClientEngine().toData(aggregator);
+        try {
+            List<Future> flist = new ArrayList<Future>(members.size());
+            for (MemberImpl member : members) {
+                AggregationOperation operation = new AggregationOperation(name, aggregatorData, predicate);
+                flist.add(createInvocationBuilder(SERVICE_NAME, operation, member.getAddress()).invoke());
+            }
+            for (Future future : flist) {
+                AggregationResult aggregationResult = (AggregationResult) future.get();
+                if (aggregationResult != null && aggregationResult.getPartitionIds() != null) {
+                    plist.addAll(aggregationResult.getPartitionIds());
+                    aggregator.combine(aggregationResult.getAggregator());
+                }
+            }
+            List<Future> futures = new ArrayList<Future>();
+            for (int pid = 0; pid < partitionCount; pid++) {
+                if (!plist.contains(pid)) {
+                    AggregationPartitionOperation operation = new AggregationPartitionOperation(name, aggregatorData, predicate);
+                    operation.setPartitionId(pid);
+                    futures.add(createInvocationBuilder(SERVICE_NAME, operation, pid).invoke());
+                }
+            }
+            for (Future future : futures) {
+                aggregator.combine((Aggregator) future.get());
+            }
+        } catch (Throwable t) {
+            throw ExceptionUtil.rethrow(t);
+        }
+        getEndpoint().sendResponse(aggregator.aggregate(), getCallId());
+    }
+
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MapPortableHook.F_ID;
+    }
+
+    public int getClassId() {
+        return MapPortableHook.AGGREGATE;
+    }
+
+    public void write(PortableWriter writer) throws IOException {
+        writer.writeUTF("n", name);
+        final ObjectDataOutput out = writer.getRawDataOutput();
+        out.writeObject(aggregator);
+        out.writeObject(predicate);
+    }
+
+    public void read(PortableReader reader) throws IOException {
+        name = reader.readUTF("n");
+        final ObjectDataInput in = reader.getRawDataInput();
+        aggregator = in.readObject();
+        predicate = in.readObject();
+    }
+
+    public Permission getRequiredPermission() {
+        return new MapPermission(name, ActionConstants.ACTION_READ);
+    }
+}
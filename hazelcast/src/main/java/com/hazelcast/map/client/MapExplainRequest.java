@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.client;
+
+import com.hazelcast.client.MultiTargetClientRequest;
+import com.hazelcast.client.RetryableRequest;
+import com.hazelcast.client.SecureRequest;
+import com.hazelcast.instance.MemberImpl;
+import com.hazelcast.map.MapPortableHook;
+import com.hazelcast.map.MapService;
+import com.hazelcast.map.operation.ExplainQueryOperationFactory;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.Portable;
+import com.hazelcast.nio.serialization.PortableReader;
+import com.hazelcast.nio.serialization.PortableWriter;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.security.permission.ActionConstants;
+import com.hazelcast.security.permission.MapPermission;
+import com.hazelcast.spi.OperationFactory;
+import com.hazelcast.spi.impl.SerializableCollection;
+
+import java.io.IOException;
+import java.security.Permission;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+public class MapExplainRequest extends MultiTargetClientRequest implements Portable, RetryableRequest, SecureRequest {
+
+    private String name;
+    private Predicate predicate;
+
+    public MapExplainRequest() {
+    }
+
+    public MapExplainRequest(String name, Predicate predicate) {
+        this.name = name;
+        this.predicate = predicate;
+    }
+
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MapPortableHook.F_ID;
+    }
+
+    public int getClassId() {
+        return MapPortableHook.EXPLAIN;
+    }
+
+    @Override
+    protected OperationFactory createOperationFactory() {
+        return new ExplainQueryOperationFactory(name, predicate);
+    }
+
+    @Override
+    protected Object reduce(Map<Address, Object> map) {
+        List<Data> plans = new ArrayList<Data>(map.size());
+        for (Object plan : map.values()) {
+            plans.add(getClientEngine().toData(plan));
+        }
+        return new SerializableCollection(plans);
+    }
+
+    @Override
+    public Collection<Address> getTargets() {
+        Collection<MemberImpl> memberList = getClientEngine().getClusterService().getMemberList();
+        Collection<Address> addresses = new HashSet<Address>();
+        for (MemberImpl member : memberList) {
+            addresses.add(member.getAddress());
+        }
+        return addresses;
+    }
+
+    public void write(PortableWriter writer) throws IOException {
+        writer.writeUTF("n", name);
+        final ObjectDataOutput out = writer.getRawDataOutput();
+        out.writeObject(predicate);
+    }
+
+    public void read(PortableReader reader) throws IOException {
+        name = reader.readUTF("n");
+        final ObjectDataInput in = reader.getRawDataInput();
+        predicate = in.readObject();
+    }
+
+    public Permission getRequiredPermission() {
+        return new MapPermission(name, ActionConstants.ACTION_READ);
+    }
+}
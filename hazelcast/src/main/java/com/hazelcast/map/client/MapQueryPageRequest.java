@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.client;
+
+import com.hazelcast.client.PartitionClientRequest;
+import com.hazelcast.client.RetryableRequest;
+import com.hazelcast.client.SecureRequest;
+import com.hazelcast.map.MapPortableHook;
+import com.hazelcast.map.MapService;
+import com.hazelcast.map.operation.QueryPageOperation;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Portable;
+import com.hazelcast.nio.serialization.PortableReader;
+import com.hazelcast.nio.serialization.PortableWriter;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.security.permission.ActionConstants;
+import com.hazelcast.security.permission.MapPermission;
+import com.hazelcast.spi.Operation;
+
+import java.io.IOException;
+import java.security.Permission;
+
+/**
+ * Fetches a page of the entries of a partition matching a predicate, see {@link QueryPageOperation}.
+ * Retrying the request fetches the same page again.
+ */
+public class MapQueryPageRequest extends PartitionClientRequest implements Portable, RetryableRequest, SecureRequest {
+
+    private String name;
+    private Predicate predicate;
+    private int partitionId;
+    private String cursorId;
+    private int page;
+    private int fetchSize;
+
+    public MapQueryPageRequest() {
+    }
+
+    public MapQueryPageRequest(String name, Predicate predicate, int partitionId, String cursorId, int page, int fetchSize) {
+        this.name = name;
+        this.predicate = predicate;
+        this.partitionId = partitionId;
+        this.cursorId = cursorId;
+        this.page = page;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    protected Operation prepareOperation() {
+        return new QueryPageOperation(name, predicate, cursorId, page, fetchSize);
+    }
+
+    @Override
+    protected int getPartition() {
+        return partitionId;
+    }
+
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MapPortableHook.F_ID;
+    }
+
+    public int getClassId() {
+        return MapPortableHook.QUERY_PAGE;
+    }
+
+    public void write(PortableWriter writer) throws IOException {
+        writer.writeUTF("n", name);
+        writer.writeInt("pid", partitionId);
+        writer.writeUTF("c", cursorId);
+        writer.writeInt("p", page);
+        writer.writeInt("f", fetchSize);
+        final ObjectDataOutput out = writer.getRawDataOutput();
+        out.writeObject(predicate);
+    }
+
+    public void read(PortableReader reader) throws IOException {
+        name = reader.readUTF("n");
+        partitionId = reader.readInt("pid");
+        cursorId = reader.readUTF("c");
+        page = reader.readInt("p");
+        fetchSize = reader.readInt("f");
+        final ObjectDataInput in = reader.getRawDataInput();
+        predicate = in.readObject();
+    }
+
+    public Permission getRequiredPermission() {
+        return new MapPermission(name, ActionConstants.ACTION_READ);
+    }
+}
@@ -29,7 +29,6 @@ import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.partition.InternalPartitionService;
 import com.hazelcast.spi.NodeEngine;
 
-import java.util.Arrays;
 import java.util.Map;
 
 /**
@@ -67,8 +66,13 @@ public final class EvictionHelper {
         return result;
     }
 
-    public static void removeEvictableRecords(final RecordStore recordStore, final MapConfig mapConfig,
-                                              final MapService mapService) {
+    /**
+     * Evicts records of the given record store until eviction percentage of the map is reached.
+     * Records to evict are chosen by sampling through the given eviction pool
+     * instead of ordering all records of the partition.
+     */
+    public static void removeEvictableRecords(final RecordStore recordStore, final EvictionPool evictionPool,
+                                              final MapConfig mapConfig, final MapService mapService) {
         final int partitionSize = recordStore.size();
         if (partitionSize < 1) {
             return;
@@ -79,62 +83,30 @@ public final class EvictionHelper {
         }
         final MapConfig.EvictionPolicy evictionPolicy = mapConfig.getEvictionPolicy();
         final Map<Data, Record> entries = recordStore.getReadonlyRecordMap();
-        final int size = entries.size();
-        // size have a tendency to change to here so check again.
-        if (entries.isEmpty()) {
-            return;
-        }
-        // criteria is a long value, like last access times or hits,
-        // used for calculating LFU or LRU.
-        final long[] criterias = new long[size];
-        int index = 0;
-        for (final Record record : entries.values()) {
-            criterias[index] = getEvictionCriteriaValue(record, evictionPolicy);
-            index++;
-            //in case size may change (increase or decrease) when iterating.
-            if (index == size) {
+        final String mapName = mapConfig.getName();
+        int evictedRecordCounter = 0;
+        // bounded by partition size, candidates may be skipped when they are locked.
+        for (int i = 0; i < partitionSize && evictedRecordCounter < evictableSize; i++) {
+            final Data key = evictionPool.pollCandidate(entries, evictionPolicy);
+            if (key == null) {
                 break;
             }
-        }
-        if (criterias.length == 0) {
-            return;
-        }
-        // just in case there may be unassigned indexes in criterias array due to size variances
-        // assign them to Long.MAX_VALUE so when sorting asc they will locate
-        // in the upper array indexes and we wont care about them.
-        if (index < criterias.length) {
-            for (int i = index; i < criterias.length; i++) {
-                criterias[i] = Long.MAX_VALUE;
+            final Record record = entries.get(key);
+            if (record == null) {
+                continue;
             }
-        }
-        Arrays.sort(criterias);
-        // check in case record store size may be smaller than evictable size.
-        final int evictableBaseIndex = index == 0 ? index : Math.min(evictableSize, index - 1);
-        final long criteriaValue = criterias[evictableBaseIndex];
-        int evictedRecordCounter = 0;
-        for (final Map.Entry<Data, Record> entry : entries.entrySet()) {
-            final Record record = entry.getValue();
-            final long value = getEvictionCriteriaValue(record, evictionPolicy);
-            if (value <= criteriaValue) {
-                final Data tmpKey = record.getKey();
-                final Object tmpValue = record.getValue();
-                if (evictIfNotLocked(tmpKey, recordStore)) {
-                    evictedRecordCounter++;
-                    final String mapName = mapConfig.getName();
-                    mapService.interceptAfterRemove(mapName, value);
-                    if (mapService.isNearCacheAndInvalidationEnabled(mapName)) {
-                        mapService.invalidateAllNearCaches(mapName, tmpKey);
-                    }
-                    fireEvent(tmpKey, tmpValue, mapName, mapService);
+            final Object value = record.getValue();
+            if (evictIfNotLocked(key, recordStore)) {
+                evictedRecordCounter++;
+                mapService.interceptAfterRemove(mapName, value);
+                if (mapService.isNearCacheAndInvalidationEnabled(mapName)) {
+                    mapService.invalidateAllNearCaches(mapName, key);
                 }
-            }
-            if (evictedRecordCounter >= evictableSize) {
-                break;
+                fireEvent(key, value, mapName, mapService);
             }
         }
     }
 
-
     public static void fireEvent(Data key, Object value, String mapName, MapService mapService) {
         final NodeEngine nodeEngine = mapService.getNodeEngine();
         mapService.publishEvent(nodeEngine.getThisAddress(), mapName, EntryEventType.EVICTED,
@@ -184,20 +156,6 @@ public final class EvictionHelper {
         return evictableSize;
     }
 
-    private static long getEvictionCriteriaValue(Record record, MapConfig.EvictionPolicy evictionPolicy) {
-        long value;
-        switch (evictionPolicy) {
-            case LRU:
-            case LFU:
-                value = record.getEvictionCriteriaNumber();
-                break;
-            default:
-                throw new IllegalArgumentException("Not an appropriate eviction policy [" + evictionPolicy + ']');
-        }
-        return value;
-    }
-
-
     private static boolean isEvictablePerNode(MapContainer mapContainer) {
         int nodeTotalSize = 0;
         final MapService mapService = mapContainer.getMapService();
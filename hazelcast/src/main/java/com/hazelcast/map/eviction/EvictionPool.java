@@ -0,0 +1,170 @@
+/*
+* Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package com.hazelcast.map.eviction;
+
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.map.record.Record;
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Sampling based eviction candidate selector of a record store.
+ * <p/>
+ * Instead of sorting all records of a partition, every round samples a few records
+ * and offers them to a small pool which is kept sorted by eviction criteria and survives
+ * between rounds, so the best candidates seen so far are remembered. Since records are kept
+ * in hash maps without random access, samples are taken by a cursor walking over the records
+ * and starting over when it reaches the end, so every record is eventually sampled.
+ * <p/>
+ * Not thread safe, an instance is only used by the partition thread owning its record store.
+ */
+public final class EvictionPool {
+
+    /**
+     * Default number of candidates kept between rounds.
+     */
+    public static final int DEFAULT_POOL_SIZE = 16;
+
+    private final int sampleCount;
+    private final Data[] keys;
+    private final long[] criteria;
+    private int size;
+    private Iterator<Record> cursor;
+
+    public EvictionPool(int sampleCount) {
+        this(sampleCount, DEFAULT_POOL_SIZE);
+    }
+
+    public EvictionPool(int sampleCount, int poolSize) {
+        if (sampleCount < 1) {
+            throw new IllegalArgumentException("Sample count should be positive! -> " + sampleCount);
+        }
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Pool size should be positive! -> " + poolSize);
+        }
+        this.sampleCount = sampleCount;
+        this.keys = new Data[poolSize];
+        this.criteria = new long[poolSize];
+    }
+
+    /**
+     * Samples the given records and returns the key of the record with the lowest eviction criteria
+     * among the pooled candidates. Returned key is removed from the pool.
+     *
+     * @param records        records to sample from, should always be the records of the same store.
+     * @param evictionPolicy eviction policy defining the criteria.
+     * @return key of the best candidate or <tt>null</tt> if there are no records.
+     */
+    public Data pollCandidate(Map<Data, Record> records, MapConfig.EvictionPolicy evictionPolicy) {
+        sample(records, evictionPolicy);
+        while (size > 0) {
+            final Data key = keys[0];
+            final long pooledCriteria = criteria[0];
+            removeFirst();
+            final Record record = records.get(key);
+            if (record == null) {
+                continue;
+            }
+            final long currentCriteria = getEvictionCriteriaValue(record, evictionPolicy);
+            if (currentCriteria != pooledCriteria) {
+                // record is accessed after it was pooled, re-rank it.
+                offer(key, currentCriteria);
+                continue;
+            }
+            return key;
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            keys[i] = null;
+        }
+        size = 0;
+        cursor = null;
+    }
+
+    private void sample(Map<Data, Record> records, MapConfig.EvictionPolicy evictionPolicy) {
+        boolean restarted = false;
+        int sampled = 0;
+        while (sampled < sampleCount) {
+            if (cursor == null || !cursor.hasNext()) {
+                if (restarted) {
+                    // walked over all records in this round.
+                    return;
+                }
+                cursor = records.values().iterator();
+                restarted = true;
+                if (!cursor.hasNext()) {
+                    return;
+                }
+            }
+            final Record record = cursor.next();
+            offer(record.getKey(), getEvictionCriteriaValue(record, evictionPolicy));
+            sampled++;
+        }
+    }
+
+    private void offer(Data key, long value) {
+        if (size == keys.length && value >= criteria[size - 1]) {
+            return;
+        }
+        int index = size;
+        for (int i = 0; i < size; i++) {
+            if (key.equals(keys[i])) {
+                return;
+            }
+            if (index == size && value < criteria[i]) {
+                index = i;
+            }
+        }
+        final int last = size == keys.length ? size - 1 : size;
+        System.arraycopy(keys, index, keys, index + 1, last - index);
+        System.arraycopy(criteria, index, criteria, index + 1, last - index);
+        keys[index] = key;
+        criteria[index] = value;
+        if (size < keys.length) {
+            size++;
+        }
+    }
+
+    private void removeFirst() {
+        size--;
+        System.arraycopy(keys, 1, keys, 0, size);
+        System.arraycopy(criteria, 1, criteria, 0, size);
+        keys[size] = null;
+    }
+
+    static long getEvictionCriteriaValue(Record record, MapConfig.EvictionPolicy evictionPolicy) {
+        long value;
+        switch (evictionPolicy) {
+            case LRU:
+            case LFU:
+                value = record.getEvictionCriteriaNumber();
+                break;
+            default:
+                throw new IllegalArgumentException("Not an appropriate eviction policy [" + evictionPolicy + ']');
+        }
+        return value;
+    }
+}
@@ -37,11 +37,17 @@ public class AddIndexOperation extends AbstractNamedOperation implements Partiti
 
     String attributeName;
     boolean ordered;
+    boolean bitmap;
 
     public AddIndexOperation(String name, String attributeName, boolean ordered) {
+        this(name, attributeName, ordered, false);
+    }
+
+    public AddIndexOperation(String name, String attributeName, boolean ordered, boolean bitmap) {
         super(name);
         this.attributeName = attributeName;
         this.ordered = ordered;
+        this.bitmap = bitmap;
     }
 
     public AddIndexOperation() {
@@ -55,7 +61,7 @@ public class AddIndexOperation extends AbstractNamedOperation implements Partiti
         Map<Data, Record> records = rs.getReadonlyRecordMap();
         IndexService indexService = mapContainer.getIndexService();
         SerializationService ss = getNodeEngine().getSerializationService();
-        Index index = indexService.addOrGetIndex(attributeName, ordered);
+        Index index = indexService.addOrGetIndex(attributeName, ordered, bitmap);
         for (Record record : records.values()) {
             Data key = record.getKey();
             Object value = record.getValue();
@@ -73,6 +79,7 @@ public class AddIndexOperation extends AbstractNamedOperation implements Partiti
         super.writeInternal(out);
         out.writeUTF(attributeName);
         out.writeBoolean(ordered);
+        out.writeBoolean(bitmap);
     }
 
     @Override
@@ -80,5 +87,6 @@ public class AddIndexOperation extends AbstractNamedOperation implements Partiti
         super.readInternal(in);
         attributeName = in.readUTF();
         ordered = in.readBoolean();
+        bitmap = in.readBoolean();
     }
 }
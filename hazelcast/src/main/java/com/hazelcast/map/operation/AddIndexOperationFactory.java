@@ -28,19 +28,25 @@ public class AddIndexOperationFactory implements OperationFactory {
     String name;
     String attributeName;
     boolean ordered;
+    boolean bitmap;
 
     public AddIndexOperationFactory() {
     }
 
     public AddIndexOperationFactory(String name, String attributeName, boolean ordered) {
+        this(name, attributeName, ordered, false);
+    }
+
+    public AddIndexOperationFactory(String name, String attributeName, boolean ordered, boolean bitmap) {
         this.name = name;
         this.attributeName = attributeName;
         this.ordered = ordered;
+        this.bitmap = bitmap;
     }
 
     @Override
     public Operation createOperation() {
-        return new AddIndexOperation(name, attributeName, ordered);
+        return new AddIndexOperation(name, attributeName, ordered, bitmap);
     }
 
     @Override
@@ -48,6 +54,7 @@ public class AddIndexOperationFactory implements OperationFactory {
         out.writeUTF(name);
         out.writeUTF(attributeName);
         out.writeBoolean(ordered);
+        out.writeBoolean(bitmap);
     }
 
     @Override
@@ -55,5 +62,6 @@ public class AddIndexOperationFactory implements OperationFactory {
         name = in.readUTF();
         attributeName = in.readUTF();
         ordered = in.readBoolean();
+        bitmap = in.readBoolean();
     }
 }
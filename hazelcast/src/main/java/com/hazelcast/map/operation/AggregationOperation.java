@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.operation;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.core.MemberLeftException;
+import com.hazelcast.map.AggregationResult;
+import com.hazelcast.map.MapService;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.SerializationService;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.IndexService;
+import com.hazelcast.query.impl.QueryContext;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.spi.ExceptionAction;
+import com.hazelcast.spi.ExecutionService;
+import com.hazelcast.spi.exception.TargetNotMemberException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Aggregates the entries the member owns. If its indexes can answer the predicate the entries found are
+ * accumulated, like {@link QueryOperation} collects them, otherwise each partition is accumulated in its own
+ * copy of the aggregator on the query executor and the copies are combined.
+ * <p/>
+ * The aggregator is kept serialized so every use of it, including the response, is a new copy.
+ */
+public class AggregationOperation extends AbstractMapOperation {
+
+    private Data aggregator;
+    private Predicate predicate;
+    private AggregationResult result;
+
+    /**
+     * @param predicate the predicate of the entries to aggregate, <tt>null</tt> for all entries.
+     */
+    public AggregationOperation(String mapName, Data aggregator, Predicate predicate) {
+        super(mapName);
+        this.aggregator = aggregator;
+        this.predicate = predicate;
+    }
+
+    public AggregationOperation() {
+    }
+
+    public void run() throws Exception {
+        List<Integer> initialPartitions = mapService.getOwnedPartitions();
+        Aggregator memberAggregator = getNodeEngine().getSerializationService().toObject(aggregator);
+        Set<QueryableEntry> entries = null;
+        // like QueryOperation, indexes are not used while partitions migrate
+        if (predicate != null && !getNodeEngine().getPartitionService().hasOnGoingMigration()) {
+            IndexService indexService = mapContainer.getIndexService();
+            entries = indexService.query(predicate, new QueryContext(indexService));
+        }
+        if (entries != null) {
+            for (QueryableEntry entry : entries) {
+                memberAggregator.accumulate(entry);
+            }
+        } else {
+            aggregateParallel(initialPartitions, memberAggregator);
+        }
+        result = new AggregationResult(memberAggregator);
+        List<Integer> finalPartitions = mapService.getOwnedPartitions();
+        if (initialPartitions.equals(finalPartitions)) {
+            result.setPartitionIds(finalPartitions);
+        }
+        if (mapContainer.getMapConfig().isStatisticsEnabled()) {
+            ((MapService) getService()).getLocalMapStatsImpl(name).incrementOtherOperations();
+        }
+    }
+
+    private void aggregateParallel(List<Integer> partitions, Aggregator memberAggregator)
+            throws InterruptedException, ExecutionException {
+        final SerializationService ss = getNodeEngine().getSerializationService();
+        final ExecutorService executor = getNodeEngine().getExecutionService().getExecutor(ExecutionService.QUERY_EXECUTOR);
+        final List<Future<Aggregator>> futures = new ArrayList<Future<Aggregator>>(partitions.size());
+        for (final Integer partition : partitions) {
+            futures.add(executor.submit(new Callable<Aggregator>() {
+                public Aggregator call() {
+                    final Aggregator partitionAggregator = ss.toObject(aggregator);
+                    mapService.aggregateOnPartition(name, partitionAggregator, predicate, partition);
+                    return partitionAggregator;
+                }
+            }));
+        }
+        for (Future<Aggregator> future : futures) {
+            memberAggregator.combine(future.get());
+        }
+    }
+
+    public ExceptionAction onException(Throwable throwable) {
+        if (throwable instanceof MemberLeftException) {
+            return ExceptionAction.THROW_EXCEPTION;
+        }
+        if (throwable instanceof TargetNotMemberException) {
+            return ExceptionAction.THROW_EXCEPTION;
+        }
+        return super.onException(throwable);
+    }
+
+    @Override
+    public Object getResponse() {
+        return result;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        aggregator.writeData(out);
+        out.writeObject(predicate);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        aggregator = new Data();
+        aggregator.readData(in);
+        predicate = in.readObject();
+    }
+}
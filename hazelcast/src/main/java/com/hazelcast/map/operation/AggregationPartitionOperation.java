@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.operation;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.spi.PartitionAwareOperation;
+
+import java.io.IOException;
+
+/**
+ * Aggregates the entries of a partition the {@link AggregationOperation} of its owner could not aggregate.
+ */
+public class AggregationPartitionOperation extends AbstractMapOperation implements PartitionAwareOperation {
+
+    private Data aggregator;
+    private Predicate predicate;
+    private Aggregator result;
+
+    public AggregationPartitionOperation(String mapName, Data aggregator, Predicate predicate) {
+        super(mapName);
+        this.aggregator = aggregator;
+        this.predicate = predicate;
+    }
+
+    public AggregationPartitionOperation() {
+    }
+
+    public void run() {
+        result = getNodeEngine().getSerializationService().toObject(aggregator);
+        mapService.aggregateOnPartition(name, result, predicate, getPartitionId());
+    }
+
+    @Override
+    public Object getResponse() {
+        return result;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        aggregator.writeData(out);
+        out.writeObject(predicate);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        aggregator = new Data();
+        aggregator.readData(in);
+        predicate = in.readObject();
+    }
+}
@@ -117,8 +117,7 @@ public abstract class KeyBasedMapOperation extends Operation implements Partitio
     }
 
     protected final void invalidateNearCaches() {
-        if (mapContainer.isNearCacheEnabled()
-                && mapContainer.getMapConfig().getNearCacheConfig().isInvalidateOnChange()) {
+        if (mapService.isNearCacheAndInvalidationEnabled(name)) {
             mapService.invalidateAllNearCaches(name, dataKey);
         }
     }
@@ -14,35 +14,45 @@
  * limitations under the License.
  */
 
+
 package com.hazelcast.map.operation;
 
 import com.hazelcast.map.MapService;
+import com.hazelcast.map.NearCacheInvalidationBatch;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
-import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.spi.AbstractOperation;
+import com.hazelcast.spi.PartitionAwareOperation;
+import com.hazelcast.spi.ReadonlyOperation;
 
 import java.io.IOException;
 
-public class InvalidateNearCacheOperation extends AbstractOperation {
+/**
+ * Invalidates the near cache of a map on a member with a batch of invalidations.
+ * <p/>
+ * Batches of a map are sent with the same partition id to run on the same partition thread, one after the other,
+ * so the receiving near cache sees the sequences in order and takes no reordering for missed invalidations.
+ * The partition is only used for ordering: it does not have to be owned by the receiving member.
+ */
+public class NearCacheInvalidationOperation extends AbstractOperation
+        implements PartitionAwareOperation, ReadonlyOperation {
 
-    private Data key;
-    private String mapName;
+    private NearCacheInvalidationBatch batch;
 
-    public InvalidateNearCacheOperation(String mapName, Data key) {
-        this.key = key;
-        this.mapName = mapName;
+    public NearCacheInvalidationOperation() {
     }
 
-    public InvalidateNearCacheOperation() {
+    public NearCacheInvalidationOperation(NearCacheInvalidationBatch batch) {
+        this.batch = batch;
     }
 
     public void run() {
         MapService mapService = getService();
+        String mapName = batch.getMapName();
         if (mapService.getMapContainer(mapName).isNearCacheEnabled()) {
-            mapService.invalidateNearCache(mapName, key);
+            mapService.getNearCache(mapName).invalidate(batch);
         } else {
-            getLogger().warning("Cache clear operation has been accepted while near cache is not enabled for "
+            getLogger().warning("Cache invalidation operation has been accepted while near cache is not enabled for "
                     + mapName + " map. Possible configuration conflict among nodes.");
         }
     }
@@ -52,22 +62,25 @@ public class InvalidateNearCacheOperation extends AbstractOperation {
         return false;
     }
 
+    @Override
+    public boolean validatesTarget() {
+        return false;
+    }
+
     @Override
     public void readInternal(ObjectDataInput in) throws IOException {
         super.readInternal(in);
-        mapName = in.readUTF();
-        key = in.readObject();
+        batch = in.readObject();
     }
 
     @Override
     public void writeInternal(ObjectDataOutput out) throws IOException {
         super.writeInternal(out);
-        out.writeUTF(mapName);
-        out.writeObject(key);
+        out.writeObject(batch);
     }
 
     @Override
     public String toString() {
-        return "InvalidateNearCacheOperation{}";
+        return "NearCacheInvalidationOperation{" + batch + '}';
     }
 }
@@ -44,7 +44,7 @@ public class PostJoinMapOperation extends AbstractOperation {
         if (indexService.hasIndex()) {
             MapIndexInfo mapIndexInfo = new MapIndexInfo(mapContainer.getName());
             for (Index index : indexService.getIndexes()) {
-                mapIndexInfo.addIndexInfo(index.getAttributeName(), index.isOrdered());
+                mapIndexInfo.addIndexInfo(index.getAttributeName(), index.isOrdered(), index.isBitmap());
             }
             indexInfoList.add(mapIndexInfo);
         }
@@ -116,28 +116,32 @@ public class PostJoinMapOperation extends AbstractOperation {
         static class IndexInfo implements DataSerializable {
             String attributeName;
             boolean ordered;
+            boolean bitmap;
 
             IndexInfo() {
             }
 
-            IndexInfo(String attributeName, boolean ordered) {
+            IndexInfo(String attributeName, boolean ordered, boolean bitmap) {
                 this.attributeName = attributeName;
                 this.ordered = ordered;
+                this.bitmap = bitmap;
             }
 
             public void writeData(ObjectDataOutput out) throws IOException {
                 out.writeUTF(attributeName);
                 out.writeBoolean(ordered);
+                out.writeBoolean(bitmap);
             }
 
             public void readData(ObjectDataInput in) throws IOException {
                 attributeName = in.readUTF();
                 ordered = in.readBoolean();
+                bitmap = in.readBoolean();
             }
         }
 
-        public void addIndexInfo(String attributeName, boolean ordered) {
-            lsIndexes.add(new MapIndexInfo.IndexInfo(attributeName, ordered));
+        public void addIndexInfo(String attributeName, boolean ordered, boolean bitmap) {
+            lsIndexes.add(new MapIndexInfo.IndexInfo(attributeName, ordered, bitmap));
         }
 
         public void writeData(ObjectDataOutput out) throws IOException {
@@ -166,7 +170,7 @@ public class PostJoinMapOperation extends AbstractOperation {
             final MapContainer mapContainer = mapService.getMapContainer(mapIndex.mapName);
             final IndexService indexService = mapContainer.getIndexService();
             for (MapIndexInfo.IndexInfo indexInfo : mapIndex.lsIndexes) {
-                indexService.addOrGetIndex(indexInfo.attributeName, indexInfo.ordered);
+                indexService.addOrGetIndex(indexInfo.attributeName, indexInfo.ordered, indexInfo.bitmap);
             }
         }
         for (InterceptorInfo interceptorInfo : interceptorInfoList) {
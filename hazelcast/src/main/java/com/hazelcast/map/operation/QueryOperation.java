@@ -28,7 +28,9 @@ import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.nio.serialization.SerializationService;
 import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
+import com.hazelcast.query.QueryPlan;
 import com.hazelcast.query.impl.IndexService;
+import com.hazelcast.query.impl.QueryContext;
 import com.hazelcast.query.impl.QueryEntry;
 import com.hazelcast.query.impl.QueryResultEntryImpl;
 import com.hazelcast.query.impl.QueryableEntry;
@@ -46,6 +48,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -56,10 +59,21 @@ public class QueryOperation extends AbstractMapOperation {
     Predicate predicate;
     QueryResult result;
     PagingPredicate pagingPredicate;
+    boolean explain;
+    QueryPlan plan;
+    Map<Integer, Long> partitionDurations;
 
     public QueryOperation(String mapName, Predicate predicate) {
+        this(mapName, predicate, false);
+    }
+
+    /**
+     * @param explain if the operation should respond with the {@link QueryPlan} of the query instead of its result.
+     */
+    public QueryOperation(String mapName, Predicate predicate, boolean explain) {
         super(mapName);
         this.predicate = predicate;
+        this.explain = explain;
         if (predicate instanceof PagingPredicate) {
             pagingPredicate = (PagingPredicate) predicate;
         }
@@ -69,12 +83,17 @@ public class QueryOperation extends AbstractMapOperation {
     }
 
     public void run() throws Exception {
+        final long start = System.nanoTime();
         List<Integer> initialPartitions = mapService.getOwnedPartitions();
         IndexService indexService = mapService.getMapContainer(name).getIndexService();
+        QueryContext queryContext = new QueryContext(indexService, explain);
         Set<QueryableEntry> entries = null;
         // TODO: fix
         if (!getNodeEngine().getPartitionService().hasOnGoingMigration()) {
-            entries = indexService.query(predicate);
+            entries = indexService.query(predicate, queryContext);
+        }
+        if (explain) {
+            partitionDurations = new TreeMap<Integer, Long>();
         }
         result = new QueryResult();
         if (entries != null) {
@@ -96,14 +115,25 @@ public class QueryOperation extends AbstractMapOperation {
         if (mapContainer.getMapConfig().isStatisticsEnabled()) {
             ((MapService) getService()).getLocalMapStatsImpl(name).incrementOtherOperations();
         }
+        if (explain) {
+            List<String> steps = new ArrayList<String>(queryContext.getPlan());
+            if (steps.isEmpty()) {
+                steps.add((entries != null ? "index lookup: " : "full scan: ") + predicate);
+            }
+            plan = new QueryPlan(getNodeEngine().getThisAddress(), predicate, entries != null, steps,
+                    result.getResult().size(), System.nanoTime() - start, partitionDurations);
+        }
     }
 
     protected void runParallel(final List<Integer> initialPartitions) throws InterruptedException, ExecutionException {
         final SerializationService ss = getNodeEngine().getSerializationService();
         final ExecutorService executor = getNodeEngine().getExecutionService().getExecutor(ExecutionService.QUERY_EXECUTOR);
         final List<Future<Collection<QueryableEntry>>> lsFutures = new ArrayList<Future<Collection<QueryableEntry>>>(initialPartitions.size());
+        final List<PartitionCallable> callables = new ArrayList<PartitionCallable>(initialPartitions.size());
         for (final Integer partition : initialPartitions) {
-            Future<Collection<QueryableEntry>> f = executor.submit(new PartitionCallable(ss, partition, null));
+            PartitionCallable callable = new PartitionCallable(ss, partition, null);
+            callables.add(callable);
+            Future<Collection<QueryableEntry>> f = executor.submit(callable);
             lsFutures.add(f);
         }
         for (Future<Collection<QueryableEntry>> future : lsFutures) {
@@ -114,6 +144,16 @@ public class QueryOperation extends AbstractMapOperation {
                 }
             }
         }
+        recordPartitionDurations(callables);
+    }
+
+    // the futures are done, so the durations the callables recorded are visible
+    private void recordPartitionDurations(List<PartitionCallable> callables) {
+        if (partitionDurations != null) {
+            for (PartitionCallable callable : callables) {
+                partitionDurations.put(callable.partition, callable.durationNanos);
+            }
+        }
     }
 
     protected void runParallelForPaging(List<Integer> initialPartitions) throws InterruptedException, ExecutionException {
@@ -121,9 +161,12 @@ public class QueryOperation extends AbstractMapOperation {
         final ExecutorService executor = getNodeEngine().getExecutionService().getExecutor(ExecutionService.QUERY_EXECUTOR);
         final List<Future<Collection<QueryableEntry>>> lsFutures = new ArrayList<Future<Collection<QueryableEntry>>>(initialPartitions.size());
 
+        final List<PartitionCallable> callables = new ArrayList<PartitionCallable>(initialPartitions.size());
         final Comparator<Map.Entry> wrapperComparator = SortingUtil.newComparator(pagingPredicate);
         for (final Integer partition : initialPartitions) {
-            Future<Collection<QueryableEntry>> f = executor.submit(new PartitionCallable(ss, partition, wrapperComparator));
+            PartitionCallable callable = new PartitionCallable(ss, partition, wrapperComparator);
+            callables.add(callable);
+            Future<Collection<QueryableEntry>> f = executor.submit(callable);
             lsFutures.add(f);
         }
         List<QueryableEntry> toMerge = new LinkedList<QueryableEntry>();
@@ -131,6 +174,7 @@ public class QueryOperation extends AbstractMapOperation {
             final Collection<QueryableEntry> collection = future.get();
             toMerge.addAll(collection);
         }
+        recordPartitionDurations(callables);
         Collections.sort(toMerge, wrapperComparator);
         if (toMerge.size() > pagingPredicate.getPageSize()) {
             toMerge = toMerge.subList(0, pagingPredicate.getPageSize());
@@ -151,19 +195,21 @@ public class QueryOperation extends AbstractMapOperation {
     }
 
     public Object getResponse() {
-        return result;
+        return explain ? plan : result;
     }
 
     protected void writeInternal(ObjectDataOutput out) throws IOException {
         super.writeInternal(out);
         out.writeUTF(name);
         out.writeObject(predicate);
+        out.writeBoolean(explain);
     }
 
     protected void readInternal(ObjectDataInput in) throws IOException {
         super.readInternal(in);
         name = in.readUTF();
         predicate = in.readObject();
+        explain = in.readBoolean();
         if (predicate instanceof PagingPredicate) {
             pagingPredicate = (PagingPredicate) predicate;
         }
@@ -174,6 +220,7 @@ public class QueryOperation extends AbstractMapOperation {
         int partition;
         SerializationService ss;
         Comparator<Map.Entry> wrapperComparator;
+        long durationNanos;
 
 
         private PartitionCallable(SerializationService ss, int partition, Comparator<Map.Entry> wrapperComparator) {
@@ -183,6 +230,15 @@ public class QueryOperation extends AbstractMapOperation {
         }
 
         public Collection<QueryableEntry> call() throws Exception {
+            final long start = System.nanoTime();
+            try {
+                return queryPartition();
+            } finally {
+                durationNanos = System.nanoTime() - start;
+            }
+        }
+
+        private Collection<QueryableEntry> queryPartition() {
             final PartitionContainer container = mapService.getPartitionContainer(partition);
             final RecordStore recordStore = container.getRecordStore(name);
             LinkedList<QueryableEntry> partitionResult = new LinkedList<QueryableEntry>();
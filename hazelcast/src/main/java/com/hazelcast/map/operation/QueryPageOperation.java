@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.operation;
+
+import com.hazelcast.map.QueryCursorPage;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.spi.PartitionAwareOperation;
+
+import java.io.IOException;
+
+/**
+ * Fetches a page of the entries of a partition matching a predicate through a query cursor of the partition owner.
+ */
+public class QueryPageOperation extends AbstractMapOperation implements PartitionAwareOperation {
+
+    private Predicate predicate;
+    private String cursorId;
+    private int page;
+    private int fetchSize;
+    private QueryCursorPage result;
+
+    public QueryPageOperation(String mapName, Predicate predicate, String cursorId, int page, int fetchSize) {
+        super(mapName);
+        this.predicate = predicate;
+        this.cursorId = cursorId;
+        this.page = page;
+        this.fetchSize = fetchSize;
+    }
+
+    public QueryPageOperation() {
+    }
+
+    public void run() {
+        result = mapService.fetchQueryPage(name, predicate, getPartitionId(), cursorId, page, fetchSize);
+    }
+
+    @Override
+    public Object getResponse() {
+        return result;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeObject(predicate);
+        out.writeUTF(cursorId);
+        out.writeInt(page);
+        out.writeInt(fetchSize);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        predicate = in.readObject();
+        cursorId = in.readUTF();
+        page = in.readInt();
+        fetchSize = in.readInt();
+    }
+}
@@ -16,13 +16,22 @@
 
 package com.hazelcast.map.proxy;
 
+import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.core.*;
 import com.hazelcast.map.EntryProcessor;
 import com.hazelcast.map.MapInterceptor;
 import com.hazelcast.map.MapService;
+import com.hazelcast.map.QueryCache;
+import com.hazelcast.map.QueryCacheEventFilter;
+import com.hazelcast.map.QueryCacheImpl;
+import com.hazelcast.map.QueryCursorPage;
+import com.hazelcast.map.QueryPageIterator;
 import com.hazelcast.map.SimpleEntryView;
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.projection.Projection;
+import com.hazelcast.projection.impl.ProjectionAggregator;
 import com.hazelcast.query.Predicate;
+import com.hazelcast.query.QueryPlan;
 import com.hazelcast.spi.InitializingObject;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.Operation;
@@ -30,6 +39,8 @@ import com.hazelcast.util.IterationType;
 import com.hazelcast.util.executor.DelegatingFuture;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
@@ -39,6 +50,8 @@ import static com.hazelcast.util.ValidationUtil.shouldBePositive;
 /** @author enesakar 1/17/13 */
 public class MapProxyImpl<K, V> extends MapProxySupport implements IMap<K, V>, InitializingObject {
 
+    private final ConcurrentMap<String, QueryCacheImpl> queryCaches = new ConcurrentHashMap<String, QueryCacheImpl>();
+
     public MapProxyImpl(final String name, final MapService mapService, final NodeEngine nodeEngine) {
         super(name, mapService, nodeEngine);
     }
@@ -264,7 +277,7 @@ public class MapProxyImpl<K, V> extends MapProxySupport implements IMap<K, V>, I
     }
 
     @Override
-    public Future<V> getAsync(final K k) {
+    public ICompletableFuture<V> getAsync(final K k) {
         if (k == null) {
             throw new NullPointerException(NULL_KEY_IS_NOT_ALLOWED);
         }
@@ -284,12 +297,12 @@ public class MapProxyImpl<K, V> extends MapProxySupport implements IMap<K, V>, I
     }
 
     @Override
-    public Future putAsync(final K key, final V value) {
+    public ICompletableFuture<V> putAsync(final K key, final V value) {
         return putAsync(key, value, -1, null);
     }
 
     @Override
-    public ICompletableFuture putAsync(final K key, final V value, final long ttl, final TimeUnit timeunit) {
+    public ICompletableFuture<V> putAsync(final K key, final V value, final long ttl, final TimeUnit timeunit) {
         if (key == null) {
             throw new NullPointerException(NULL_KEY_IS_NOT_ALLOWED);
         }
@@ -304,7 +317,7 @@ public class MapProxyImpl<K, V> extends MapProxySupport implements IMap<K, V>, I
     }
 
     @Override
-    public ICompletableFuture removeAsync(final K key) {
+    public ICompletableFuture<V> removeAsync(final K key) {
         if (key == null) {
             throw new NullPointerException(NULL_KEY_IS_NOT_ALLOWED);
         }
@@ -312,6 +325,100 @@ public class MapProxyImpl<K, V> extends MapProxySupport implements IMap<K, V>, I
         return new DelegatingFuture<V>(removeAsyncInternal(k), getNodeEngine().getSerializationService());
     }
 
+    @Override
+    public ICompletableFuture<Void> setAsync(final K key, final V value) {
+        return setAsync(key, value, -1, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public ICompletableFuture<Void> setAsync(final K key, final V value, final long ttl, final TimeUnit timeunit) {
+        if (key == null) {
+            throw new NullPointerException(NULL_KEY_IS_NOT_ALLOWED);
+        }
+        if (value == null) {
+            throw new NullPointerException(NULL_VALUE_IS_NOT_ALLOWED);
+        }
+        MapService service = getService();
+        Data k = service.toData(key, partitionStrategy);
+        Data v = service.toData(value);
+        return new DelegatingFuture<Void>(setAsyncInternal(k, v, ttl, timeunit),
+                getNodeEngine().getSerializationService(), null);
+    }
+
+    @Override
+    public ICompletableFuture<V> putIfAbsentAsync(final K key, final V value) {
+        if (key == null) {
+            throw new NullPointerException(NULL_KEY_IS_NOT_ALLOWED);
+        }
+        if (value == null) {
+            throw new NullPointerException(NULL_VALUE_IS_NOT_ALLOWED);
+        }
+        MapService service = getService();
+        Data k = service.toData(key, partitionStrategy);
+        Data v = service.toData(value);
+        return new DelegatingFuture<V>(putIfAbsentAsyncInternal(k, v), getNodeEngine().getSerializationService());
+    }
+
+    @Override
+    public ICompletableFuture<V> replaceAsync(final K key, final V value) {
+        if (key == null) {
+            throw new NullPointerException(NULL_KEY_IS_NOT_ALLOWED);
+        }
+        if (value == null) {
+            throw new NullPointerException(NULL_VALUE_IS_NOT_ALLOWED);
+        }
+        MapService service = getService();
+        Data k = service.toData(key, partitionStrategy);
+        Data v = service.toData(value);
+        return new DelegatingFuture<V>(replaceAsyncInternal(k, v), getNodeEngine().getSerializationService());
+    }
+
+    @Override
+    public ICompletableFuture<Boolean> replaceAsync(final K key, final V oldValue, final V newValue) {
+        if (key == null) {
+            throw new NullPointerException(NULL_KEY_IS_NOT_ALLOWED);
+        }
+        if (oldValue == null) {
+            throw new NullPointerException(NULL_VALUE_IS_NOT_ALLOWED);
+        }
+        if (newValue == null) {
+            throw new NullPointerException(NULL_VALUE_IS_NOT_ALLOWED);
+        }
+        MapService service = getService();
+        Data k = service.toData(key, partitionStrategy);
+        Data o = service.toData(oldValue);
+        Data v = service.toData(newValue);
+        return new DelegatingFuture<Boolean>(replaceAsyncInternal(k, o, v), getNodeEngine().getSerializationService());
+    }
+
+    @Override
+    public ICompletableFuture<Boolean> containsKeyAsync(final K key) {
+        if (key == null) {
+            throw new NullPointerException(NULL_KEY_IS_NOT_ALLOWED);
+        }
+        Data k = getService().toData(key, partitionStrategy);
+        return new DelegatingFuture<Boolean>(containsKeyAsyncInternal(k), getNodeEngine().getSerializationService());
+    }
+
+    @Override
+    public ICompletableFuture<Map<K, V>> getAllAsync(final Set<K> keys) {
+        Set<Data> ks = new HashSet<Data>(keys.size());
+        MapService service = getService();
+        for (K key : keys) {
+            if (key == null) {
+                throw new NullPointerException(NULL_KEY_IS_NOT_ALLOWED);
+            }
+            ks.add(service.toData(key, partitionStrategy));
+        }
+        return (ICompletableFuture) getAllAsyncInternal(ks);
+    }
+
+    @Override
+    public ICompletableFuture<Void> putAllAsync(final Map<? extends K, ? extends V> m) {
+        // Note, putAllAsyncInternal() will take care of the null key/value checks.
+        return putAllAsyncInternal(m);
+    }
+
     @Override
     public Map<K, V> getAll(final Set<K> keys) {
         Set<Data> ks = new HashSet(keys.size());
@@ -531,6 +638,70 @@ public class MapProxyImpl<K, V> extends MapProxySupport implements IMap<K, V>, I
         return query(predicate, IterationType.VALUE, false);
     }
 
+    @Override
+    public Collection<QueryPlan> explain(final Predicate predicate) {
+        if (predicate == null) {
+            throw new NullPointerException("Predicate should not be null!");
+        }
+        return explainInternal(predicate);
+    }
+
+    @Override
+    public <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator) {
+        return aggregate(aggregator, null);
+    }
+
+    @Override
+    public <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator, Predicate predicate) {
+        if (aggregator == null) {
+            throw new NullPointerException("Aggregator should not be null!");
+        }
+        return (R) aggregateInternal(aggregator, predicate);
+    }
+
+    @Override
+    public <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection) {
+        return project(projection, null);
+    }
+
+    @Override
+    public <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection, Predicate predicate) {
+        if (projection == null) {
+            throw new NullPointerException("Projection should not be null!");
+        }
+        return (Collection<R>) aggregateInternal(new ProjectionAggregator<Map.Entry<K, V>, R>(projection), predicate);
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> queryIterator(Predicate predicate, int fetchSize) {
+        final NodeEngine nodeEngine = getNodeEngine();
+        return new QueryPageIterator<K, V>(nodeEngine.getSerializationService(),
+                nodeEngine.getPartitionService().getPartitionCount(), predicate, fetchSize) {
+            @Override
+            protected QueryCursorPage fetch(Predicate predicate, int partitionId, String cursorId, int page, int fetchSize) {
+                return fetchQueryPage(predicate, partitionId, cursorId, page, fetchSize);
+            }
+        };
+    }
+
+    @Override
+    public QueryCache<K, V> getQueryCache(String name, Predicate predicate) {
+        QueryCacheImpl.checkPredicate(predicate);
+        synchronized (queryCaches) {
+            QueryCacheImpl<K, V> queryCache = queryCaches.get(name);
+            if (queryCache == null) {
+                queryCache = new QueryCacheImpl<K, V>(name, this, predicate, getNodeEngine().getSerializationService(),
+                        queryCaches);
+                MapService mapService = getService();
+                String registrationId = mapService.addEventListener(queryCache, new QueryCacheEventFilter(predicate),
+                        this.name);
+                queryCache.load(registrationId);
+                queryCaches.put(name, queryCache);
+            }
+            return queryCache;
+        }
+    }
+
     @Override
     public Set<K> localKeySet() {
         final Set<Data> dataSet = localKeySetInternal();
@@ -572,6 +743,19 @@ public class MapProxyImpl<K, V> extends MapProxySupport implements IMap<K, V>, I
         return executeOnKeysInternal(dataKeys, entryProcessor);
     }
 
+    @Override
+    public ICompletableFuture<Map<K, Object>> executeOnKeysAsync(Set<K> keys, EntryProcessor entryProcessor) {
+        if (keys == null || keys.size() == 0) {
+            throw new NullPointerException(NULL_KEY_IS_NOT_ALLOWED);
+        }
+        MapService service = getService();
+        Set<Data> dataKeys = new HashSet<Data>(keys.size());
+        for (K key : keys) {
+            dataKeys.add(service.toData(key, partitionStrategy));
+        }
+        return (ICompletableFuture) executeOnKeysAsyncInternal(dataKeys, entryProcessor);
+    }
+
     @Override
     public void submitToKey(K key, EntryProcessor entryProcessor, ExecutionCallback callback) {
         if (key == null) {
@@ -16,6 +16,7 @@
 
 package com.hazelcast.map.proxy;
 
+import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.concurrent.lock.LockProxySupport;
 import com.hazelcast.config.EntryListenerConfig;
 import com.hazelcast.config.MapConfig;
@@ -30,6 +31,8 @@ import com.hazelcast.core.IMap;
 import com.hazelcast.core.Member;
 import com.hazelcast.core.PartitioningStrategy;
 import com.hazelcast.instance.MemberImpl;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.map.AggregationResult;
 import com.hazelcast.map.EntryEventFilter;
 import com.hazelcast.map.EntryProcessor;
 import com.hazelcast.map.MapEntrySet;
@@ -38,11 +41,14 @@ import com.hazelcast.map.MapKeySet;
 import com.hazelcast.map.MapService;
 import com.hazelcast.map.MapValueCollection;
 import com.hazelcast.map.NearCache;
+import com.hazelcast.map.QueryCursorPage;
 import com.hazelcast.map.QueryEventFilter;
 import com.hazelcast.map.QueryResult;
 import com.hazelcast.map.RecordStore;
 import com.hazelcast.map.operation.AddIndexOperation;
 import com.hazelcast.map.operation.AddInterceptorOperation;
+import com.hazelcast.map.operation.AggregationOperation;
+import com.hazelcast.map.operation.AggregationPartitionOperation;
 import com.hazelcast.map.operation.BasePutOperation;
 import com.hazelcast.map.operation.BaseRemoveOperation;
 import com.hazelcast.map.operation.ClearOperation;
@@ -50,6 +56,7 @@ import com.hazelcast.map.operation.ContainsKeyOperation;
 import com.hazelcast.map.operation.ContainsValueOperationFactory;
 import com.hazelcast.map.operation.EntryOperation;
 import com.hazelcast.map.operation.EvictOperation;
+import com.hazelcast.map.operation.GetAllOperation;
 import com.hazelcast.map.operation.GetEntryViewOperation;
 import com.hazelcast.map.operation.GetOperation;
 import com.hazelcast.map.operation.KeyBasedMapOperation;
@@ -59,6 +66,7 @@ import com.hazelcast.map.operation.MapGetAllOperationFactory;
 import com.hazelcast.map.operation.MapIsEmptyOperation;
 import com.hazelcast.map.operation.MapKeySetOperation;
 import com.hazelcast.map.operation.MapValuesOperation;
+import com.hazelcast.map.operation.MultipleEntryOperation;
 import com.hazelcast.map.operation.MultipleEntryOperationFactory;
 import com.hazelcast.map.operation.PartitionCheckIfLoadedOperationFactory;
 import com.hazelcast.map.operation.PartitionWideEntryOperationFactory;
@@ -68,6 +76,7 @@ import com.hazelcast.map.operation.PutIfAbsentOperation;
 import com.hazelcast.map.operation.PutOperation;
 import com.hazelcast.map.operation.PutTransientOperation;
 import com.hazelcast.map.operation.QueryOperation;
+import com.hazelcast.map.operation.QueryPageOperation;
 import com.hazelcast.map.operation.QueryPartitionOperation;
 import com.hazelcast.map.operation.RemoveIfSameOperation;
 import com.hazelcast.map.operation.RemoveInterceptorOperation;
@@ -88,6 +97,7 @@ import com.hazelcast.partition.InternalPartitionService;
 import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.PagingPredicateAccessor;
 import com.hazelcast.query.Predicate;
+import com.hazelcast.query.QueryPlan;
 import com.hazelcast.query.impl.QueryResultEntry;
 import com.hazelcast.spi.AbstractDistributedObject;
 import com.hazelcast.spi.Callback;
@@ -98,6 +108,7 @@ import com.hazelcast.spi.InitializingObject;
 import com.hazelcast.spi.InternalCompletableFuture;
 import com.hazelcast.spi.InvocationBuilder;
 import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.OperationService;
 import com.hazelcast.spi.impl.BinaryOperationFactory;
 import com.hazelcast.util.ExceptionUtil;
@@ -106,6 +117,7 @@ import com.hazelcast.util.QueryResultSet;
 import com.hazelcast.util.SortedQueryResultSet;
 import com.hazelcast.util.ThreadUtil;
 import com.hazelcast.util.executor.CompletedFuture;
+import com.hazelcast.util.executor.ReducingFuture;
 
 import java.util.AbstractMap;
 import java.util.ArrayList;
@@ -118,6 +130,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
@@ -167,7 +180,7 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
     private void initializeIndexes() {
         for (MapIndexConfig index : mapConfig.getMapIndexConfigs()) {
             if (index.getAttribute() != null) {
-                addIndex(index.getAttribute(), index.isOrdered());
+                addIndex(index.getAttribute(), index.isOrdered(), index.isBitmap());
             }
         }
     }
@@ -431,6 +444,63 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
         }
     }
 
+    protected ICompletableFuture<Data> setAsyncInternal(final Data key, final Data value, final long ttl,
+                                                        final TimeUnit timeunit) {
+        SetOperation operation = new SetOperation(name, key, value, getTimeInMillis(ttl, timeunit));
+        ICompletableFuture<Data> future = invokeOperationAsync(key, operation);
+        invalidateNearCache(key);
+        return future;
+    }
+
+    protected ICompletableFuture<Data> putIfAbsentAsyncInternal(final Data key, final Data value) {
+        PutIfAbsentOperation operation = new PutIfAbsentOperation(name, key, value, -1);
+        ICompletableFuture<Data> future = invokeOperationAsync(key, operation);
+        invalidateNearCache(key);
+        return future;
+    }
+
+    protected ICompletableFuture<Data> replaceAsyncInternal(final Data key, final Data value) {
+        ReplaceOperation operation = new ReplaceOperation(name, key, value);
+        ICompletableFuture<Data> future = invokeOperationAsync(key, operation);
+        invalidateNearCache(key);
+        return future;
+    }
+
+    protected ICompletableFuture<Boolean> replaceAsyncInternal(final Data key, final Data oldValue, final Data newValue) {
+        ReplaceIfSameOperation operation = new ReplaceIfSameOperation(name, key, oldValue, newValue);
+        ICompletableFuture<Boolean> future = invokeOperationAsync(key, operation);
+        invalidateNearCache(key);
+        return future;
+    }
+
+    protected ICompletableFuture<Boolean> containsKeyAsyncInternal(final Data key) {
+        if (isKeyInNearCache(key)) {
+            return new CompletedFuture<Boolean>(getNodeEngine().getSerializationService(), Boolean.TRUE,
+                    getAsyncExecutor());
+        }
+        return invokeOperationAsync(key, new ContainsKeyOperation(name, key));
+    }
+
+    private <T> ICompletableFuture<T> invokeOperationAsync(Data key, KeyBasedMapOperation operation) {
+        final NodeEngine nodeEngine = getNodeEngine();
+        int partitionId = nodeEngine.getPartitionService().getPartitionId(key);
+        operation.setThreadId(ThreadUtil.getThreadId());
+        try {
+            return nodeEngine.getOperationService().createInvocationBuilder(SERVICE_NAME, operation, partitionId)
+                    .setResultDeserialized(false).invoke();
+        } catch (Throwable t) {
+            throw ExceptionUtil.rethrow(t);
+        }
+    }
+
+    protected ExecutorService getAsyncExecutor() {
+        return getNodeEngine().getExecutionService().getExecutor(ExecutionService.ASYNC_EXECUTOR);
+    }
+
+    private ILogger getLogger() {
+        return getNodeEngine().getLogger(getClass());
+    }
+
     protected boolean containsKeyInternal(Data key) {
         if (isKeyInNearCache(key)) {
             return true;
@@ -543,20 +613,7 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
         final NodeEngine nodeEngine = getNodeEngine();
         final MapService mapService = getService();
         Map<Object, Object> result = new HashMap<Object, Object>();
-        final boolean nearCacheEnabled = mapConfig.isNearCacheEnabled();
-        if (nearCacheEnabled) {
-            final Iterator<Data> iterator = keys.iterator();
-            while (iterator.hasNext()) {
-                Data key = iterator.next();
-                Object cachedValue = mapService.getFromNearCache(name, key);
-                if (cachedValue != null) {
-                    if (!NearCache.NULL_OBJECT.equals(cachedValue)) {
-                        result.put(mapService.toObject(key), mapService.toObject(cachedValue));
-                    }
-                    iterator.remove();
-                }
-            }
-        }
+        getAllFromNearCache(keys, result);
         if (keys.isEmpty()) {
             return result;
         }
@@ -569,13 +626,7 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
                 Set<Map.Entry<Data, Data>> entries = ((MapEntrySet) mapService.toObject(response)).getEntrySet();
                 for (Entry<Data, Data> entry : entries) {
                     result.put(mapService.toObject(entry.getKey()), mapService.toObject(entry.getValue()));
-                    if (nearCacheEnabled) {
-                        int partitionId = nodeEngine.getPartitionService().getPartitionId(entry.getKey());
-                        if (!nodeEngine.getPartitionService().getPartitionOwner(partitionId)
-                                .equals(nodeEngine.getClusterService().getThisAddress()) || mapConfig.getNearCacheConfig().isCacheLocalEntries()) {
-                            mapService.putNearCache(name, entry.getKey(), entry.getValue());
-                        }
-                    }
+                    putNearCacheIfNotOwned(entry.getKey(), entry.getValue());
                 }
             }
         } catch (Exception e) {
@@ -599,6 +650,116 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
         return partitionIds;
     }
 
+    protected ICompletableFuture<Map<Object, Object>> getAllAsyncInternal(final Set<Data> keys) {
+        final MapService mapService = getService();
+        final Map<Object, Object> entries = new HashMap<Object, Object>();
+        getAllFromNearCache(keys, entries);
+        final List<ICompletableFuture> futures = new ArrayList<ICompletableFuture>();
+        for (Entry<Integer, Set<Data>> entry : groupByPartition(keys).entrySet()) {
+            futures.add(invokeOnPartition(new GetAllOperation(name, entry.getValue()), entry.getKey()));
+        }
+        return new ReducingFuture<Map<Object, Object>>(futures, getAsyncExecutor(), getLogger()) {
+            @Override
+            protected Map<Object, Object> reduce(List<Object> responses) {
+                for (Object response : responses) {
+                    MapEntrySet entrySet = (MapEntrySet) mapService.toObject(response);
+                    for (Entry<Data, Data> entry : entrySet.getEntrySet()) {
+                        entries.put(mapService.toObject(entry.getKey()), mapService.toObject(entry.getValue()));
+                        putNearCacheIfNotOwned(entry.getKey(), entry.getValue());
+                    }
+                }
+                return entries;
+            }
+        };
+    }
+
+    protected ICompletableFuture<Void> putAllAsyncInternal(final Map<? extends Object, ? extends Object> entries) {
+        final MapService mapService = getService();
+        final InternalPartitionService partitionService = getNodeEngine().getPartitionService();
+        final Map<Integer, MapEntrySet> entriesByPartition = new HashMap<Integer, MapEntrySet>();
+        for (Entry entry : entries.entrySet()) {
+            if (entry.getKey() == null) {
+                throw new NullPointerException(NULL_KEY_IS_NOT_ALLOWED);
+            }
+            if (entry.getValue() == null) {
+                throw new NullPointerException(NULL_VALUE_IS_NOT_ALLOWED);
+            }
+            Data key = mapService.toData(entry.getKey(), partitionStrategy);
+            int partitionId = partitionService.getPartitionId(key);
+            MapEntrySet entrySet = entriesByPartition.get(partitionId);
+            if (entrySet == null) {
+                entrySet = new MapEntrySet();
+                entriesByPartition.put(partitionId, entrySet);
+            }
+            entrySet.add(new AbstractMap.SimpleImmutableEntry<Data, Data>(key, mapService.toData(entry.getValue())));
+        }
+        final List<ICompletableFuture> futures = new ArrayList<ICompletableFuture>(entriesByPartition.size());
+        for (Entry<Integer, MapEntrySet> entry : entriesByPartition.entrySet()) {
+            futures.add(invokeOnPartition(new PutAllOperation(name, entry.getValue()), entry.getKey()));
+        }
+        return new ReducingFuture<Void>(futures, getAsyncExecutor(), getLogger()) {
+            @Override
+            protected Void reduce(List<Object> responses) {
+                return null;
+            }
+        };
+    }
+
+    private Map<Integer, Set<Data>> groupByPartition(Set<Data> keys) {
+        final InternalPartitionService partitionService = getNodeEngine().getPartitionService();
+        final Map<Integer, Set<Data>> keysByPartition = new HashMap<Integer, Set<Data>>();
+        for (Data key : keys) {
+            int partitionId = partitionService.getPartitionId(key);
+            Set<Data> partitionKeys = keysByPartition.get(partitionId);
+            if (partitionKeys == null) {
+                partitionKeys = new HashSet<Data>();
+                keysByPartition.put(partitionId, partitionKeys);
+            }
+            partitionKeys.add(key);
+        }
+        return keysByPartition;
+    }
+
+    private ICompletableFuture invokeOnPartition(Operation operation, int partitionId) {
+        try {
+            return getNodeEngine().getOperationService().invokeOnPartition(SERVICE_NAME, operation, partitionId);
+        } catch (Throwable t) {
+            throw ExceptionUtil.rethrow(t);
+        }
+    }
+
+    // moves the values of the keys found in the near cache to the result, removing the keys from the set
+    private void getAllFromNearCache(Set<Data> keys, Map<Object, Object> result) {
+        if (!mapConfig.isNearCacheEnabled()) {
+            return;
+        }
+        final MapService mapService = getService();
+        final Iterator<Data> iterator = keys.iterator();
+        while (iterator.hasNext()) {
+            Data key = iterator.next();
+            Object cachedValue = mapService.getFromNearCache(name, key);
+            if (cachedValue != null) {
+                if (!NearCache.NULL_OBJECT.equals(cachedValue)) {
+                    result.put(mapService.toObject(key), mapService.toObject(cachedValue));
+                }
+                iterator.remove();
+            }
+        }
+    }
+
+    // entries owned by this member are only cached if local entries are
+    private void putNearCacheIfNotOwned(Data key, Data value) {
+        if (!mapConfig.isNearCacheEnabled()) {
+            return;
+        }
+        final NodeEngine nodeEngine = getNodeEngine();
+        int partitionId = nodeEngine.getPartitionService().getPartitionId(key);
+        if (!nodeEngine.getPartitionService().getPartitionOwner(partitionId).equals(nodeEngine.getThisAddress())
+                || mapConfig.getNearCacheConfig().isCacheLocalEntries()) {
+            getService().putNearCache(name, key, value);
+        }
+    }
+
     protected void putAllInternal(final Map<? extends Object, ? extends Object> entries) {
         final NodeEngine nodeEngine = getNodeEngine();
         final MapService mapService = getService();
@@ -883,6 +1044,30 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
         return result;
     }
 
+    public ICompletableFuture<Map> executeOnKeysAsyncInternal(final Set<Data> keys, final EntryProcessor entryProcessor) {
+        final List<ICompletableFuture> futures = new ArrayList<ICompletableFuture>();
+        for (Entry<Integer, Set<Data>> entry : groupByPartition(keys).entrySet()) {
+            futures.add(invokeOnPartition(new MultipleEntryOperation(name, entry.getValue(), entryProcessor), entry.getKey()));
+        }
+        invalidateNearCache(keys);
+        final MapService mapService = getService();
+        return new ReducingFuture<Map>(futures, getAsyncExecutor(), getLogger()) {
+            @Override
+            protected Map reduce(List<Object> responses) {
+                Map result = new HashMap();
+                for (Object response : responses) {
+                    if (response != null) {
+                        MapEntrySet entrySet = (MapEntrySet) mapService.toObject(response);
+                        for (Entry<Data, Data> entry : entrySet.getEntrySet()) {
+                            result.put(mapService.toObject(entry.getKey()), mapService.toObject(entry.getValue()));
+                        }
+                    }
+                }
+                return result;
+            }
+        };
+    }
+
     public ICompletableFuture executeOnKeyInternal(Data key, EntryProcessor entryProcessor, ExecutionCallback callback) {
         final NodeEngine nodeEngine = getNodeEngine();
         int partitionId = nodeEngine.getPartitionService().getPartitionId(key);
@@ -1044,6 +1229,78 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
     }
 
 
+    protected Collection<QueryPlan> explainInternal(final Predicate predicate) {
+        final NodeEngine nodeEngine = getNodeEngine();
+        OperationService operationService = nodeEngine.getOperationService();
+        Collection<MemberImpl> members = nodeEngine.getClusterService().getMemberList();
+        try {
+            List<Future> futures = new ArrayList<Future>(members.size());
+            for (MemberImpl member : members) {
+                Future future = operationService
+                        .invokeOnTarget(SERVICE_NAME, new QueryOperation(name, predicate, true), member.getAddress());
+                futures.add(future);
+            }
+            List<QueryPlan> plans = new ArrayList<QueryPlan>(futures.size());
+            for (Future future : futures) {
+                plans.add((QueryPlan) future.get());
+            }
+            return plans;
+        } catch (Throwable t) {
+            throw ExceptionUtil.rethrow(t);
+        }
+    }
+
+    protected Object aggregateInternal(final Aggregator aggregator, final Predicate predicate) {
+        final NodeEngine nodeEngine = getNodeEngine();
+        OperationService operationService = nodeEngine.getOperationService();
+        final SerializationService ss = nodeEngine.getSerializationService();
+        Collection<MemberImpl> members = nodeEngine.getClusterService().getMemberList();
+        int partitionCount = nodeEngine.getPartitionService().getPartitionCount();
+        Set<Integer> plist = new HashSet<Integer>(partitionCount);
+        // the members and the caller accumulate in copies, so the aggregator passed can be reused
+        final Data aggregatorData = ss.toData(aggregator);
+        final Aggregator result = ss.toObject(aggregatorData);
+        try {
+            List<Future> flist = new ArrayList<Future>(members.size());
+            for (MemberImpl member : members) {
+                Future future = operationService.invokeOnTarget(SERVICE_NAME,
+                        new AggregationOperation(name, aggregatorData, predicate), member.getAddress());
+                flist.add(future);
+            }
+            for (Future future : flist) {
+                AggregationResult aggregationResult = (AggregationResult) future.get();
+                if (aggregationResult != null && aggregationResult.getPartitionIds() != null) {
+                    plist.addAll(aggregationResult.getPartitionIds());
+                    result.combine(aggregationResult.getAggregator());
+                }
+            }
+            List<Future> futures = new ArrayList<Future>();
+            for (int pid = 0; pid < partitionCount; pid++) {
+                if (!plist.contains(pid)) {
+                    AggregationPartitionOperation operation = new AggregationPartitionOperation(name, aggregatorData, predicate);
+                    operation.setPartitionId(pid);
+                    futures.add(operationService.invokeOnPartition(SERVICE_NAME, operation, pid));
+                }
+            }
+            for (Future future : futures) {
+                result.combine((Aggregator) future.get());
+            }
+        } catch (Throwable t) {
+            throw ExceptionUtil.rethrow(t);
+        }
+        return result.aggregate();
+    }
+
+    protected QueryCursorPage fetchQueryPage(Predicate predicate, int partitionId, String cursorId, int page, int fetchSize) {
+        QueryPageOperation operation = new QueryPageOperation(name, predicate, cursorId, page, fetchSize);
+        try {
+            Future future = getNodeEngine().getOperationService().invokeOnPartition(SERVICE_NAME, operation, partitionId);
+            return (QueryCursorPage) future.get();
+        } catch (Throwable t) {
+            throw ExceptionUtil.rethrow(t);
+        }
+    }
+
     protected Set query(final Predicate predicate, final IterationType iterationType, final boolean dataResult) {
 
         final NodeEngine nodeEngine = getNodeEngine();
@@ -1149,10 +1406,14 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
     }
 
     public void addIndex(final String attribute, final boolean ordered) {
+        addIndex(attribute, ordered, false);
+    }
+
+    public void addIndex(final String attribute, final boolean ordered, final boolean bitmap) {
         final NodeEngine nodeEngine = getNodeEngine();
         if (attribute == null) throw new IllegalArgumentException("Attribute name cannot be null");
         try {
-            AddIndexOperation addIndexOperation = new AddIndexOperation(name, attribute, ordered);
+            AddIndexOperation addIndexOperation = new AddIndexOperation(name, attribute, ordered, bitmap);
             nodeEngine.getOperationService()
                     .invokeOnAllPartitions(SERVICE_NAME, new BinaryOperationFactory(addIndexOperation, nodeEngine));
         } catch (Throwable t) {
@@ -17,6 +17,7 @@
 package com.hazelcast.map.record;
 
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.DataCompressor;
 
 class DataRecord extends AbstractRecord<Data> {
 
@@ -43,8 +44,11 @@ class DataRecord extends AbstractRecord<Data> {
         return size;
     }
 
+    /**
+     * @return the value, decompressed if it is kept compressed.
+     */
     public Data getValue() {
-        return value;
+        return DataCompressor.decompress(value);
     }
 
     public void setValue(Data o) {
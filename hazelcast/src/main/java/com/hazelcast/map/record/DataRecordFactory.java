@@ -20,6 +20,7 @@ import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.core.PartitioningStrategy;
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.DataCompressor;
 import com.hazelcast.nio.serialization.SerializationService;
 
 public class DataRecordFactory implements RecordFactory<Data> {
@@ -28,6 +29,7 @@ public class DataRecordFactory implements RecordFactory<Data> {
     private final PartitioningStrategy partitionStrategy;
     private final boolean optimizeQuery;
     private final boolean statisticsEnabled;
+    private final int compressionThreshold;
 
     public DataRecordFactory(MapConfig config, SerializationService serializationService,
                              PartitioningStrategy partitionStrategy) {
@@ -35,6 +37,7 @@ public class DataRecordFactory implements RecordFactory<Data> {
         this.partitionStrategy = partitionStrategy;
         this.statisticsEnabled = config.isStatisticsEnabled();
         this.optimizeQuery = config.isOptimizeQueries();
+        this.compressionThreshold = config.getCompressionThreshold();
     }
 
     @Override
@@ -44,7 +47,7 @@ public class DataRecordFactory implements RecordFactory<Data> {
 
     @Override
     public Record<Data> newRecord(Data key, Object value) {
-        final Data data = serializationService.toData(value, partitionStrategy);
+        final Data data = compress(serializationService.toData(value, partitionStrategy));
         if (optimizeQuery) {
             return statisticsEnabled ? new CachedDataRecordWithStats(key, data)
                     : new CachedDataRecord(key, data);
@@ -60,7 +63,15 @@ public class DataRecordFactory implements RecordFactory<Data> {
         } else {
             v = serializationService.toData(value, partitionStrategy);
         }
-        record.setValue(v);
+        record.setValue(compress(v));
+    }
+
+    // records decompress their value when it is read, see DataRecord#getValue()
+    private Data compress(Data data) {
+        if (compressionThreshold > 0 && data != null && data.bufferSize() >= compressionThreshold) {
+            return DataCompressor.compress(data);
+        }
+        return data;
     }
 
     @Override
@@ -17,6 +17,7 @@
 package com.hazelcast.map.record;
 
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.DataCompressor;
 
 class DataRecordWithStats extends AbstractRecordWithStats<Data> {
 
@@ -42,8 +43,11 @@ class DataRecordWithStats extends AbstractRecordWithStats<Data> {
         return cost;
     }
 
+    /**
+     * @return the value, decompressed if it is kept compressed.
+     */
     public Data getValue() {
-        return value;
+        return DataCompressor.decompress(value);
     }
 
     public void setValue(Data o) {
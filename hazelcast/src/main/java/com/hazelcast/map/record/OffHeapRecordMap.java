@@ -0,0 +1,1030 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.record;
+
+import com.hazelcast.nio.serialization.ClassDefinition;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.HazelcastSerializationException;
+import com.hazelcast.nio.serialization.SerializationContext;
+import com.hazelcast.util.Clock;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.hazelcast.nio.UnsafeHelper.BYTE_ARRAY_BASE_OFFSET;
+import static com.hazelcast.nio.UnsafeHelper.UNSAFE;
+import static com.hazelcast.util.ValidationUtil.isNotNull;
+
+/**
+ * Open addressing hash table keeping map entries outside of the Java heap.
+ * <p/>
+ * Each entry occupies a fixed-width slot of a natively allocated table: key and value block addresses,
+ * key hash, hits, version, eviction criteria, ttl and access/update times, followed by the
+ * {@link RecordStatistics} fields when statistics are enabled. Key and value bytes are copied into
+ * natively allocated blocks, collisions are resolved by linear probing and removed slots are marked with
+ * a tombstone until the next rehash.
+ * <p/>
+ * Records returned by {@link #get(Object)} and by the iterators are views bound to the slot of the entry,
+ * their setters write through to the table. Records returned by {@link #put(Data, Record)} and
+ * {@link #remove(Object)} are detached on-heap copies of the previous entry.
+ * <p/>
+ * Entries are expected to be modified by the partition thread only, while they can be read from any thread.
+ * All writes to the table, including the metadata updates of record views, take the write lock.
+ * Iterators are weakly consistent; if the table is resized while an iteration is in progress,
+ * the iterator restarts over the new table and may return an entry more than once, except for the
+ * iterator of {@link #valuesFailingOnResize()}.
+ * <p/>
+ * Native memory is released on {@link #remove(Object)} and {@link #clear()}, so the map must be cleared
+ * before it is discarded.
+ */
+public final class OffHeapRecordMap extends AbstractMap<Data, Record> implements ConcurrentMap<Data, Record> {
+
+    private static final int KEY_ADDRESS_OFFSET = 0;
+    private static final int VALUE_ADDRESS_OFFSET = 8;
+    private static final int KEY_HASH_OFFSET = 16;
+    private static final int HITS_OFFSET = 20;
+    private static final int VERSION_OFFSET = 24;
+    private static final int EVICTION_CRITERIA_OFFSET = 32;
+    private static final int TTL_OFFSET = 40;
+    private static final int CREATION_TIME_OFFSET = 48;
+    private static final int LAST_ACCESS_TIME_OFFSET = 56;
+    private static final int LAST_UPDATED_TIME_OFFSET = 64;
+    private static final int SLOT_SIZE = 72;
+
+    private static final int STATS_LAST_STORED_TIME_OFFSET = 72;
+    private static final int STATS_LAST_UPDATE_TIME_OFFSET = 80;
+    private static final int STATS_LAST_ACCESS_TIME_OFFSET = 88;
+    private static final int STATS_CREATION_TIME_OFFSET = 96;
+    private static final int STATS_EXPIRATION_TIME_OFFSET = 104;
+    private static final int SLOT_SIZE_WITH_STATS = 112;
+
+    private static final int BLOCK_TYPE_OFFSET = 0;
+    private static final int BLOCK_PARTITION_HASH_OFFSET = 4;
+    private static final int BLOCK_LENGTH_OFFSET = 8;
+    private static final int BLOCK_CLASS_ID_OFFSET = 12;
+    private static final int BLOCK_FACTORY_ID_OFFSET = 16;
+    private static final int BLOCK_CLASS_VERSION_OFFSET = 20;
+    private static final int BLOCK_HEADER_SIZE = 24;
+    // length of a block whose data has no buffer
+    private static final int NULL_BUFFER = -1;
+
+    // never returned by malloc, marks a removed slot
+    private static final long TOMBSTONE = -1L;
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final float LOAD_FACTOR = 0.6f;
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+    private final SerializationContext serializationContext;
+    private final boolean statisticsEnabled;
+    private final int slotSize;
+    private final Lock readLock;
+    private final Lock writeLock;
+
+    // table state, guarded by the lock
+    private long table;
+    private int capacity;
+    private int tombstones;
+    // changes whenever an entry may have moved or a slot may have been reused, invalidates cached slots of views
+    private int generation;
+    // changes whenever the table is reallocated, restarts iterators
+    private int resizes;
+
+    private volatile int size;
+    private volatile long usedMemory;
+
+    public OffHeapRecordMap(SerializationContext serializationContext, boolean statisticsEnabled) {
+        this.serializationContext = serializationContext;
+        this.statisticsEnabled = statisticsEnabled;
+        this.slotSize = statisticsEnabled ? SLOT_SIZE_WITH_STATS : SLOT_SIZE;
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        this.readLock = lock.readLock();
+        this.writeLock = lock.writeLock();
+    }
+
+    /**
+     * @return native memory used by the table and the key and value blocks, in bytes.
+     */
+    public long getUsedMemory() {
+        return usedMemory;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (!(key instanceof Data)) {
+            return false;
+        }
+        final Data dataKey = (Data) key;
+        readLock.lock();
+        try {
+            return findSlot(dataKey, dataKey.hashCode()) != 0L;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public Record get(Object key) {
+        if (!(key instanceof Data)) {
+            return null;
+        }
+        final Data dataKey = (Data) key;
+        readLock.lock();
+        try {
+            final long slot = findSlot(dataKey, dataKey.hashCode());
+            return slot == 0L ? null : new SlotRecord(dataKey, slot, generation);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public Record put(Data key, Record record) {
+        isNotNull(key, "key");
+        isNotNull(record, "record");
+        final int hash = key.hashCode();
+        writeLock.lock();
+        try {
+            long slot = findSlot(key, hash);
+            if (slot != 0L) {
+                final Record oldRecord = toHeapRecord(slot);
+                writeValue(slot, (Data) record.getValue());
+                writeMetadata(slot, record);
+                return oldRecord;
+            }
+            ensureCapacity();
+            slot = insertSlot(hash);
+            UNSAFE.setMemory(slot, slotSize, (byte) 0);
+            UNSAFE.putLong(slot + KEY_ADDRESS_OFFSET, allocateBlock(key));
+            UNSAFE.putInt(slot + KEY_HASH_OFFSET, hash);
+            writeValue(slot, (Data) record.getValue());
+            writeMetadata(slot, record);
+            size++;
+            return null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Record remove(Object key) {
+        if (!(key instanceof Data)) {
+            return null;
+        }
+        final Data dataKey = (Data) key;
+        writeLock.lock();
+        try {
+            final long slot = findSlot(dataKey, dataKey.hashCode());
+            if (slot == 0L) {
+                return null;
+            }
+            final Record oldRecord = toHeapRecord(slot);
+            removeSlot(slot);
+            return oldRecord;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Record putIfAbsent(Data key, Record record) {
+        writeLock.lock();
+        try {
+            final Record current = get(key);
+            if (current != null) {
+                return current;
+            }
+            return put(key, record);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Records are equal when their keys are equal, so an entry is removed if it is mapped to
+     * a record of the same key.
+     */
+    @Override
+    public boolean remove(Object key, Object record) {
+        writeLock.lock();
+        try {
+            final Record current = get(key);
+            if (current == null || !current.equals(record)) {
+                return false;
+            }
+            remove(key);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean replace(Data key, Record oldRecord, Record newRecord) {
+        writeLock.lock();
+        try {
+            final Record current = get(key);
+            if (current == null || !current.equals(oldRecord)) {
+                return false;
+            }
+            put(key, newRecord);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Record replace(Data key, Record record) {
+        writeLock.lock();
+        try {
+            return containsKey(key) ? put(key, record) : null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Releases all native memory held by the map.
+     */
+    @Override
+    public void clear() {
+        writeLock.lock();
+        try {
+            for (int index = 0; index < capacity; index++) {
+                final long slot = slotAddress(index);
+                final long keyAddress = UNSAFE.getLong(slot + KEY_ADDRESS_OFFSET);
+                if (keyAddress != 0L && keyAddress != TOMBSTONE) {
+                    freeBlock(keyAddress);
+                    freeBlock(UNSAFE.getLong(slot + VALUE_ADDRESS_OFFSET));
+                }
+            }
+            if (table != 0L) {
+                UNSAFE.freeMemory(table);
+            }
+            table = 0L;
+            capacity = 0;
+            tombstones = 0;
+            size = 0;
+            usedMemory = 0L;
+            generation++;
+            resizes++;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Set<Data> keySet() {
+        return new KeySet();
+    }
+
+    @Override
+    public Collection<Record> values() {
+        return new Values();
+    }
+
+    @Override
+    public Set<Map.Entry<Data, Record>> entrySet() {
+        return new EntrySet();
+    }
+
+    /**
+     * @return an iterator over the records which throws a {@link ConcurrentModificationException} instead of
+     * restarting when the table is resized, for iterations which must not return an entry twice.
+     */
+    public Iterator<Record> valuesFailingOnResize() {
+        return new SlotIterator<Record>(true) {
+            @Override
+            public Record next() {
+                return nextRecord();
+            }
+        };
+    }
+
+    private static int spread(int hash) {
+        final int h = hash * HASH_MULTIPLIER;
+        return h ^ (h >>> (Integer.SIZE / 2));
+    }
+
+    private long slotAddress(int index) {
+        return table + (long) index * slotSize;
+    }
+
+    private static boolean isOccupied(long keyAddress) {
+        return keyAddress != 0L && keyAddress != TOMBSTONE;
+    }
+
+    private long findSlot(Data key, int hash) {
+        final int mask = capacity - 1;
+        int index = spread(hash) & mask;
+        for (int probe = 0; probe < capacity; probe++) {
+            final long slot = slotAddress(index);
+            final long keyAddress = UNSAFE.getLong(slot + KEY_ADDRESS_OFFSET);
+            if (keyAddress == 0L) {
+                return 0L;
+            }
+            if (keyAddress != TOMBSTONE && UNSAFE.getInt(slot + KEY_HASH_OFFSET) == hash
+                    && blockEquals(keyAddress, key)) {
+                return slot;
+            }
+            index = (index + 1) & mask;
+        }
+        return 0L;
+    }
+
+    private long insertSlot(int hash) {
+        final int mask = capacity - 1;
+        int index = spread(hash) & mask;
+        while (true) {
+            final long slot = slotAddress(index);
+            final long keyAddress = UNSAFE.getLong(slot + KEY_ADDRESS_OFFSET);
+            if (keyAddress == TOMBSTONE) {
+                tombstones--;
+                return slot;
+            }
+            if (keyAddress == 0L) {
+                return slot;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void removeSlot(long slot) {
+        freeBlock(UNSAFE.getLong(slot + KEY_ADDRESS_OFFSET));
+        freeBlock(UNSAFE.getLong(slot + VALUE_ADDRESS_OFFSET));
+        UNSAFE.putLong(slot + KEY_ADDRESS_OFFSET, TOMBSTONE);
+        UNSAFE.putLong(slot + VALUE_ADDRESS_OFFSET, 0L);
+        size--;
+        tombstones++;
+        generation++;
+        if (size == 0) {
+            UNSAFE.setMemory(table, (long) capacity * slotSize, (byte) 0);
+            tombstones = 0;
+        }
+    }
+
+    private void ensureCapacity() {
+        if (table == 0L) {
+            rehash(MIN_CAPACITY);
+            return;
+        }
+        final int threshold = (int) (capacity * LOAD_FACTOR);
+        if (size + tombstones + 1 <= threshold) {
+            return;
+        }
+        // grow when live entries fill more than half of the threshold, otherwise just purge tombstones
+        if ((size + 1) * 2 > threshold) {
+            if (capacity == MAX_CAPACITY) {
+                throw new IllegalStateException("Off-heap record map cannot grow beyond " + MAX_CAPACITY + " slots");
+            }
+            rehash(capacity << 1);
+        } else {
+            rehash(capacity);
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        final long tableSize = (long) newCapacity * slotSize;
+        final long newTable = UNSAFE.allocateMemory(tableSize);
+        UNSAFE.setMemory(newTable, tableSize, (byte) 0);
+        final long oldTable = table;
+        final int oldCapacity = capacity;
+        table = newTable;
+        capacity = newCapacity;
+        tombstones = 0;
+        for (int index = 0; index < oldCapacity; index++) {
+            final long oldSlot = oldTable + (long) index * slotSize;
+            if (isOccupied(UNSAFE.getLong(oldSlot + KEY_ADDRESS_OFFSET))) {
+                final long newSlot = insertSlot(UNSAFE.getInt(oldSlot + KEY_HASH_OFFSET));
+                UNSAFE.copyMemory(oldSlot, newSlot, slotSize);
+            }
+        }
+        if (oldTable != 0L) {
+            UNSAFE.freeMemory(oldTable);
+        }
+        usedMemory += tableSize - (long) oldCapacity * slotSize;
+        generation++;
+        resizes++;
+    }
+
+    private long allocateBlock(Data data) {
+        final byte[] buffer = data.getBuffer();
+        final int length = buffer == null ? 0 : buffer.length;
+        final long address = UNSAFE.allocateMemory(BLOCK_HEADER_SIZE + length);
+        UNSAFE.putInt(address + BLOCK_TYPE_OFFSET, data.getType());
+        UNSAFE.putInt(address + BLOCK_PARTITION_HASH_OFFSET, data.getPartitionHash());
+        UNSAFE.putInt(address + BLOCK_LENGTH_OFFSET, buffer == null ? NULL_BUFFER : length);
+        final ClassDefinition classDefinition = data.getClassDefinition();
+        if (classDefinition != null) {
+            UNSAFE.putInt(address + BLOCK_CLASS_ID_OFFSET, classDefinition.getClassId());
+            UNSAFE.putInt(address + BLOCK_FACTORY_ID_OFFSET, classDefinition.getFactoryId());
+            UNSAFE.putInt(address + BLOCK_CLASS_VERSION_OFFSET, classDefinition.getVersion());
+        } else {
+            UNSAFE.putInt(address + BLOCK_CLASS_ID_OFFSET, Data.NO_CLASS_ID);
+        }
+        if (length > 0) {
+            UNSAFE.copyMemory(buffer, BYTE_ARRAY_BASE_OFFSET, null, address + BLOCK_HEADER_SIZE, length);
+        }
+        usedMemory += BLOCK_HEADER_SIZE + length;
+        return address;
+    }
+
+    private void freeBlock(long address) {
+        if (address == 0L) {
+            return;
+        }
+        usedMemory -= BLOCK_HEADER_SIZE + blockLength(address);
+        UNSAFE.freeMemory(address);
+    }
+
+    private static int blockLength(long address) {
+        return Math.max(UNSAFE.getInt(address + BLOCK_LENGTH_OFFSET), 0);
+    }
+
+    private Data readBlock(long address) {
+        final int length = UNSAFE.getInt(address + BLOCK_LENGTH_OFFSET);
+        byte[] buffer = null;
+        if (length != NULL_BUFFER) {
+            buffer = new byte[length];
+            UNSAFE.copyMemory(null, address + BLOCK_HEADER_SIZE, buffer, BYTE_ARRAY_BASE_OFFSET, length);
+        }
+        ClassDefinition classDefinition = null;
+        final int classId = UNSAFE.getInt(address + BLOCK_CLASS_ID_OFFSET);
+        if (classId != Data.NO_CLASS_ID) {
+            final int factoryId = UNSAFE.getInt(address + BLOCK_FACTORY_ID_OFFSET);
+            final int version = UNSAFE.getInt(address + BLOCK_CLASS_VERSION_OFFSET);
+            classDefinition = serializationContext.lookup(factoryId, classId, version);
+            if (classDefinition == null) {
+                throw new HazelcastSerializationException("No class definition found for factory-id: " + factoryId
+                        + ", class-id: " + classId + ", version: " + version);
+            }
+        }
+        return new Data(UNSAFE.getInt(address + BLOCK_TYPE_OFFSET), buffer,
+                UNSAFE.getInt(address + BLOCK_PARTITION_HASH_OFFSET), classDefinition);
+    }
+
+    private static boolean blockEquals(long address, Data data) {
+        final byte[] buffer = data.getBuffer();
+        final int length = UNSAFE.getInt(address + BLOCK_LENGTH_OFFSET);
+        if (UNSAFE.getInt(address + BLOCK_TYPE_OFFSET) != data.getType()
+                || length != (buffer == null ? NULL_BUFFER : buffer.length)) {
+            return false;
+        }
+        final long base = address + BLOCK_HEADER_SIZE;
+        final int longSize = Long.SIZE / Byte.SIZE;
+        int i = 0;
+        for (; i <= length - longSize; i += longSize) {
+            if (UNSAFE.getLong(base + i) != UNSAFE.getLong(buffer, BYTE_ARRAY_BASE_OFFSET + i)) {
+                return false;
+            }
+        }
+        for (; i < length; i++) {
+            if (UNSAFE.getByte(base + i) != buffer[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeValue(long slot, Data value) {
+        final long oldAddress = UNSAFE.getLong(slot + VALUE_ADDRESS_OFFSET);
+        UNSAFE.putLong(slot + VALUE_ADDRESS_OFFSET, value == null ? 0L : allocateBlock(value));
+        freeBlock(oldAddress);
+    }
+
+    private void writeMetadata(long slot, Record record) {
+        UNSAFE.putLong(slot + VERSION_OFFSET, record.getVersion());
+        UNSAFE.putLong(slot + EVICTION_CRITERIA_OFFSET, record.getEvictionCriteriaNumber());
+        UNSAFE.putLong(slot + TTL_OFFSET, record.getTtl());
+        UNSAFE.putLong(slot + CREATION_TIME_OFFSET, record.getCreationTime());
+        UNSAFE.putLong(slot + LAST_ACCESS_TIME_OFFSET, record.getLastAccessTime());
+        UNSAFE.putLong(slot + LAST_UPDATED_TIME_OFFSET, record.getLastUpdatedTime());
+        if (statisticsEnabled) {
+            writeStatistics(slot, record.getStatistics());
+        }
+    }
+
+    private static void writeStatistics(long slot, RecordStatistics stats) {
+        if (stats == null) {
+            return;
+        }
+        UNSAFE.putInt(slot + HITS_OFFSET, stats.getHits());
+        UNSAFE.putLong(slot + STATS_LAST_STORED_TIME_OFFSET, stats.getLastStoredTime());
+        UNSAFE.putLong(slot + STATS_LAST_UPDATE_TIME_OFFSET, stats.getLastUpdateTime());
+        UNSAFE.putLong(slot + STATS_LAST_ACCESS_TIME_OFFSET, stats.getLastAccessTime());
+        UNSAFE.putLong(slot + STATS_CREATION_TIME_OFFSET, stats.getCreationTime());
+        UNSAFE.putLong(slot + STATS_EXPIRATION_TIME_OFFSET, stats.getExpirationTime());
+    }
+
+    private static RecordStatistics readStatistics(long slot) {
+        final RecordStatistics stats = new RecordStatistics();
+        stats.setHits(UNSAFE.getInt(slot + HITS_OFFSET));
+        stats.setLastStoredTime(UNSAFE.getLong(slot + STATS_LAST_STORED_TIME_OFFSET));
+        stats.setLastUpdateTime(UNSAFE.getLong(slot + STATS_LAST_UPDATE_TIME_OFFSET));
+        stats.lastAccessTime = UNSAFE.getLong(slot + STATS_LAST_ACCESS_TIME_OFFSET);
+        stats.setCreationTime(UNSAFE.getLong(slot + STATS_CREATION_TIME_OFFSET));
+        stats.setExpirationTime(UNSAFE.getLong(slot + STATS_EXPIRATION_TIME_OFFSET));
+        return stats;
+    }
+
+    private Record toHeapRecord(long slot) {
+        final Data key = readBlock(UNSAFE.getLong(slot + KEY_ADDRESS_OFFSET));
+        final long valueAddress = UNSAFE.getLong(slot + VALUE_ADDRESS_OFFSET);
+        final Data value = valueAddress == 0L ? null : readBlock(valueAddress);
+        final Record<Data> record = statisticsEnabled ? new DataRecordWithStats(key, value) : new DataRecord(key, value);
+        record.setVersion(UNSAFE.getLong(slot + VERSION_OFFSET));
+        record.setEvictionCriteriaNumber(UNSAFE.getLong(slot + EVICTION_CRITERIA_OFFSET));
+        record.setTtl(UNSAFE.getLong(slot + TTL_OFFSET));
+        record.setCreationTime(UNSAFE.getLong(slot + CREATION_TIME_OFFSET));
+        record.setLastAccessTime(UNSAFE.getLong(slot + LAST_ACCESS_TIME_OFFSET));
+        record.setLastUpdatedTime(UNSAFE.getLong(slot + LAST_UPDATED_TIME_OFFSET));
+        if (statisticsEnabled) {
+            record.setStatistics(readStatistics(slot));
+        }
+        return record;
+    }
+
+    /**
+     * Record view over the slot of an entry. The slot address is cached and looked up again by key
+     * once the table generation changes; when the entry is gone, getters return defaults and setters are ignored.
+     * <p/>
+     * Getters take the read lock, setters the write lock, so readers and the evictor never see a slot
+     * half written.
+     */
+    private final class SlotRecord implements Record<Data> {
+
+        private final Data key;
+        // address and generation are cached together, so a reader never pairs an address with a wrong generation
+        private volatile SlotRef slotRef;
+
+        SlotRecord(Data key, long slot, int slotGeneration) {
+            this.key = key;
+            this.slotRef = new SlotRef(slot, slotGeneration);
+        }
+
+        // must be called while holding the read or the write lock, the generation cannot change meanwhile
+        private long slot() {
+            SlotRef ref = slotRef;
+            if (ref.generation != generation) {
+                ref = new SlotRef(table == 0L ? 0L : findSlot(key, key.hashCode()), generation);
+                slotRef = ref;
+            }
+            return ref.address;
+        }
+
+        private long getLong(int offset) {
+            readLock.lock();
+            try {
+                final long s = slot();
+                return s == 0L ? 0L : UNSAFE.getLong(s + offset);
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        private void putLong(int offset, long value) {
+            writeLock.lock();
+            try {
+                final long s = slot();
+                if (s != 0L) {
+                    UNSAFE.putLong(s + offset, value);
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        @Override
+        public Data getKey() {
+            return key;
+        }
+
+        @Override
+        public Data getValue() {
+            readLock.lock();
+            try {
+                final long s = slot();
+                final long valueAddress = s == 0L ? 0L : UNSAFE.getLong(s + VALUE_ADDRESS_OFFSET);
+                return valueAddress == 0L ? null : readBlock(valueAddress);
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        @Override
+        public void setValue(Data value) {
+            writeLock.lock();
+            try {
+                final long s = slot();
+                if (s != 0L) {
+                    writeValue(s, value);
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        @Override
+        public void invalidate() {
+            setValue(null);
+        }
+
+        @Override
+        public RecordStatistics getStatistics() {
+            if (!statisticsEnabled) {
+                return null;
+            }
+            readLock.lock();
+            try {
+                final long s = slot();
+                return s == 0L ? new RecordStatistics() : readStatistics(s);
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        @Override
+        public void setStatistics(RecordStatistics stats) {
+            if (!statisticsEnabled) {
+                throw new UnsupportedOperationException();
+            }
+            writeLock.lock();
+            try {
+                final long s = slot();
+                if (s != 0L) {
+                    writeStatistics(s, stats);
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        @Override
+        public void onAccess() {
+            writeLock.lock();
+            try {
+                final long s = slot();
+                if (s == 0L) {
+                    return;
+                }
+                UNSAFE.putLong(s + LAST_ACCESS_TIME_OFFSET, System.nanoTime());
+                if (statisticsEnabled) {
+                    UNSAFE.putInt(s + HITS_OFFSET, UNSAFE.getInt(s + HITS_OFFSET) + 1);
+                    UNSAFE.putLong(s + STATS_LAST_ACCESS_TIME_OFFSET, Clock.currentTimeMillis());
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        @Override
+        public void onUpdate() {
+            writeLock.lock();
+            try {
+                final long s = slot();
+                if (s == 0L) {
+                    return;
+                }
+                UNSAFE.putLong(s + LAST_UPDATED_TIME_OFFSET, System.nanoTime());
+                UNSAFE.putLong(s + VERSION_OFFSET, UNSAFE.getLong(s + VERSION_OFFSET) + 1);
+                if (statisticsEnabled) {
+                    UNSAFE.putLong(s + STATS_LAST_UPDATE_TIME_OFFSET, Clock.currentTimeMillis());
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        @Override
+        public void onStore() {
+            if (statisticsEnabled) {
+                putLong(STATS_LAST_STORED_TIME_OFFSET, Clock.currentTimeMillis());
+            }
+        }
+
+        /**
+         * Entries do not occupy the heap, the cost is the native memory of the slot and of the key and value blocks.
+         */
+        @Override
+        public long getCost() {
+            readLock.lock();
+            try {
+                final long s = slot();
+                if (s == 0L) {
+                    return 0L;
+                }
+                final long valueAddress = UNSAFE.getLong(s + VALUE_ADDRESS_OFFSET);
+                long cost = slotSize + BLOCK_HEADER_SIZE + blockLength(UNSAFE.getLong(s + KEY_ADDRESS_OFFSET));
+                if (valueAddress != 0L) {
+                    cost += BLOCK_HEADER_SIZE + blockLength(valueAddress);
+                }
+                return cost;
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        @Override
+        public long getVersion() {
+            return getLong(VERSION_OFFSET);
+        }
+
+        @Override
+        public void setVersion(long version) {
+            putLong(VERSION_OFFSET, version);
+        }
+
+        @Override
+        public void setEvictionCriteriaNumber(long evictionCriteriaNumber) {
+            putLong(EVICTION_CRITERIA_OFFSET, evictionCriteriaNumber);
+        }
+
+        @Override
+        public long getEvictionCriteriaNumber() {
+            return getLong(EVICTION_CRITERIA_OFFSET);
+        }
+
+        @Override
+        public Object getCachedValue() {
+            return Record.NOT_CACHED;
+        }
+
+        @Override
+        public void setCachedValue(Object cachedValue) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long getTtl() {
+            return getLong(TTL_OFFSET);
+        }
+
+        @Override
+        public void setTtl(long ttl) {
+            putLong(TTL_OFFSET, ttl);
+        }
+
+        @Override
+        public long getCreationTime() {
+            return getLong(CREATION_TIME_OFFSET);
+        }
+
+        @Override
+        public void setCreationTime(long creationTime) {
+            putLong(CREATION_TIME_OFFSET, creationTime);
+        }
+
+        @Override
+        public long getLastAccessTime() {
+            return getLong(LAST_ACCESS_TIME_OFFSET);
+        }
+
+        @Override
+        public void setLastAccessTime(long lastAccessTime) {
+            putLong(LAST_ACCESS_TIME_OFFSET, lastAccessTime);
+        }
+
+        @Override
+        public long getLastUpdatedTime() {
+            return getLong(LAST_UPDATED_TIME_OFFSET);
+        }
+
+        @Override
+        public void setLastUpdatedTime(long lastUpdatedTime) {
+            putLong(LAST_UPDATED_TIME_OFFSET, lastUpdatedTime);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Record)) {
+                return false;
+            }
+            return key.equals(((Record) o).getKey());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "OffHeapRecord{" + "key=" + key + '}';
+        }
+    }
+
+    private static final class SlotRef {
+        final long address;
+        final int generation;
+
+        SlotRef(long address, int generation) {
+            this.address = address;
+            this.generation = generation;
+        }
+    }
+
+    private abstract class SlotIterator<E> implements Iterator<E> {
+
+        private final boolean failOnResize;
+        private int nextIndex;
+        private int expectedResizes;
+        private SlotRecord next;
+        private SlotRecord current;
+
+        SlotIterator() {
+            this(false);
+        }
+
+        SlotIterator(boolean failOnResize) {
+            this.failOnResize = failOnResize;
+            readLock.lock();
+            try {
+                expectedResizes = resizes;
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                readLock.lock();
+                try {
+                    next = advance();
+                } finally {
+                    readLock.unlock();
+                }
+            }
+            return next != null;
+        }
+
+        private SlotRecord advance() {
+            if (expectedResizes != resizes) {
+                if (failOnResize) {
+                    throw new ConcurrentModificationException("Off-heap record map was resized during the iteration");
+                }
+                expectedResizes = resizes;
+                nextIndex = 0;
+            }
+            while (nextIndex < capacity) {
+                final long slot = slotAddress(nextIndex++);
+                final long keyAddress = UNSAFE.getLong(slot + KEY_ADDRESS_OFFSET);
+                if (isOccupied(keyAddress)) {
+                    return new SlotRecord(readBlock(keyAddress), slot, generation);
+                }
+            }
+            return null;
+        }
+
+        SlotRecord nextRecord() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            current = next;
+            next = null;
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            if (current == null) {
+                throw new IllegalStateException();
+            }
+            OffHeapRecordMap.this.remove(current.key);
+            current = null;
+        }
+    }
+
+    private final class KeySet extends AbstractSet<Data> {
+
+        @Override
+        public Iterator<Data> iterator() {
+            return new SlotIterator<Data>() {
+                @Override
+                public Data next() {
+                    return nextRecord().key;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return OffHeapRecordMap.this.remove(o) != null;
+        }
+
+        @Override
+        public void clear() {
+            OffHeapRecordMap.this.clear();
+        }
+    }
+
+    private final class Values extends AbstractCollection<Record> {
+
+        @Override
+        public Iterator<Record> iterator() {
+            return new SlotIterator<Record>() {
+                @Override
+                public Record next() {
+                    return nextRecord();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            OffHeapRecordMap.this.clear();
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<Data, Record>> {
+
+        @Override
+        public Iterator<Map.Entry<Data, Record>> iterator() {
+            return new SlotIterator<Map.Entry<Data, Record>>() {
+                @Override
+                public Map.Entry<Data, Record> next() {
+                    final SlotRecord record = nextRecord();
+                    return new SimpleImmutableEntry<Data, Record>(record.key, record);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            final Record record = get(((Map.Entry) o).getKey());
+            return record != null && record.equals(((Map.Entry) o).getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return o instanceof Map.Entry
+                    && OffHeapRecordMap.this.remove(((Map.Entry) o).getKey(), ((Map.Entry) o).getValue());
+        }
+
+        @Override
+        public void clear() {
+            OffHeapRecordMap.this.clear();
+        }
+    }
+}
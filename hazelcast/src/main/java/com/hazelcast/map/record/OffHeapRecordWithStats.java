@@ -54,10 +54,11 @@ class OffHeapRecordWithStats extends AbstractRecordWithStats<Data> {
     }
 
     public void setValue(Data value) {
+        // store the new value before releasing the old one,
+        // so the record keeps its value if storage runs out of memory
+        final DataRef newValueRef = value != null ? storage.put(key.getPartitionHash(), value) : null;
         invalidate();
-        if (value != null) {
-            valueRef = storage.put(key.getPartitionHash(), value);
-        }
+        valueRef = newValueRef;
     }
 
     public void invalidate() {
@@ -23,9 +23,11 @@ import com.hazelcast.mapreduce.impl.task.ReducerTask;
 import com.hazelcast.mapreduce.impl.task.TrackableJobFuture;
 import com.hazelcast.spi.NodeEngine;
 
+import java.util.Collection;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This is the base class for all {@link JobTracker} implementations on node and client side.<br/>
@@ -37,6 +39,7 @@ public abstract class AbstractJobTracker
     protected final ConcurrentMap<String, TrackableJobFuture> trackableJobs = new ConcurrentHashMap<String, TrackableJobFuture>();
     protected final ConcurrentMap<String, ReducerTask> reducerTasks = new ConcurrentHashMap<String, ReducerTask>();
     protected final ConcurrentMap<String, MapCombineTask> mapCombineTasks = new ConcurrentHashMap<String, MapCombineTask>();
+    protected final AtomicLong chunkMemory = new AtomicLong();
     protected final NodeEngine nodeEngine;
     protected final ExecutorService executorService;
     protected final MapReduceService mapReduceService;
@@ -79,6 +82,27 @@ public abstract class AbstractJobTracker
         return jobTrackerConfig;
     }
 
+    /**
+     * Accounts memory the reducers of a job hold for received chunks against the
+     * {@link JobTrackerConfig#getSpillThreshold() spill threshold} shared by all jobs of this job tracker.
+     *
+     * @return <tt>true</tt> if the reducers now hold more than the threshold and should spill their chunks.
+     */
+    public boolean reserveChunkMemory(long bytes) {
+        return chunkMemory.addAndGet(bytes) > jobTrackerConfig.getSpillThreshold();
+    }
+
+    public void releaseChunkMemory(long bytes) {
+        chunkMemory.addAndGet(-bytes);
+    }
+
+    /**
+     * @return the memory the reducers of all jobs of this job tracker currently hold for received chunks.
+     */
+    public long getChunkMemory() {
+        return chunkMemory.get();
+    }
+
     public <V> boolean registerTrackableJob(TrackableJobFuture<V> trackableJob) {
         return trackableJobs.putIfAbsent(trackableJob.getJobId(), trackableJob) == null;
     }
@@ -100,6 +124,13 @@ public abstract class AbstractJobTracker
         return reducerTasks.remove(jobId);
     }
 
+    /**
+     * @return the reducer tasks of the jobs of this job tracker that currently receive chunks.
+     */
+    public Collection<ReducerTask> getReducerTasks() {
+        return reducerTasks.values();
+    }
+
     public <Key, Chunk> ReducerTask<Key, Chunk> getReducerTask(String jobId) {
         return reducerTasks.get(jobId);
     }
@@ -0,0 +1,464 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.mapreduce.impl.task;
+
+import com.hazelcast.mapreduce.Reducer;
+import com.hazelcast.mapreduce.ReducerFactory;
+import com.hazelcast.mapreduce.impl.AbstractJobTracker;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.ObjectDataInputStream;
+import com.hazelcast.nio.serialization.ObjectDataOutputStream;
+import com.hazelcast.nio.serialization.SerializationService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Holds the chunks a {@link ReducerTask} received for a job whose job tracker has a spill threshold.<br/>
+ * Instead of being reduced right away by one reducer per key, the chunk values are kept serialized. When
+ * the reducers of the job tracker hold more than the threshold, the values are sorted by key and written
+ * to a temporary file, a run. The job result is built by merging the runs and the values still in memory,
+ * so the values of a key are read one after the other and only one reducer is alive at a time.
+ * <p/>
+ * The threshold is shared by the jobs of the job tracker, so the store holding the most values is spilled, not the
+ * one receiving the chunk that exceeded it. At most {@link #MAX_MERGE_FAN_IN} runs are merged at once; with more
+ * runs, groups of them are first merged into longer runs.
+ */
+class ChunkSpillStore {
+
+    static final int MAX_MERGE_FAN_IN = 64;
+
+    // object headers and references of an entry and its two Data instances
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private static final Comparator<Data> KEY_ORDER = new Comparator<Data>() {
+        @Override
+        public int compare(Data d1, Data d2) {
+            int h1 = d1.hashCode();
+            int h2 = d2.hashCode();
+            if (h1 != h2) {
+                return h1 < h2 ? -1 : 1;
+            }
+            if (d1.getType() != d2.getType()) {
+                return d1.getType() < d2.getType() ? -1 : 1;
+            }
+            byte[] b1 = d1.getBuffer();
+            byte[] b2 = d2.getBuffer();
+            int l1 = b1 == null ? 0 : b1.length;
+            int l2 = b2 == null ? 0 : b2.length;
+            for (int i = 0; i < Math.min(l1, l2); i++) {
+                if (b1[i] != b2[i]) {
+                    return b1[i] < b2[i] ? -1 : 1;
+                }
+            }
+            return l1 - l2;
+        }
+    };
+
+    private static final Comparator<ChunkEntry> ENTRY_ORDER = new Comparator<ChunkEntry>() {
+        @Override
+        public int compare(ChunkEntry e1, ChunkEntry e2) {
+            return KEY_ORDER.compare(e1.key, e2.key);
+        }
+    };
+
+    private final SerializationService serializationService;
+    private final File directory;
+    private final String prefix;
+    private final int mergeFanIn;
+    private final List<ChunkEntry> entries = new ArrayList<ChunkEntry>();
+    private final List<File> runs = new ArrayList<File>();
+    // written under the lock of this store, read without it when choosing the store to spill
+    private volatile long memory;
+    private volatile boolean closed;
+
+    ChunkSpillStore(SerializationService serializationService, File directory, String prefix) {
+        this(serializationService, directory, prefix, MAX_MERGE_FAN_IN);
+    }
+
+    ChunkSpillStore(SerializationService serializationService, File directory, String prefix, int mergeFanIn) {
+        this.serializationService = serializationService;
+        this.directory = directory;
+        this.prefix = prefix;
+        this.mergeFanIn = mergeFanIn;
+    }
+
+    /**
+     * Adds the values of a chunk and reserves their memory from the job tracker, spilling the largest store of
+     * the job tracker when its reducers hold more than its spill threshold. The reservation is made under the lock
+     * of this store, so {@link #destroy()} returns either all or none of it; chunks received after the store was
+     * reduced or destroyed belong to a finished or cancelled job and are dropped. The other store is spilled after the lock is
+     * released, so no thread holds the locks of two stores.
+     */
+    void addChunk(Map<?, ?> chunk, AbstractJobTracker jobTracker)
+            throws IOException {
+
+        if (addAndReserve(chunk, jobTracker)) {
+            List<ChunkSpillStore> stores = new ArrayList<ChunkSpillStore>();
+            stores.add(this);
+            for (ReducerTask reducerTask : jobTracker.getReducerTasks()) {
+                ChunkSpillStore store = reducerTask.getSpillStore();
+                if (store != null && store != this) {
+                    stores.add(store);
+                }
+            }
+            jobTracker.releaseChunkMemory(spillLargest(stores));
+        }
+    }
+
+    private synchronized boolean addAndReserve(Map<?, ?> chunk, AbstractJobTracker jobTracker) {
+        if (closed) {
+            return false;
+        }
+        long size = 0;
+        for (Map.Entry<?, ?> entry : chunk.entrySet()) {
+            size += add(entry.getKey(), entry.getValue());
+        }
+        return jobTracker.reserveChunkMemory(size);
+    }
+
+    /**
+     * Spills the store holding the most memory.
+     *
+     * @return the memory released.
+     */
+    static long spillLargest(Collection<ChunkSpillStore> stores)
+            throws IOException {
+
+        ChunkSpillStore largest = null;
+        for (ChunkSpillStore store : stores) {
+            if (!store.closed && (largest == null || store.memory > largest.memory)) {
+                largest = store;
+            }
+        }
+        return largest == null ? 0 : largest.spill();
+    }
+
+    /**
+     * @return the estimated memory the chunk value takes while held by this store.
+     */
+    synchronized long add(Object key, Object chunkValue) {
+        ChunkEntry entry = new ChunkEntry(serializationService.toData(key), serializationService.toData(chunkValue));
+        entries.add(entry);
+        long size = entry.key.totalSize() + entry.value.totalSize() + ENTRY_OVERHEAD;
+        memory += size;
+        return size;
+    }
+
+    /**
+     * Writes the values held in memory to a new run.
+     *
+     * @return the memory released.
+     */
+    synchronized long spill()
+            throws IOException {
+
+        // a store being reduced or destroyed keeps its values, they are about to be released anyway
+        if (closed || entries.isEmpty()) {
+            return 0;
+        }
+        Collections.sort(entries, ENTRY_ORDER);
+        File run = createRun();
+        runs.add(run);
+        ObjectDataOutputStream out = null;
+        try {
+            out = createOutput(run);
+            out.writeInt(entries.size());
+            for (ChunkEntry entry : entries) {
+                entry.key.writeData(out);
+                entry.value.writeData(out);
+            }
+        } finally {
+            IOUtil.closeResource(out);
+        }
+        entries.clear();
+        long released = memory;
+        memory = 0;
+        return released;
+    }
+
+    synchronized int getRunCount() {
+        return runs.size();
+    }
+
+    /**
+     * Merges the runs and the values in memory and reduces the values of each key with a new reducer.
+     *
+     * @return the reduced value per key.
+     */
+    synchronized Map<Object, Object> reduce(ReducerFactory reducerFactory)
+            throws IOException {
+
+        closed = true;
+        mergeRuns();
+        Collections.sort(entries, ENTRY_ORDER);
+        PriorityQueue<Cursor> cursors = new PriorityQueue<Cursor>();
+        try {
+            // runs come first for equal keys, so values are reduced in the order they were received
+            for (int i = 0; i < runs.size(); i++) {
+                offer(cursors, new RunCursor(runs.get(i), i));
+            }
+            offer(cursors, new MemoryCursor(entries, runs.size()));
+
+            Map<Object, Object> result = new HashMap<Object, Object>();
+            Data currentKey = null;
+            Object key = null;
+            Reducer reducer = null;
+            while (!cursors.isEmpty()) {
+                ChunkEntry entry = poll(cursors);
+                if (!entry.key.equals(currentKey)) {
+                    if (reducer != null) {
+                        result.put(key, reducer.finalizeReduce());
+                    }
+                    currentKey = entry.key;
+                    key = serializationService.toObject(currentKey);
+                    reducer = reducerFactory.newReducer(key);
+                    reducer.beginReduce(key);
+                }
+                ReducerTask.reduceChunkValue(reducer, serializationService.toObject(entry.value));
+            }
+            if (reducer != null) {
+                result.put(key, reducer.finalizeReduce());
+            }
+            return result;
+        } finally {
+            for (Cursor cursor : cursors) {
+                cursor.close();
+            }
+        }
+    }
+
+    /**
+     * Deletes the runs and drops the values in memory.
+     *
+     * @return the memory released.
+     */
+    synchronized long destroy() {
+        closed = true;
+        for (File run : runs) {
+            if (!run.delete()) {
+                run.deleteOnExit();
+            }
+        }
+        runs.clear();
+        entries.clear();
+        long released = memory;
+        memory = 0;
+        return released;
+    }
+
+    // merges groups of consecutive runs into one run each until at most mergeFanIn runs are left, keeping the runs
+    // in the order their values were received; the runs merged so far stay listed, so destroy() deletes them on failure
+    private void mergeRuns()
+            throws IOException {
+
+        while (runs.size() > mergeFanIn) {
+            int remaining = runs.size();
+            while (remaining > 0) {
+                int fanIn = Math.min(remaining, mergeFanIn);
+                remaining -= fanIn;
+                if (fanIn == 1) {
+                    runs.add(runs.remove(0));
+                    continue;
+                }
+                List<File> group = new ArrayList<File>(runs.subList(0, fanIn));
+                File run = createRun();
+                runs.add(run);
+                merge(group, run);
+                runs.subList(0, fanIn).clear();
+                for (File merged : group) {
+                    if (!merged.delete()) {
+                        merged.deleteOnExit();
+                    }
+                }
+            }
+        }
+    }
+
+    private void merge(List<File> group, File run)
+            throws IOException {
+
+        PriorityQueue<Cursor> cursors = new PriorityQueue<Cursor>();
+        ObjectDataOutputStream out = null;
+        try {
+            int size = 0;
+            for (int i = 0; i < group.size(); i++) {
+                RunCursor cursor = new RunCursor(group.get(i), i);
+                size += cursor.remaining;
+                offer(cursors, cursor);
+            }
+            out = createOutput(run);
+            out.writeInt(size);
+            while (!cursors.isEmpty()) {
+                ChunkEntry entry = poll(cursors);
+                entry.key.writeData(out);
+                entry.value.writeData(out);
+            }
+        } finally {
+            IOUtil.closeResource(out);
+            for (Cursor cursor : cursors) {
+                cursor.close();
+            }
+        }
+    }
+
+    private File createRun()
+            throws IOException {
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create directory " + directory);
+        }
+        return File.createTempFile(prefix, ".run", directory);
+    }
+
+    private ObjectDataOutputStream createOutput(File run)
+            throws IOException {
+
+        return serializationService.createObjectDataOutputStream(new BufferedOutputStream(new FileOutputStream(run)));
+    }
+
+    // takes the entry of the first cursor and moves that cursor on
+    private ChunkEntry poll(PriorityQueue<Cursor> cursors)
+            throws IOException {
+
+        Cursor cursor = cursors.poll();
+        ChunkEntry entry = cursor.current;
+        offer(cursors, cursor);
+        return entry;
+    }
+
+    // moves the cursor to its next entry and puts it back in the queue, or closes it at its end
+    private void offer(PriorityQueue<Cursor> cursors, Cursor cursor)
+            throws IOException {
+
+        boolean advanced = false;
+        try {
+            advanced = cursor.advance();
+        } finally {
+            if (advanced) {
+                cursors.offer(cursor);
+            } else {
+                cursor.close();
+            }
+        }
+    }
+
+    private static final class ChunkEntry {
+        private final Data key;
+        private final Data value;
+
+        private ChunkEntry(Data key, Data value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private abstract static class Cursor
+            implements Comparable<Cursor> {
+
+        private final int order;
+        ChunkEntry current;
+
+        Cursor(int order) {
+            this.order = order;
+        }
+
+        abstract boolean advance()
+                throws IOException;
+
+        void close() {
+        }
+
+        @Override
+        public int compareTo(Cursor o) {
+            int result = KEY_ORDER.compare(current.key, o.current.key);
+            if (result != 0) {
+                return result;
+            }
+            return order < o.order ? -1 : (order == o.order ? 0 : 1);
+        }
+    }
+
+    private static final class MemoryCursor
+            extends Cursor {
+
+        private final List<ChunkEntry> entries;
+        private int index;
+
+        private MemoryCursor(List<ChunkEntry> entries, int order) {
+            super(order);
+            this.entries = entries;
+        }
+
+        @Override
+        boolean advance() {
+            if (index == entries.size()) {
+                return false;
+            }
+            current = entries.get(index++);
+            return true;
+        }
+    }
+
+    private final class RunCursor
+            extends Cursor {
+
+        private final ObjectDataInputStream in;
+        private int remaining;
+
+        private RunCursor(File run, int order)
+                throws IOException {
+            super(order);
+            this.in = serializationService.createObjectDataInputStream(new BufferedInputStream(new FileInputStream(run)));
+            this.remaining = in.readInt();
+        }
+
+        @Override
+        boolean advance()
+                throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            Data key = new Data();
+            key.readData(in);
+            Data value = new Data();
+            value.readData(in);
+            current = new ChunkEntry(key, value);
+            return true;
+        }
+
+        @Override
+        void close() {
+            IOUtil.closeResource(in);
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.hazelcast.mapreduce.impl.task;
 
+import com.hazelcast.config.JobTrackerConfig;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.mapreduce.JobPartitionState;
 import com.hazelcast.mapreduce.JobProcessInformation;
@@ -33,9 +34,12 @@ import com.hazelcast.mapreduce.impl.operation.GetResultOperationFactory;
 import com.hazelcast.mapreduce.impl.operation.RequestPartitionProcessed;
 import com.hazelcast.mapreduce.impl.operation.RequestPartitionResult;
 import com.hazelcast.nio.Address;
+import com.hazelcast.nio.serialization.SerializationService;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.util.ExceptionUtil;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -76,6 +80,7 @@ public class JobSupervisor {
     private final ExecutorService executorService;
 
     private final JobProcessInformationImpl jobProcessInformation;
+    private final ChunkSpillStore spillStore;
 
     public JobSupervisor(JobTaskConfiguration configuration, AbstractJobTracker jobTracker, boolean ownerNode,
                          MapReduceService mapReduceService) {
@@ -88,6 +93,7 @@ public class JobSupervisor {
 
         // Calculate partition count
         this.jobProcessInformation = createJobProcessInformation(configuration, this);
+        this.spillStore = createSpillStore(configuration, jobTracker.getJobTrackerConfig());
 
         // Preregister reducer task to handle immediate reducing events
         String name = configuration.getName();
@@ -190,6 +196,7 @@ public class JobSupervisor {
         // Reset local data
         jobProcessInformation.resetPartitionState();
         reducers.clear();
+        destroySpillStore();
         remoteReducers.clear();
         context.set(null);
         keyAssignments.clear();
@@ -211,13 +218,29 @@ public class JobSupervisor {
         if (reducerTask != null) {
             reducerTask.cancel();
         }
+        destroySpillStore();
         mapReduceService.destroyJobSupervisor(this);
         return future;
     }
 
+    /**
+     * Builds the part of the job result held by this member. With a spill store the spilled runs are merged
+     * from disk and reduced on the calling thread, which is the operation thread running the
+     * {@link com.hazelcast.mapreduce.impl.operation.GetResultOperation}, or the thread completing the job on the
+     * job owner. The merge is left there since the job owner waits for the result of every member anyway; it
+     * occupies one such thread per job for as long as reading the runs takes.
+     */
     public Map<Object, Object> getJobResults() {
         Map<Object, Object> result;
-        if (configuration.getReducerFactory() != null) {
+        if (spillStore != null) {
+            try {
+                result = spillStore.reduce(configuration.getReducerFactory());
+            } catch (IOException e) {
+                throw ExceptionUtil.rethrow(e);
+            } finally {
+                destroySpillStore();
+            }
+        } else if (configuration.getReducerFactory() != null) {
             result = new HashMap<Object, Object>();
             for (Map.Entry<Object, Reducer> entry : reducers.entrySet()) {
                 result.put(entry.getKey(), entry.getValue().finalizeReduce());
@@ -229,6 +252,14 @@ public class JobSupervisor {
         return result;
     }
 
+    /**
+     * @return the store the reducer task keeps received chunks in, <tt>null</tt> if the chunks are reduced
+     * right away because the job has no reducer or its job tracker has no spill threshold.
+     */
+    ChunkSpillStore getSpillStore() {
+        return spillStore;
+    }
+
     public <KeyIn, ValueIn, ValueOut> Reducer<KeyIn, ValueIn, ValueOut> getReducerByKey(Object key) {
         Reducer reducer = reducers.get(key);
         if (reducer == null && configuration.getReducerFactory() != null) {
@@ -366,6 +397,24 @@ public class JobSupervisor {
         }
     }
 
+    private ChunkSpillStore createSpillStore(JobTaskConfiguration configuration, JobTrackerConfig jobTrackerConfig) {
+        if (configuration.getReducerFactory() == null || jobTrackerConfig.getSpillThreshold() == 0) {
+            return null;
+        }
+        String directory = jobTrackerConfig.getSpillDirectory();
+        if (directory == null) {
+            directory = System.getProperty("java.io.tmpdir");
+        }
+        SerializationService serializationService = mapReduceService.getNodeEngine().getSerializationService();
+        return new ChunkSpillStore(serializationService, new File(directory), "mapreduce-" + configuration.getJobId() + "-");
+    }
+
+    private void destroySpillStore() {
+        if (spillStore != null) {
+            jobTracker.releaseChunkMemory(spillStore.destroy());
+        }
+    }
+
     private Set<Address> collectRemoteAddresses() {
         Set<Address> addresses = new HashSet<Address>();
         for (Set<Address> remoteReducerAddresses : remoteReducers.values()) {
@@ -17,11 +17,13 @@
 package com.hazelcast.mapreduce.impl.task;
 
 import com.hazelcast.mapreduce.Reducer;
+import com.hazelcast.mapreduce.impl.AbstractJobTracker;
 import com.hazelcast.mapreduce.impl.MapReduceService;
 import com.hazelcast.mapreduce.impl.notification.ReducingFinishedNotification;
 import com.hazelcast.nio.Address;
 import com.hazelcast.util.ExceptionUtil;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
@@ -66,6 +68,10 @@ public class ReducerTask<Key, Chunk>
         return jobId;
     }
 
+    ChunkSpillStore getSpillStore() {
+        return supervisor.getSpillStore();
+    }
+
     public void cancel() {
         cancelled.set(true);
     }
@@ -108,19 +114,31 @@ public class ReducerTask<Key, Chunk>
         }
     }
 
-    private void reduceChunk(Map<Key, Chunk> chunk) {
+    private void reduceChunk(Map<Key, Chunk> chunk)
+            throws IOException {
+
+        ChunkSpillStore spillStore = getSpillStore();
+        if (spillStore != null) {
+            // the values are reduced when the result is requested, until then the largest store is spilled
+            // whenever the reducers of the job tracker hold more than its spill threshold
+            spillStore.addChunk(chunk, (AbstractJobTracker) supervisor.getJobTracker());
+            return;
+        }
         for (Map.Entry<Key, Chunk> entry : chunk.entrySet()) {
             Reducer reducer = supervisor.getReducerByKey(entry.getKey());
             if (reducer != null) {
-                Chunk chunkValue = entry.getValue();
-                if (chunkValue instanceof List) {
-                    for (Object value : (List) chunkValue) {
-                        reducer.reduce(value);
-                    }
-                } else {
-                    reducer.reduce(chunkValue);
-                }
+                reduceChunkValue(reducer, entry.getValue());
+            }
+        }
+    }
+
+    static void reduceChunkValue(Reducer reducer, Object chunkValue) {
+        if (chunkValue instanceof List) {
+            for (Object value : (List) chunkValue) {
+                reducer.reduce(value);
             }
+        } else {
+            reducer.reduce(chunkValue);
         }
     }
 
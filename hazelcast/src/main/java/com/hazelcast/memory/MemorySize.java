@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.memory;
+
+/**
+ * MemorySize represents a memory size with given value and <tt>{@link MemoryUnit}</tt>.
+ * <p/>
+ * Textual form of a memory size is a number optionally followed by a unit abbreviation,
+ * like <tt>512</tt>, <tt>64K</tt>, <tt>128M</tt> or <tt>4G</tt>.
+ *
+ * @see MemoryUnit
+ */
+public final class MemorySize {
+
+    private final long value;
+    private final MemoryUnit unit;
+
+    public MemorySize(long value) {
+        this(value, MemoryUnit.BYTES);
+    }
+
+    public MemorySize(long value, MemoryUnit unit) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Memory size cannot be negative! -> " + value);
+        }
+        if (unit == null) {
+            throw new NullPointerException("MemoryUnit is required!");
+        }
+        this.value = value;
+        this.unit = unit;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public MemoryUnit getUnit() {
+        return unit;
+    }
+
+    public long bytes() {
+        return unit.toBytes(value);
+    }
+
+    public long kiloBytes() {
+        return unit.toKiloBytes(value);
+    }
+
+    public long megaBytes() {
+        return unit.toMegaBytes(value);
+    }
+
+    public long gigaBytes() {
+        return unit.toGigaBytes(value);
+    }
+
+    /**
+     * Parses string representation of a memory size value.
+     * Value may end with one of suffixes; 'k' or 'K' for kilo, 'm' or 'M' for mega,
+     * 'g' or 'G' for giga. Values without a suffix are interpreted as bytes.
+     *
+     * @param value string memory size
+     * @return parsed memory size
+     * @throws IllegalArgumentException if value cannot be parsed
+     */
+    public static MemorySize parse(String value) {
+        return parse(value, MemoryUnit.BYTES);
+    }
+
+    /**
+     * Parses string representation of a memory size value.
+     * If value has no suffix, it's interpreted in given default unit.
+     *
+     * @param value       string memory size
+     * @param defaultUnit unit of a value without suffix
+     * @return parsed memory size
+     * @throws IllegalArgumentException if value cannot be parsed
+     */
+    public static MemorySize parse(String value, MemoryUnit defaultUnit) {
+        if (value == null || value.trim().length() == 0) {
+            throw new IllegalArgumentException("Memory size value is required!");
+        }
+        String text = value.trim();
+        MemoryUnit unit = defaultUnit;
+        char last = text.charAt(text.length() - 1);
+        if (!Character.isDigit(last)) {
+            unit = MemoryUnit.forAbbreviation(String.valueOf(last));
+            if (unit == null) {
+                throw new IllegalArgumentException("Unknown memory unit in '" + value + "'!");
+            }
+            text = text.substring(0, text.length() - 1).trim();
+        }
+        try {
+            return new MemorySize(Long.parseLong(text), unit);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid memory size: '" + value + "'!", e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MemorySize)) {
+            return false;
+        }
+        return bytes() == ((MemorySize) o).bytes();
+    }
+
+    @Override
+    public int hashCode() {
+        long bytes = bytes();
+        return (int) (bytes ^ (bytes >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return value + unit.abbreviation();
+    }
+}
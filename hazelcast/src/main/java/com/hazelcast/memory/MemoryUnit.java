@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.memory;
+
+/**
+ * MemoryUnit represents memory size at a given unit of
+ * granularity and provides utility methods to convert across units.
+ */
+public enum MemoryUnit {
+
+    /**
+     * MemoryUnit in bytes
+     */
+    BYTES(0, ""),
+
+    /**
+     * MemoryUnit in kilobytes
+     */
+    KILOBYTES(1, "K"),
+
+    /**
+     * MemoryUnit in megabytes
+     */
+    MEGABYTES(2, "M"),
+
+    /**
+     * MemoryUnit in gigabytes
+     */
+    GIGABYTES(3, "G");
+
+    private static final int POWER = 10;
+
+    private final int shift;
+    private final String abbreviation;
+
+    MemoryUnit(int power, String abbreviation) {
+        this.shift = power * POWER;
+        this.abbreviation = abbreviation;
+    }
+
+    public long toBytes(long value) {
+        return value << shift;
+    }
+
+    public long toKiloBytes(long value) {
+        return toBytes(value) >> KILOBYTES.shift;
+    }
+
+    public long toMegaBytes(long value) {
+        return toBytes(value) >> MEGABYTES.shift;
+    }
+
+    public long toGigaBytes(long value) {
+        return toBytes(value) >> GIGABYTES.shift;
+    }
+
+    public String abbreviation() {
+        return abbreviation;
+    }
+
+    /**
+     * Returns the unit matching given abbreviation (case-insensitive),
+     * or <tt>null</tt> if there is no such unit.
+     *
+     * @param abbreviation unit abbreviation; K, M, G or empty string for bytes
+     * @return matching unit or null
+     */
+    public static MemoryUnit forAbbreviation(String abbreviation) {
+        for (MemoryUnit unit : values()) {
+            if (unit.abbreviation.equalsIgnoreCase(abbreviation)) {
+                return unit;
+            }
+        }
+        return null;
+    }
+}
@@ -198,6 +198,34 @@ public interface LocalMapStats extends LocalInstanceStats {
      */
     long getHeapCost();
 
+    /**
+     * Returns the number of bytes occupied by values in the off-heap storage of this member.
+     * <p/>
+     * Off-heap storage is shared by all maps configured with
+     * {@link com.hazelcast.config.InMemoryFormat#OFFHEAP}, so this is a member-wide value.
+     * It's zero for maps using other in-memory formats.
+     *
+     * @return used off-heap memory in bytes
+     */
+    long getOffHeapUsedMemory();
+
+    /**
+     * Returns the number of bytes still available in the off-heap storage of this member.
+     *
+     * @return free off-heap memory in bytes
+     * @see #getOffHeapUsedMemory()
+     */
+    long getOffHeapFreeMemory();
+
+    /**
+     * Returns the number of bytes allocated in the off-heap storage of this member but not
+     * occupied by values, due to block size granularity.
+     *
+     * @return fragmented off-heap memory in bytes
+     * @see #getOffHeapUsedMemory()
+     */
+    long getOffHeapFragmentedMemory();
+
     /**
      * Returns statistics related to the Near Cache.
      *
@@ -43,4 +43,68 @@ public interface NearCacheStats extends LocalInstanceStats {
      * @return hit/miss ratio.
      */
     double getRatio();
+
+    /**
+     * Returns the number of entries invalidated because the map changed.
+     *
+     * @return number of invalidations.
+     */
+    long getInvalidations();
+
+    /**
+     * Returns the number of times the entries of a partition were dropped because missed invalidations
+     * were detected, each one a possible stale read avoided.
+     *
+     * @return number of repairs.
+     */
+    long getRepairs();
+
+    /**
+     * Returns the number of entries fetched so far by the near cache preloader, the progress of the preload.
+     *
+     * @return number of preloaded entries.
+     */
+    long getPreloadedEntryCount();
+
+    /**
+     * Returns the time the near cache preloader took to fetch the stored keys, 0 while it is still running.
+     *
+     * @return duration of the preload in milliseconds.
+     */
+    long getPreloadDuration();
+
+    /**
+     * Returns the time the keys of the near cache were last stored by the preloader.
+     *
+     * @return time of the last key store in milliseconds, 0 if the keys were not stored yet.
+     */
+    long getLastPersistenceTime();
+
+    /**
+     * Returns the time the last store of the keys of the near cache took.
+     *
+     * @return duration of the last key store in milliseconds.
+     */
+    long getLastPersistenceDuration();
+
+    /**
+     * Returns the number of keys stored by the last key store of the near cache.
+     *
+     * @return number of keys stored.
+     */
+    long getLastPersistenceKeyCount();
+
+    /**
+     * Returns the number of entries evicted because the near cache was full.
+     *
+     * @return number of evictions.
+     */
+    long getEvictions();
+
+    /**
+     * Returns the time spent sampling and evicting entries because the near cache was full.
+     *
+     * @return total eviction time in nanoseconds.
+     */
+    long getTotalEvictionNanos();
 }
@@ -47,6 +47,9 @@ public class LocalMapStatsImpl implements LocalMapStats, IdentifiedDataSerializa
     private long backupEntryMemoryCost;
     // total heap cost with map &  nearcache  & backup
     private long heapCost;
+    private long offHeapUsedMemory;
+    private long offHeapFreeMemory;
+    private long offHeapFragmentedMemory;
     private long creationTime;
     private long lockedEntryCount;
     private long dirtyEntryCount;
@@ -83,6 +86,9 @@ public class LocalMapStatsImpl implements LocalMapStats, IdentifiedDataSerializa
         out.writeLong(maxPutLatency.get());
         out.writeLong(maxRemoveLatency.get());
         out.writeLong(heapCost);
+        out.writeLong(offHeapUsedMemory);
+        out.writeLong(offHeapFreeMemory);
+        out.writeLong(offHeapFragmentedMemory);
         boolean hasNearCache = nearCacheStats != null;
         out.writeBoolean(hasNearCache);
         if (hasNearCache) {
@@ -115,6 +121,9 @@ public class LocalMapStatsImpl implements LocalMapStats, IdentifiedDataSerializa
         maxPutLatency.set(in.readLong());
         maxRemoveLatency.set(in.readLong());
         heapCost = in.readLong();
+        offHeapUsedMemory = in.readLong();
+        offHeapFreeMemory = in.readLong();
+        offHeapFragmentedMemory = in.readLong();
         boolean hasNearCache = in.readBoolean();
         if (hasNearCache) {
             nearCacheStats = new NearCacheStatsImpl();
@@ -312,6 +321,27 @@ public class LocalMapStatsImpl implements LocalMapStats, IdentifiedDataSerializa
         return heapCost;
     }
 
+    @Override
+    public long getOffHeapUsedMemory() {
+        return offHeapUsedMemory;
+    }
+
+    @Override
+    public long getOffHeapFreeMemory() {
+        return offHeapFreeMemory;
+    }
+
+    @Override
+    public long getOffHeapFragmentedMemory() {
+        return offHeapFragmentedMemory;
+    }
+
+    public void setOffHeapMemory(long used, long free, long fragmented) {
+        this.offHeapUsedMemory = used;
+        this.offHeapFreeMemory = free;
+        this.offHeapFragmentedMemory = fragmented;
+    }
+
     @Override
     public NearCacheStatsImpl getNearCacheStats() {
         return nearCacheStats;
@@ -354,6 +384,9 @@ public class LocalMapStatsImpl implements LocalMapStats, IdentifiedDataSerializa
                 + ", lockedEntryCount=" + lockedEntryCount
                 + ", dirtyEntryCount=" + dirtyEntryCount
                 + ", heapCost=" + heapCost
+                + ", offHeapUsedMemory=" + offHeapUsedMemory
+                + ", offHeapFreeMemory=" + offHeapFreeMemory
+                + ", offHeapFragmentedMemory=" + offHeapFragmentedMemory
                 + '}';
     }
 }
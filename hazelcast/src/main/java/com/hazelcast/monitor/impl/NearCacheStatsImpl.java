@@ -15,6 +15,15 @@ public class NearCacheStatsImpl implements NearCacheStats {
     private long creationTime;
     private AtomicLong hits = new AtomicLong(0);
     private AtomicLong misses = new AtomicLong(0);
+    private AtomicLong invalidations = new AtomicLong(0);
+    private AtomicLong repairs = new AtomicLong(0);
+    private AtomicLong preloadedEntryCount = new AtomicLong(0);
+    private volatile long preloadDuration;
+    private volatile long lastPersistenceTime;
+    private volatile long lastPersistenceDuration;
+    private volatile long lastPersistenceKeyCount;
+    private AtomicLong evictions = new AtomicLong(0);
+    private AtomicLong totalEvictionNanos = new AtomicLong(0);
 
     public NearCacheStatsImpl() {
         this.creationTime = Clock.currentTimeMillis();
@@ -71,12 +80,93 @@ public class NearCacheStatsImpl implements NearCacheStats {
         hits.incrementAndGet();
     }
 
+    @Override
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    public void incrementInvalidations() {
+        invalidations.incrementAndGet();
+    }
+
+    @Override
+    public long getRepairs() {
+        return repairs.get();
+    }
+
+    public void incrementRepairs(int partitionCount) {
+        repairs.addAndGet(partitionCount);
+    }
+
+    @Override
+    public long getPreloadedEntryCount() {
+        return preloadedEntryCount.get();
+    }
+
+    public void addPreloadedEntryCount(int count) {
+        preloadedEntryCount.addAndGet(count);
+    }
+
+    @Override
+    public long getPreloadDuration() {
+        return preloadDuration;
+    }
+
+    public void setPreloadDuration(long preloadDuration) {
+        this.preloadDuration = preloadDuration;
+    }
+
+    @Override
+    public long getLastPersistenceTime() {
+        return lastPersistenceTime;
+    }
+
+    @Override
+    public long getLastPersistenceDuration() {
+        return lastPersistenceDuration;
+    }
+
+    @Override
+    public long getLastPersistenceKeyCount() {
+        return lastPersistenceKeyCount;
+    }
+
+    public void setLastPersistence(long time, long duration, long keyCount) {
+        this.lastPersistenceTime = time;
+        this.lastPersistenceDuration = duration;
+        this.lastPersistenceKeyCount = keyCount;
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public long getTotalEvictionNanos() {
+        return totalEvictionNanos.get();
+    }
+
+    public void incrementEvictions(int count, long nanos) {
+        evictions.addAndGet(count);
+        totalEvictionNanos.addAndGet(nanos);
+    }
+
     @Override
     public void writeData(ObjectDataOutput out) throws IOException {
         out.writeLong(ownedEntryCount);
         out.writeLong(ownedEntryMemoryCost);
         out.writeLong(hits.get());
         out.writeLong(misses.get());
+        out.writeLong(invalidations.get());
+        out.writeLong(repairs.get());
+        out.writeLong(preloadedEntryCount.get());
+        out.writeLong(preloadDuration);
+        out.writeLong(lastPersistenceTime);
+        out.writeLong(lastPersistenceDuration);
+        out.writeLong(lastPersistenceKeyCount);
+        out.writeLong(evictions.get());
+        out.writeLong(totalEvictionNanos.get());
     }
 
     @Override
@@ -85,6 +175,15 @@ public class NearCacheStatsImpl implements NearCacheStats {
         this.ownedEntryMemoryCost = in.readLong();
         this.hits.set(in.readLong());
         this.misses.set(in.readLong());
+        this.invalidations.set(in.readLong());
+        this.repairs.set(in.readLong());
+        this.preloadedEntryCount.set(in.readLong());
+        this.preloadDuration = in.readLong();
+        this.lastPersistenceTime = in.readLong();
+        this.lastPersistenceDuration = in.readLong();
+        this.lastPersistenceKeyCount = in.readLong();
+        this.evictions.set(in.readLong());
+        this.totalEvictionNanos.set(in.readLong());
     }
 
     @Override
@@ -96,6 +195,15 @@ public class NearCacheStatsImpl implements NearCacheStats {
                 + ", hits=" + hits
                 + ", misses=" + misses
                 + ", ratio=" + getRatio()
+                + ", invalidations=" + invalidations
+                + ", repairs=" + repairs
+                + ", preloadedEntryCount=" + preloadedEntryCount
+                + ", preloadDuration=" + preloadDuration
+                + ", lastPersistenceTime=" + lastPersistenceTime
+                + ", lastPersistenceDuration=" + lastPersistenceDuration
+                + ", lastPersistenceKeyCount=" + lastPersistenceKeyCount
+                + ", evictions=" + evictions
+                + ", totalEvictionNanos=" + totalEvictionNanos
                 + '}';
     }
 
@@ -161,4 +161,8 @@ abstract class AbstractIOSelector extends Thread implements IOSelector {
     public final void wakeup() {
         selector.wakeup();
     }
+
+    public final boolean isSelectorThread() {
+        return Thread.currentThread() == this;
+    }
 }
@@ -82,12 +82,14 @@ abstract class AbstractSelectionHandler implements SelectionHandler {
             if (sk == null) {
                 sk = socketChannel.keyFor(selector);
             }
+            // the connection is attached instead of the handler, so the read and write handlers
+            // of a connection can share the key of a selector handling both
             if (sk == null) {
-                sk = socketChannel.register(selector, operation, this);
+                sk = socketChannel.register(selector, operation, connection);
             } else {
                 sk.interestOps(sk.interestOps() | operation);
-                if (sk.attachment() != this) {
-                    sk.attach(this);
+                if (sk.attachment() != connection) {
+                    sk.attach(connection);
                 }
             }
         } catch (Throwable e) {
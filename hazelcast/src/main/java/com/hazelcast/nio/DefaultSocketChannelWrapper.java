@@ -66,6 +66,10 @@ public class DefaultSocketChannelWrapper implements SocketChannelWrapper {
         return socketChannel.write(byteBuffer);
     }
 
+    public long write(ByteBuffer[] byteBuffers) throws IOException {
+        return socketChannel.write(byteBuffers);
+    }
+
     public SelectableChannel configureBlocking(boolean b) throws IOException {
         return socketChannel.configureBlocking(b);
     }
@@ -29,6 +29,11 @@ public interface IOSelector {
 
     void wakeup();
 
+    /**
+     * @return <tt>true</tt> if called by the thread handling the channels of this selector.
+     */
+    boolean isSelectorThread();
+
     void start();
 
     void shutdown();
@@ -92,6 +92,12 @@ public interface IOService {
 
     int getSelectorThreadCount();
 
+    /**
+     * @return selectors polled by threads outside of the connection manager to be used for both reads and writes,
+     * or <tt>null</tt> if the connection manager should start its own selector threads.
+     */
+    IOSelector[] getSharedIOSelectors();
+
     long getConnectionMonitorInterval();
 
     int getConnectionMonitorMaxFaults();
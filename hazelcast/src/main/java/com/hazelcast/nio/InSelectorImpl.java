@@ -29,8 +29,8 @@ final class InSelectorImpl extends AbstractIOSelector {
 
     protected void handleSelectionKey(SelectionKey sk) {
         if (sk.isValid() && sk.isReadable()) {
-            final SelectionHandler handler = (SelectionHandler) sk.attachment();
-            handler.handle();
+            final TcpIpConnection connection = (TcpIpConnection) sk.attachment();
+            connection.getReadHandler().handle();
         }
     }
 }
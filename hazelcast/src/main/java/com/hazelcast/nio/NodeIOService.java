@@ -30,6 +30,7 @@ import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.nio.serialization.SerializationContext;
 import com.hazelcast.nio.serialization.SerializationService;
 import com.hazelcast.spi.ExecutionService;
+import com.hazelcast.spi.impl.InternalOperationService;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 
 import java.util.Collection;
@@ -187,6 +188,10 @@ public class NodeIOService implements IOService {
         return node.groupProperties.IO_THREAD_COUNT.getInteger();
     }
 
+    public IOSelector[] getSharedIOSelectors() {
+        return ((InternalOperationService) node.nodeEngine.getOperationService()).getPartitionIOSelectors();
+    }
+
     public void onDisconnect(final Address endpoint) {
     }
 
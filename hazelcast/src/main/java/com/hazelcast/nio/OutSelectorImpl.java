@@ -30,8 +30,8 @@ final class OutSelectorImpl extends AbstractIOSelector {
     protected void handleSelectionKey(SelectionKey sk) {
         if (sk.isValid() && sk.isWritable()) {
             sk.interestOps(sk.interestOps() & ~SelectionKey.OP_WRITE);
-            final SelectionHandler handler = (SelectionHandler) sk.attachment();
-            handler.handle();
+            final TcpIpConnection connection = (TcpIpConnection) sk.attachment();
+            connection.getWriteHandler().handle();
         }
     }
 }
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.logging.ILogger;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * {@link IOSelector} without a thread of its own, polled by the thread owning it.
+ * <p/>
+ * Unlike the {@link InSelectorImpl} and {@link OutSelectorImpl} pair, it handles both the reads and the writes of its
+ * connections. It is used in thread-per-core mode, where each partition operation thread polls its selector
+ * between the operations it runs, so packets read and responses written by a thread don't change threads.
+ * <p/>
+ * {@link #selectNow()} and {@link #select(long)} should only be called by the owning thread. The channels of
+ * the selector are closed if the owning thread is interrupted while doing IO, so the owner should not poll
+ * with its interrupt status set.
+ */
+public final class PolledIOSelector implements IOSelector {
+
+    private final ILogger logger;
+    private final String name;
+    private final Selector selector;
+    private final Queue<Runnable> taskQueue = new ConcurrentLinkedQueue<Runnable>();
+    private volatile Thread owner;
+
+    public PolledIOSelector(String name, ILogger logger) {
+        this.name = name;
+        this.logger = logger;
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            throw new HazelcastException("Could not open selector for " + name, e);
+        }
+    }
+
+    /**
+     * Runs the pending tasks and handles the channels that are ready without blocking.
+     *
+     * @return number of channels handled.
+     */
+    public int selectNow() {
+        setOwner();
+        runTasks();
+        final int selectedKeyCount;
+        try {
+            selectedKeyCount = selector.selectNow();
+        } catch (IOException e) {
+            logger.warning("Selector exception at " + name + ", cause= " + e.toString());
+            return 0;
+        }
+        return selectedKeyCount == 0 ? 0 : handleSelectedKeys();
+    }
+
+    /**
+     * Runs the pending tasks and waits until a channel is ready, {@link #wakeup()} is called
+     * or the timeout passes.
+     *
+     * @return number of channels handled.
+     */
+    public int select(long timeoutMillis) {
+        setOwner();
+        runTasks();
+        final int selectedKeyCount;
+        try {
+            selectedKeyCount = taskQueue.isEmpty() ? selector.select(timeoutMillis) : selector.selectNow();
+        } catch (IOException e) {
+            logger.warning("Selector exception at " + name + ", cause= " + e.toString());
+            return 0;
+        }
+        return selectedKeyCount == 0 ? 0 : handleSelectedKeys();
+    }
+
+    private void setOwner() {
+        if (owner == null) {
+            owner = Thread.currentThread();
+        }
+    }
+
+    private void runTasks() {
+        for (; ; ) {
+            final Runnable task = taskQueue.poll();
+            if (task == null) {
+                return;
+            }
+            task.run();
+        }
+    }
+
+    private int handleSelectedKeys() {
+        final Set<SelectionKey> selectedKeys = selector.selectedKeys();
+        final Iterator<SelectionKey> it = selectedKeys.iterator();
+        int count = 0;
+        while (it.hasNext()) {
+            final SelectionKey sk = it.next();
+            it.remove();
+            try {
+                handleSelectionKey(sk);
+            } catch (OutOfMemoryError e) {
+                throw e;
+            } catch (Throwable e) {
+                logger.warning("Selector exception at " + name + ", cause= " + e.toString(), e);
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private void handleSelectionKey(SelectionKey sk) {
+        final TcpIpConnection connection = (TcpIpConnection) sk.attachment();
+        if (sk.isValid() && sk.isWritable()) {
+            sk.interestOps(sk.interestOps() & ~SelectionKey.OP_WRITE);
+            connection.getWriteHandler().handle();
+        }
+        if (sk.isValid() && sk.isReadable()) {
+            connection.getReadHandler().handle();
+        }
+    }
+
+    @Override
+    public Selector getSelector() {
+        return selector;
+    }
+
+    @Override
+    public void addTask(Runnable runnable) {
+        taskQueue.add(runnable);
+    }
+
+    /**
+     * Wakes up the owner if it waits in {@link #select(long)}. Tasks added by the owner itself
+     * are run on its next poll, so there is nothing to wake up.
+     */
+    @Override
+    public void wakeup() {
+        if (Thread.currentThread() != owner) {
+            selector.wakeup();
+        }
+    }
+
+    @Override
+    public boolean isSelectorThread() {
+        return Thread.currentThread() == owner;
+    }
+
+    /**
+     * Does nothing, the selector is polled by its owner.
+     */
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void shutdown() {
+        taskQueue.clear();
+        try {
+            selector.close();
+        } catch (IOException e) {
+            logger.finest(e);
+        }
+    }
+
+    @Override
+    public void awaitShutdown() {
+    }
+
+    @Override
+    public String toString() {
+        return "PolledIOSelector{name=" + name + '}';
+    }
+}
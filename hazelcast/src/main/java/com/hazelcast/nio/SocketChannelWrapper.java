@@ -49,6 +49,13 @@ public interface SocketChannelWrapper extends Closeable {
 
     int write(ByteBuffer byteBuffer) throws IOException;
 
+    /**
+     * Gathering write, writes the buffers in order until the socket does not take more.
+     *
+     * @return number of bytes written.
+     */
+    long write(ByteBuffer[] byteBuffers) throws IOException;
+
     SelectableChannel configureBlocking(boolean b) throws IOException;
 
     boolean isOpen();
@@ -142,6 +142,43 @@ public final class TcpIpConnection implements Connection {
         return readHandler.getLastHandle();
     }
 
+    /**
+     * @return number of writes to the socket of this connection.
+     */
+    public long getWriteCount() {
+        return writeHandler.getWriteCount();
+    }
+
+    /**
+     * @return number of bytes written to the socket of this connection.
+     */
+    public long getWrittenBytes() {
+        return writeHandler.getWrittenBytes();
+    }
+
+    /**
+     * @return number of packets written to the socket of this connection.
+     */
+    public long getWrittenPackets() {
+        return writeHandler.getWrittenPackets();
+    }
+
+    /**
+     * @return average number of packets written by a socket write.
+     */
+    public double getPacketsPerWrite() {
+        final long writeCount = getWriteCount();
+        return writeCount == 0 ? 0 : (double) getWrittenPackets() / writeCount;
+    }
+
+    /**
+     * @return average number of bytes written by a socket write.
+     */
+    public double getBytesPerWrite() {
+        final long writeCount = getWriteCount();
+        return writeCount == 0 ? 0 : (double) getWrittenBytes() / writeCount;
+    }
+
     @Override
     public Address getEndPoint() {
         return endPoint;
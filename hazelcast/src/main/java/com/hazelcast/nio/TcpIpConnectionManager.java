@@ -81,6 +81,8 @@ public class TcpIpConnectionManager implements ConnectionManager {
 
     private final IOSelector[] outSelectors;
 
+    private final IOSelector[] sharedSelectors;
+
     private final AtomicInteger nextSelectorIndex = new AtomicInteger();
 
     private final MemberSocketInterceptor memberSocketInterceptor;
@@ -104,7 +106,8 @@ public class TcpIpConnectionManager implements ConnectionManager {
         this.socketLingerSeconds = ioService.getSocketLingerSeconds();
         this.socketKeepAlive = ioService.getSocketKeepAlive();
         this.socketNoDelay = ioService.getSocketNoDelay();
-        selectorThreadCount = ioService.getSelectorThreadCount();
+        sharedSelectors = ioService.getSharedIOSelectors();
+        selectorThreadCount = sharedSelectors != null ? sharedSelectors.length : ioService.getSelectorThreadCount();
         inSelectors = new IOSelector[selectorThreadCount];
         outSelectors = new IOSelector[selectorThreadCount];
         final Collection<Integer> ports = ioService.getOutboundPorts();
@@ -374,6 +377,12 @@ public class TcpIpConnectionManager implements ConnectionManager {
         live = true;
         log(Level.FINEST, "Starting ConnectionManager and IO selectors.");
         for (int i = 0; i < inSelectors.length; i++) {
+            if (sharedSelectors != null) {
+                // shared selectors handle both reads and writes and are polled by their owners
+                inSelectors[i] = sharedSelectors[i];
+                outSelectors[i] = sharedSelectors[i];
+                continue;
+            }
             inSelectors[i] = new InSelectorImpl(ioService, i);
             outSelectors[i] = new OutSelectorImpl(ioService, i);
             inSelectors[i].start();
@@ -449,6 +458,12 @@ public class TcpIpConnectionManager implements ConnectionManager {
             log(Level.FINEST, "Shutting down IO selectors... Total: " + selectorThreadCount);
         }
         for (int i = 0; i < selectorThreadCount; i++) {
+            if (sharedSelectors != null) {
+                // shared selectors are shut down by their owners
+                inSelectors[i] = null;
+                outSelectors[i] = null;
+                continue;
+            }
             IOSelector ioSelector = inSelectors[i];
             if (ioSelector != null) {
                 ioSelector.shutdown();
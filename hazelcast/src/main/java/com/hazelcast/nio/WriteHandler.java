@@ -30,8 +30,27 @@ import java.util.logging.Level;
 
 import static com.hazelcast.util.StringUtil.stringToBytes;
 
+/**
+ * Writes the queued {@link SocketWritable}s of a connection on its out selector thread.
+ * <p/>
+ * Writables are coalesced into a single buffer, and each time the selector hands the connection to this handler,
+ * it keeps writing as long as the socket takes everything, up to {@link #MAX_WRITES_PER_HANDLE} writes.
+ * The values of large packets are not copied into the buffer: they are written straight from their data
+ * together with the buffer by a gathering write.
+ */
 public final class WriteHandler extends AbstractSelectionHandler implements Runnable {
 
+    /**
+     * Maximum number of socket writes in a single {@link #handle()} call, so a busy connection doesn't starve
+     * the other connections of its selector.
+     */
+    static final int MAX_WRITES_PER_HANDLE = 16;
+
+    /**
+     * Minimum value size of a packet to be written without copying it into the buffer.
+     */
+    static final int GATHERING_WRITE_MIN_VALUE_SIZE = 4096;
+
     private final Queue<SocketWritable> writeQueue = new ConcurrentLinkedQueue<SocketWritable>();
 
     private final Queue<SocketWritable> urgencyWriteQueue = new ConcurrentLinkedQueue<SocketWritable>();
@@ -40,6 +59,8 @@ public final class WriteHandler extends AbstractSelectionHandler implements Runn
 
     private final ByteBuffer buffer;
 
+    private final ByteBuffer[] gatheringBuffers = new ByteBuffer[2];
+
     private final IOSelector ioSelector;
 
     private boolean ready = false;
@@ -48,8 +69,20 @@ public final class WriteHandler extends AbstractSelectionHandler implements Runn
 
     private SocketWriter socketWriter;
 
+    private boolean gatheringWrites;
+
+    // value bytes of lastWritable, to be written after the bytes in the buffer
+    private ByteBuffer pendingValue;
+
     private volatile long lastHandle = 0;
 
+    // written by the selector thread only
+    private volatile long writeCount;
+
+    private volatile long writtenBytes;
+
+    private volatile long writtenPackets;
+
     WriteHandler(TcpIpConnection connection, IOSelector ioSelector) {
         super(connection);
         this.ioSelector = ioSelector;
@@ -58,6 +91,11 @@ public final class WriteHandler extends AbstractSelectionHandler implements Runn
 
     // accessed from ReadHandler and SocketConnector
     void setProtocol(final String protocol) {
+        if (ioSelector.isSelectorThread()) {
+            // the reads and writes of the connection are handled by the same thread, which can't wait for itself
+            createWriter(protocol);
+            return;
+        }
         final CountDownLatch latch = new CountDownLatch(1);
         ioSelector.addTask(new Runnable() {
             public void run() {
@@ -76,6 +114,8 @@ public final class WriteHandler extends AbstractSelectionHandler implements Runn
         if (socketWriter == null) {
             if (Protocols.CLUSTER.equals(protocol)) {
                 socketWriter = new SocketPacketWriter(connection);
+                // encrypted packets have to go through the writer
+                gatheringWrites = !CipherHelper.isSymmetricEncryptionEnabled(connectionManager.ioService);
                 buffer.put(stringToBytes(Protocols.CLUSTER));
                 registerWrite();
             } else if (Protocols.CLIENT_BINARY.equals(protocol)) {
@@ -125,32 +165,18 @@ public final class WriteHandler extends AbstractSelectionHandler implements Runn
             logger.log(Level.WARNING, "SocketWriter is not set, creating SocketWriter with CLUSTER protocol!");
             createWriter(Protocols.CLUSTER);
         }
-        if (lastWritable == null && (lastWritable = poll()) == null && buffer.position() == 0) {
+        if (lastWritable == null && (lastWritable = poll()) == null && buffer.position() == 0 && pendingValue == null) {
             ready = true;
             return;
         }
         try {
-            while (buffer.hasRemaining() && lastWritable != null) {
-                boolean complete = socketWriter.write(lastWritable, buffer);
-                if (complete) {
-                    lastWritable = poll();
-                } else {
+            for (int i = 0; i < MAX_WRITES_PER_HANDLE; i++) {
+                fillBuffer();
+                if (!flush()) {
                     break;
                 }
-            }
-            if (buffer.position() > 0) {
-                buffer.flip();
-                try {
-                    socketChannel.write(buffer);
-                } catch (Exception e) {
-                    lastWritable = null;
-                    handleSocketException(e);
-                    return;
-                }
-                if (buffer.hasRemaining()) {
-                    buffer.compact();
-                } else {
-                    buffer.clear();
+                if (lastWritable == null && (lastWritable = poll()) == null) {
+                    break;
                 }
             }
         } catch (Throwable t) {
@@ -163,6 +189,72 @@ public final class WriteHandler extends AbstractSelectionHandler implements Runn
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private void fillBuffer() throws Exception {
+        while (pendingValue == null && buffer.hasRemaining() && lastWritable != null) {
+            if (gatheringWrites && lastWritable instanceof Packet) {
+                final Packet packet = (Packet) lastWritable;
+                if (packet.getValueSize() >= GATHERING_WRITE_MIN_VALUE_SIZE) {
+                    pendingValue = packet.writeToExceptValue(buffer);
+                    if (pendingValue != null) {
+                        return;
+                    }
+                }
+            }
+            if (!socketWriter.write(lastWritable, buffer)) {
+                return;
+            }
+            writtenPackets++;
+            lastWritable = poll();
+        }
+    }
+
+    /**
+     * Writes the buffer and the pending value to the socket.
+     *
+     * @return <tt>true</tt> if everything is written.
+     */
+    private boolean flush() {
+        if (buffer.position() == 0 && pendingValue == null) {
+            return false;
+        }
+        buffer.flip();
+        final long written;
+        try {
+            if (pendingValue != null) {
+                gatheringBuffers[0] = buffer;
+                gatheringBuffers[1] = pendingValue;
+                written = socketChannel.write(gatheringBuffers);
+            } else {
+                written = socketChannel.write(buffer);
+            }
+        } catch (Exception e) {
+            lastWritable = null;
+            pendingValue = null;
+            buffer.clear();
+            handleSocketException(e);
+            return false;
+        } finally {
+            gatheringBuffers[1] = null;
+        }
+        writeCount++;
+        writtenBytes += written;
+        boolean flushed = !buffer.hasRemaining();
+        if (flushed) {
+            buffer.clear();
+        } else {
+            buffer.compact();
+        }
+        if (pendingValue != null) {
+            if (pendingValue.hasRemaining()) {
+                flushed = false;
+            } else {
+                pendingValue = null;
+            }
+        }
+        return flushed;
+    }
+
     public void run() {
         informSelector.set(true);
         if (ready) {
@@ -185,4 +277,20 @@ public final class WriteHandler extends AbstractSelectionHandler implements Runn
     long getLastHandle() {
         return lastHandle;
     }
+
+    IOSelector getIOSelector() {
+        return ioSelector;
+    }
+
+    long getWriteCount() {
+        return writeCount;
+    }
+
+    long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    long getWrittenPackets() {
+        return writtenPackets;
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.serialization;
+
+import com.hazelcast.nio.BufferObjectDataInput;
+import com.hazelcast.nio.BufferObjectDataOutput;
+import com.hazelcast.nio.IOUtil;
+
+/**
+ * The inputs and outputs a single thread reuses for serialization, so converting objects to and from
+ * {@link Data} does not create a new buffer each time.
+ * <p/>
+ * Serializing may nest, e.g. when a partition key is serialized or a class definition is registered while writing
+ * an object, so a few of each are kept. When all are in use, new ones are created and dropped when returned.
+ * <p/>
+ * The pool is kept in a thread local of the {@link SerializationServiceImpl}, so it must not reference the service:
+ * the thread would keep the service, and with it its class loader, reachable after the service is destroyed.
+ * The service is passed in when an input or output is taken and detached from it when it is returned. Retained
+ * outputs keep a buffer of at most {@value #MAX_RETAINED_GROWTH} times the initial output buffer size.
+ * <p/>
+ * Not thread-safe; {@link SerializationServiceImpl} keeps one per thread.
+ */
+final class BufferPool {
+
+    static final int MAX_POOLED = 3;
+    static final int MAX_RETAINED_GROWTH = 2;
+
+    private final InputOutputFactory inputOutputFactory;
+    private final int outputBufferSize;
+
+    private final ByteArrayObjectDataOutput[] outputs = new ByteArrayObjectDataOutput[MAX_POOLED];
+    private final ByteArrayObjectDataInput[] inputs = new ByteArrayObjectDataInput[MAX_POOLED];
+    private int outputCount;
+    private int inputCount;
+
+    BufferPool(InputOutputFactory inputOutputFactory, int outputBufferSize) {
+        this.inputOutputFactory = inputOutputFactory;
+        this.outputBufferSize = outputBufferSize;
+    }
+
+    BufferObjectDataOutput takeOutput(SerializationService service) {
+        if (outputCount == 0) {
+            return inputOutputFactory.createOutput(outputBufferSize, service);
+        }
+        final ByteArrayObjectDataOutput out = outputs[--outputCount];
+        outputs[outputCount] = null;
+        out.setService(service);
+        return out;
+    }
+
+    void returnOutput(BufferObjectDataOutput out) {
+        out.clear();
+        if (outputCount < MAX_POOLED && out instanceof ByteArrayObjectDataOutput) {
+            final ByteArrayObjectDataOutput pooled = (ByteArrayObjectDataOutput) out;
+            if (pooled.buffer == null) {
+                return;
+            }
+            if (pooled.buffer.length > outputBufferSize * MAX_RETAINED_GROWTH) {
+                pooled.buffer = new byte[outputBufferSize];
+            }
+            pooled.setService(null);
+            outputs[outputCount++] = pooled;
+        }
+    }
+
+    BufferObjectDataInput takeInput(Data data, SerializationService service) {
+        if (inputCount == 0) {
+            return inputOutputFactory.createInput(data, service);
+        }
+        final ByteArrayObjectDataInput in = inputs[--inputCount];
+        inputs[inputCount] = null;
+        in.init(data, service);
+        return in;
+    }
+
+    void returnInput(BufferObjectDataInput in) {
+        // the input must not keep the buffer of the data reachable
+        IOUtil.closeResource(in);
+        if (inputCount < MAX_POOLED && in instanceof ByteArrayObjectDataInput) {
+            final ByteArrayObjectDataInput pooled = (ByteArrayObjectDataInput) in;
+            pooled.service = null;
+            inputs[inputCount++] = pooled;
+        }
+    }
+}
@@ -30,13 +30,14 @@ class ByteArrayObjectDataInput extends PortableContextAwareInputStream implement
 
     byte buffer[];
 
-    final int size;
+    int size;
 
     int pos = 0;
 
     int mark = 0;
 
-    final SerializationService service;
+    // not final, pooled inputs are detached from their service while they are not in use
+    SerializationService service;
 
     private final byte[] utfBuffer = new byte[1024];
 
@@ -53,6 +54,18 @@ class ByteArrayObjectDataInput extends PortableContextAwareInputStream implement
         this.service = service;
     }
 
+    /**
+     * Points this input to the buffer of the data, so a pooled input can be reused instead of creating a new one.
+     */
+    final void init(Data data, SerializationService service) {
+        this.service = service;
+        buffer = data.buffer;
+        size = buffer != null ? buffer.length : 0;
+        pos = 0;
+        mark = 0;
+        setClassDefinition(data.classDefinition);
+    }
+
     public int read() throws IOException {
         return (pos < size) ? (buffer[pos++] & 0xff) : -1;
     }
@@ -495,6 +508,7 @@ class ByteArrayObjectDataInput extends PortableContextAwareInputStream implement
     @Override
     public void close() {
         buffer = null;
+        size = 0;
     }
 
     public SerializationContext getSerializationContext() {
@@ -34,7 +34,8 @@ class ByteArrayObjectDataOutput extends OutputStream implements BufferObjectData
 
     int pos = 0;
 
-    final SerializationService service;
+    // not final, pooled outputs are detached from their service while they are not in use
+    SerializationService service;
 
     private final byte[] utfBuffer = new byte[1024];
 
@@ -44,6 +45,10 @@ class ByteArrayObjectDataOutput extends OutputStream implements BufferObjectData
         this.service = service;
     }
 
+    final void setService(SerializationService service) {
+        this.service = service;
+    }
+
     public void write(int b) {
         ensureAvailable(1);
         buffer[pos++] = (byte) (b);
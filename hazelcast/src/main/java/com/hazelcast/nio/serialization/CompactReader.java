@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.nio.serialization;
+
+import com.hazelcast.nio.BufferObjectDataInput;
+
+import java.io.IOException;
+
+/**
+ * Reads fields of a serialized {@link CompactSerializable} by path, like <tt>address.city</tt>, directly from
+ * the bytes without deserializing the value or the objects nested in it.
+ * <p/>
+ * Each step but the last has to be a nested compact serializable object, the last one a primitive or
+ * <tt>String</tt> field. As the schema of a nested object is part of its value, paths through <tt>null</tt>
+ * objects have no type.
+ */
+public final class CompactReader {
+
+    private final SchemaRegistry registry;
+    private final BufferObjectDataInput in;
+
+    CompactReader(SchemaRegistry registry, BufferObjectDataInput in) {
+        this.registry = registry;
+        this.in = in;
+    }
+
+    /**
+     * @return the type of the value the path reads, or <tt>null</tt> if the path does not match the schemas
+     * of the value.
+     */
+    public FieldType getFieldType(String path) throws IOException {
+        final Location location = locate(path);
+        if (location == null) {
+            return null;
+        }
+        final FieldType type = location.field.getType();
+        return isValueType(type) ? type : null;
+    }
+
+    /**
+     * Reads the path, which has to match the schemas of the value as checked by {@link #getFieldType(String)}.
+     */
+    public Object read(String path) throws IOException {
+        final Location location = locate(path);
+        if (location == null || !isValueType(location.field.getType())) {
+            throw new HazelcastSerializationException("Path '" + path + "' does not match the compact schema");
+        }
+        final int position = CompactSerializer.position(in, location.start, location.schema, location.field);
+        if (position == CompactSerializer.NULL_OFFSET) {
+            return null;
+        }
+        switch (location.field.getType()) {
+            case BYTE:
+                return in.readByte(position);
+            case BOOLEAN:
+                return in.readBoolean(position);
+            case CHAR:
+                return in.readChar(position);
+            case SHORT:
+                return in.readShort(position);
+            case INT:
+                return in.readInt(position);
+            case LONG:
+                return in.readLong(position);
+            case FLOAT:
+                return in.readFloat(position);
+            case DOUBLE:
+                return in.readDouble(position);
+            default:
+                final int currentPosition = in.position();
+                try {
+                    in.position(position);
+                    return in.readUTF();
+                } finally {
+                    in.position(currentPosition);
+                }
+        }
+    }
+
+    private static boolean isValueType(FieldType type) {
+        return type == FieldType.UTF || Schema.getSize(type) > 0;
+    }
+
+    private Location locate(String path) throws IOException {
+        if (path == null) {
+            return null;
+        }
+        final String[] names = path.split("\\.", -1);
+        int start = 0;
+        Schema schema = schemaAt(start);
+        for (int i = 0; i < names.length; i++) {
+            final Schema.Field field = schema.getField(names[i]);
+            if (field == null) {
+                return null;
+            }
+            if (i == names.length - 1) {
+                return new Location(schema, start, field);
+            }
+            if (field.getType() != FieldType.PORTABLE) {
+                return null;
+            }
+            start = CompactSerializer.position(in, start, schema, field);
+            if (start == CompactSerializer.NULL_OFFSET) {
+                return null;
+            }
+            schema = schemaAt(start);
+        }
+        return null;
+    }
+
+    private Schema schemaAt(int start) throws IOException {
+        final long fingerprint = in.readLong(start);
+        final Schema schema = registry.getSchema(fingerprint);
+        if (schema == null) {
+            throw new HazelcastSerializationException("Unknown compact schema, fingerprint: "
+                    + Long.toHexString(fingerprint));
+        }
+        return schema;
+    }
+
+    private static final class Location {
+        final Schema schema;
+        final int start;
+        final Schema.Field field;
+
+        Location(Schema schema, int start, Schema.Field field) {
+            this.schema = schema;
+            this.start = start;
+            this.field = field;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.nio.serialization;
+
+/**
+ * Marks classes serialized in the compact format: a 64-bit schema fingerprint followed by the packed fields.
+ * <p/>
+ * Unlike {@link Portable} there is nothing to implement. The schema is derived once per class from its non-static,
+ * non-transient fields, replicated to the cluster and clients, and referenced by its fingerprint in every value,
+ * so fields can be queried without deserializing the value, like <tt>address.city</tt>.
+ * <p/>
+ * Fields may be primitives, <tt>String</tt>s, primitive arrays, compact serializable objects and arrays of them.
+ * Classes need a no-arg constructor, which may be private. Fields added or removed in a later version of the class
+ * are left at their initial values when reading values written with the other version.
+ */
+public interface CompactSerializable {
+}
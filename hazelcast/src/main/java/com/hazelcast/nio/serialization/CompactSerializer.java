@@ -0,0 +1,442 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.nio.serialization;
+
+import com.hazelcast.nio.BufferObjectDataInput;
+import com.hazelcast.nio.BufferObjectDataOutput;
+import com.hazelcast.nio.ClassLoaderUtil;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Serializes {@link CompactSerializable} objects as the fingerprint of their {@link Schema}, the length of the value,
+ * the fixed size fields, the offsets of the variable size fields relative to the start of the value, or -1 for
+ * <tt>null</tt>, and the variable size fields. Nested compact serializable objects are written inline the same way.
+ * <p/>
+ * Values are read by matching the fields of the schema they were written with to the fields of the local class
+ * by name and type.
+ */
+final class CompactSerializer implements StreamSerializer<CompactSerializable> {
+
+    static final int HEADER_SIZE = 12;
+    static final int NULL_OFFSET = -1;
+
+    private static final int INT_SIZE = 4;
+    private static final int LENGTH_POSITION = 8;
+    private static final Map<Class, FieldType> FIELD_TYPES = new HashMap<Class, FieldType>();
+
+    static {
+        FIELD_TYPES.put(byte.class, FieldType.BYTE);
+        FIELD_TYPES.put(boolean.class, FieldType.BOOLEAN);
+        FIELD_TYPES.put(char.class, FieldType.CHAR);
+        FIELD_TYPES.put(short.class, FieldType.SHORT);
+        FIELD_TYPES.put(int.class, FieldType.INT);
+        FIELD_TYPES.put(long.class, FieldType.LONG);
+        FIELD_TYPES.put(float.class, FieldType.FLOAT);
+        FIELD_TYPES.put(double.class, FieldType.DOUBLE);
+        FIELD_TYPES.put(String.class, FieldType.UTF);
+        FIELD_TYPES.put(byte[].class, FieldType.BYTE_ARRAY);
+        FIELD_TYPES.put(char[].class, FieldType.CHAR_ARRAY);
+        FIELD_TYPES.put(short[].class, FieldType.SHORT_ARRAY);
+        FIELD_TYPES.put(int[].class, FieldType.INT_ARRAY);
+        FIELD_TYPES.put(long[].class, FieldType.LONG_ARRAY);
+        FIELD_TYPES.put(float[].class, FieldType.FLOAT_ARRAY);
+        FIELD_TYPES.put(double[].class, FieldType.DOUBLE_ARRAY);
+    }
+
+    private final SchemaRegistry registry;
+    private final ClassLoader classLoader;
+    private final ConcurrentMap<Class, ClassBinding> bindings = new ConcurrentHashMap<Class, ClassBinding>();
+    private final ConcurrentMap<Long, ReadPlan> readPlans = new ConcurrentHashMap<Long, ReadPlan>();
+
+    CompactSerializer(SchemaRegistry registry, ClassLoader classLoader) {
+        this.registry = registry;
+        this.classLoader = classLoader;
+    }
+
+    public int getTypeId() {
+        return SerializationConstants.DEFAULT_TYPE_COMPACT;
+    }
+
+    public void write(ObjectDataOutput out, CompactSerializable object) throws IOException {
+        if (!(out instanceof BufferObjectDataOutput)) {
+            throw new IllegalArgumentException("ObjectDataOutput must be instance of BufferObjectDataOutput!");
+        }
+        try {
+            writeObject((BufferObjectDataOutput) out, object);
+        } catch (IllegalAccessException e) {
+            throw new HazelcastSerializationException(e);
+        }
+    }
+
+    private void writeObject(BufferObjectDataOutput out, Object object) throws IOException, IllegalAccessException {
+        final ClassBinding binding = bindingFor(object.getClass());
+        final Schema schema = binding.schema;
+        final Schema.Field[] fields = schema.fields();
+        final int start = out.position();
+        out.writeLong(schema.getFingerprint());
+        // the length is filled in when the value is complete
+        out.writeInt(0);
+        int i = 0;
+        for (; i < fields.length && fields[i].isFixedSize(); i++) {
+            writeFixed(out, fields[i].getType(), binding.fields[i], object);
+        }
+        final int offsets = out.position();
+        for (int j = 0; j < schema.getVariableCount(); j++) {
+            out.writeInt(NULL_OFFSET);
+        }
+        for (; i < fields.length; i++) {
+            final Object value = binding.fields[i].get(object);
+            if (value != null) {
+                out.writeInt(offsets + fields[i].getPosition() * INT_SIZE, out.position() - start);
+                writeVariable(out, fields[i].getType(), value);
+            }
+        }
+        out.writeInt(start + LENGTH_POSITION, out.position() - start);
+    }
+
+    private static void writeFixed(ObjectDataOutput out, FieldType type, Field field, Object object)
+            throws IOException, IllegalAccessException {
+        switch (type) {
+            case BYTE:
+                out.writeByte(field.getByte(object));
+                break;
+            case BOOLEAN:
+                out.writeBoolean(field.getBoolean(object));
+                break;
+            case CHAR:
+                out.writeChar(field.getChar(object));
+                break;
+            case SHORT:
+                out.writeShort(field.getShort(object));
+                break;
+            case INT:
+                out.writeInt(field.getInt(object));
+                break;
+            case LONG:
+                out.writeLong(field.getLong(object));
+                break;
+            case FLOAT:
+                out.writeFloat(field.getFloat(object));
+                break;
+            case DOUBLE:
+                out.writeDouble(field.getDouble(object));
+                break;
+            default:
+                throw new HazelcastSerializationException("Not a fixed size type: " + type);
+        }
+    }
+
+    private void writeVariable(BufferObjectDataOutput out, FieldType type, Object value)
+            throws IOException, IllegalAccessException {
+        switch (type) {
+            case UTF:
+                out.writeUTF((String) value);
+                break;
+            case BYTE_ARRAY:
+                IOUtil.writeByteArray(out, (byte[]) value);
+                break;
+            case CHAR_ARRAY:
+                out.writeCharArray((char[]) value);
+                break;
+            case SHORT_ARRAY:
+                out.writeShortArray((short[]) value);
+                break;
+            case INT_ARRAY:
+                out.writeIntArray((int[]) value);
+                break;
+            case LONG_ARRAY:
+                out.writeLongArray((long[]) value);
+                break;
+            case FLOAT_ARRAY:
+                out.writeFloatArray((float[]) value);
+                break;
+            case DOUBLE_ARRAY:
+                out.writeDoubleArray((double[]) value);
+                break;
+            case PORTABLE:
+                writeObject(out, value);
+                break;
+            case PORTABLE_ARRAY:
+                final Object[] elements = (Object[]) value;
+                out.writeInt(elements.length);
+                for (Object element : elements) {
+                    out.writeBoolean(element == null);
+                    if (element != null) {
+                        writeObject(out, element);
+                    }
+                }
+                break;
+            default:
+                throw new HazelcastSerializationException("Not a variable size type: " + type);
+        }
+    }
+
+    public CompactSerializable read(ObjectDataInput in) throws IOException {
+        if (!(in instanceof BufferObjectDataInput)) {
+            throw new IllegalArgumentException("ObjectDataInput must be instance of BufferObjectDataInput!");
+        }
+        try {
+            return (CompactSerializable) readObject((BufferObjectDataInput) in);
+        } catch (IllegalAccessException e) {
+            throw new HazelcastSerializationException(e);
+        }
+    }
+
+    private Object readObject(BufferObjectDataInput in) throws IOException, IllegalAccessException {
+        final int start = in.position();
+        final long fingerprint = in.readLong();
+        final int length = in.readInt();
+        final ReadPlan plan = readPlanFor(fingerprint);
+        final ClassBinding binding = plan.binding;
+        final Object object = binding.newInstance();
+        for (int i = 0; i < binding.fields.length; i++) {
+            final Schema.Field writerField = plan.writerFields[i];
+            if (writerField == null) {
+                continue;
+            }
+            final int position = position(in, start, plan.writerSchema, writerField);
+            if (writerField.isFixedSize()) {
+                readFixed(in, position, writerField.getType(), binding.fields[i], object);
+            } else if (position == NULL_OFFSET) {
+                binding.fields[i].set(object, null);
+            } else {
+                in.position(position);
+                binding.fields[i].set(object, readVariable(in, writerField.getType(), binding.fields[i].getType()));
+            }
+        }
+        in.position(start + length);
+        return object;
+    }
+
+    private static void readFixed(BufferObjectDataInput in, int position, FieldType type, Field field, Object object)
+            throws IOException, IllegalAccessException {
+        switch (type) {
+            case BYTE:
+                field.setByte(object, in.readByte(position));
+                break;
+            case BOOLEAN:
+                field.setBoolean(object, in.readBoolean(position));
+                break;
+            case CHAR:
+                field.setChar(object, in.readChar(position));
+                break;
+            case SHORT:
+                field.setShort(object, in.readShort(position));
+                break;
+            case INT:
+                field.setInt(object, in.readInt(position));
+                break;
+            case LONG:
+                field.setLong(object, in.readLong(position));
+                break;
+            case FLOAT:
+                field.setFloat(object, in.readFloat(position));
+                break;
+            case DOUBLE:
+                field.setDouble(object, in.readDouble(position));
+                break;
+            default:
+                throw new HazelcastSerializationException("Not a fixed size type: " + type);
+        }
+    }
+
+    private Object readVariable(BufferObjectDataInput in, FieldType type, Class javaType)
+            throws IOException, IllegalAccessException {
+        switch (type) {
+            case UTF:
+                return in.readUTF();
+            case BYTE_ARRAY:
+                return IOUtil.readByteArray(in);
+            case CHAR_ARRAY:
+                return in.readCharArray();
+            case SHORT_ARRAY:
+                return in.readShortArray();
+            case INT_ARRAY:
+                return in.readIntArray();
+            case LONG_ARRAY:
+                return in.readLongArray();
+            case FLOAT_ARRAY:
+                return in.readFloatArray();
+            case DOUBLE_ARRAY:
+                return in.readDoubleArray();
+            case PORTABLE:
+                return readObject(in);
+            case PORTABLE_ARRAY:
+                final int length = in.readInt();
+                final Object[] elements = (Object[]) Array.newInstance(javaType.getComponentType(), length);
+                for (int i = 0; i < length; i++) {
+                    if (!in.readBoolean()) {
+                        elements[i] = readObject(in);
+                    }
+                }
+                return elements;
+            default:
+                throw new HazelcastSerializationException("Not a variable size type: " + type);
+        }
+    }
+
+    /**
+     * @return the position of a field of the value starting at <tt>start</tt>, or {@link #NULL_OFFSET} if
+     * the field is a <tt>null</tt> variable size field.
+     */
+    static int position(BufferObjectDataInput in, int start, Schema schema, Schema.Field field) throws IOException {
+        if (field.isFixedSize()) {
+            return start + HEADER_SIZE + field.getPosition();
+        }
+        final int offset = in.readInt(start + HEADER_SIZE + schema.getFixedSize() + field.getPosition() * INT_SIZE);
+        return offset == NULL_OFFSET ? NULL_OFFSET : start + offset;
+    }
+
+    public void destroy() {
+        bindings.clear();
+        readPlans.clear();
+    }
+
+    private ReadPlan readPlanFor(long fingerprint) {
+        ReadPlan plan = readPlans.get(fingerprint);
+        if (plan == null) {
+            final Schema writerSchema = registry.getSchema(fingerprint);
+            if (writerSchema == null) {
+                throw new HazelcastSerializationException("Unknown compact schema, fingerprint: "
+                        + Long.toHexString(fingerprint));
+            }
+            final Class type;
+            try {
+                type = ClassLoaderUtil.loadClass(classLoader, writerSchema.getClassName());
+            } catch (ClassNotFoundException e) {
+                throw new HazelcastSerializationException(e);
+            }
+            plan = new ReadPlan(writerSchema, bindingFor(type));
+            readPlans.putIfAbsent(fingerprint, plan);
+        }
+        return plan;
+    }
+
+    private ClassBinding bindingFor(Class type) {
+        ClassBinding binding = bindings.get(type);
+        if (binding == null) {
+            binding = new ClassBinding(type);
+            registry.register(binding.schema);
+            bindings.putIfAbsent(type, binding);
+        }
+        return binding;
+    }
+
+    static FieldType getFieldType(Class type) {
+        final FieldType fieldType = FIELD_TYPES.get(type);
+        if (fieldType != null) {
+            return fieldType;
+        }
+        if (CompactSerializable.class.isAssignableFrom(type)) {
+            return FieldType.PORTABLE;
+        }
+        if (type.isArray() && CompactSerializable.class.isAssignableFrom(type.getComponentType())) {
+            return FieldType.PORTABLE_ARRAY;
+        }
+        return null;
+    }
+
+    /**
+     * The schema of a local class and its fields in layout order.
+     */
+    private static final class ClassBinding {
+        final Schema schema;
+        final Field[] fields;
+        final Constructor constructor;
+
+        ClassBinding(Class type) {
+            final Map<String, Field> javaFields = new HashMap<String, Field>();
+            final List<Schema.Field> schemaFields = new ArrayList<Schema.Field>();
+            for (Class c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    final int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                        continue;
+                    }
+                    final FieldType fieldType = getFieldType(field.getType());
+                    if (fieldType == null) {
+                        throw new HazelcastSerializationException("Field '" + field.getName() + "' of " + type.getName()
+                                + " has type " + field.getType().getName() + ", which cannot be compact serialized");
+                    }
+                    if (javaFields.put(field.getName(), field) != null) {
+                        throw new HazelcastSerializationException("Field '" + field.getName() + "' of " + type.getName()
+                                + " hides a field of a super class");
+                    }
+                    field.setAccessible(true);
+                    schemaFields.add(new Schema.Field(field.getName(), fieldType));
+                }
+            }
+            schema = new Schema(type.getName(), schemaFields);
+            final Schema.Field[] layout = schema.fields();
+            fields = new Field[layout.length];
+            for (int i = 0; i < layout.length; i++) {
+                fields[i] = javaFields.get(layout[i].getName());
+            }
+            try {
+                constructor = type.getDeclaredConstructor();
+                constructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                throw new HazelcastSerializationException(type.getName() + " has no no-arg constructor", e);
+            }
+        }
+
+        Object newInstance() {
+            try {
+                return constructor.newInstance();
+            } catch (Exception e) {
+                throw new HazelcastSerializationException("Could not create " + schema.getClassName(), e);
+            }
+        }
+    }
+
+    /**
+     * The fields of the schema a value was written with matching the fields of the local class, by local field.
+     */
+    private static final class ReadPlan {
+        final Schema writerSchema;
+        final ClassBinding binding;
+        final Schema.Field[] writerFields;
+
+        ReadPlan(Schema writerSchema, ClassBinding binding) {
+            this.writerSchema = writerSchema;
+            this.binding = binding;
+            final Schema.Field[] localFields = binding.schema.fields();
+            writerFields = new Schema.Field[localFields.length];
+            for (int i = 0; i < localFields.length; i++) {
+                final Schema.Field writerField = writerSchema.getField(localFields[i].getName());
+                if (writerField != null && writerField.getType() == localFields[i].getType()) {
+                    writerFields[i] = writerField;
+                }
+            }
+        }
+    }
+}
@@ -47,6 +47,7 @@ public class DataAdapter implements SocketWritable, SocketReadable {
     protected Data data;
 
     private transient short status = 0;
+    private transient boolean copyValue = true;
     private transient SerializationContext context;
 
     public DataAdapter(Data data) {
@@ -146,7 +147,9 @@ public class DataAdapter implements SocketWritable, SocketReadable {
             }
         }
         if (!isStatusSet(stValue)) {
-            IOUtil.copyToHeapBuffer(buffer, destination);
+            if (copyValue) {
+                IOUtil.copyToHeapBuffer(buffer, destination);
+            }
             if (buffer.hasRemaining()) {
                 return false;
             }
@@ -163,6 +166,35 @@ public class DataAdapter implements SocketWritable, SocketReadable {
         return true;
     }
 
+    /**
+     * Writes like {@link #writeTo(ByteBuffer)}, except that the bytes of the value are not copied into
+     * the destination. Once everything before the value is written, the value bytes not written yet are returned,
+     * so they can be written straight from the array of the data, e.g. by a gathering write. They should be
+     * written before anything else, then {@link #writeTo(ByteBuffer)} writes what follows the value.
+     *
+     * @return the value bytes not written yet, or <tt>null</tt> if the destination is full before the value
+     * or the whole value is written.
+     */
+    public final ByteBuffer writeToExceptValue(ByteBuffer destination) {
+        if (isStatusSet(stValue)) {
+            return null;
+        }
+        copyValue = false;
+        try {
+            writeTo(destination);
+        } finally {
+            copyValue = true;
+        }
+        return isStatusSet(stSize) && !isStatusSet(stValue) && buffer.hasRemaining() ? buffer : null;
+    }
+
+    /**
+     * @return size of the value of the data in bytes.
+     */
+    public final int getValueSize() {
+        return data != null ? data.bufferSize() : 0;
+    }
+
     /**
      * WARNING:
      *
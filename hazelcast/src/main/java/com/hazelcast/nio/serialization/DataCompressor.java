@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.nio.serialization;
+
+/**
+ * Compresses the buffer of a {@link Data} with {@link Lz4Codec}.
+ * <p/>
+ * Compressed data is self describing: its type is {@link SerializationConstants#WRAPPER_TYPE_COMPRESSED} and its
+ * buffer starts with the type and the length of the original buffer. The class definition and the partition hash
+ * of the original data are kept, so compressed data can be sent and routed like any other;
+ * {@link SerializationService#toObject(Object)} decompresses it before deserializing.
+ */
+public final class DataCompressor {
+
+    private static final int INT_SIZE = 4;
+    private static final int HEADER_SIZE = INT_SIZE * 2;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int BYTE_SHIFT = 8;
+    // compressing has to save at least 1/MIN_SAVING_RATIO of the bytes to be worth decompressing on every read
+    private static final int MIN_SAVING_RATIO = 8;
+
+    private DataCompressor() {
+    }
+
+    public static boolean isCompressed(Data data) {
+        return data != null && data.type == SerializationConstants.WRAPPER_TYPE_COMPRESSED;
+    }
+
+    /**
+     * @return the compressed data, or the given data if it is already compressed or does not compress well.
+     */
+    public static Data compress(Data data) {
+        if (data == null || isCompressed(data) || data.bufferSize() == 0) {
+            return data;
+        }
+        final byte[] buffer = data.buffer;
+        final byte[] compressed = new byte[HEADER_SIZE + Lz4Codec.maxCompressedLength(buffer.length)];
+        writeInt(compressed, 0, data.type);
+        writeInt(compressed, INT_SIZE, buffer.length);
+        final int length = Lz4Codec.compress(buffer, compressed, HEADER_SIZE);
+        if (length > buffer.length - buffer.length / MIN_SAVING_RATIO) {
+            return data;
+        }
+        final byte[] trimmed = new byte[length];
+        System.arraycopy(compressed, 0, trimmed, 0, length);
+        return new Data(SerializationConstants.WRAPPER_TYPE_COMPRESSED, trimmed, data.getPartitionHash(), data.classDefinition);
+    }
+
+    /**
+     * @return the original data, or the given data if it is not compressed.
+     */
+    public static Data decompress(Data data) {
+        if (!isCompressed(data)) {
+            return data;
+        }
+        final byte[] compressed = data.buffer;
+        if (compressed == null || compressed.length < HEADER_SIZE) {
+            throw new HazelcastSerializationException("Compressed data has no header");
+        }
+        final int type = readInt(compressed, 0);
+        final int length = readInt(compressed, INT_SIZE);
+        // the length is checked before allocating the buffer, as the header may be corrupt
+        if (length < 0 || length > Lz4Codec.maxDecompressedLength(compressed.length - HEADER_SIZE)) {
+            throw new HazelcastSerializationException("Compressed data of " + compressed.length
+                    + " bytes cannot have an original length of " + length);
+        }
+        final byte[] buffer = new byte[length];
+        try {
+            Lz4Codec.decompress(compressed, HEADER_SIZE, compressed.length, buffer);
+        } catch (IllegalArgumentException e) {
+            throw new HazelcastSerializationException(e);
+        }
+        return new Data(type, buffer, data.partitionHash, data.classDefinition);
+    }
+
+    private static void writeInt(byte[] b, int offset, int value) {
+        for (int i = 0; i < INT_SIZE; i++) {
+            b[offset + i] = (byte) (value >>> (BYTE_SHIFT * (INT_SIZE - 1 - i)));
+        }
+    }
+
+    private static int readInt(byte[] b, int offset) {
+        int value = 0;
+        for (int i = offset; i < offset + INT_SIZE; i++) {
+            value = value << BYTE_SHIFT | b[i] & BYTE_MASK;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.nio.serialization;
+
+/**
+ * A pure Java compressor for the LZ4 block format: a sequence of literal runs, each followed by a back reference
+ * of at least four bytes into the last 64 KB of output. It trades compression ratio for speed, so values can be
+ * decompressed on every read.
+ */
+final class Lz4Codec {
+
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MF_LIMIT = 12;
+    private static final int MAX_DISTANCE = 0xFFFF;
+    private static final int HASH_LOG = 12;
+    private static final int SKIP_STRENGTH = 6;
+    private static final int HASH_MULTIPLIER = -1640531535;
+    private static final int RUN_MASK = 0x0F;
+    private static final int ML_BITS = 4;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int MAX_RUN_BYTE = 255;
+    private static final int BYTE_SHIFT = 8;
+    private static final int SHIFT_2_BYTES = 16;
+    private static final int SHIFT_3_BYTES = 24;
+
+    private Lz4Codec() {
+    }
+
+    /**
+     * @return the size of the largest output {@link #compress(byte[], byte[], int)} can produce for the given length.
+     */
+    static int maxCompressedLength(int length) {
+        return length + length / MAX_RUN_BYTE + MF_LIMIT + MIN_MATCH;
+    }
+
+    /**
+     * @return an upper bound of the length of the bytes a compressed block of the given length decompresses to;
+     * each byte of a block adds at most 255 bytes to a literal run or match.
+     */
+    static long maxDecompressedLength(int compressedLength) {
+        return (long) compressedLength * MAX_RUN_BYTE;
+    }
+
+    /**
+     * Compresses the source into the destination starting at the given offset, which has to have room for
+     * {@link #maxCompressedLength(int)} bytes.
+     *
+     * @return the offset after the last byte written
+     */
+    static int compress(byte[] src, byte[] dest, int destOffset) {
+        final int srcLength = src.length;
+        int dp = destOffset;
+        int anchor = 0;
+        if (srcLength > MF_LIMIT) {
+            final int[] table = new int[1 << HASH_LOG];
+            final int matchLimit = srcLength - LAST_LITERALS;
+            final int limit = srcLength - MF_LIMIT;
+            int sp = 1;
+            while (sp < limit) {
+                final int h = hash(readInt(src, sp));
+                int ref = table[h];
+                table[h] = sp;
+                if (sp - ref > MAX_DISTANCE || readInt(src, ref) != readInt(src, sp)) {
+                    // skip faster through bytes that do not compress
+                    sp += 1 + ((sp - anchor) >>> SKIP_STRENGTH);
+                    continue;
+                }
+                while (sp > anchor && ref > 0 && src[sp - 1] == src[ref - 1]) {
+                    sp--;
+                    ref--;
+                }
+                int matchLength = MIN_MATCH;
+                while (sp + matchLength < matchLimit && src[sp + matchLength] == src[ref + matchLength]) {
+                    matchLength++;
+                }
+                dp = writeLiterals(src, anchor, sp - anchor, dest, dp, matchLength - MIN_MATCH);
+                final int distance = sp - ref;
+                dest[dp++] = (byte) distance;
+                dest[dp++] = (byte) (distance >>> BYTE_SHIFT);
+                if (matchLength - MIN_MATCH >= RUN_MASK) {
+                    dp = writeLength(matchLength - MIN_MATCH - RUN_MASK, dest, dp);
+                }
+                sp += matchLength;
+                anchor = sp;
+            }
+        }
+        return writeLiterals(src, anchor, srcLength - anchor, dest, dp, 0);
+    }
+
+    /**
+     * Decompresses <tt>src[srcOffset..srcEnd)</tt> into the destination, whose length has to be
+     * the length of the original bytes.
+     *
+     * @throws IllegalArgumentException if the source is not a valid compressed block of that length
+     */
+    static void decompress(byte[] src, int srcOffset, int srcEnd, byte[] dest) {
+        int sp = srcOffset;
+        int dp = 0;
+        try {
+            while (true) {
+                final int token = src[sp++] & BYTE_MASK;
+                int literalLength = token >>> ML_BITS;
+                if (literalLength == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[sp++] & BYTE_MASK;
+                        literalLength += b;
+                    } while (b == MAX_RUN_BYTE);
+                }
+                System.arraycopy(src, sp, dest, dp, literalLength);
+                sp += literalLength;
+                dp += literalLength;
+                if (sp >= srcEnd) {
+                    break;
+                }
+                final int distance = (src[sp++] & BYTE_MASK) | (src[sp++] & BYTE_MASK) << BYTE_SHIFT;
+                int matchLength = token & RUN_MASK;
+                if (matchLength == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[sp++] & BYTE_MASK;
+                        matchLength += b;
+                    } while (b == MAX_RUN_BYTE);
+                }
+                matchLength += MIN_MATCH;
+                int ref = dp - distance;
+                if (distance == 0 || ref < 0) {
+                    throw new IllegalArgumentException("Invalid match distance " + distance + " at " + (sp - 2));
+                }
+                // matches may overlap the bytes they produce, so copy byte by byte
+                final int end = dp + matchLength;
+                while (dp < end) {
+                    dest[dp++] = dest[ref++];
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed compressed block", e);
+        }
+        if (dp != dest.length || sp != srcEnd) {
+            throw new IllegalArgumentException("Compressed block has " + dp + " bytes, expected " + dest.length);
+        }
+    }
+
+    private static int writeLiterals(byte[] src, int offset, int length, byte[] dest, int destOffset, int matchLength) {
+        int dp = destOffset;
+        final int tokenPosition = dp++;
+        int token;
+        if (length >= RUN_MASK) {
+            token = RUN_MASK << ML_BITS;
+            dp = writeLength(length - RUN_MASK, dest, dp);
+        } else {
+            token = length << ML_BITS;
+        }
+        token |= matchLength >= RUN_MASK ? RUN_MASK : matchLength;
+        dest[tokenPosition] = (byte) token;
+        System.arraycopy(src, offset, dest, dp, length);
+        return dp + length;
+    }
+
+    // the part of a length above the 4 bits of the token continue in bytes of 255 and a last byte below 255
+    private static int writeLength(int length, byte[] dest, int destOffset) {
+        int dp = destOffset;
+        int remaining = length;
+        while (remaining >= MAX_RUN_BYTE) {
+            dest[dp++] = (byte) MAX_RUN_BYTE;
+            remaining -= MAX_RUN_BYTE;
+        }
+        dest[dp++] = (byte) remaining;
+        return dp;
+    }
+
+    private static int readInt(byte[] b, int i) {
+        return (b[i] & BYTE_MASK) << SHIFT_3_BYTES | (b[i + 1] & BYTE_MASK) << SHIFT_2_BYTES
+                | (b[i + 2] & BYTE_MASK) << BYTE_SHIFT | b[i + 3] & BYTE_MASK;
+    }
+
+    private static int hash(int i) {
+        return (i * HASH_MULTIPLIER) >>> (Integer.SIZE - HASH_LOG);
+    }
+}
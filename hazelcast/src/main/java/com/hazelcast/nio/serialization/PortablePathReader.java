@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.serialization;
+
+import com.hazelcast.nio.BufferObjectDataInput;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reads fields of a serialized {@link Portable} by path, like <tt>customer.address.city</tt>,
+ * <tt>items[0].sku</tt> or <tt>items[any].sku</tt>, directly from the bytes without deserializing
+ * the portable or its nested portables.
+ * <p/>
+ * The path is resolved against the class definition the portable was written with: each step but the last has
+ * to be a portable or, with an index, a portable array field; the last one a primitive or UTF field or,
+ * with an index, a primitive array field. <tt>[any]</tt> reads the path for each element of the array.
+ */
+public final class PortablePathReader {
+
+    /**
+     * The index of a path step reading all elements of an array.
+     */
+    public static final String ANY = "any";
+
+    private static final int NO_INDEX = -1;
+    private static final int ANY_INDEX = -2;
+    private static final int INT_SIZE = 4;
+    private static final ConcurrentMap<String, Step[]> PATHS = new ConcurrentHashMap<String, Step[]>();
+
+    private final SerializationContext context;
+    private final BufferObjectDataInput in;
+    private final ClassDefinition cd;
+
+    PortablePathReader(SerializationContext context, BufferObjectDataInput in, ClassDefinition cd) {
+        this.context = context;
+        this.in = in;
+        this.cd = cd;
+    }
+
+    /**
+     * @return the type of the values the path reads, the element type for indexed arrays,
+     * or <tt>null</tt> if the path does not match the class definition of the portable.
+     */
+    public FieldType getFieldType(String path) {
+        final Step[] steps = parse(path);
+        if (steps == null) {
+            return null;
+        }
+        ClassDefinition current = cd;
+        for (int i = 0; i < steps.length; i++) {
+            final Step step = steps[i];
+            final FieldDefinition fd = current.get(step.name);
+            if (fd == null) {
+                return null;
+            }
+            final FieldType type = fd.getType();
+            if (i < steps.length - 1) {
+                final FieldType portableType = step.index == NO_INDEX ? FieldType.PORTABLE : FieldType.PORTABLE_ARRAY;
+                final boolean portable = type == portableType;
+                current = portable ? lookup(current, fd) : null;
+                if (current == null) {
+                    return null;
+                }
+            } else if (step.index == NO_INDEX) {
+                return isValueType(type) ? type : null;
+            } else {
+                return getElementType(type);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return <tt>true</tt> if the path reads all elements of an array, so {@link #read(String)} returns a list.
+     */
+    public static boolean isMultiValued(String path) {
+        final Step[] steps = parse(path);
+        if (steps != null) {
+            for (Step step : steps) {
+                if (step.index == ANY_INDEX) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the path, which has to match the class definition as checked by {@link #getFieldType(String)}.
+     *
+     * @return the value, <tt>null</tt> if a portable on the path is <tt>null</tt> or an index is out of bounds,
+     * or the list of the values if the path contains <tt>[any]</tt>.
+     */
+    public Object read(String path) throws IOException {
+        final Step[] steps = parse(path);
+        if (steps == null || getFieldType(path) == null) {
+            throw new HazelcastSerializationException("Path '" + path + "' does not match ClassDefinition {id: "
+                    + cd.getClassId() + ", version: " + cd.getVersion() + "}");
+        }
+        if (isMultiValued(path)) {
+            final List<Object> values = new ArrayList<Object>();
+            readAll(steps, 0, cd, 0, values);
+            return values;
+        }
+        ClassDefinition current = cd;
+        int base = 0;
+        for (int i = 0; i < steps.length - 1; i++) {
+            final FieldDefinition fd = current.get(steps[i].name);
+            base = steps[i].index == NO_INDEX ? nestedPortable(fd, base) : portableElement(fd, base, steps[i].index);
+            if (base < 0) {
+                return null;
+            }
+            current = lookup(current, fd);
+        }
+        final Step last = steps[steps.length - 1];
+        return readValue(current.get(last.name), base, last.index);
+    }
+
+    private void readAll(Step[] steps, int stepIndex, ClassDefinition current, int base, List<Object> values)
+            throws IOException {
+        final Step step = steps[stepIndex];
+        final FieldDefinition fd = current.get(step.name);
+        if (stepIndex == steps.length - 1) {
+            if (step.index == ANY_INDEX) {
+                final int length = in.readInt(fieldPosition(fd, base));
+                for (int i = 0; i < length; i++) {
+                    values.add(readValue(fd, base, i));
+                }
+            } else {
+                values.add(readValue(fd, base, step.index));
+            }
+            return;
+        }
+        final ClassDefinition nested = lookup(current, fd);
+        if (step.index == ANY_INDEX) {
+            final int length = in.readInt(fieldPosition(fd, base));
+            for (int i = 0; i < length; i++) {
+                readAll(steps, stepIndex + 1, nested, portableElement(fd, base, i), values);
+            }
+        } else {
+            final int nestedBase = step.index == NO_INDEX
+                    ? nestedPortable(fd, base) : portableElement(fd, base, step.index);
+            if (nestedBase >= 0) {
+                readAll(steps, stepIndex + 1, nested, nestedBase, values);
+            }
+        }
+    }
+
+    // the position of a field of the portable starting at base, see DefaultPortableReader
+    private int fieldPosition(FieldDefinition fd, int base) throws IOException {
+        return in.readInt(base + INT_SIZE + fd.getIndex() * INT_SIZE);
+    }
+
+    // a portable field is written as a null flag followed by the portable
+    private int nestedPortable(FieldDefinition fd, int base) throws IOException {
+        final int position = fieldPosition(fd, base);
+        return in.readBoolean(position) ? -1 : position + 1;
+    }
+
+    // a portable array is written as its length, the positions of its elements and the elements
+    private int portableElement(FieldDefinition fd, int base, int index) throws IOException {
+        final int position = fieldPosition(fd, base);
+        final int length = in.readInt(position);
+        if (index >= length) {
+            return -1;
+        }
+        return in.readInt(position + INT_SIZE + index * INT_SIZE);
+    }
+
+    private Object readValue(FieldDefinition fd, int base, int index) throws IOException {
+        final int position = fieldPosition(fd, base);
+        if (index == NO_INDEX) {
+            return readValue(fd.getType(), position);
+        }
+        // primitive arrays are written as their length followed by the elements
+        final int length = in.readInt(position);
+        if (index >= length) {
+            return null;
+        }
+        final FieldType elementType = getElementType(fd.getType());
+        return readValue(elementType, position + INT_SIZE + index * getSize(elementType));
+    }
+
+    private Object readValue(FieldType type, int position) throws IOException {
+        switch (type) {
+            case BYTE:
+                return in.readByte(position);
+            case BOOLEAN:
+                return in.readBoolean(position);
+            case CHAR:
+                return in.readChar(position);
+            case SHORT:
+                return in.readShort(position);
+            case INT:
+                return in.readInt(position);
+            case LONG:
+                return in.readLong(position);
+            case FLOAT:
+                return in.readFloat(position);
+            case DOUBLE:
+                return in.readDouble(position);
+            case UTF:
+                final int currentPosition = in.position();
+                try {
+                    in.position(position);
+                    return in.readUTF();
+                } finally {
+                    in.position(currentPosition);
+                }
+            default:
+                throw new HazelcastSerializationException("Cannot read field of type " + type);
+        }
+    }
+
+    private ClassDefinition lookup(ClassDefinition current, FieldDefinition fd) {
+        ClassDefinition nested = context.lookup(fd.getFactoryId(), fd.getClassId(), current.getVersion());
+        if (nested == null && current instanceof ClassDefinitionImpl) {
+            for (ClassDefinition candidate : ((ClassDefinitionImpl) current).getNestedClassDefinitions()) {
+                if (candidate.getFactoryId() == fd.getFactoryId() && candidate.getClassId() == fd.getClassId()) {
+                    return candidate;
+                }
+            }
+        }
+        return nested;
+    }
+
+    private static boolean isValueType(FieldType type) {
+        return type != FieldType.PORTABLE && type != FieldType.PORTABLE_ARRAY && getElementType(type) == null;
+    }
+
+    private static FieldType getElementType(FieldType arrayType) {
+        switch (arrayType) {
+            case BYTE_ARRAY:
+                return FieldType.BYTE;
+            case CHAR_ARRAY:
+                return FieldType.CHAR;
+            case SHORT_ARRAY:
+                return FieldType.SHORT;
+            case INT_ARRAY:
+                return FieldType.INT;
+            case LONG_ARRAY:
+                return FieldType.LONG;
+            case FLOAT_ARRAY:
+                return FieldType.FLOAT;
+            case DOUBLE_ARRAY:
+                return FieldType.DOUBLE;
+            default:
+                return null;
+        }
+    }
+
+    private static int getSize(FieldType type) {
+        switch (type) {
+            case BYTE:
+                return 1;
+            case CHAR:
+            case SHORT:
+                return Short.SIZE / Byte.SIZE;
+            case INT:
+            case FLOAT:
+                return INT_SIZE;
+            case LONG:
+            case DOUBLE:
+                return Long.SIZE / Byte.SIZE;
+            default:
+                throw new IllegalArgumentException("Not a fixed size type: " + type);
+        }
+    }
+
+    /**
+     * @return the steps of the path, or <tt>null</tt> if it is not a valid path.
+     */
+    private static Step[] parse(String path) {
+        if (path == null) {
+            return null;
+        }
+        Step[] steps = PATHS.get(path);
+        if (steps == null) {
+            final String[] names = path.split("\\.", -1);
+            steps = new Step[names.length];
+            for (int i = 0; i < names.length; i++) {
+                steps[i] = Step.parse(names[i]);
+                if (steps[i] == null) {
+                    return null;
+                }
+            }
+            PATHS.putIfAbsent(path, steps);
+        }
+        return steps;
+    }
+
+    private static final class Step {
+        final String name;
+        final int index;
+
+        private Step(String name, int index) {
+            this.name = name;
+            this.index = index;
+        }
+
+        static Step parse(String token) {
+            final int open = token.indexOf('[');
+            if (open < 0) {
+                return token.length() == 0 ? null : new Step(token, NO_INDEX);
+            }
+            if (open == 0 || !token.endsWith("]")) {
+                return null;
+            }
+            final String index = token.substring(open + 1, token.length() - 1).trim();
+            if (ANY.equals(index)) {
+                return new Step(token.substring(0, open), ANY_INDEX);
+            }
+            try {
+                final int i = Integer.parseInt(index);
+                return i < 0 ? null : new Step(token.substring(0, open), i);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.nio.serialization;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The fields of a {@link CompactSerializable} class, in the order they are laid out in its values.
+ * <p/>
+ * Fixed size fields come first, largest first, so they can be read at a constant offset. They are followed by the
+ * table of the offsets of the variable size fields and the variable size fields themselves. A schema is identified
+ * by a 64-bit fingerprint of the class name and the names and types of its fields.
+ */
+public final class Schema implements DataSerializable {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final int INT_SIZE = 4;
+    private static final int LONG_SIZE = 8;
+    private static final int SHORT_SIZE = 2;
+
+    private static final Comparator<Field> LAYOUT_ORDER = new Comparator<Field>() {
+        @Override
+        public int compare(Field f1, Field f2) {
+            final int size1 = getSize(f1.type);
+            final int size2 = getSize(f2.type);
+            if (size1 != size2) {
+                return size1 > size2 ? -1 : 1;
+            }
+            return f1.name.compareTo(f2.name);
+        }
+    };
+
+    private String className;
+    private Field[] fields;
+    private long fingerprint;
+    private transient Map<String, Field> fieldsByName;
+    private transient int fixedSize;
+    private transient int variableCount;
+
+    public Schema() {
+    }
+
+    public Schema(String className, Collection<Field> fields) {
+        this.className = className;
+        this.fields = fields.toArray(new Field[fields.size()]);
+        init();
+    }
+
+    private void init() {
+        final Field[] layout = fields.clone();
+        Arrays.sort(layout, LAYOUT_ORDER);
+        fieldsByName = new HashMap<String, Field>(layout.length);
+        fixedSize = 0;
+        variableCount = 0;
+        long hash = hash(FNV_OFFSET_BASIS, className);
+        for (int i = 0; i < layout.length; i++) {
+            final Field field = new Field(layout[i].name, layout[i].type);
+            final int size = getSize(field.type);
+            if (size > 0) {
+                field.position = fixedSize;
+                fixedSize += size;
+            } else {
+                field.position = variableCount++;
+            }
+            layout[i] = field;
+            fieldsByName.put(field.name, field);
+            hash = hash(hash, field.name);
+            hash = (hash ^ field.type.getId()) * FNV_PRIME;
+        }
+        fields = layout;
+        fingerprint = hash;
+    }
+
+    private static long hash(long hash, String s) {
+        long h = hash;
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * FNV_PRIME;
+        }
+        return h;
+    }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * @return the fields in layout order.
+     */
+    public List<Field> getFields() {
+        final List<Field> list = new ArrayList<Field>(fields.length);
+        Collections.addAll(list, fields);
+        return list;
+    }
+
+    Field[] fields() {
+        return fields;
+    }
+
+    /**
+     * @return the field, or <tt>null</tt> if the schema has no field of that name.
+     */
+    public Field getField(String name) {
+        return fieldsByName.get(name);
+    }
+
+    /**
+     * @return the size of the fixed size fields.
+     */
+    int getFixedSize() {
+        return fixedSize;
+    }
+
+    /**
+     * @return the number of variable size fields, which all have an offset in the offset table.
+     */
+    int getVariableCount() {
+        return variableCount;
+    }
+
+    /**
+     * @return the size of a fixed size field type, 0 for variable size types.
+     */
+    static int getSize(FieldType type) {
+        switch (type) {
+            case BYTE:
+            case BOOLEAN:
+                return 1;
+            case CHAR:
+            case SHORT:
+                return SHORT_SIZE;
+            case INT:
+            case FLOAT:
+                return INT_SIZE;
+            case LONG:
+            case DOUBLE:
+                return LONG_SIZE;
+            default:
+                return 0;
+        }
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeUTF(className);
+        out.writeInt(fields.length);
+        for (Field field : fields) {
+            out.writeUTF(field.name);
+            out.writeByte(field.type.getId());
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        className = in.readUTF();
+        final int length = in.readInt();
+        fields = new Field[length];
+        for (int i = 0; i < length; i++) {
+            fields[i] = new Field(in.readUTF(), FieldType.get(in.readByte()));
+        }
+        init();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final Schema that = (Schema) o;
+        return fingerprint == that.fingerprint && className.equals(that.className);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (fingerprint ^ (fingerprint >>> Integer.SIZE));
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("Schema{");
+        sb.append("className='").append(className).append('\'');
+        sb.append(", fingerprint=").append(Long.toHexString(fingerprint));
+        sb.append(", fields=").append(Arrays.toString(fields));
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * A field of a schema. Nested compact serializable objects are {@link FieldType#PORTABLE} fields,
+     * arrays of them {@link FieldType#PORTABLE_ARRAY} fields.
+     */
+    public static final class Field {
+        private final String name;
+        private final FieldType type;
+        // the offset in the fixed size section, or the index in the offset table for variable size fields
+        private int position;
+
+        public Field(String name, FieldType type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public FieldType getType() {
+            return type;
+        }
+
+        int getPosition() {
+            return position;
+        }
+
+        boolean isFixedSize() {
+            return getSize(type) > 0;
+        }
+
+        @Override
+        public String toString() {
+            return name + ":" + type;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.nio.serialization;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The schemas of {@link CompactSerializable} classes known locally, by fingerprint.
+ * <p/>
+ * Schemas derived locally are published through the {@link SchemaReplicator}; schemas of values written elsewhere
+ * that are not known yet are fetched through it. Without a replicator schemas are only known locally.
+ */
+public final class SchemaRegistry {
+
+    private final ConcurrentMap<Long, Schema> schemas = new ConcurrentHashMap<Long, Schema>();
+
+    private volatile SchemaReplicator replicator;
+
+    public void setReplicator(SchemaReplicator replicator) {
+        this.replicator = replicator;
+    }
+
+    /**
+     * Registers a schema derived locally, publishing it first if it is new. Concurrent registrations of
+     * the same schema may publish it more than once.
+     */
+    public void register(Schema schema) {
+        if (!schemas.containsKey(schema.getFingerprint())) {
+            final SchemaReplicator r = replicator;
+            if (r != null) {
+                r.publish(schema);
+            }
+            schemas.putIfAbsent(schema.getFingerprint(), schema);
+        }
+    }
+
+    /**
+     * Registers a schema received from the cluster, without publishing it again.
+     */
+    public void registerReplicated(Schema schema) {
+        schemas.putIfAbsent(schema.getFingerprint(), schema);
+    }
+
+    /**
+     * @return the schema, fetched through the replicator if it is not known locally, or <tt>null</tt>
+     * if it is not known anywhere.
+     */
+    public Schema getSchema(long fingerprint) {
+        Schema schema = schemas.get(fingerprint);
+        if (schema == null) {
+            final SchemaReplicator r = replicator;
+            if (r != null) {
+                schema = r.fetch(fingerprint);
+                if (schema != null) {
+                    registerReplicated(schema);
+                }
+            }
+        }
+        return schema;
+    }
+
+    /**
+     * @return the schema if it is known locally, otherwise <tt>null</tt>.
+     */
+    public Schema getLocalSchema(long fingerprint) {
+        return schemas.get(fingerprint);
+    }
+
+    public Collection<Schema> getSchemas() {
+        return schemas.values();
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.nio.serialization;
+
+/**
+ * Replicates the schemas of {@link CompactSerializable} classes between the members of a cluster and its clients.
+ *
+ * @see SchemaRegistry#setReplicator(SchemaReplicator)
+ */
+public interface SchemaReplicator {
+
+    /**
+     * Makes a schema derived locally known to the cluster. Called once per schema, before the first value of the
+     * class is sent anywhere, so it should return only once the cluster knows the schema. Members cannot wait for
+     * that on an operation thread and publish asynchronously there.
+     */
+    void publish(Schema schema);
+
+    /**
+     * Looks up a schema that is not known locally. Must not block an operation thread, where it may give up
+     * and return <tt>null</tt> right away.
+     *
+     * @return the schema, or <tt>null</tt> if it is not known anywhere.
+     */
+    Schema fetch(long fingerprint);
+}
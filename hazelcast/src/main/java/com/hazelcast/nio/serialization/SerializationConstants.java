@@ -80,6 +80,13 @@ public final class SerializationConstants {
 
     public static final int DEFAULT_TYPE_ENUM = -25;
 
+    public static final int DEFAULT_TYPE_COMPACT = -26;
+
+    // ------------------------------------------------------------
+    // DATA WRAPPERS, NOT BACKED BY A SERIALIZER
+
+    public static final int WRAPPER_TYPE_COMPRESSED = -50;
+
     // ------------------------------------------------------------
     // AUTOMATICALLY REGISTERED SERIALIZERS
 
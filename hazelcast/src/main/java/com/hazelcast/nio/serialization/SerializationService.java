@@ -64,6 +64,12 @@ public interface SerializationService {
 
     PortableReader createPortableReader(Data data);
 
+    PortablePathReader createPortablePathReader(Data data);
+
+    CompactReader createCompactReader(Data data);
+
+    SchemaRegistry getSchemaRegistry();
+
     ClassLoader getClassLoader();
 
     ManagedContext getManagedContext();
@@ -33,7 +33,6 @@ import java.math.BigInteger;
 import java.nio.ByteOrder;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -56,10 +55,17 @@ public final class SerializationServiceImpl implements SerializationService {
     private final AtomicReference<SerializerAdapter> global = new AtomicReference<SerializerAdapter>();
 
     private final InputOutputFactory inputOutputFactory;
-    private final Queue<BufferObjectDataOutput> outputPool = new ConcurrentLinkedQueue<BufferObjectDataOutput>();
+    private final ThreadLocal<BufferPool> bufferPool = new ThreadLocal<BufferPool>() {
+        @Override
+        protected BufferPool initialValue() {
+            return new BufferPool(inputOutputFactory, outputBufferSize);
+        }
+    };
     private final PortableSerializer portableSerializer;
     private final SerializerAdapter dataSerializerAdapter;
     private final SerializerAdapter portableSerializerAdapter;
+    private final SerializerAdapter compactSerializerAdapter;
+    private final SchemaRegistry schemaRegistry = new SchemaRegistry();
     private final ClassLoader classLoader;
     private final ManagedContext managedContext;
     private final SerializationContextImpl serializationContext;
@@ -91,6 +97,7 @@ public final class SerializationServiceImpl implements SerializationService {
         dataSerializerAdapter = new StreamSerializerAdapter(this, new DataSerializer(dataSerializableFactories, classLoader));
         portableSerializer = new PortableSerializer(serializationContext, loader.getFactories());
         portableSerializerAdapter = new StreamSerializerAdapter(this, portableSerializer);
+        compactSerializerAdapter = new StreamSerializerAdapter(this, new CompactSerializer(schemaRegistry, classLoader));
 
         registerConstant(DataSerializable.class, dataSerializerAdapter);
         registerConstant(Portable.class, portableSerializerAdapter);
@@ -118,6 +125,7 @@ public final class SerializationServiceImpl implements SerializationService {
         safeRegister(Serializable.class, new ObjectSerializer(enableSharedObject, enableCompression));
         safeRegister(Class.class, new ClassSerializer());
         safeRegister(Enum.class, new EnumSerializer());
+        safeRegister(CompactSerializable.class, compactSerializerAdapter);
 
         registerClassDefinitions(classDefinitions, checkClassDefErrors);
     }
@@ -201,7 +209,7 @@ public final class SerializationServiceImpl implements SerializationService {
             return (T)object;
         }
 
-        Data data = (Data) object;
+        Data data = DataCompressor.decompress((Data) object);
 
         if (data.bufferSize() == 0 && data.isDataSerializable()) {
             return null;
@@ -299,17 +307,22 @@ public final class SerializationServiceImpl implements SerializationService {
     }
 
     BufferObjectDataOutput pop() {
-        BufferObjectDataOutput out = outputPool.poll();
-        if (out == null) {
-            out = inputOutputFactory.createOutput(outputBufferSize, this);
-        }
-        return out;
+        return bufferPool.get().takeOutput(this);
     }
 
     void push(BufferObjectDataOutput out) {
         if (out != null) {
-            out.clear();
-            outputPool.offer(out);
+            bufferPool.get().returnOutput(out);
+        }
+    }
+
+    BufferObjectDataInput popInput(Data data) {
+        return bufferPool.get().takeInput(data, this);
+    }
+
+    void pushInput(BufferObjectDataInput in) {
+        if (in != null) {
+            bufferPool.get().returnInput(in);
         }
     }
 
@@ -381,6 +394,8 @@ public final class SerializationServiceImpl implements SerializationService {
             return dataSerializerAdapter;
         } else if (Portable.class.isAssignableFrom(type)) {
             return portableSerializerAdapter;
+        } else if (CompactSerializable.class.isAssignableFrom(type)) {
+            return compactSerializerAdapter;
         } else {
             final SerializerAdapter serializer;
             if ((serializer = constantTypesMap.get(type)) != null) {
@@ -483,6 +498,18 @@ public final class SerializationServiceImpl implements SerializationService {
         return new DefaultPortableReader(portableSerializer, createObjectDataInput(data), data.getClassDefinition());
     }
 
+    public PortablePathReader createPortablePathReader(Data data) {
+        return new PortablePathReader(serializationContext, createObjectDataInput(data), data.getClassDefinition());
+    }
+
+    public CompactReader createCompactReader(Data data) {
+        return new CompactReader(schemaRegistry, createObjectDataInput(data));
+    }
+
+    public SchemaRegistry getSchemaRegistry() {
+        return schemaRegistry;
+    }
+
     public void destroy() {
         active = false;
         for (SerializerAdapter serializer : typeMap.values()) {
@@ -492,10 +519,7 @@ public final class SerializationServiceImpl implements SerializationService {
         idMap.clear();
         global.set(null);
         constantTypesMap.clear();
-        for (BufferObjectDataOutput output : outputPool) {
-            IOUtil.closeResource(output);
-        }
-        outputPool.clear();
+        bufferPool.remove();
     }
 
     public ClassLoader getClassLoader() {
@@ -54,11 +54,11 @@ final class StreamSerializerAdapter implements SerializerAdapter {
     }
 
     public Object read(Data data) throws IOException {
-        final BufferObjectDataInput in = service.createObjectDataInput(data);
+        final BufferObjectDataInput in = service.popInput(data);
         try {
             return serializer.read(in);
         } finally {
-            IOUtil.closeResource(in);
+            service.pushInput(in);
         }
     }
 
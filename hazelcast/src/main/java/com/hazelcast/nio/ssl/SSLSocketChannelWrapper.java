@@ -167,6 +167,25 @@ public class SSLSocketChannelWrapper extends DefaultSocketChannelWrapper {
         return writeInternal(input);
     }
 
+    /**
+     * Encrypts and writes the buffers one by one, since the socket channel can't gather them.
+     *
+     * @return number of plain bytes consumed from the buffers.
+     */
+    @Override
+    public long write(ByteBuffer[] inputs) throws IOException {
+        long consumed = 0;
+        for (ByteBuffer input : inputs) {
+            final int position = input.position();
+            write(input);
+            consumed += input.position() - position;
+            if (input.hasRemaining()) {
+                break;
+            }
+        }
+        return consumed;
+    }
+
     private int writeInternal(ByteBuffer input) throws IOException {
         sslEngineResult = sslEngine.wrap(input, netOutBuffer);
         netOutBuffer.flip();
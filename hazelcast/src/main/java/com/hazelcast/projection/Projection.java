@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.projection;
+
+import java.io.Serializable;
+
+/**
+ * Transforms a map entry into what a query returns for it, typically some of the attributes of its value.
+ * <p/>
+ * {@link com.hazelcast.core.IMap#project(Projection, com.hazelcast.query.Predicate)} sends the projection to the
+ * members, which transform their matching entries and return only the transformed values. The entries
+ * transformed on the members are {@link com.hazelcast.query.impl.QueryableEntry queryable entries}, so the
+ * attributes of the value can be read the way predicates read them. {@link Projections} provides the common
+ * projections.
+ *
+ * @param <I> the type of the transformed entries
+ * @param <O> the type of the transformed values
+ */
+public abstract class Projection<I, O> implements Serializable {
+
+    /**
+     * @param input the entry
+     * @return the transformed value of the entry.
+     */
+    public abstract O transform(I input);
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.projection;
+
+import com.hazelcast.projection.impl.MultiAttributeProjection;
+import com.hazelcast.projection.impl.SingleAttributeProjection;
+
+import java.util.Map;
+
+/**
+ * Creates the common {@link Projection projections}.
+ * <p/>
+ * The attribute paths are read like predicates read attributes, e.g. <tt>age</tt>, <tt>address.city</tt>,
+ * <tt>__key</tt> for the key or <tt>this</tt> for the value itself. A path reading the elements of an array, like
+ * <tt>items[any].sku</tt>, projects to the list of the values.
+ * <pre>
+ *   Collection&lt;Object[]&gt; namesAndAges = map.project(Projections.&lt;String, Employee&gt;multiAttribute("name", "age"),
+ *           Predicates.equal("active", true));
+ * </pre>
+ */
+public final class Projections {
+
+    private Projections() {
+    }
+
+    /**
+     * @return a projection to the value of the attribute.
+     */
+    public static <K, V, O> Projection<Map.Entry<K, V>, O> singleAttribute(String attributePath) {
+        return new SingleAttributeProjection<K, V, O>(attributePath);
+    }
+
+    /**
+     * @return a projection to the values of the attributes, in the order of the paths.
+     */
+    public static <K, V> Projection<Map.Entry<K, V>, Object[]> multiAttribute(String... attributePaths) {
+        return new MultiAttributeProjection<K, V>(attributePaths);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.projection.impl;
+
+import com.hazelcast.projection.Projection;
+
+import java.util.Map;
+
+/**
+ * Projects an entry to the values of several attributes.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public final class MultiAttributeProjection<K, V> extends Projection<Map.Entry<K, V>, Object[]> {
+
+    private final String[] attributePaths;
+
+    public MultiAttributeProjection(String... attributePaths) {
+        if (attributePaths == null || attributePaths.length == 0) {
+            throw new IllegalArgumentException("At least one attribute path should be given!");
+        }
+        for (String attributePath : attributePaths) {
+            if (attributePath == null) {
+                throw new NullPointerException("Attribute path should not be null!");
+            }
+        }
+        this.attributePaths = attributePaths.clone();
+    }
+
+    @Override
+    public Object[] transform(Map.Entry<K, V> input) {
+        final Object[] values = new Object[attributePaths.length];
+        for (int i = 0; i < attributePaths.length; i++) {
+            values[i] = SingleAttributeProjection.read(input, attributePaths[i]);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.projection.impl;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import com.hazelcast.projection.Projection;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the projected values of the entries, so projection queries run the way aggregations do and
+ * the members respond with the projected values only.
+ *
+ * @param <I> the type of the projected entries
+ * @param <O> the type of the projected values
+ */
+public final class ProjectionAggregator<I, O> extends Aggregator<I, List<O>> implements DataSerializable {
+
+    private Projection<I, O> projection;
+    private List<O> values = new ArrayList<O>();
+
+    public ProjectionAggregator() {
+    }
+
+    public ProjectionAggregator(Projection<I, O> projection) {
+        this.projection = projection;
+    }
+
+    @Override
+    public void accumulate(I input) {
+        values.add(projection.transform(input));
+    }
+
+    @Override
+    public void combine(Aggregator aggregator) {
+        values.addAll(((ProjectionAggregator<I, O>) aggregator).values);
+    }
+
+    @Override
+    public List<O> aggregate() {
+        return values;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeObject(projection);
+        out.writeInt(values.size());
+        for (O value : values) {
+            out.writeObject(value);
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        projection = in.readObject();
+        final int size = in.readInt();
+        values = new ArrayList<O>(size);
+        for (int i = 0; i < size; i++) {
+            values.add((O) in.readObject());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.projection.impl;
+
+import com.hazelcast.projection.Projection;
+import com.hazelcast.query.impl.EntryAttributeReader;
+import com.hazelcast.query.impl.MultiResult;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * Projects an entry to the value of one attribute.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @param <O> the type of the attribute
+ */
+public final class SingleAttributeProjection<K, V, O> extends Projection<Map.Entry<K, V>, O> {
+
+    private final String attributePath;
+
+    public SingleAttributeProjection(String attributePath) {
+        if (attributePath == null) {
+            throw new NullPointerException("Attribute path should not be null!");
+        }
+        this.attributePath = attributePath;
+    }
+
+    @Override
+    public O transform(Map.Entry<K, V> input) {
+        return (O) read(input, attributePath);
+    }
+
+    static Object read(Map.Entry entry, String attributePath) {
+        final Object value = EntryAttributeReader.read(entry, attributePath);
+        if (value instanceof MultiResult) {
+            return new ArrayList<Comparable>(((MultiResult) value).getValues());
+        }
+        return value;
+    }
+}
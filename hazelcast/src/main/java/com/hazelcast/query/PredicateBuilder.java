@@ -28,7 +28,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-public class PredicateBuilder implements IndexAwarePredicate, DataSerializable {
+public class PredicateBuilder implements SelectivityAwarePredicate, DataSerializable {
     public String attribute;
     List<Predicate> lsPredicates = new ArrayList<Predicate>();
 
@@ -85,6 +85,15 @@ public class PredicateBuilder implements IndexAwarePredicate, DataSerializable {
         return false;
     }
 
+    @Override
+    public long estimateResultSize(QueryContext queryContext) {
+        Predicate p = lsPredicates.get(0);
+        if (p instanceof SelectivityAwarePredicate) {
+            return ((SelectivityAwarePredicate) p).estimateResultSize(queryContext);
+        }
+        return -1;
+    }
+
     @Override
     public void writeData(ObjectDataOutput out) throws IOException {
         out.writeUTF(attribute);
@@ -18,19 +18,29 @@ package com.hazelcast.query;
 
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.nio.serialization.DataSerializable;
 import com.hazelcast.nio.serialization.HazelcastSerializationException;
 import com.hazelcast.query.impl.AndResultSet;
 import com.hazelcast.query.impl.AttributeType;
+import com.hazelcast.query.impl.BitmapResultSet;
 import com.hazelcast.query.impl.ComparisonType;
+import com.hazelcast.query.impl.CompositeValue;
 import com.hazelcast.query.impl.Index;
 import com.hazelcast.query.impl.IndexImpl;
+import com.hazelcast.query.impl.IndexStatistics;
+import com.hazelcast.query.impl.MultiResult;
 import com.hazelcast.query.impl.OrResultSet;
 import com.hazelcast.query.impl.QueryContext;
+import com.hazelcast.query.impl.QueryEntry;
 import com.hazelcast.query.impl.QueryException;
 import com.hazelcast.query.impl.QueryableEntry;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -132,7 +142,18 @@ public final class Predicates {
 
         @Override
         public boolean apply(Map.Entry entry) {
-            Comparable entryValue = readAttribute(entry);
+            final int fromResult = comparePrimitive(entry, from);
+            if (fromResult != QueryEntry.NOT_COMPARABLE) {
+                final int toResult = comparePrimitive(entry, to);
+                if (toResult != QueryEntry.NOT_COMPARABLE) {
+                    return fromResult >= 0 && toResult <= 0;
+                }
+            }
+            return applyForAttribute(entry, readAttribute(entry));
+        }
+
+        @Override
+        protected boolean applyForValue(Map.Entry entry, Comparable entryValue) {
             if (entryValue == null) {
                 return false;
             }
@@ -150,6 +171,12 @@ public final class Predicates {
             return index.getSubRecordsBetween(from, to);
         }
 
+        @Override
+        public long estimateResultSize(QueryContext queryContext) {
+            IndexStatistics statistics = getStatistics(queryContext);
+            return statistics == null || from == null || to == null ? -1 : statistics.estimateBetween(from, to);
+        }
+
         @Override
         public void writeData(ObjectDataOutput out) throws IOException {
             super.writeData(out);
@@ -215,7 +242,11 @@ public final class Predicates {
 
         @Override
         public boolean apply(Map.Entry entry) {
-            Comparable entryValue = readAttribute(entry);
+            return applyForAttribute(entry, readAttribute(entry));
+        }
+
+        @Override
+        protected boolean applyForValue(Map.Entry entry, Comparable entryValue) {
             Set<Comparable> set = convertedInValues;
             if (set == null) {
                 set = new HashSet<Comparable>(values.length);
@@ -237,6 +268,22 @@ public final class Predicates {
             }
         }
 
+        @Override
+        public long estimateResultSize(QueryContext queryContext) {
+            IndexStatistics statistics = getStatistics(queryContext);
+            if (statistics == null) {
+                return -1;
+            }
+            long estimate = 0;
+            for (Comparable value : values) {
+                if (value == null) {
+                    return -1;
+                }
+                estimate += statistics.estimateEqual(value);
+            }
+            return estimate;
+        }
+
         @Override
         public void writeData(ObjectDataOutput out) throws IOException {
             super.writeData(out);
@@ -288,6 +335,18 @@ public final class Predicates {
         @Override
         public boolean apply(Map.Entry entry) {
             Comparable attribute = readAttribute(entry, this.attribute);
+            if (attribute instanceof MultiResult) {
+                for (Comparable value : ((MultiResult) attribute).getValues()) {
+                    if (matches(value)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            return matches(attribute);
+        }
+
+        private boolean matches(Comparable attribute) {
             String firstVal = attribute == IndexImpl.NULL ? null : (String) attribute;
             if (firstVal == null) {
                 return (regex == null);
@@ -336,6 +395,18 @@ public final class Predicates {
         @Override
         public boolean apply(Map.Entry entry) {
             Comparable attribute = readAttribute(entry, this.attribute);
+            if (attribute instanceof MultiResult) {
+                for (Comparable value : ((MultiResult) attribute).getValues()) {
+                    if (matches(value)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            return matches(attribute);
+        }
+
+        private boolean matches(Comparable attribute) {
             String firstVal = attribute == IndexImpl.NULL ? null : (String) attribute;
             if (firstVal == null) {
                 return (second == null);
@@ -416,7 +487,12 @@ public final class Predicates {
         }
     }
 
-    public static class AndPredicate implements IndexAwarePredicate, DataSerializable {
+    /**
+     * An and predicate, evaluated by looking up the index of its most selective predicate and checking the other
+     * predicates on the entries found. The selectivity of a predicate is estimated from the statistics of its index,
+     * see {@link SelectivityAwarePredicate}. Results of bitmap indexes are intersected instead.
+     */
+    public static class AndPredicate implements SelectivityAwarePredicate, DataSerializable {
 
         protected Predicate[] predicates;
 
@@ -429,42 +505,83 @@ public final class Predicates {
 
         @Override
         public Set<QueryableEntry> filter(QueryContext queryContext) {
-            Set<QueryableEntry> smallestIndexedResult = null;
-            List<Set<QueryableEntry>> otherIndexedResults = new LinkedList<Set<QueryableEntry>>();
-            List<Predicate> lsNoIndexPredicates = null;
-            for (Predicate predicate : predicates) {
-                boolean indexed = false;
-                if (predicate instanceof IndexAwarePredicate) {
-                    IndexAwarePredicate iap = (IndexAwarePredicate) predicate;
-                    if (iap.isIndexed(queryContext)) {
-                        indexed = true;
-                        Set<QueryableEntry> s = iap.filter(queryContext);
-                        if (smallestIndexedResult == null) {
-                            smallestIndexedResult = s;
-                        } else if (s.size() < smallestIndexedResult.size()) {
-                            otherIndexedResults.add(smallestIndexedResult);
-                            smallestIndexedResult = s;
-                        } else {
-                            otherIndexedResults.add(s);
-                        }
-                    } else {
-                        if (lsNoIndexPredicates == null) {
-                            lsNoIndexPredicates = new LinkedList<Predicate>();
-                            lsNoIndexPredicates.add(predicate);
-                        }
-                    }
+            List<Predicate> flattenedPredicates = flatten();
+            List<IndexLookup> lookups = new ArrayList<IndexLookup>(flattenedPredicates.size());
+            List<Predicate> lsNoIndexPredicates = new LinkedList<Predicate>();
+            CompositeIndexMatch compositeIndexMatch = CompositeIndexMatch.find(queryContext, flattenedPredicates);
+            if (compositeIndexMatch != null) {
+                flattenedPredicates.removeAll(compositeIndexMatch.coveredPredicates);
+                flattenedPredicates.remove(compositeIndexMatch.rangePredicate);
+                lookups.add(new IndexLookup(compositeIndexMatch, compositeIndexMatch.estimateResultSize(queryContext)));
+            }
+            for (Predicate predicate : flattenedPredicates) {
+                IndexLookup lookup = null;
+                if (predicate instanceof IndexAwarePredicate && ((IndexAwarePredicate) predicate).isIndexed(queryContext)) {
+                    lookup = IndexLookup.plan((IndexAwarePredicate) predicate, queryContext);
                 }
-                if (!indexed) {
-                    if (lsNoIndexPredicates == null) {
-                        lsNoIndexPredicates = new LinkedList<Predicate>();
-                    }
+                if (lookup != null) {
+                    lookups.add(lookup);
+                } else {
                     lsNoIndexPredicates.add(predicate);
                 }
             }
+            if (lookups.isEmpty()) {
+                return null;
+            }
+            Collections.sort(lookups, IndexLookup.BY_ESTIMATE);
+            IndexLookup driving = lookups.get(0);
+            Set<QueryableEntry> smallestIndexedResult = driving.lookup(queryContext);
             if (smallestIndexedResult == null) {
                 return null;
             }
-            return new AndResultSet(smallestIndexedResult, otherIndexedResults, lsNoIndexPredicates);
+            explain(queryContext, "index lookup: ", driving.predicate, driving.estimate);
+            List<Predicate> filterPredicates = new LinkedList<Predicate>();
+            if (driving.predicate == compositeIndexMatch && compositeIndexMatch.rangePredicate != null) {
+                // the range of the index lookup is inclusive, so the range predicate is checked on its result
+                filterPredicates.add(compositeIndexMatch.rangePredicate);
+            }
+            List<Set<QueryableEntry>> otherIndexedResults = new LinkedList<Set<QueryableEntry>>();
+            for (IndexLookup lookup : lookups.subList(1, lookups.size())) {
+                // only bitmaps are cheaper to combine than checking the predicate on the entries found
+                Set<QueryableEntry> result = smallestIndexedResult instanceof BitmapResultSet
+                        && lookup.isBitmap(queryContext) ? lookup.lookup(queryContext) : null;
+                if (result instanceof BitmapResultSet
+                        && ((BitmapResultSet) smallestIndexedResult).isCompatible((BitmapResultSet) result)) {
+                    otherIndexedResults.add(result);
+                    explain(queryContext, "bitmap intersection: ", lookup.predicate, lookup.estimate);
+                } else {
+                    filterPredicates.add(lookup.predicate);
+                    explain(queryContext, "filter: ", lookup.predicate, lookup.estimate);
+                }
+            }
+            for (Predicate predicate : lsNoIndexPredicates) {
+                filterPredicates.add(predicate);
+                explain(queryContext, "filter: ", predicate, -1);
+            }
+            return new AndResultSet(smallestIndexedResult, otherIndexedResults,
+                    filterPredicates.isEmpty() ? null : filterPredicates);
+        }
+
+        private static void explain(QueryContext queryContext, String step, Predicate predicate, long estimate) {
+            if (queryContext.isExplaining()) {
+                queryContext.addPlanStep(step + predicate
+                        + (estimate < 0 ? " (not indexed)" : " (estimated " + estimate + " entries)"));
+            }
+        }
+
+        @Override
+        public long estimateResultSize(QueryContext queryContext) {
+            long estimate = -1;
+            for (Predicate predicate : predicates) {
+                if (predicate instanceof SelectivityAwarePredicate
+                        && ((SelectivityAwarePredicate) predicate).isIndexed(queryContext)) {
+                    long predicateEstimate = ((SelectivityAwarePredicate) predicate).estimateResultSize(queryContext);
+                    if (predicateEstimate >= 0 && (estimate < 0 || predicateEstimate < estimate)) {
+                        estimate = predicateEstimate;
+                    }
+                }
+            }
+            return estimate;
         }
 
         @Override
@@ -477,7 +594,22 @@ public final class Predicates {
                     }
                 }
             }
-            return false;
+            return CompositeIndexMatch.find(queryContext, flatten()) != null;
+        }
+
+        /**
+         * @return the predicates of this and the nested and predicates.
+         */
+        private List<Predicate> flatten() {
+            List<Predicate> flattenedPredicates = new LinkedList<Predicate>();
+            for (Predicate predicate : predicates) {
+                if (predicate instanceof AndPredicate) {
+                    flattenedPredicates.addAll(((AndPredicate) predicate).flatten());
+                } else {
+                    flattenedPredicates.add(predicate);
+                }
+            }
+            return flattenedPredicates;
         }
 
         @Override
@@ -523,7 +655,233 @@ public final class Predicates {
         }
     }
 
-    public static class OrPredicate implements IndexAwarePredicate, DataSerializable {
+    /**
+     * An indexed predicate of an and predicate, with the estimated size of its index lookup.
+     */
+    private static final class IndexLookup {
+
+        static final Comparator<IndexLookup> BY_ESTIMATE = new Comparator<IndexLookup>() {
+            @Override
+            public int compare(IndexLookup lookup1, IndexLookup lookup2) {
+                return lookup1.estimate < lookup2.estimate ? -1 : (lookup1.estimate == lookup2.estimate ? 0 : 1);
+            }
+        };
+
+        private final IndexAwarePredicate predicate;
+        private final long estimate;
+        private Set<QueryableEntry> result;
+
+        private IndexLookup(IndexAwarePredicate predicate, long estimate) {
+            this.predicate = predicate;
+            this.estimate = estimate;
+        }
+
+        /**
+         * @return the lookup of the predicate, or <tt>null</tt> if its index cannot answer it.
+         */
+        static IndexLookup plan(IndexAwarePredicate predicate, QueryContext queryContext) {
+            if (predicate instanceof SelectivityAwarePredicate) {
+                long estimate = ((SelectivityAwarePredicate) predicate).estimateResultSize(queryContext);
+                if (estimate >= 0) {
+                    return new IndexLookup(predicate, estimate);
+                }
+            }
+            // without an estimate the index is looked up to find the size of its result
+            Set<QueryableEntry> result = predicate.filter(queryContext);
+            if (result == null) {
+                return null;
+            }
+            IndexLookup lookup = new IndexLookup(predicate, result.size());
+            lookup.result = result;
+            return lookup;
+        }
+
+        /**
+         * @return if the lookup returns a bitmap result, known without looking up the index.
+         */
+        boolean isBitmap(QueryContext queryContext) {
+            if (result != null) {
+                return result instanceof BitmapResultSet;
+            }
+            Index index = null;
+            if (predicate instanceof CompositeIndexMatch) {
+                index = ((CompositeIndexMatch) predicate).index;
+            } else if (predicate instanceof AbstractPredicate) {
+                index = ((AbstractPredicate) predicate).getIndex(queryContext);
+            }
+            return index != null && index.isBitmap();
+        }
+
+        Set<QueryableEntry> lookup(QueryContext queryContext) {
+            if (result == null) {
+                result = predicate.filter(queryContext);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The composite index answering the most predicates of an and predicate: equalities on the leading attributes
+     * of the index, and a greater/less predicate on the next attribute if the index is ordered.
+     * <p/>
+     * The match acts as a predicate of its own: looking up the index, or checking the covered predicates.
+     */
+    private static final class CompositeIndexMatch implements SelectivityAwarePredicate {
+
+        private final Index index;
+        private final Comparable[] values;
+        private final List<Predicate> coveredPredicates;
+        private final GreaterLessPredicate rangePredicate;
+
+        private CompositeIndexMatch(Index index, Comparable[] values, List<Predicate> coveredPredicates,
+                                    GreaterLessPredicate rangePredicate) {
+            this.index = index;
+            this.values = values;
+            this.coveredPredicates = coveredPredicates;
+            this.rangePredicate = rangePredicate;
+        }
+
+        /**
+         * @return the best match, or <tt>null</tt> if no composite index covers at least two of the predicates.
+         */
+        static CompositeIndexMatch find(QueryContext queryContext, List<Predicate> predicates) {
+            List<Index> compositeIndexes = queryContext.getCompositeIndexes();
+            if (compositeIndexes.isEmpty()) {
+                return null;
+            }
+            Map<String, EqualPredicate> equalPredicates = new HashMap<String, EqualPredicate>();
+            Map<String, GreaterLessPredicate> rangePredicates = new HashMap<String, GreaterLessPredicate>();
+            for (Predicate predicate : predicates) {
+                if (predicate.getClass() == EqualPredicate.class) {
+                    EqualPredicate equalPredicate = (EqualPredicate) predicate;
+                    if (equalPredicate.value != null && !equalPredicates.containsKey(equalPredicate.attribute)) {
+                        equalPredicates.put(equalPredicate.attribute, equalPredicate);
+                    }
+                } else if (predicate instanceof GreaterLessPredicate) {
+                    GreaterLessPredicate rangePredicate = (GreaterLessPredicate) predicate;
+                    if (rangePredicate.value != null && !rangePredicates.containsKey(rangePredicate.attribute)) {
+                        rangePredicates.put(rangePredicate.attribute, rangePredicate);
+                    }
+                }
+            }
+            if (equalPredicates.isEmpty()) {
+                return null;
+            }
+            CompositeIndexMatch bestMatch = null;
+            for (Index index : compositeIndexes) {
+                CompositeIndexMatch match = match(index, equalPredicates, rangePredicates);
+                if (match != null && (bestMatch == null || match.isBetterThan(bestMatch))) {
+                    bestMatch = match;
+                }
+            }
+            return bestMatch;
+        }
+
+        private static CompositeIndexMatch match(Index index, Map<String, EqualPredicate> equalPredicates,
+                                                 Map<String, GreaterLessPredicate> rangePredicates) {
+            String[] components = index.getComponents();
+            List<Predicate> coveredPredicates = new LinkedList<Predicate>();
+            Comparable[] values = new Comparable[components.length];
+            int prefixLength = 0;
+            while (prefixLength < components.length) {
+                EqualPredicate equalPredicate = equalPredicates.get(components[prefixLength]);
+                if (equalPredicate == null) {
+                    break;
+                }
+                coveredPredicates.add(equalPredicate);
+                values[prefixLength++] = equalPredicate.value;
+            }
+            if (prefixLength == components.length) {
+                return new CompositeIndexMatch(index, values, coveredPredicates, null);
+            }
+            if (prefixLength == 0 || !index.isOrdered()) {
+                return null;
+            }
+            GreaterLessPredicate rangePredicate = rangePredicates.get(components[prefixLength]);
+            if (rangePredicate == null && prefixLength < 2) {
+                return null;
+            }
+            return new CompositeIndexMatch(index, values, coveredPredicates, rangePredicate);
+        }
+
+        private int getCoveredCount() {
+            return coveredPredicates.size() + (rangePredicate != null ? 1 : 0);
+        }
+
+        private boolean isExact() {
+            return coveredPredicates.size() == values.length;
+        }
+
+        private boolean isBetterThan(CompositeIndexMatch other) {
+            int coveredCount = getCoveredCount();
+            int otherCoveredCount = other.getCoveredCount();
+            if (coveredCount != otherCoveredCount) {
+                return coveredCount > otherCoveredCount;
+            }
+            return isExact() && !other.isExact();
+        }
+
+        @Override
+        public Set<QueryableEntry> filter(QueryContext queryContext) {
+            if (isExact()) {
+                return index.getRecords(new CompositeValue(values));
+            }
+            return index.getSubRecordsBetween(new CompositeValue(bound(true)), new CompositeValue(bound(false)));
+        }
+
+        @Override
+        public long estimateResultSize(QueryContext queryContext) {
+            if (isExact()) {
+                return index.getStatistics().estimateEqual(new CompositeValue(values));
+            }
+            return index.getStatistics().estimateBetween(new CompositeValue(bound(true)), new CompositeValue(bound(false)));
+        }
+
+        private Comparable[] bound(boolean lower) {
+            int prefixLength = coveredPredicates.size();
+            Comparable[] bound = new Comparable[values.length];
+            System.arraycopy(values, 0, bound, 0, prefixLength);
+            for (int i = prefixLength; i < values.length; i++) {
+                bound[i] = lower ? CompositeValue.NEGATIVE_INFINITY : CompositeValue.POSITIVE_INFINITY;
+            }
+            if (rangePredicate != null && rangePredicate.less != lower) {
+                bound[prefixLength] = rangePredicate.value;
+            }
+            return bound;
+        }
+
+        @Override
+        public boolean isIndexed(QueryContext queryContext) {
+            return true;
+        }
+
+        @Override
+        public boolean apply(Map.Entry mapEntry) {
+            for (Predicate predicate : coveredPredicates) {
+                if (!predicate.apply(mapEntry)) {
+                    return false;
+                }
+            }
+            return rangePredicate == null || rangePredicate.apply(mapEntry);
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder("(");
+            for (Predicate predicate : coveredPredicates) {
+                if (sb.length() > 1) {
+                    sb.append(" AND ");
+                }
+                sb.append(predicate);
+            }
+            if (rangePredicate != null) {
+                sb.append(" AND ").append(rangePredicate);
+            }
+            return sb.append(") ON ").append(index.getAttributeName()).toString();
+        }
+    }
+
+    public static class OrPredicate implements SelectivityAwarePredicate, DataSerializable {
 
         private Predicate[] predicates;
 
@@ -568,6 +926,22 @@ public final class Predicates {
             return true;
         }
 
+        @Override
+        public long estimateResultSize(QueryContext queryContext) {
+            long estimate = 0;
+            for (Predicate predicate : predicates) {
+                if (!(predicate instanceof SelectivityAwarePredicate)) {
+                    return -1;
+                }
+                long predicateEstimate = ((SelectivityAwarePredicate) predicate).estimateResultSize(queryContext);
+                if (predicateEstimate < 0) {
+                    return -1;
+                }
+                estimate += predicateEstimate;
+            }
+            return estimate;
+        }
+
         @Override
         public boolean apply(Map.Entry mapEntry) {
             for (Predicate predicate : predicates) {
@@ -627,22 +1001,44 @@ public final class Predicates {
 
         @Override
         public boolean apply(Map.Entry mapEntry) {
-            final Comparable entryValue = readAttribute(mapEntry);
+            final int result = comparePrimitive(mapEntry, value);
+            if (result == QueryEntry.NOT_COMPARABLE) {
+                return applyForAttribute(mapEntry, readAttribute(mapEntry));
+            }
+            return matches(result);
+        }
+
+        @Override
+        protected boolean applyForValue(Map.Entry mapEntry, Comparable entryValue) {
+            if (entryValue == null) {
+                return false;
+            }
             final Comparable attributeValue = convert(mapEntry, entryValue, value);
-            final int result = entryValue.compareTo(attributeValue);
+            return matches(entryValue.compareTo(attributeValue));
+        }
+
+        private boolean matches(int result) {
             return equal && result == 0 || (less ? (result < 0) : (result > 0));
         }
 
         @Override
         public Set<QueryableEntry> filter(QueryContext queryContext) {
             Index index = getIndex(queryContext);
-            final ComparisonType comparisonType;
+            return index.getSubRecords(getComparisonType(), value);
+        }
+
+        @Override
+        public long estimateResultSize(QueryContext queryContext) {
+            IndexStatistics statistics = getStatistics(queryContext);
+            return statistics == null || value == null ? -1 : statistics.estimateComparison(getComparisonType(), value);
+        }
+
+        private ComparisonType getComparisonType() {
             if (less) {
-                comparisonType = equal ? ComparisonType.LESSER_EQUAL : ComparisonType.LESSER;
+                return equal ? ComparisonType.LESSER_EQUAL : ComparisonType.LESSER;
             } else {
-                comparisonType = equal ? ComparisonType.GREATER_EQUAL : ComparisonType.GREATER;
+                return equal ? ComparisonType.GREATER_EQUAL : ComparisonType.GREATER;
             }
-            return index.getSubRecords(comparisonType, value);
         }
 
         @Override
@@ -695,6 +1091,12 @@ public final class Predicates {
             }
         }
 
+        @Override
+        public long estimateResultSize(QueryContext queryContext) {
+            IndexStatistics statistics = getStatistics(queryContext);
+            return statistics == null || value == null ? -1 : statistics.estimateComparison(ComparisonType.NOT_EQUAL, value);
+        }
+
         @Override
         public String toString() {
             return attribute + " != " + value;
@@ -718,9 +1120,23 @@ public final class Predicates {
             return index.getRecords(value);
         }
 
+        @Override
+        public long estimateResultSize(QueryContext queryContext) {
+            IndexStatistics statistics = getStatistics(queryContext);
+            return statistics == null || value == null ? -1 : statistics.estimateEqual(value);
+        }
+
         @Override
         public boolean apply(Map.Entry mapEntry) {
-            Comparable entryValue = readAttribute(mapEntry);
+            final int result = comparePrimitive(mapEntry, value);
+            if (result != QueryEntry.NOT_COMPARABLE) {
+                return result == 0;
+            }
+            return applyForAttribute(mapEntry, readAttribute(mapEntry));
+        }
+
+        @Override
+        protected boolean applyForValue(Map.Entry mapEntry, Comparable entryValue) {
             if (entryValue == null) {
                 return value == null || value == IndexImpl.NULL;
             }
@@ -746,7 +1162,7 @@ public final class Predicates {
         }
     }
 
-    public abstract static class AbstractPredicate implements IndexAwarePredicate, DataSerializable {
+    public abstract static class AbstractPredicate implements SelectivityAwarePredicate, DataSerializable {
 
         protected String attribute;
         private transient volatile AttributeType attributeType;
@@ -795,6 +1211,65 @@ public final class Predicates {
             return queryContext.getIndex(attribute);
         }
 
+        @Override
+        public long estimateResultSize(QueryContext queryContext) {
+            return -1;
+        }
+
+        /**
+         * @return the statistics of the index of the attribute, or <tt>null</tt> if the attribute is not indexed.
+         */
+        protected IndexStatistics getStatistics(QueryContext queryContext) {
+            Index index = getIndex(queryContext);
+            return index == null ? null : index.getStatistics();
+        }
+
+        /**
+         * Applies the predicate to the attribute of the entry, or to each of its values if it is multi-valued.
+         *
+         * @return if the predicate matches the attribute, or any of its values.
+         */
+        protected boolean applyForAttribute(Map.Entry entry, Comparable entryValue) {
+            if (entryValue instanceof MultiResult) {
+                for (Comparable value : ((MultiResult) entryValue).getValues()) {
+                    if (applyForValue(entry, value)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            return applyForValue(entry, entryValue);
+        }
+
+        /**
+         * Applies the predicate to a single value of the attribute of the entry.
+         * <p/>
+         * By default {@link #apply(Map.Entry)} is applied to a view of the entry whose attribute reads as the value,
+         * so a subclass may pass just multi-valued attributes to {@link #applyForAttribute(Map.Entry, Comparable)}.
+         * A subclass passing single values there as well has to override this method, the view does not match then.
+         */
+        protected boolean applyForValue(Map.Entry entry, Comparable entryValue) {
+            if (entry instanceof SingleValueEntry) {
+                return false;
+            }
+            return apply(new SingleValueEntry((QueryableEntry) entry, attribute, entryValue));
+        }
+
+        /**
+         * Compares a primitive numeric attribute of the entry with the value without reading it as a
+         * {@link Comparable}, which the entry supports if the attribute is read by generated code.
+         *
+         * @return the result of the comparison, or {@link QueryEntry#NOT_COMPARABLE} if the attribute has to be
+         * read with {@link #readAttribute(Map.Entry)}.
+         */
+        protected int comparePrimitive(Map.Entry entry, Comparable value) {
+            // subclasses may read attributes their own way
+            if (entry != null && entry.getClass() == QueryEntry.class && value instanceof Number) {
+                return ((QueryEntry) entry).compareAttribute(attribute, (Number) value);
+            }
+            return QueryEntry.NOT_COMPARABLE;
+        }
+
         protected Comparable readAttribute(Map.Entry entry) {
             QueryableEntry queryableEntry = (QueryableEntry) entry;
             Comparable val = queryableEntry.getAttribute(attribute);
@@ -815,6 +1290,62 @@ public final class Predicates {
         }
     }
 
+    /**
+     * An entry whose attribute reads as one of the values of the multi-valued attribute of the entry it wraps.
+     */
+    private static final class SingleValueEntry implements QueryableEntry {
+
+        private final QueryableEntry entry;
+        private final String attribute;
+        private final Comparable value;
+
+        private SingleValueEntry(QueryableEntry entry, String attribute, Comparable value) {
+            this.entry = entry;
+            this.attribute = attribute;
+            this.value = value;
+        }
+
+        @Override
+        public Comparable getAttribute(String attributeName) throws QueryException {
+            return attribute.equals(attributeName) ? value : entry.getAttribute(attributeName);
+        }
+
+        @Override
+        public AttributeType getAttributeType(String attributeName) {
+            return entry.getAttributeType(attributeName);
+        }
+
+        @Override
+        public Object getKey() {
+            return entry.getKey();
+        }
+
+        @Override
+        public Object getValue() {
+            return entry.getValue();
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            return entry.setValue(value);
+        }
+
+        @Override
+        public Data getKeyData() {
+            return entry.getKeyData();
+        }
+
+        @Override
+        public Data getValueData() {
+            return entry.getValueData();
+        }
+
+        @Override
+        public Data getIndexKey() {
+            return entry.getIndexKey();
+        }
+    }
+
     private static class InstanceOfPredicate implements Predicate, DataSerializable {
         private Class klass;
 
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query;
+
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * How a member ran a query, as returned by {@link com.hazelcast.core.IMap#explain(Predicate)}.
+ * <p/>
+ * If the indexes of the member answered the query, the plan lists the index lookups and the predicates
+ * checked on the entries found, with the estimated number of entries each of them matches. Otherwise the
+ * member scanned its partitions, and the plan has the time spent on each partition.
+ */
+public class QueryPlan implements DataSerializable {
+
+    private Address member;
+    private String predicate;
+    private boolean indexed;
+    private List<String> steps;
+    private int resultSize;
+    private long durationNanos;
+    private Map<Integer, Long> partitionDurationsNanos;
+
+    public QueryPlan() {
+    }
+
+    public QueryPlan(Address member, Predicate predicate, boolean indexed, List<String> steps, int resultSize,
+                     long durationNanos, Map<Integer, Long> partitionDurationsNanos) {
+        this.member = member;
+        this.predicate = String.valueOf(predicate);
+        this.indexed = indexed;
+        this.steps = steps;
+        this.resultSize = resultSize;
+        this.durationNanos = durationNanos;
+        this.partitionDurationsNanos = partitionDurationsNanos;
+    }
+
+    /**
+     * @return the member that ran the query.
+     */
+    public Address getMember() {
+        return member;
+    }
+
+    public String getPredicate() {
+        return predicate;
+    }
+
+    /**
+     * @return <tt>true</tt> if the indexes of the member answered the query, <tt>false</tt> if it scanned its partitions.
+     */
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    /**
+     * @return the steps of the plan, in the order they were chosen.
+     */
+    public List<String> getSteps() {
+        return Collections.unmodifiableList(steps);
+    }
+
+    /**
+     * @return the number of entries the member found.
+     */
+    public int getResultSize() {
+        return resultSize;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return the time spent on each partition by partition id, empty if the indexes answered the query.
+     */
+    public Map<Integer, Long> getPartitionDurationsNanos() {
+        return Collections.unmodifiableMap(partitionDurationsNanos);
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        member.writeData(out);
+        out.writeUTF(predicate);
+        out.writeBoolean(indexed);
+        out.writeInt(steps.size());
+        for (String step : steps) {
+            out.writeUTF(step);
+        }
+        out.writeInt(resultSize);
+        out.writeLong(durationNanos);
+        out.writeInt(partitionDurationsNanos.size());
+        for (Map.Entry<Integer, Long> entry : partitionDurationsNanos.entrySet()) {
+            out.writeInt(entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        member = new Address();
+        member.readData(in);
+        predicate = in.readUTF();
+        indexed = in.readBoolean();
+        int stepCount = in.readInt();
+        steps = new ArrayList<String>(stepCount);
+        for (int i = 0; i < stepCount; i++) {
+            steps.add(in.readUTF());
+        }
+        resultSize = in.readInt();
+        durationNanos = in.readLong();
+        int partitionCount = in.readInt();
+        partitionDurationsNanos = new TreeMap<Integer, Long>();
+        for (int i = 0; i < partitionCount; i++) {
+            partitionDurationsNanos.put(in.readInt(), in.readLong());
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("QueryPlan{");
+        sb.append("member=").append(member);
+        sb.append(", predicate=").append(predicate);
+        sb.append(", indexed=").append(indexed);
+        sb.append(", steps=").append(steps);
+        sb.append(", resultSize=").append(resultSize);
+        sb.append(", durationNanos=").append(durationNanos);
+        sb.append(", partitions=").append(partitionDurationsNanos.size());
+        sb.append('}');
+        return sb.toString();
+    }
+}
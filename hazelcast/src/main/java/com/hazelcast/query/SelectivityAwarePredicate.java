@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query;
+
+import com.hazelcast.query.impl.QueryContext;
+
+/**
+ * An {@link IndexAwarePredicate} that can estimate how many entries it matches from the statistics of the
+ * indexes, without looking the entries up. The query planner of {@link Predicates.AndPredicate} uses the
+ * estimates to look up the most selective index only, and to check the other predicates on the entries found.
+ */
+public interface SelectivityAwarePredicate extends IndexAwarePredicate {
+
+    /**
+     * @return the estimated number of entries matching the predicate, or <tt>-1</tt> if it cannot be estimated.
+     */
+    long estimateResultSize(QueryContext queryContext);
+}
@@ -76,6 +76,14 @@ public class SqlPredicate extends AbstractPredicate implements IndexAwarePredica
         return ((IndexAwarePredicate) predicate).filter(queryContext);
     }
 
+    @Override
+    public long estimateResultSize(QueryContext queryContext) {
+        if (predicate instanceof SelectivityAwarePredicate) {
+            return ((SelectivityAwarePredicate) predicate).estimateResultSize(queryContext);
+        }
+        return -1;
+    }
+
     @Override
     public void writeData(ObjectDataOutput out) throws IOException {
         out.writeUTF(sql);
@@ -21,6 +21,7 @@ import com.hazelcast.query.Predicate;
 
 import java.io.IOException;
 import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -36,11 +37,45 @@ public class AndResultSet extends AbstractSet<QueryableEntry> {
 
     public AndResultSet(Set<QueryableEntry> setSmallest, List<Set<QueryableEntry>> otherIndexedResults,
                         List<Predicate> lsNoIndexPredicates) {
-        this.setSmallest = isNotNull(setSmallest, "setSmallest");
-        this.otherIndexedResults = otherIndexedResults;
+        isNotNull(setSmallest, "setSmallest");
+        if (otherIndexedResults == null || otherIndexedResults.isEmpty()) {
+            this.setSmallest = setSmallest;
+            this.otherIndexedResults = otherIndexedResults;
+        } else {
+            // intersect the bitmap results up front instead of checking every entry against each of them
+            List<Set<QueryableEntry>> results = new ArrayList<Set<QueryableEntry>>(otherIndexedResults.size() + 1);
+            results.add(setSmallest);
+            results.addAll(otherIndexedResults);
+            intersectBitmaps(results);
+            int smallest = 0;
+            for (int i = 1; i < results.size(); i++) {
+                if (results.get(i).size() < results.get(smallest).size()) {
+                    smallest = i;
+                }
+            }
+            this.setSmallest = results.remove(smallest);
+            this.otherIndexedResults = results;
+        }
         this.lsNoIndexPredicates = lsNoIndexPredicates;
     }
 
+    private static void intersectBitmaps(List<Set<QueryableEntry>> results) {
+        for (int i = 0; i < results.size(); i++) {
+            if (!(results.get(i) instanceof BitmapResultSet)) {
+                continue;
+            }
+            BitmapResultSet intersection = (BitmapResultSet) results.get(i);
+            for (Iterator<Set<QueryableEntry>> it = results.listIterator(i + 1); it.hasNext(); ) {
+                Set<QueryableEntry> result = it.next();
+                if (result instanceof BitmapResultSet && intersection.isCompatible((BitmapResultSet) result)) {
+                    intersection = intersection.and((BitmapResultSet) result);
+                    it.remove();
+                }
+            }
+            results.set(i, intersection);
+        }
+    }
+
     public byte[] toByteArray(ObjectDataOutput out) throws IOException {
         for (QueryableEntry entry : setSmallest) {
             if (otherIndexedResults != null) {
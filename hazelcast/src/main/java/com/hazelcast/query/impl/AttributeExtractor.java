@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+/**
+ * Reads an attribute, possibly a path of nested attributes, of an object with plain method calls and field reads.
+ * <p/>
+ * Subclasses are generated at runtime by {@link ExtractorGenerator}; this class is public only so that the
+ * generated classes, which are defined by their own class loader, can extend it.
+ */
+public abstract class AttributeExtractor {
+
+    /**
+     * @return the attribute of the target, boxed if it is primitive, or <tt>null</tt> if an attribute
+     * on the path is <tt>null</tt>.
+     */
+    public abstract Object extract(Object target);
+
+    /**
+     * Reads a primitive integral attribute without boxing it. Only extractors of single attributes of type
+     * <tt>byte</tt>, <tt>short</tt>, <tt>int</tt> or <tt>long</tt> support it.
+     */
+    public long extractLong(Object target) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Reads a primitive floating point attribute without boxing it. Only extractors of single attributes of type
+     * <tt>float</tt> or <tt>double</tt> support it.
+     */
+    public double extractDouble(Object target) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An index keeping a {@link SparseBitmap} of entry ids per distinct value, meant for attributes with few
+ * distinct values like a status or a region. Lookups return {@link BitmapResultSet}s, which
+ * {@link AndResultSet} and {@link OrResultSet} intersect and merge bitmap by bitmap.
+ * <p/>
+ * Bitmap indexes are not ordered: range lookups check every distinct value.
+ * <p/>
+ * The bitmaps of an index are guarded by a single lock, since an update may move an id from the bitmap of one
+ * value to another and the bitmap of all ids changes with every insertion and removal. Writers hold it only
+ * to set and clear bits, while lookups hold it only to combine the bitmaps of the result.
+ * As the index spans all partitions of the map on a member, concurrent writes to the map contend for it;
+ * bitmap indexes suit attributes of maps read much more often than written.
+ */
+public class BitmapIndex implements Index {
+
+    // indexKey -- indexValue
+    private final ConcurrentMap<Data, Comparable> recordValues = new ConcurrentHashMap<Data, Comparable>(1000);
+    private final Map<Comparable, SparseBitmap> bitmaps = new HashMap<Comparable, SparseBitmap>();
+    private SparseBitmap allIds = new SparseBitmap();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IndexComponents components;
+    private final String attribute;
+    private final EntryIdRegistry entryIds;
+    private final IndexStatisticsTracker statistics = new IndexStatisticsTracker() {
+        @Override
+        protected IndexStatistics collect() {
+            IndexStatistics.Builder builder = new IndexStatistics.Builder(components, false);
+            lock.readLock().lock();
+            try {
+                for (Map.Entry<Comparable, SparseBitmap> entry : bitmaps.entrySet()) {
+                    builder.add(entry.getKey(), entry.getValue().cardinality());
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            return builder.build();
+        }
+    };
+
+    public BitmapIndex(String attribute, EntryIdRegistry entryIds) {
+        this.components = new IndexComponents(attribute);
+        this.attribute = IndexComponents.canonicalName(components.getComponents());
+        this.entryIds = entryIds;
+    }
+
+    @Override
+    public void saveEntryIndex(QueryableEntry e) throws QueryException {
+        final Data key = e.getIndexKey();
+        final Comparable newValue = components.extract(e);
+        final int id = entryIds.register(e);
+        final Comparable oldValue = recordValues.put(key, newValue);
+        lock.writeLock().lock();
+        try {
+            if (oldValue != null) {
+                removeId(oldValue, id);
+            }
+            SparseBitmap bitmap = bitmaps.get(newValue);
+            if (bitmap == null) {
+                bitmap = new SparseBitmap();
+                bitmaps.put(newValue, bitmap);
+            }
+            bitmap.add(id);
+            allIds.add(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        statistics.onUpdate();
+    }
+
+    @Override
+    public void removeEntryIndex(Data indexKey) {
+        final Comparable oldValue = recordValues.remove(indexKey);
+        final int id = entryIds.getId(indexKey);
+        if (oldValue == null || id == -1) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeId(oldValue, id);
+            allIds.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        statistics.onUpdate();
+    }
+
+    private void removeId(Comparable value, int id) {
+        final SparseBitmap bitmap = bitmaps.get(value);
+        if (bitmap != null) {
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(value);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            recordValues.clear();
+            bitmaps.clear();
+            allIds = new SparseBitmap();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        statistics.clear();
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable[] values) {
+        lock.readLock().lock();
+        try {
+            SparseBitmap result = new SparseBitmap();
+            for (Comparable value : values) {
+                final SparseBitmap bitmap = bitmaps.get(convert(value));
+                if (bitmap != null) {
+                    result = result.or(bitmap);
+                }
+            }
+            return new BitmapResultSet(result, entryIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable value) {
+        lock.readLock().lock();
+        try {
+            final SparseBitmap bitmap = bitmaps.get(convert(value));
+            return new BitmapResultSet(bitmap == null ? new SparseBitmap() : bitmap.copy(), entryIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Set<QueryableEntry> getSubRecordsBetween(Comparable from, Comparable to) {
+        Comparable low = convert(from);
+        Comparable high = convert(to);
+        if (low.compareTo(high) > 0) {
+            final Comparable oldLow = low;
+            low = high;
+            high = oldLow;
+        }
+        lock.readLock().lock();
+        try {
+            SparseBitmap result = new SparseBitmap();
+            for (Map.Entry<Comparable, SparseBitmap> entry : bitmaps.entrySet()) {
+                final Comparable value = entry.getKey();
+                if (!(value instanceof IndexImpl.NullObject) && value.compareTo(low) >= 0 && value.compareTo(high) <= 0) {
+                    result = result.or(entry.getValue());
+                }
+            }
+            return new BitmapResultSet(result, entryIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getSubRecords(ComparisonType comparisonType, Comparable searchedValue) {
+        final Comparable converted = convert(searchedValue);
+        lock.readLock().lock();
+        try {
+            if (comparisonType == ComparisonType.NOT_EQUAL) {
+                final SparseBitmap bitmap = bitmaps.get(converted);
+                return new BitmapResultSet(bitmap == null ? allIds.copy() : allIds.andNot(bitmap), entryIds);
+            }
+            SparseBitmap result = new SparseBitmap();
+            for (Map.Entry<Comparable, SparseBitmap> entry : bitmaps.entrySet()) {
+                final Comparable value = entry.getKey();
+                if (!(value instanceof IndexImpl.NullObject) && matches(comparisonType, value, converted)) {
+                    result = result.or(entry.getValue());
+                }
+            }
+            return new BitmapResultSet(result, entryIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean matches(ComparisonType comparisonType, Comparable value, Comparable searchedValue) {
+        final int result = value.compareTo(searchedValue);
+        switch (comparisonType) {
+            case LESSER:
+                return result < 0;
+            case LESSER_EQUAL:
+                return result <= 0;
+            case GREATER:
+                return result > 0;
+            case GREATER_EQUAL:
+                return result >= 0;
+            default:
+                throw new IllegalArgumentException("Unrecognized comparisonType:" + comparisonType);
+        }
+    }
+
+    private Comparable convert(Comparable value) {
+        return components.convert(value);
+    }
+
+    @Override
+    public String getAttributeName() {
+        return attribute;
+    }
+
+    @Override
+    public String[] getComponents() {
+        return components.getComponents();
+    }
+
+    @Override
+    public boolean isOrdered() {
+        return false;
+    }
+
+    @Override
+    public boolean isBitmap() {
+        return true;
+    }
+
+    @Override
+    public IndexStatistics getStatistics() {
+        return statistics.get();
+    }
+
+    @Override
+    public String toString() {
+        return "BitmapIndex{"
+                + "attribute='" + attribute + '\''
+                + ", values=" + bitmaps.size()
+                + '}';
+    }
+}
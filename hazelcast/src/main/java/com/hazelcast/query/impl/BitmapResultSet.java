@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The result of a {@link BitmapIndex} lookup: a snapshot bitmap of the ids of the matching entries.
+ * <p/>
+ * Results of the bitmap indexes of the same map are combined with {@link #and(BitmapResultSet)} and
+ * {@link #or(BitmapResultSet)} bitmap by bitmap, without looking at the entries. Only iterating and
+ * {@link #contains(Object)} resolve ids to entries.
+ * <p/>
+ * The {@link EntryIdRegistry} reuses the ids of removed entries, so a result keeps the registry version of its
+ * lookup and skips ids assigned after it, like entries removed after the lookup. A combined result keeps the
+ * older version of the two.
+ */
+public class BitmapResultSet extends AbstractSet<QueryableEntry> {
+
+    private final SparseBitmap bitmap;
+    private final EntryIdRegistry entryIds;
+    private final long version;
+
+    /**
+     * Must be called while holding the lock of the index the bitmap is taken from; the bitmap is not copied.
+     */
+    public BitmapResultSet(SparseBitmap bitmap, EntryIdRegistry entryIds) {
+        this(bitmap, entryIds, entryIds.getVersion());
+    }
+
+    private BitmapResultSet(SparseBitmap bitmap, EntryIdRegistry entryIds, long version) {
+        this.bitmap = bitmap;
+        this.entryIds = entryIds;
+        this.version = version;
+    }
+
+    /**
+     * @return <tt>true</tt> if this and the other result can be combined, i.e. they come from the same map.
+     */
+    public boolean isCompatible(BitmapResultSet other) {
+        return entryIds == other.entryIds;
+    }
+
+    public BitmapResultSet and(BitmapResultSet other) {
+        return new BitmapResultSet(bitmap.and(other.bitmap), entryIds, Math.min(version, other.version));
+    }
+
+    public BitmapResultSet or(BitmapResultSet other) {
+        return new BitmapResultSet(bitmap.or(other.bitmap), entryIds, Math.min(version, other.version));
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof QueryableEntry)) {
+            return false;
+        }
+        final int id = entryIds.getId(((QueryableEntry) o).getIndexKey());
+        return id != -1 && bitmap.contains(id) && entryIds.getEntry(id, version) != null;
+    }
+
+    @Override
+    public Iterator<QueryableEntry> iterator() {
+        return new It();
+    }
+
+    /**
+     * @return the number of ids of the result, an upper bound of the entries it iterates.
+     */
+    @Override
+    public int size() {
+        return bitmap.cardinality();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return bitmap.isEmpty();
+    }
+
+    class It implements Iterator<QueryableEntry> {
+        final SparseBitmap.IdIterator ids = bitmap.iterator();
+        QueryableEntry currentEntry;
+
+        @Override
+        public boolean hasNext() {
+            // entries removed after the lookup are skipped
+            while (currentEntry == null && ids.hasNext()) {
+                currentEntry = entryIds.getEntry(ids.next(), version);
+            }
+            return currentEntry != null;
+        }
+
+        @Override
+        public QueryableEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final QueryableEntry result = currentEntry;
+            currentEntry = null;
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
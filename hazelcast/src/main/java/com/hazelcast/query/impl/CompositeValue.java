@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import java.util.Arrays;
+
+/**
+ * The value of a composite index: the values of its attributes, compared component by component.
+ * <p/>
+ * {@link #NEGATIVE_INFINITY} and {@link #POSITIVE_INFINITY} can be used as components to build range bounds
+ * over a prefix of the components, e.g. <tt>(X, Y, NEGATIVE_INFINITY)</tt> to <tt>(X, Y, POSITIVE_INFINITY)</tt>
+ * covers every value starting with <tt>X, Y</tt>. {@link IndexImpl#NULL} components are lower than any other value.
+ */
+public final class CompositeValue implements Comparable<CompositeValue> {
+
+    public static final Comparable NEGATIVE_INFINITY = new Infinity(-1);
+
+    public static final Comparable POSITIVE_INFINITY = new Infinity(1);
+
+    private final Comparable[] components;
+
+    public CompositeValue(Comparable[] components) {
+        this.components = components;
+    }
+
+    public Comparable[] getComponents() {
+        return components;
+    }
+
+    @Override
+    public int compareTo(CompositeValue other) {
+        final Comparable[] otherComponents = other.components;
+        final int length = Math.min(components.length, otherComponents.length);
+        for (int i = 0; i < length; i++) {
+            final int result = compareComponents(components[i], otherComponents[i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return components.length - otherComponents.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareComponents(Comparable component, Comparable otherComponent) {
+        if (component == otherComponent) {
+            return 0;
+        }
+        if (component instanceof Infinity) {
+            return ((Infinity) component).sign;
+        }
+        if (otherComponent instanceof Infinity) {
+            return -((Infinity) otherComponent).sign;
+        }
+        if (component instanceof IndexImpl.NullObject) {
+            return otherComponent instanceof IndexImpl.NullObject ? 0 : -1;
+        }
+        if (otherComponent instanceof IndexImpl.NullObject) {
+            return 1;
+        }
+        return component.compareTo(otherComponent);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Arrays.equals(components, ((CompositeValue) o).components);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(components);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(components);
+    }
+
+    private static final class Infinity implements Comparable {
+        private final int sign;
+
+        private Infinity(int sign) {
+            this.sign = sign;
+        }
+
+        @Override
+        public int compareTo(Object o) {
+            return o == this ? 0 : sign;
+        }
+
+        @Override
+        public String toString() {
+            return sign < 0 ? "-INF" : "+INF";
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.query.QueryConstants;
+
+import java.util.Map;
+
+/**
+ * Reads attributes of map entries for aggregators and projections, the way predicates read them.
+ */
+public final class EntryAttributeReader {
+
+    private EntryAttributeReader() {
+    }
+
+    /**
+     * @param attributePath the attribute path, <tt>null</tt> or <tt>this</tt> for the value itself
+     * @return the value of the attribute, a {@link MultiResult} if the path reads the elements of an array.
+     * @throws IllegalArgumentException if the path reads an attribute of a value but the entry is not a
+     *                                  {@link QueryableEntry}.
+     */
+    public static Object read(Map.Entry entry, String attributePath) {
+        if (attributePath == null || QueryConstants.THIS_ATTRIBUTE_NAME.equals(attributePath)) {
+            return entry.getValue();
+        }
+        if (entry instanceof QueryableEntry) {
+            return ((QueryableEntry) entry).getAttribute(attributePath);
+        }
+        throw new IllegalArgumentException("Attribute '" + attributePath + "' can only be read from a queryable entry");
+    }
+}
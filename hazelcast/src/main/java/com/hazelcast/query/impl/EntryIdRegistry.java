@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Gives the indexed entries of a map the int ids the {@link BitmapIndex}es of the map set bits for.
+ * <p/>
+ * All bitmap indexes of a map share the same registry, so their bitmaps can be intersected and merged.
+ * Ids of removed entries are reused to keep the bitmaps small. Every assignment of an id gets a new version,
+ * and a {@link BitmapResultSet} resolves its ids lazily with the version of its lookup, so an id assigned to
+ * another entry after the lookup is not taken for the removed entry it stood for. An id is released only
+ * after the entry is removed from all indexes.
+ */
+public final class EntryIdRegistry {
+
+    private static final int INITIAL_CAPACITY = 1000;
+    private static final int INITIAL_FREE_IDS = 16;
+
+    private final ConcurrentMap<Data, Integer> ids = new ConcurrentHashMap<Data, Integer>(INITIAL_CAPACITY);
+    private final ConcurrentMap<Integer, Registration> registrations
+            = new ConcurrentHashMap<Integer, Registration>(INITIAL_CAPACITY);
+
+    private int[] freeIds = new int[INITIAL_FREE_IDS];
+    private int freeIdCount;
+    private int nextId;
+    private volatile long version;
+
+    /**
+     * Registers the entry with the id of its key, assigning a new id if the key has none yet.
+     *
+     * @return the id of the entry.
+     */
+    public int register(QueryableEntry entry) {
+        final Data key = entry.getIndexKey();
+        Integer id = ids.get(key);
+        if (id == null) {
+            synchronized (this) {
+                id = ids.get(key);
+                if (id == null) {
+                    id = freeIdCount > 0 ? freeIds[--freeIdCount] : nextId++;
+                    registrations.put(id, new Registration(++version, entry));
+                    ids.put(key, id);
+                    return id;
+                }
+            }
+        }
+        // the id of a key is only released by unregistering the key, which is ordered with this by the partition
+        registrations.get(id).entry = entry;
+        return id;
+    }
+
+    /**
+     * Unregisters the entry of the key and releases its id for reuse.
+     */
+    public void unregister(Data key) {
+        synchronized (this) {
+            final Integer id = ids.remove(key);
+            if (id == null) {
+                return;
+            }
+            registrations.remove(id);
+            if (freeIdCount == freeIds.length) {
+                final int[] newFreeIds = new int[freeIds.length << 1];
+                System.arraycopy(freeIds, 0, newFreeIds, 0, freeIdCount);
+                freeIds = newFreeIds;
+            }
+            freeIds[freeIdCount++] = id;
+        }
+    }
+
+    /**
+     * @return the id of the key, or <tt>-1</tt> if the key is not registered.
+     */
+    public int getId(Data key) {
+        final Integer id = ids.get(key);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @return the version of the last id assignment, to be read while the bitmap to resolve is consistent.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the entry with the id if it was assigned the id at or before the version, <tt>null</tt> otherwise.
+     */
+    public QueryableEntry getEntry(int id, long version) {
+        final Registration registration = registrations.get(id);
+        return registration == null || registration.version > version ? null : registration.entry;
+    }
+
+    public synchronized void clear() {
+        ids.clear();
+        registrations.clear();
+        freeIdCount = 0;
+        nextId = 0;
+    }
+
+    private static final class Registration {
+        private final long version;
+        private volatile QueryableEntry entry;
+
+        private Registration(long version, QueryableEntry entry) {
+            this.version = version;
+            this.entry = entry;
+        }
+    }
+}
@@ -0,0 +1,388 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the bytecode of {@link AttributeExtractor}s reading a path of public methods and fields, so that
+ * queries read attributes with direct calls the JIT can inline instead of reflective invocations.
+ * <p/>
+ * The classes are written in the Java 5 class file format, which needs no stack map frames, and are defined
+ * by a class loader delegating to the one of Hazelcast. Paths through members or classes that are not public,
+ * or through classes Hazelcast's class loader does not see, are not compiled.
+ */
+final class ExtractorGenerator {
+
+    private static final String PACKAGE = "com.hazelcast.query.impl.generated.";
+    private static final String SUPER_CLASS = AttributeExtractor.class.getName().replace('.', '/');
+    private static final ExtractorClassLoader LOADER = new ExtractorClassLoader(ExtractorGenerator.class.getClassLoader());
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int CLASS_FILE_VERSION = 49;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int CODE_ATTRIBUTE_OVERHEAD = 12;
+    private static final int MAX_STACK = 2;
+    private static final int MAX_LOCALS = 2;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_FIELD_REF = 9;
+    private static final int CONSTANT_METHOD_REF = 10;
+    private static final int CONSTANT_INTERFACE_METHOD_REF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int DUP = 0x59;
+    private static final int I2L = 0x85;
+    private static final int F2D = 0x8d;
+    private static final int IFNONNULL = 0xc7;
+    private static final int LRETURN = 0xad;
+    private static final int DRETURN = 0xaf;
+    private static final int ARETURN = 0xb0;
+    private static final int RETURN = 0xb1;
+    private static final int GETFIELD = 0xb4;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int INVOKEINTERFACE = 0xb9;
+    private static final int CHECKCAST = 0xc0;
+    // ifnonnull (3 bytes) jumps over the following areturn (1 byte)
+    private static final int SKIP_ARETURN = 4;
+
+    private static final Map<Class, Class> WRAPPERS = new HashMap<Class, Class>();
+
+    static {
+        WRAPPERS.put(boolean.class, Boolean.class);
+        WRAPPERS.put(byte.class, Byte.class);
+        WRAPPERS.put(char.class, Character.class);
+        WRAPPERS.put(short.class, Short.class);
+        WRAPPERS.put(int.class, Integer.class);
+        WRAPPERS.put(long.class, Long.class);
+        WRAPPERS.put(float.class, Float.class);
+        WRAPPERS.put(double.class, Double.class);
+    }
+
+    private ExtractorGenerator() {
+    }
+
+    /**
+     * Generates an extractor reading the path of methods and fields from instances of the root class.
+     *
+     * @return the extractor, or <tt>null</tt> if the path cannot be read by generated code.
+     */
+    static AttributeExtractor generate(Class rootClass, List<Member> path) {
+        if (!isCompilable(rootClass, path)) {
+            return null;
+        }
+        final String className = PACKAGE + "Extractor" + COUNTER.incrementAndGet();
+        try {
+            final byte[] bytes = generateClass(className.replace('.', '/'), rootClass, path);
+            return (AttributeExtractor) LOADER.define(className, bytes).newInstance();
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the wrapper class of the primitive type, or <tt>null</tt> if the type is not primitive.
+     */
+    static Class getWrapper(Class type) {
+        return WRAPPERS.get(type);
+    }
+
+    /**
+     * @return <tt>true</tt> if extractors of the path support {@link AttributeExtractor#extractLong(Object)}.
+     */
+    static boolean isLongPath(List<Member> path) {
+        final Class type = getType(path.get(path.size() - 1));
+        return path.size() == 1 && (type == byte.class || type == short.class || type == int.class || type == long.class);
+    }
+
+    /**
+     * @return <tt>true</tt> if extractors of the path support {@link AttributeExtractor#extractDouble(Object)}.
+     */
+    static boolean isDoublePath(List<Member> path) {
+        final Class type = getType(path.get(path.size() - 1));
+        return path.size() == 1 && (type == float.class || type == double.class);
+    }
+
+    static Class getType(Member member) {
+        return member instanceof Method ? ((Method) member).getReturnType() : ((Field) member).getType();
+    }
+
+    private static boolean isCompilable(Class rootClass, List<Member> path) {
+        Class owner = rootClass;
+        for (Member member : path) {
+            if (!isVisible(owner) || !Modifier.isPublic(member.getModifiers())
+                    || Modifier.isStatic(member.getModifiers())) {
+                return false;
+            }
+            owner = getType(member);
+            if (owner == void.class) {
+                return false;
+            }
+        }
+        // the last type is only read, all the others are called on
+        return owner.isPrimitive() || isVisible(owner);
+    }
+
+    private static boolean isVisible(Class type) {
+        if (type.isPrimitive() || type.isArray() || !Modifier.isPublic(type.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(type.getName(), false, LOADER) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static byte[] generateClass(String className, Class rootClass, List<Member> path) throws IOException {
+        final ConstantPool pool = new ConstantPool();
+        final ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+        final DataOutputStream methods = new DataOutputStream(methodBytes);
+        int methodCount = 0;
+
+        final Code constructor = new Code();
+        constructor.op(ALOAD_0).op(INVOKESPECIAL).u2(pool.memberRef(CONSTANT_METHOD_REF, SUPER_CLASS, "<init>", "()V"))
+                .op(RETURN);
+        writeMethod(methods, pool, "<init>", "()V", constructor, 1);
+        methodCount++;
+
+        final Code extract = new Code();
+        extract.op(ALOAD_1).op(CHECKCAST).u2(pool.classRef(internalName(rootClass)));
+        Class owner = rootClass;
+        for (int i = 0; i < path.size(); i++) {
+            if (i > 0) {
+                // returns null if an attribute on the path is null
+                extract.op(DUP).op(IFNONNULL).u2(SKIP_ARETURN).op(ARETURN);
+            }
+            read(extract, pool, owner, path.get(i));
+            owner = getType(path.get(i));
+        }
+        final Class wrapper = getWrapper(owner);
+        if (wrapper != null) {
+            final String descriptor = "(" + descriptor(owner) + ")" + descriptor(wrapper);
+            extract.op(INVOKESTATIC).u2(pool.memberRef(CONSTANT_METHOD_REF, internalName(wrapper), "valueOf", descriptor));
+        }
+        extract.op(ARETURN);
+        writeMethod(methods, pool, "extract", "(Ljava/lang/Object;)Ljava/lang/Object;", extract, MAX_LOCALS);
+        methodCount++;
+
+        if (isLongPath(path) || isDoublePath(path)) {
+            final boolean isLong = isLongPath(path);
+            final Code primitive = new Code();
+            primitive.op(ALOAD_1).op(CHECKCAST).u2(pool.classRef(internalName(rootClass)));
+            read(primitive, pool, rootClass, path.get(0));
+            if (owner != long.class && owner != double.class) {
+                primitive.op(isLong ? I2L : F2D);
+            }
+            primitive.op(isLong ? LRETURN : DRETURN);
+            writeMethod(methods, pool, isLong ? "extractLong" : "extractDouble",
+                    isLong ? "(Ljava/lang/Object;)J" : "(Ljava/lang/Object;)D", primitive, MAX_LOCALS);
+            methodCount++;
+        }
+
+        final int thisClass = pool.classRef(className);
+        final int superClass = pool.classRef(SUPER_CLASS);
+        final ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(classBytes);
+        out.writeInt(MAGIC);
+        out.writeShort(0);
+        out.writeShort(CLASS_FILE_VERSION);
+        pool.writeTo(out);
+        out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        // no interfaces, no fields
+        out.writeShort(0);
+        out.writeShort(0);
+        out.writeShort(methodCount);
+        out.write(methodBytes.toByteArray());
+        // no class attributes
+        out.writeShort(0);
+        return classBytes.toByteArray();
+    }
+
+    private static void read(Code code, ConstantPool pool, Class owner, Member member) throws IOException {
+        final String ownerName = internalName(owner);
+        if (member instanceof Field) {
+            final Field field = (Field) member;
+            code.op(GETFIELD).u2(pool.memberRef(CONSTANT_FIELD_REF, ownerName, field.getName(), descriptor(field.getType())));
+            return;
+        }
+        final Method method = (Method) member;
+        final String descriptor = "()" + descriptor(method.getReturnType());
+        if (owner.isInterface()) {
+            code.op(INVOKEINTERFACE).u2(pool.memberRef(CONSTANT_INTERFACE_METHOD_REF, ownerName, method.getName(), descriptor))
+                    .op(1).op(0);
+        } else {
+            code.op(INVOKEVIRTUAL).u2(pool.memberRef(CONSTANT_METHOD_REF, ownerName, method.getName(), descriptor));
+        }
+    }
+
+    private static void writeMethod(DataOutputStream out, ConstantPool pool, String name, String descriptor,
+                                    Code code, int maxLocals) throws IOException {
+        final byte[] bytes = code.toByteArray();
+        out.writeShort(ACC_PUBLIC);
+        out.writeShort(pool.utf8(name));
+        out.writeShort(pool.utf8(descriptor));
+        // a single Code attribute without exception table and attributes
+        out.writeShort(1);
+        out.writeShort(pool.utf8("Code"));
+        out.writeInt(CODE_ATTRIBUTE_OVERHEAD + bytes.length);
+        out.writeShort(MAX_STACK);
+        out.writeShort(maxLocals);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        out.writeShort(0);
+        out.writeShort(0);
+    }
+
+    private static String internalName(Class type) {
+        return type.getName().replace('.', '/');
+    }
+
+    private static String descriptor(Class type) {
+        if (type.isPrimitive()) {
+            if (type == boolean.class) {
+                return "Z";
+            } else if (type == long.class) {
+                return "J";
+            }
+            // B, C, D, F, I, S and V are the first letters of the type names
+            return String.valueOf(Character.toUpperCase(type.getName().charAt(0)));
+        } else if (type.isArray()) {
+            return internalName(type);
+        }
+        return "L" + internalName(type) + ";";
+    }
+
+    private static final class Code {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        Code op(int opcode) {
+            bytes.write(opcode);
+            return this;
+        }
+
+        Code u2(int value) {
+            bytes.write(value >>> Byte.SIZE);
+            bytes.write(value);
+            return this;
+        }
+
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+
+    private static final class ConstantPool {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> indexes = new HashMap<String, Integer>();
+        private int count = 1;
+
+        int utf8(String value) throws IOException {
+            final String key = "U" + value;
+            Integer index = indexes.get(key);
+            if (index == null) {
+                out.writeByte(CONSTANT_UTF8);
+                out.writeUTF(value);
+                index = add(key);
+            }
+            return index;
+        }
+
+        int classRef(String internalName) throws IOException {
+            final String key = "C" + internalName;
+            Integer index = indexes.get(key);
+            if (index == null) {
+                final int nameIndex = utf8(internalName);
+                out.writeByte(CONSTANT_CLASS);
+                out.writeShort(nameIndex);
+                index = add(key);
+            }
+            return index;
+        }
+
+        int memberRef(int tag, String owner, String name, String descriptor) throws IOException {
+            final String key = tag + owner + "." + name + descriptor;
+            Integer index = indexes.get(key);
+            if (index == null) {
+                final int classIndex = classRef(owner);
+                final int nameAndTypeIndex = nameAndType(name, descriptor);
+                out.writeByte(tag);
+                out.writeShort(classIndex);
+                out.writeShort(nameAndTypeIndex);
+                index = add(key);
+            }
+            return index;
+        }
+
+        private int nameAndType(String name, String descriptor) throws IOException {
+            final String key = "N" + name + descriptor;
+            Integer index = indexes.get(key);
+            if (index == null) {
+                final int nameIndex = utf8(name);
+                final int descriptorIndex = utf8(descriptor);
+                out.writeByte(CONSTANT_NAME_AND_TYPE);
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+                index = add(key);
+            }
+            return index;
+        }
+
+        private int add(String key) {
+            final int index = count++;
+            indexes.put(key, index);
+            return index;
+        }
+
+        void writeTo(DataOutputStream classOut) throws IOException {
+            classOut.writeShort(count);
+            classOut.write(bytes.toByteArray());
+        }
+    }
+
+    private static final class ExtractorClassLoader extends ClassLoader {
+
+        ExtractorClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
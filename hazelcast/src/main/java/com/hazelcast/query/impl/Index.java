@@ -38,5 +38,20 @@ public interface Index {
 
     String getAttributeName();
 
+    /**
+     * @return the indexed attributes, more than one if this is a composite index.
+     */
+    String[] getComponents();
+
     boolean isOrdered();
+
+    /**
+     * @return <tt>true</tt> if the index keeps a bitmap of the entries per value.
+     */
+    boolean isBitmap();
+
+    /**
+     * @return the distribution of the indexed values, used to estimate how many entries a lookup returns.
+     */
+    IndexStatistics getStatistics();
 }
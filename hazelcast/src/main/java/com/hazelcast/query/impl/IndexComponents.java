@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.nio.serialization.PortablePathReader;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The attributes an index is built on. A single attribute index stores the attribute values as they are, a composite
+ * index, named like <tt>"status,region"</tt>, stores {@link CompositeValue}s of its attribute values.
+ */
+final class IndexComponents {
+
+    private static final String SEPARATOR = ",";
+
+    private final String[] components;
+
+    private volatile AttributeType[] attributeTypes;
+
+    private volatile boolean attributeTypesResolved;
+
+    IndexComponents(String attribute) {
+        this.components = attribute == null ? new String[]{null} : parse(attribute);
+    }
+
+    /**
+     * Splits a composite index name into its attributes.
+     *
+     * @throws IllegalArgumentException if an attribute is empty or is listed twice.
+     */
+    static String[] parse(String attribute) {
+        final String[] parts = attribute.split(SEPARATOR);
+        final List<String> components = new ArrayList<String>(parts.length);
+        for (String part : parts) {
+            final String component = part.trim();
+            if (component.length() == 0) {
+                throw new IllegalArgumentException("Empty attribute in index: " + attribute);
+            }
+            if (PortablePathReader.isMultiValued(component)) {
+                throw new IllegalArgumentException("Multi-valued attribute '" + component + "' cannot be indexed");
+            }
+            if (components.contains(component)) {
+                throw new IllegalArgumentException("Duplicate attribute '" + component + "' in index: " + attribute);
+            }
+            components.add(component);
+        }
+        return components.toArray(new String[components.size()]);
+    }
+
+    /**
+     * @return the name of the index on the given attributes, e.g. <tt>"status,region"</tt>.
+     */
+    static String canonicalName(String attribute) {
+        return canonicalName(parse(attribute));
+    }
+
+    static String canonicalName(String[] components) {
+        if (components.length == 1) {
+            return components[0];
+        }
+        final StringBuilder sb = new StringBuilder(components[0]);
+        for (int i = 1; i < components.length; i++) {
+            sb.append(SEPARATOR).append(components[i]);
+        }
+        return sb.toString();
+    }
+
+    String[] getComponents() {
+        return components;
+    }
+
+    boolean isComposite() {
+        return components.length > 1;
+    }
+
+    /**
+     * @return the value to index the entry with, never <tt>null</tt>.
+     */
+    Comparable extract(QueryableEntry e) throws QueryException {
+        if (!attributeTypesResolved) {
+            resolveAttributeTypes(e);
+        }
+        if (!isComposite()) {
+            return extract(e, components[0]);
+        }
+        final Comparable[] values = new Comparable[components.length];
+        for (int i = 0; i < components.length; i++) {
+            values[i] = extract(e, components[i]);
+        }
+        return new CompositeValue(values);
+    }
+
+    // the type of an attribute is known once an entry has a value for it
+    private void resolveAttributeTypes(QueryableEntry e) {
+        final AttributeType[] previousTypes = attributeTypes;
+        final AttributeType[] types = new AttributeType[components.length];
+        boolean resolved = true;
+        for (int i = 0; i < components.length; i++) {
+            types[i] = previousTypes != null && previousTypes[i] != null
+                    ? previousTypes[i] : e.getAttributeType(components[i]);
+            resolved &= types[i] != null;
+        }
+        attributeTypes = types;
+        attributeTypesResolved = resolved;
+    }
+
+    private static Comparable extract(QueryableEntry e, String attribute) {
+        final Comparable value = e.getAttribute(attribute);
+        if (value == null) {
+            return IndexImpl.NULL;
+        }
+        if (value.getClass().isEnum()) {
+            return TypeConverters.ENUM_CONVERTER.convert(value);
+        }
+        return value;
+    }
+
+    /**
+     * Converts a searched value to the types of the indexed attributes.
+     */
+    Comparable convert(Comparable value) {
+        final AttributeType[] types = attributeTypes;
+        if (types == null) {
+            return value;
+        }
+        if (!isComposite()) {
+            return convert(types[0], value);
+        }
+        final Comparable[] values = ((CompositeValue) value).getComponents();
+        final Comparable[] converted = new Comparable[values.length];
+        for (int i = 0; i < values.length; i++) {
+            converted[i] = convert(types[i], values[i]);
+        }
+        return new CompositeValue(converted);
+    }
+
+    private static Comparable convert(AttributeType type, Comparable value) {
+        if (type == null || value instanceof IndexImpl.NullObject
+                || value == CompositeValue.NEGATIVE_INFINITY || value == CompositeValue.POSITIVE_INFINITY) {
+            return value;
+        }
+        return type.getConverter().convert(value);
+    }
+}
@@ -29,13 +29,25 @@ public class IndexImpl implements Index {
     // indexKey -- indexValue
     private final ConcurrentMap<Data, Comparable> recordValues = new ConcurrentHashMap<Data, Comparable>(1000);
     private final IndexStore indexStore;
+    private final IndexComponents components;
     private final String attribute;
     private final boolean ordered;
+    private final IndexStatisticsTracker statistics = new IndexStatisticsTracker() {
+        @Override
+        protected IndexStatistics collect() {
+            IndexStatistics.Builder builder = new IndexStatistics.Builder(components, ordered);
+            indexStore.collectStatistics(builder);
+            return builder.build();
+        }
+    };
 
-    private volatile AttributeType attributeType;
-
+    /**
+     * @param attribute the attribute to index, or the comma separated attributes of a composite index.
+     * @param ordered   if range queries should be supported.
+     */
     public IndexImpl(String attribute, boolean ordered) {
-        this.attribute = attribute;
+        this.components = new IndexComponents(attribute);
+        this.attribute = IndexComponents.canonicalName(components.getComponents());
         this.ordered = ordered;
         indexStore = (ordered) ? new SortedIndexStore() : new UnsortedIndexStore();
     }
@@ -45,6 +57,7 @@ public class IndexImpl implements Index {
         Comparable oldValue = recordValues.remove(indexKey);
         if (oldValue != null) {
             indexStore.removeIndex(oldValue, indexKey);
+            statistics.onUpdate();
         }
     }
 
@@ -52,6 +65,7 @@ public class IndexImpl implements Index {
     public void clear() {
         recordValues.clear();
         indexStore.clear();
+        statistics.clear();
     }
 
     ConcurrentMap<Data, QueryableEntry> getRecordMap(Comparable indexValue) {
@@ -62,14 +76,8 @@ public class IndexImpl implements Index {
     public void saveEntryIndex(QueryableEntry e) throws QueryException {
         Data key = e.getIndexKey();
         Comparable oldValue = recordValues.remove(key);
-        Comparable newValue = e.getAttribute(attribute);
-        if (newValue == null) {
-            newValue = NULL;
-        }
+        Comparable newValue = components.extract(e);
         recordValues.put(key, newValue);
-        if (newValue.getClass().isEnum()) {
-            newValue = TypeConverters.ENUM_CONVERTER.convert(newValue);
-        }
         if (oldValue == null) {
             // new
             indexStore.newIndex(newValue, e);
@@ -78,9 +86,7 @@ public class IndexImpl implements Index {
             indexStore.removeIndex(oldValue, key);
             indexStore.newIndex(newValue, e);
         }
-        if (attributeType == null) {
-            attributeType = e.getAttributeType(attribute);
-        }
+        statistics.onUpdate();
     }
 
     @Override
@@ -118,10 +124,7 @@ public class IndexImpl implements Index {
     }
 
     private Comparable convert(Comparable value) {
-        if (attributeType == null) {
-            return value;
-        }
-        return attributeType.getConverter().convert(value);
+        return components.convert(value);
     }
 
     public ConcurrentMap<Data, Comparable> getRecordValues() {
@@ -133,11 +136,26 @@ public class IndexImpl implements Index {
         return attribute;
     }
 
+    @Override
+    public String[] getComponents() {
+        return components.getComponents();
+    }
+
     @Override
     public boolean isOrdered() {
         return ordered;
     }
 
+    @Override
+    public boolean isBitmap() {
+        return false;
+    }
+
+    @Override
+    public IndexStatistics getStatistics() {
+        return statistics.get();
+    }
+
     public static final class NullObject implements Comparable {
         @Override
         public int compareTo(Object o) {
@@ -20,6 +20,9 @@ import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.query.IndexAwarePredicate;
 import com.hazelcast.query.Predicate;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -28,19 +31,40 @@ import java.util.concurrent.atomic.AtomicReference;
 public class IndexService {
     private final ConcurrentMap<String, Index> mapIndexes = new ConcurrentHashMap<String, Index>(3);
     private final AtomicReference<Index[]> indexes = new AtomicReference<Index[]>();
+    private final EntryIdRegistry entryIds = new EntryIdRegistry();
     private volatile boolean hasIndex;
+    private volatile boolean hasBitmapIndex;
 
     public synchronized Index destroyIndex(String attribute) {
-        return mapIndexes.remove(attribute);
+        return mapIndexes.remove(IndexComponents.canonicalName(attribute));
     }
 
-    public synchronized Index addOrGetIndex(String attribute, boolean ordered) {
-        Index index = mapIndexes.get(attribute);
+    public Index addOrGetIndex(String attribute, boolean ordered) {
+        return addOrGetIndex(attribute, ordered, false);
+    }
+
+    /**
+     * Adds an index on the attribute, unless the attribute is already indexed.
+     *
+     * @param attribute the attribute to index, or the comma separated attributes of a composite index,
+     *                  e.g. <tt>"status,region"</tt>.
+     * @param ordered   if range queries should be supported, ignored for bitmap indexes.
+     * @param bitmap    if the index should keep a bitmap of the entries per value, see {@link BitmapIndex}.
+     * @return the index of the attribute.
+     */
+    public synchronized Index addOrGetIndex(String attribute, boolean ordered, boolean bitmap) {
+        final String name = IndexComponents.canonicalName(attribute);
+        Index index = mapIndexes.get(name);
         if (index != null) {
             return index;
         }
-        index = new IndexImpl(attribute, ordered);
-        mapIndexes.put(attribute, index);
+        if (bitmap) {
+            index = new BitmapIndex(name, entryIds);
+            hasBitmapIndex = true;
+        } else {
+            index = new IndexImpl(name, ordered);
+        }
+        mapIndexes.put(name, index);
         Object[] indexObjects = mapIndexes.values().toArray();
         Index[] newIndexes = new Index[indexObjects.length];
         for (int i = 0; i < indexObjects.length; i++) {
@@ -59,6 +83,9 @@ public class IndexService {
         for (Index index : indexes.get()) {
             index.removeEntryIndex(indexKey);
         }
+        if (hasBitmapIndex) {
+            entryIds.unregister(indexKey);
+        }
     }
 
     public boolean hasIndex() {
@@ -75,9 +102,35 @@ public class IndexService {
         return mapIndexes.get(attribute);
     }
 
+    /**
+     * @return the composite indexes, to be matched against the attributes of a query.
+     */
+    List<Index> getCompositeIndexes() {
+        final Index[] currentIndexes = indexes.get();
+        if (currentIndexes == null) {
+            return Collections.emptyList();
+        }
+        List<Index> compositeIndexes = null;
+        for (Index index : currentIndexes) {
+            if (index.getComponents().length > 1) {
+                if (compositeIndexes == null) {
+                    compositeIndexes = new ArrayList<Index>(currentIndexes.length);
+                }
+                compositeIndexes.add(index);
+            }
+        }
+        return compositeIndexes == null ? Collections.<Index>emptyList() : compositeIndexes;
+    }
+
     public Set<QueryableEntry> query(Predicate predicate) {
+        return query(predicate, new QueryContext(this));
+    }
+
+    /**
+     * @return the entries matching the predicate, or <tt>null</tt> if the indexes cannot answer the query.
+     */
+    public Set<QueryableEntry> query(Predicate predicate, QueryContext queryContext) {
         if (hasIndex) {
-            QueryContext queryContext = new QueryContext(this);
             if (predicate instanceof IndexAwarePredicate) {
                 IndexAwarePredicate iap = (IndexAwarePredicate) predicate;
                 if (iap.isIndexed(queryContext)) {
@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * A snapshot of the distribution of the values of an index, used by the query planner to estimate how many
+ * entries a predicate matches without looking the entries up.
+ * <p/>
+ * The statistics keep the counts of the most common values, and for ordered indexes an equi-depth histogram
+ * of all values: each bucket holds about the same number of entries, so ranges over frequent values are
+ * estimated as precisely as ranges over rare ones.
+ */
+public final class IndexStatistics {
+
+    /**
+     * The fraction of the entries a range predicate is assumed to match when there is no histogram.
+     */
+    static final double DEFAULT_RANGE_SELECTIVITY = 1 / 3d;
+
+    static final int MAX_BUCKETS = 32;
+    static final int MAX_COMMON_VALUES = 16;
+    private static final double HALF = 0.5;
+
+    private final IndexComponents components;
+    private final long entryCount;
+    private final long nullCount;
+    private final int distinctValueCount;
+    private final Map<Comparable, Long> commonValues;
+    private final long commonValuesCount;
+    // bucketBounds[0] is the lowest value, bucketBounds[i + 1] the highest value of bucket i
+    private final Comparable[] bucketBounds;
+    private final long[] bucketCounts;
+
+    private IndexStatistics(Builder builder) {
+        this.components = builder.components;
+        this.entryCount = builder.entryCount;
+        this.nullCount = builder.nullCount;
+        this.distinctValueCount = builder.values.size() + (builder.nullCount > 0 ? 1 : 0);
+        this.commonValues = builder.commonValues();
+        long count = 0;
+        for (Long valueCount : commonValues.values()) {
+            count += valueCount;
+        }
+        this.commonValuesCount = count;
+        if (builder.sorted && !builder.values.isEmpty()) {
+            final List<Comparable> bounds = new ArrayList<Comparable>(MAX_BUCKETS + 1);
+            final List<Long> counts = new ArrayList<Long>(MAX_BUCKETS);
+            builder.buildHistogram(bounds, counts);
+            this.bucketBounds = bounds.toArray(new Comparable[bounds.size()]);
+            this.bucketCounts = new long[counts.size()];
+            for (int i = 0; i < bucketCounts.length; i++) {
+                bucketCounts[i] = counts.get(i);
+            }
+        } else {
+            this.bucketBounds = null;
+            this.bucketCounts = null;
+        }
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    public int getDistinctValueCount() {
+        return distinctValueCount;
+    }
+
+    /**
+     * @return the number of histogram buckets, <tt>0</tt> if the index is not ordered.
+     */
+    public int getBucketCount() {
+        return bucketCounts == null ? 0 : bucketCounts.length;
+    }
+
+    /**
+     * @return the estimated number of entries with the value.
+     */
+    public long estimateEqual(Comparable value) {
+        if (entryCount == 0) {
+            return 0;
+        }
+        final Comparable converted = components.convert(value);
+        if (converted instanceof IndexImpl.NullObject) {
+            return nullCount;
+        }
+        final Long count = commonValues.get(converted);
+        if (count != null) {
+            return count;
+        }
+        if (isCommonValuesComplete()) {
+            return 0;
+        }
+        // the remaining entries are assumed to be spread evenly over the remaining values
+        final int otherValueCount = distinctValueCount - commonValues.size() - (nullCount > 0 ? 1 : 0);
+        final long otherEntryCount = entryCount - commonValuesCount - nullCount;
+        return otherValueCount <= 0 ? 0 : Math.max(1, otherEntryCount / otherValueCount);
+    }
+
+    /**
+     * @return the estimated number of entries with a value in the inclusive range.
+     */
+    @SuppressWarnings("unchecked")
+    public long estimateBetween(Comparable from, Comparable to) {
+        if (entryCount == 0) {
+            return 0;
+        }
+        Comparable low = components.convert(from);
+        Comparable high = components.convert(to);
+        if (low.compareTo(high) > 0) {
+            final Comparable oldLow = low;
+            low = high;
+            high = oldLow;
+        }
+        if (isCommonValuesComplete()) {
+            long count = 0;
+            for (Map.Entry<Comparable, Long> entry : commonValues.entrySet()) {
+                if (entry.getKey().compareTo(low) >= 0 && entry.getKey().compareTo(high) <= 0) {
+                    count += entry.getValue();
+                }
+            }
+            return count;
+        }
+        if (bucketBounds == null) {
+            return (long) (entryCount * DEFAULT_RANGE_SELECTIVITY);
+        }
+        final double count = countBelow(high) + estimateEqual(high) - countBelow(low);
+        return Math.max(0, Math.round(count));
+    }
+
+    /**
+     * @return the estimated number of entries whose value compares to the searched value as given.
+     */
+    @SuppressWarnings("unchecked")
+    public long estimateComparison(ComparisonType comparisonType, Comparable searchedValue) {
+        if (entryCount == 0) {
+            return 0;
+        }
+        if (comparisonType == ComparisonType.NOT_EQUAL) {
+            return Math.max(0, entryCount - nullCount - estimateEqual(searchedValue));
+        }
+        final Comparable value = components.convert(searchedValue);
+        if (isCommonValuesComplete()) {
+            long count = 0;
+            for (Map.Entry<Comparable, Long> entry : commonValues.entrySet()) {
+                if (matches(comparisonType, entry.getKey().compareTo(value))) {
+                    count += entry.getValue();
+                }
+            }
+            return count;
+        }
+        if (bucketBounds == null) {
+            return (long) (entryCount * DEFAULT_RANGE_SELECTIVITY);
+        }
+        final double below = countBelow(value);
+        final double total = entryCount - nullCount;
+        final double count;
+        switch (comparisonType) {
+            case LESSER:
+                count = below;
+                break;
+            case LESSER_EQUAL:
+                count = below + estimateEqual(value);
+                break;
+            case GREATER:
+                count = total - below - estimateEqual(value);
+                break;
+            case GREATER_EQUAL:
+                count = total - below;
+                break;
+            default:
+                throw new IllegalArgumentException("Unrecognized comparisonType:" + comparisonType);
+        }
+        return Math.max(0, Math.round(count));
+    }
+
+    private static boolean matches(ComparisonType comparisonType, int result) {
+        switch (comparisonType) {
+            case LESSER:
+                return result < 0;
+            case LESSER_EQUAL:
+                return result <= 0;
+            case GREATER:
+                return result > 0;
+            case GREATER_EQUAL:
+                return result >= 0;
+            default:
+                throw new IllegalArgumentException("Unrecognized comparisonType:" + comparisonType);
+        }
+    }
+
+    // if all values are common values, estimates are exact
+    private boolean isCommonValuesComplete() {
+        return commonValuesCount + nullCount == entryCount;
+    }
+
+    @SuppressWarnings("unchecked")
+    private double countBelow(Comparable value) {
+        if (value.compareTo(bucketBounds[0]) <= 0) {
+            return 0;
+        }
+        double count = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            if (bucketBounds[i + 1].compareTo(value) < 0) {
+                count += bucketCounts[i];
+            } else {
+                count += bucketCounts[i] * fractionBelow(bucketBounds[i], bucketBounds[i + 1], value);
+                break;
+            }
+        }
+        return count;
+    }
+
+    // the entries of a bucket are assumed to be spread evenly between its bounds
+    private static double fractionBelow(Comparable low, Comparable high, Comparable value) {
+        if (low instanceof Number && high instanceof Number && value instanceof Number) {
+            final double lowValue = ((Number) low).doubleValue();
+            final double range = ((Number) high).doubleValue() - lowValue;
+            if (range > 0) {
+                return Math.max(0, Math.min(1, (((Number) value).doubleValue() - lowValue) / range));
+            }
+        }
+        return HALF;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexStatistics{"
+                + "entries=" + entryCount
+                + ", distinctValues=" + distinctValueCount
+                + ", buckets=" + getBucketCount()
+                + '}';
+    }
+
+    /**
+     * Collects the indexed values and their entry counts, in ascending value order for ordered indexes.
+     */
+    public static final class Builder {
+
+        private final IndexComponents components;
+        private final boolean sorted;
+        private final List<Comparable> values = new ArrayList<Comparable>();
+        private final List<Long> counts = new ArrayList<Long>();
+        private long entryCount;
+        private long nullCount;
+
+        Builder(IndexComponents components, boolean sorted) {
+            this.components = components;
+            this.sorted = sorted;
+        }
+
+        void add(Comparable value, long count) {
+            if (count <= 0) {
+                return;
+            }
+            entryCount += count;
+            if (value instanceof IndexImpl.NullObject) {
+                nullCount += count;
+                return;
+            }
+            values.add(value);
+            counts.add(count);
+        }
+
+        IndexStatistics build() {
+            return new IndexStatistics(this);
+        }
+
+        private Map<Comparable, Long> commonValues() {
+            final PriorityQueue<Integer> mostCommon = new PriorityQueue<Integer>(MAX_COMMON_VALUES + 1,
+                    new Comparator<Integer>() {
+                        @Override
+                        public int compare(Integer i1, Integer i2) {
+                            final long c1 = counts.get(i1);
+                            final long c2 = counts.get(i2);
+                            return c1 < c2 ? -1 : (c1 == c2 ? 0 : 1);
+                        }
+                    });
+            for (int i = 0; i < values.size(); i++) {
+                mostCommon.offer(i);
+                if (mostCommon.size() > MAX_COMMON_VALUES) {
+                    mostCommon.poll();
+                }
+            }
+            final Map<Comparable, Long> result = new HashMap<Comparable, Long>(mostCommon.size() * 2);
+            for (Integer i : mostCommon) {
+                result.put(values.get(i), counts.get(i));
+            }
+            return result;
+        }
+
+        private void buildHistogram(List<Comparable> bounds, List<Long> bucketCounts) {
+            final long depth = Math.max(1, (entryCount - nullCount) / MAX_BUCKETS);
+            bounds.add(values.get(0));
+            long bucketCount = 0;
+            for (int i = 0; i < values.size(); i++) {
+                bucketCount += counts.get(i);
+                if (bucketCount >= depth || i == values.size() - 1) {
+                    bounds.add(values.get(i));
+                    bucketCounts.add(bucketCount);
+                    bucketCount = 0;
+                }
+            }
+        }
+    }
+}
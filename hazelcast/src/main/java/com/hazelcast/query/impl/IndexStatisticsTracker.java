@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the {@link IndexStatistics} of an index, collecting them again once more than a tenth of the entries
+ * have been updated since they were last collected.
+ */
+abstract class IndexStatisticsTracker {
+
+    private static final int UPDATE_RATIO = 10;
+
+    private final AtomicLong updateCount = new AtomicLong();
+    private volatile IndexStatistics statistics;
+    private volatile long statisticsUpdateCount;
+
+    void onUpdate() {
+        updateCount.incrementAndGet();
+    }
+
+    void clear() {
+        statistics = null;
+    }
+
+    IndexStatistics get() {
+        IndexStatistics current = statistics;
+        if (current == null || isStale(current)) {
+            synchronized (this) {
+                current = statistics;
+                if (current == null || isStale(current)) {
+                    final long updates = updateCount.get();
+                    current = collect();
+                    statisticsUpdateCount = updates;
+                    statistics = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private boolean isStale(IndexStatistics current) {
+        final long updates = updateCount.get() - statisticsUpdateCount;
+        return updates > current.getEntryCount() / UPDATE_RATIO;
+    }
+
+    /**
+     * @return the statistics of the current values of the index.
+     */
+    protected abstract IndexStatistics collect();
+}
@@ -38,4 +38,9 @@ public interface IndexStore {
     void newIndex(Comparable newValue, QueryableEntry entry);
 
     ConcurrentMap<Data, QueryableEntry> getRecordMap(Comparable indexValue);
+
+    /**
+     * Adds the indexed values and their entry counts to the builder, in ascending value order if the store is sorted.
+     */
+    void collectStatistics(IndexStatistics.Builder builder);
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The values of an attribute read through all elements of an array, like <tt>items[any].sku</tt>.
+ * <p/>
+ * Predicates match an entry if they match any of the values. Multi-valued attributes cannot be indexed
+ * and their values as a whole are not ordered.
+ */
+public final class MultiResult implements Comparable<MultiResult> {
+
+    private final List<Comparable> values;
+
+    public MultiResult(List<Comparable> values) {
+        this.values = Collections.unmodifiableList(values);
+    }
+
+    public List<Comparable> getValues() {
+        return values;
+    }
+
+    @Override
+    public int compareTo(MultiResult o) {
+        throw new UnsupportedOperationException("Multi-valued attributes are compared value by value");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return values.equals(((MultiResult) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return values.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return values.toString();
+    }
+}
@@ -17,6 +17,7 @@
 package com.hazelcast.query.impl;
 
 import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -29,7 +30,38 @@ public class OrResultSet extends AbstractSet<QueryableEntry> {
     private Set<QueryableEntry> entries;
 
     public OrResultSet(List<Set<QueryableEntry>> indexedResults) {
-        this.indexedResults = indexedResults;
+        this.indexedResults = mergeBitmaps(indexedResults);
+    }
+
+    // merges the bitmap results up front, so they are not iterated one by one
+    private static List<Set<QueryableEntry>> mergeBitmaps(List<Set<QueryableEntry>> indexedResults) {
+        List<Set<QueryableEntry>> results = null;
+        for (Set<QueryableEntry> result : indexedResults) {
+            if (result instanceof BitmapResultSet) {
+                if (results == null) {
+                    results = new ArrayList<Set<QueryableEntry>>(indexedResults.size());
+                }
+                BitmapResultSet bitmapResult = (BitmapResultSet) result;
+                for (int i = 0; i < results.size(); i++) {
+                    Set<QueryableEntry> merged = results.get(i);
+                    if (merged instanceof BitmapResultSet && bitmapResult.isCompatible((BitmapResultSet) merged)) {
+                        results.remove(i);
+                        bitmapResult = bitmapResult.or((BitmapResultSet) merged);
+                        break;
+                    }
+                }
+                results.add(bitmapResult);
+            }
+        }
+        if (results == null) {
+            return indexedResults;
+        }
+        for (Set<QueryableEntry> result : indexedResults) {
+            if (!(result instanceof BitmapResultSet)) {
+                results.add(result);
+            }
+        }
+        return results;
     }
 
     @Override
@@ -16,11 +16,24 @@
 
 package com.hazelcast.query.impl;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 public class QueryContext {
     private final IndexService indexService;
+    private final List<String> plan;
 
     public QueryContext(IndexService indexService) {
+        this(indexService, false);
+    }
+
+    /**
+     * @param explain if the steps of the query plan should be recorded, see {@link #addPlanStep(String)}.
+     */
+    public QueryContext(IndexService indexService, boolean explain) {
         this.indexService = indexService;
+        this.plan = explain ? new ArrayList<String>() : null;
     }
 
     public Index getIndex(String attributeName) {
@@ -30,4 +43,35 @@ public class QueryContext {
             return indexService.getIndex(attributeName);
         }
     }
+
+    /**
+     * @return the indexes on more than one attribute.
+     */
+    public List<Index> getCompositeIndexes() {
+        if (indexService == null) {
+            return Collections.emptyList();
+        } else {
+            return indexService.getCompositeIndexes();
+        }
+    }
+
+    public boolean isExplaining() {
+        return plan != null;
+    }
+
+    /**
+     * Records a step of the query plan, if the query is explained.
+     */
+    public void addPlanStep(String step) {
+        if (plan != null) {
+            plan.add(step);
+        }
+    }
+
+    /**
+     * @return the recorded steps of the query plan, in the order they were chosen.
+     */
+    public List<String> getPlan() {
+        return plan == null ? Collections.<String>emptyList() : plan;
+    }
 }
@@ -17,19 +17,28 @@
 package com.hazelcast.query.impl;
 
 import com.hazelcast.nio.serialization.Data;
-import com.hazelcast.nio.serialization.FieldDefinition;
+import com.hazelcast.nio.serialization.CompactReader;
+import com.hazelcast.nio.serialization.CompactSerializable;
 import com.hazelcast.nio.serialization.FieldType;
-import com.hazelcast.nio.serialization.PortableReader;
+import com.hazelcast.nio.serialization.Portable;
+import com.hazelcast.nio.serialization.PortablePathReader;
+import com.hazelcast.nio.serialization.SerializationConstants;
 import com.hazelcast.nio.serialization.SerializationService;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.hazelcast.query.QueryConstants.KEY_ATTRIBUTE_NAME;
 import static com.hazelcast.query.QueryConstants.THIS_ATTRIBUTE_NAME;
 
 public class QueryEntry implements QueryableEntry {
 
-    private static final PortableExtractor EXTRACTOR = new PortableExtractor();
+    /**
+     * Returned by {@link #compareAttribute(String, Number)} if the attribute has to be compared after reading it
+     * with {@link #getAttribute(String)}.
+     */
+    public static final int NOT_COMPARABLE = Integer.MIN_VALUE;
 
     private final SerializationService serializationService;
     private final Data indexKey;
@@ -37,7 +46,8 @@ public class QueryEntry implements QueryableEntry {
     private Object keyObject;
     private Data value;
     private Object valueObject;
-    private PortableReader reader;
+    private PortablePathReader reader;
+    private CompactReader compactReader;
 
     public QueryEntry(SerializationService serializationService, Data indexKey, Object key, Object value) {
         if (indexKey == null) {
@@ -81,15 +91,55 @@ public class QueryEntry implements QueryableEntry {
 
     @Override
     public Comparable getAttribute(String attributeName) throws QueryException {
+        if (getPortableFieldType(attributeName) != null) {
+            return extractFromPortable(attributeName);
+        }
+        return extractViaReflection(attributeName);
+    }
+
+    /**
+     * @return the type of the attribute if the value is a portable or compact serializable having the attribute path,
+     * otherwise <tt>null</tt>.
+     */
+    private FieldType getPortableFieldType(String attributeName) {
+        if (value == null && !(valueObject instanceof Portable) && !(valueObject instanceof CompactSerializable)) {
+            // values kept as objects are not serialized just to find out they are not portable
+            return null;
+        }
         final Data data = getValueData();
-        if (data != null && data.isPortable()) {
-            FieldDefinition fd = data.getClassDefinition().get(attributeName);
-            if (fd != null) {
-                PortableReader reader = getOrCreatePortableReader();
-                return EXTRACTOR.extract(reader, attributeName, fd.getType().getId());
+        if (data == null) {
+            return null;
+        }
+        if (data.isPortable()) {
+            return getOrCreatePortableReader().getFieldType(attributeName);
+        }
+        if (data.getType() == SerializationConstants.DEFAULT_TYPE_COMPACT) {
+            try {
+                return getOrCreateCompactReader().getFieldType(attributeName);
+            } catch (IOException e) {
+                throw new QueryException(e);
             }
         }
-        return extractViaReflection(attributeName);
+        return null;
+    }
+
+    // reads the attribute from the serialized value, nested objects included, without deserializing it
+    private Comparable extractFromPortable(String attributeName) {
+        try {
+            final Object result = getValueData().isPortable()
+                    ? getOrCreatePortableReader().read(attributeName)
+                    : getOrCreateCompactReader().read(attributeName);
+            if (result instanceof List) {
+                final List<Comparable> values = new ArrayList<Comparable>();
+                for (Object element : (List) result) {
+                    values.add((Comparable) element);
+                }
+                return new MultiResult(values);
+            }
+            return (Comparable) result;
+        } catch (IOException e) {
+            throw new QueryException(e);
+        }
     }
 
     private Comparable extractViaReflection(String attributeName) {
@@ -110,14 +160,32 @@ public class QueryEntry implements QueryableEntry {
         }
     }
 
+    /**
+     * Compares a primitive numeric attribute with the value without boxing the attribute, if the attribute is read
+     * by generated code and the value is of the attribute's type.
+     *
+     * @return the result of the comparison, or {@link #NOT_COMPARABLE}.
+     */
+    public int compareAttribute(String attributeName, Number value) throws QueryException {
+        if (KEY_ATTRIBUTE_NAME.equals(attributeName) || THIS_ATTRIBUTE_NAME.equals(attributeName)
+                || getPortableFieldType(attributeName) != null) {
+            return NOT_COMPARABLE;
+        }
+        try {
+            final Object object = attributeName.startsWith(KEY_ATTRIBUTE_NAME) ? getKey() : getValue();
+            return ReflectionHelper.compareAttribute(this, attributeName, object, value);
+        } catch (QueryException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new QueryException(e);
+        }
+    }
+
     @Override
     public AttributeType getAttributeType(String attributeName) {
-        final Data data = getValueData();
-        if (data != null && data.isPortable()) {
-            FieldDefinition fd = data.getClassDefinition().get(attributeName);
-            if (fd != null) {
-                return AttributeType.getAttributeType(fd.getType().getId());
-            }
+        final FieldType type = getPortableFieldType(attributeName);
+        if (type != null) {
+            return AttributeType.getAttributeType(type.getId());
         }
         return getAttributeTypeViaReflection(attributeName);
     }
@@ -164,13 +232,20 @@ public class QueryEntry implements QueryableEntry {
         throw new UnsupportedOperationException();
     }
 
-    private PortableReader getOrCreatePortableReader() {
+    private PortablePathReader getOrCreatePortableReader() {
         if (reader == null) {
-            reader = serializationService.createPortableReader(value);
+            reader = serializationService.createPortablePathReader(getValueData());
         }
         return reader;
     }
 
+    private CompactReader getOrCreateCompactReader() {
+        if (compactReader == null) {
+            compactReader = serializationService.createCompactReader(getValueData());
+        }
+        return compactReader;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -190,95 +265,4 @@ public class QueryEntry implements QueryableEntry {
     public int hashCode() {
         return indexKey.hashCode();
     }
-
-    private static class PortableExtractor {
-        PortableFieldExtractor[] extractors = new PortableFieldExtractor[FieldType.values().length];
-
-        PortableExtractor() {
-            extractors[FieldType.BYTE.getId()] = new PortableByteFieldExtractor();
-            extractors[FieldType.BOOLEAN.getId()] = new PortableBooleanFieldExtractor();
-            extractors[FieldType.LONG.getId()] = new PortableLongFieldExtractor();
-            extractors[FieldType.INT.getId()] = new PortableIntegerFieldExtractor();
-            extractors[FieldType.CHAR.getId()] = new PortableCharFieldExtractor();
-            extractors[FieldType.DOUBLE.getId()] = new PortableDoubleFieldExtractor();
-            extractors[FieldType.SHORT.getId()] = new PortableShortFieldExtractor();
-            extractors[FieldType.FLOAT.getId()] = new PortableFloatFieldExtractor();
-            extractors[FieldType.UTF.getId()] = new PortableUtfFieldExtractor();
-        }
-
-        public Comparable extract(PortableReader reader, String fieldName, byte fieldType) throws QueryException {
-            try {
-                return extractors[fieldType].extract(reader, fieldName);
-            } catch (IOException e) {
-                throw new QueryException(e);
-            }
-        }
-
-        static class PortableIntegerFieldExtractor implements PortableFieldExtractor {
-            @Override
-            public Comparable extract(PortableReader reader, String fieldName) throws IOException {
-                return reader.readInt(fieldName);
-            }
-        }
-
-        static class PortableByteFieldExtractor implements PortableFieldExtractor {
-            @Override
-            public Comparable extract(PortableReader reader, String fieldName) throws IOException {
-                return reader.readByte(fieldName);
-            }
-        }
-
-        static class PortableLongFieldExtractor implements PortableFieldExtractor {
-            @Override
-            public Comparable extract(PortableReader reader, String fieldName) throws IOException {
-                return reader.readLong(fieldName);
-            }
-        }
-
-        static class PortableDoubleFieldExtractor implements PortableFieldExtractor {
-            @Override
-            public Comparable extract(PortableReader reader, String fieldName) throws IOException {
-                return reader.readDouble(fieldName);
-            }
-        }
-
-        static class PortableFloatFieldExtractor implements PortableFieldExtractor {
-            @Override
-            public Comparable extract(PortableReader reader, String fieldName) throws IOException {
-                return reader.readFloat(fieldName);
-            }
-        }
-
-        static class PortableShortFieldExtractor implements PortableFieldExtractor {
-            @Override
-            public Comparable extract(PortableReader reader, String fieldName) throws IOException {
-                return reader.readShort(fieldName);
-            }
-        }
-
-        static class PortableUtfFieldExtractor implements PortableFieldExtractor {
-            @Override
-            public Comparable extract(PortableReader reader, String fieldName) throws IOException {
-                return reader.readUTF(fieldName);
-            }
-        }
-
-        static class PortableCharFieldExtractor implements PortableFieldExtractor {
-            @Override
-            public Comparable extract(PortableReader reader, String fieldName) throws IOException {
-                return reader.readChar(fieldName);
-            }
-        }
-
-        static class PortableBooleanFieldExtractor implements PortableFieldExtractor {
-            @Override
-            public Comparable extract(PortableReader reader, String fieldName) throws IOException {
-                return reader.readBoolean(fieldName);
-            }
-        }
-
-        interface PortableFieldExtractor {
-            Comparable extract(PortableReader reader, String fieldName) throws IOException;
-        }
-    }
 }
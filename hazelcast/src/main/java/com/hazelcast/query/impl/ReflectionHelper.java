@@ -17,12 +17,14 @@
 package com.hazelcast.query.impl;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -33,8 +35,11 @@ import static com.hazelcast.query.QueryConstants.THIS_ATTRIBUTE_NAME;
 public final class ReflectionHelper {
 
     private static final  ClassLoader THIS_CL = ReflectionHelper.class.getClassLoader();
-    private static final  ConcurrentMap<String, Getter> GETTER_CACHE = new ConcurrentHashMap<String, Getter>(1000);
+    // getters by class and attribute, looked up without building a key for each attribute read
+    private static final ConcurrentMap<Class, ConcurrentMap<String, Getter>> GETTER_CACHE
+            = new ConcurrentHashMap<Class, ConcurrentMap<String, Getter>>(1000);
     private static final int INITIAL_CAPACITY = 3;
+    private static final String COMPILE_GETTERS_PROPERTY = "hazelcast.query.compiled.getters";
 
     private ReflectionHelper() {
     }
@@ -92,8 +97,9 @@ public final class ReflectionHelper {
         }
 
         Class clazz = obj.getClass();
-        final String cacheKey = clazz.getName() + ":" + attribute;
-        Getter getter = GETTER_CACHE.get(cacheKey);
+        final Class rootClass = clazz;
+        final ConcurrentMap<String, Getter> classGetters = GETTER_CACHE.get(rootClass);
+        Getter getter = classGetters == null ? null : classGetters.get(attribute);
         if (getter != null) {
             return getter;
         }
@@ -152,7 +158,8 @@ public final class ReflectionHelper {
             }
             getter = parent;
             if (getter.isCacheable()) {
-                Getter foundGetter = GETTER_CACHE.putIfAbsent(cacheKey, getter);
+                getter = compile(rootClass, getter, obj);
+                Getter foundGetter = getClassGetters(rootClass).putIfAbsent(attribute, getter);
                 if (foundGetter != null) {
                     getter = foundGetter;
                 }
@@ -163,10 +170,74 @@ public final class ReflectionHelper {
         }
     }
 
+    private static ConcurrentMap<String, Getter> getClassGetters(Class clazz) {
+        ConcurrentMap<String, Getter> classGetters = GETTER_CACHE.get(clazz);
+        if (classGetters == null) {
+            final ConcurrentMap<String, Getter> newGetters = new ConcurrentHashMap<String, Getter>(INITIAL_CAPACITY);
+            classGetters = GETTER_CACHE.putIfAbsent(clazz, newGetters);
+            if (classGetters == null) {
+                classGetters = newGetters;
+            }
+        }
+        return classGetters;
+    }
+
+    /**
+     * Replaces the getter by one reading the attribute with generated bytecode, if the members on its path are
+     * public. Only cacheable getters are compiled, so classes are generated once per class and attribute.
+     */
+    private static Getter compile(Class rootClass, Getter getter, Object sample) {
+        if (!Boolean.parseBoolean(System.getProperty(COMPILE_GETTERS_PROPERTY, "true"))) {
+            return getter;
+        }
+        final LinkedList<Member> path = new LinkedList<Member>();
+        for (Getter g = getter; g != null; g = g.parent) {
+            if (g instanceof MethodGetter) {
+                path.addFirst(((MethodGetter) g).method);
+            } else if (g instanceof FieldGetter) {
+                path.addFirst(((FieldGetter) g).field);
+            } else {
+                return getter;
+            }
+        }
+        final AttributeExtractor extractor = ExtractorGenerator.generate(rootClass, path);
+        if (extractor == null) {
+            return getter;
+        }
+        try {
+            // links the generated code to the members it reads
+            extractor.extract(sample);
+        } catch (Throwable t) {
+            // anything else is thrown by the attribute itself, the reflective getter would throw it as well
+            if (t instanceof LinkageError) {
+                return getter;
+            }
+        }
+        Class primitiveType = null;
+        if (ExtractorGenerator.isLongPath(path) || ExtractorGenerator.isDoublePath(path)) {
+            primitiveType = getter.getReturnType();
+        }
+        return new CompiledGetter(getter, extractor, primitiveType);
+    }
+
     public static Comparable extractValue(QueryEntry queryEntry, String attributeName, Object object) throws Exception {
         return (Comparable) createGetter(queryEntry, attributeName).getValue(object);
     }
 
+    /**
+     * Compares a primitive numeric attribute of the object with the value without boxing the attribute.
+     *
+     * @return the result of the comparison, or {@link QueryEntry#NOT_COMPARABLE} if the attribute is not read by
+     * generated code or the value is not of the attribute's type.
+     */
+    public static int compareAttribute(QueryEntry queryEntry, String attributeName, Object object, Number value) {
+        final Getter getter = createGetter(queryEntry, attributeName);
+        if (getter instanceof CompiledGetter) {
+            return ((CompiledGetter) getter).compare(object, value);
+        }
+        return QueryEntry.NOT_COMPARABLE;
+    }
+
     private abstract static class Getter {
         protected final Getter parent;
 
@@ -239,6 +310,59 @@ public final class ReflectionHelper {
         }
     }
 
+    static class CompiledGetter extends Getter {
+        final Getter getter;
+        final AttributeExtractor extractor;
+        final Class primitiveType;
+        final Class wrapperType;
+
+        CompiledGetter(Getter getter, AttributeExtractor extractor, Class primitiveType) {
+            super(null);
+            this.getter = getter;
+            this.extractor = extractor;
+            this.primitiveType = primitiveType;
+            this.wrapperType = primitiveType == null ? null : ExtractorGenerator.getWrapper(primitiveType);
+        }
+
+        @Override
+        Object getValue(Object obj) throws Exception {
+            return extractor.extract(obj);
+        }
+
+        int compare(Object obj, Number value) {
+            final Class valueType = value.getClass();
+            if (primitiveType == null) {
+                return QueryEntry.NOT_COMPARABLE;
+            } else if (primitiveType == double.class) {
+                return valueType == Double.class
+                        ? Double.compare(extractor.extractDouble(obj), value.doubleValue()) : QueryEntry.NOT_COMPARABLE;
+            } else if (primitiveType == float.class) {
+                return valueType == Float.class
+                        ? Float.compare((float) extractor.extractDouble(obj), value.floatValue()) : QueryEntry.NOT_COMPARABLE;
+            } else if (valueType == wrapperType || (primitiveType == long.class && valueType == Integer.class)) {
+                final long attributeValue = extractor.extractLong(obj);
+                final long longValue = value.longValue();
+                return attributeValue < longValue ? -1 : (attributeValue == longValue ? 0 : 1);
+            }
+            return QueryEntry.NOT_COMPARABLE;
+        }
+
+        @Override
+        Class getReturnType() {
+            return getter.getReturnType();
+        }
+
+        @Override
+        boolean isCacheable() {
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "CompiledGetter [getter=" + getter + "]";
+        }
+    }
+
     static class ThisGetter extends Getter {
         final Object object;
 
@@ -135,6 +135,20 @@ public class SortedIndexStore implements IndexStore {
         }
     }
 
+    @Override
+    public void collectStatistics(IndexStatistics.Builder builder) {
+        ConcurrentMap<Data, QueryableEntry> nullRecords = mapRecords.get(IndexImpl.NULL);
+        if (nullRecords != null) {
+            builder.add(IndexImpl.NULL, nullRecords.size());
+        }
+        for (Comparable value : sortedSet) {
+            ConcurrentMap<Data, QueryableEntry> records = mapRecords.get(value);
+            if (records != null) {
+                builder.add(value, records.size());
+            }
+        }
+    }
+
     @Override
     public String toString() {
         return "SortedIndexStore{"
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A compressed bitmap of non negative int ids.
+ * <p/>
+ * Only the 64 bit words having at least one bit set are stored, sorted by their word index, so the size of the
+ * bitmap depends on the number and spread of the set bits instead of the highest id. Intersections and unions
+ * merge the words of two bitmaps without looking at the single bits.
+ * <p/>
+ * Not thread safe.
+ */
+public final class SparseBitmap {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] wordIndexes;
+    private long[] words;
+    private int wordCount;
+    private int cardinality;
+
+    public SparseBitmap() {
+        this(INITIAL_CAPACITY);
+    }
+
+    private SparseBitmap(int capacity) {
+        wordIndexes = new int[capacity];
+        words = new long[capacity];
+    }
+
+    /**
+     * Sets the bit of the id.
+     *
+     * @return <tt>true</tt> if the bit was not set before.
+     */
+    public boolean add(int id) {
+        final int wordIndex = id >>> ADDRESS_BITS_PER_WORD;
+        final long mask = 1L << id;
+        int i = find(wordIndex);
+        if (i < 0) {
+            i = -i - 1;
+            insertWord(i, wordIndex);
+        } else if ((words[i] & mask) != 0) {
+            return false;
+        }
+        words[i] |= mask;
+        cardinality++;
+        return true;
+    }
+
+    /**
+     * Clears the bit of the id.
+     *
+     * @return <tt>true</tt> if the bit was set before.
+     */
+    public boolean remove(int id) {
+        final int i = find(id >>> ADDRESS_BITS_PER_WORD);
+        final long mask = 1L << id;
+        if (i < 0 || (words[i] & mask) == 0) {
+            return false;
+        }
+        words[i] &= ~mask;
+        cardinality--;
+        if (words[i] == 0) {
+            removeWord(i);
+        }
+        return true;
+    }
+
+    public boolean contains(int id) {
+        final int i = find(id >>> ADDRESS_BITS_PER_WORD);
+        return i >= 0 && (words[i] & (1L << id)) != 0;
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public SparseBitmap copy() {
+        final SparseBitmap copy = new SparseBitmap(Math.max(wordCount, 1));
+        System.arraycopy(wordIndexes, 0, copy.wordIndexes, 0, wordCount);
+        System.arraycopy(words, 0, copy.words, 0, wordCount);
+        copy.wordCount = wordCount;
+        copy.cardinality = cardinality;
+        return copy;
+    }
+
+    /**
+     * @return a new bitmap with the bits set in both this and the other bitmap.
+     */
+    public SparseBitmap and(SparseBitmap other) {
+        final SparseBitmap result = new SparseBitmap(Math.max(Math.min(wordCount, other.wordCount), 1));
+        int i = 0;
+        int j = 0;
+        while (i < wordCount && j < other.wordCount) {
+            final int wordIndex = wordIndexes[i];
+            final int otherWordIndex = other.wordIndexes[j];
+            if (wordIndex < otherWordIndex) {
+                i++;
+            } else if (wordIndex > otherWordIndex) {
+                j++;
+            } else {
+                result.appendWord(wordIndex, words[i++] & other.words[j++]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a new bitmap with the bits set in this or the other bitmap.
+     */
+    public SparseBitmap or(SparseBitmap other) {
+        final SparseBitmap result = new SparseBitmap(Math.max(wordCount + other.wordCount, 1));
+        int i = 0;
+        int j = 0;
+        while (i < wordCount || j < other.wordCount) {
+            if (j == other.wordCount || (i < wordCount && wordIndexes[i] < other.wordIndexes[j])) {
+                result.appendWord(wordIndexes[i], words[i++]);
+            } else if (i == wordCount || wordIndexes[i] > other.wordIndexes[j]) {
+                result.appendWord(other.wordIndexes[j], other.words[j++]);
+            } else {
+                result.appendWord(wordIndexes[i], words[i++] | other.words[j++]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a new bitmap with the bits set in this bitmap, but not in the other bitmap.
+     */
+    public SparseBitmap andNot(SparseBitmap other) {
+        final SparseBitmap result = new SparseBitmap(Math.max(wordCount, 1));
+        int j = 0;
+        for (int i = 0; i < wordCount; i++) {
+            final int wordIndex = wordIndexes[i];
+            while (j < other.wordCount && other.wordIndexes[j] < wordIndex) {
+                j++;
+            }
+            if (j < other.wordCount && other.wordIndexes[j] == wordIndex) {
+                result.appendWord(wordIndex, words[i] & ~other.words[j]);
+            } else {
+                result.appendWord(wordIndex, words[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return an iterator over the ids of the set bits, in ascending order.
+     */
+    public IdIterator iterator() {
+        return new IdIterator();
+    }
+
+    private int find(int wordIndex) {
+        int low = 0;
+        int high = wordCount - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int midWordIndex = wordIndexes[mid];
+            if (midWordIndex < wordIndex) {
+                low = mid + 1;
+            } else if (midWordIndex > wordIndex) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void insertWord(int i, int wordIndex) {
+        ensureCapacity(wordCount + 1);
+        System.arraycopy(wordIndexes, i, wordIndexes, i + 1, wordCount - i);
+        System.arraycopy(words, i, words, i + 1, wordCount - i);
+        wordIndexes[i] = wordIndex;
+        words[i] = 0;
+        wordCount++;
+    }
+
+    private void removeWord(int i) {
+        System.arraycopy(wordIndexes, i + 1, wordIndexes, i, wordCount - i - 1);
+        System.arraycopy(words, i + 1, words, i, wordCount - i - 1);
+        wordCount--;
+    }
+
+    // words must be appended in ascending word index order
+    private void appendWord(int wordIndex, long word) {
+        if (word == 0) {
+            return;
+        }
+        ensureCapacity(wordCount + 1);
+        wordIndexes[wordCount] = wordIndex;
+        words[wordCount] = word;
+        wordCount++;
+        cardinality += Long.bitCount(word);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > words.length) {
+            final int newCapacity = Math.max(capacity, words.length << 1);
+            final int[] newWordIndexes = new int[newCapacity];
+            final long[] newWords = new long[newCapacity];
+            System.arraycopy(wordIndexes, 0, newWordIndexes, 0, wordCount);
+            System.arraycopy(words, 0, newWords, 0, wordCount);
+            wordIndexes = newWordIndexes;
+            words = newWords;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SparseBitmap{cardinality=" + cardinality + ", words=" + wordCount + '}';
+    }
+
+    /**
+     * Iterates the ids of the set bits without boxing them.
+     */
+    public final class IdIterator {
+        private int i;
+        private long word = wordCount > 0 ? words[0] : 0;
+
+        public boolean hasNext() {
+            while (word == 0) {
+                if (++i >= wordCount) {
+                    return false;
+                }
+                word = words[i];
+            }
+            return true;
+        }
+
+        public int next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final int bit = Long.numberOfTrailingZeros(word);
+            word &= word - 1;
+            return (wordIndexes[i] << ADDRESS_BITS_PER_WORD) + bit;
+        }
+    }
+}
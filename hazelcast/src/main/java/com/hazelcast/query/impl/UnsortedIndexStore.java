@@ -18,6 +18,7 @@ package com.hazelcast.query.impl;
 
 import com.hazelcast.nio.serialization.Data;
 
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -136,6 +137,13 @@ public class UnsortedIndexStore implements IndexStore {
         mapRecords.clear();
     }
 
+    @Override
+    public void collectStatistics(IndexStatistics.Builder builder) {
+        for (Map.Entry<Comparable, ConcurrentMap<Data, QueryableEntry>> entry : mapRecords.entrySet()) {
+            builder.add(entry.getKey(), entry.getValue().size());
+        }
+    }
+
     @Override
     public String toString() {
         return "UnsortedIndexStore{"
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl;
+
+import com.hazelcast.nio.PolledIOSelector;
+import com.hazelcast.util.concurrent.IdleStrategy;
+import com.hazelcast.util.concurrent.ManyToOneConcurrentArrayQueue;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link OperationQueue} based on a {@link ManyToOneConcurrentArrayQueue}, for a single consumer thread.
+ * <p/>
+ * A consumer without work idles according to its {@link IdleStrategy}. While it idles, producers unpark it
+ * after offering a task, so a parking strategy does not delay tasks offered to an empty queue.
+ * <p/>
+ * Producers never wait for space: operation threads offer tasks to each other (e.g. backups between local members),
+ * so waiting could deadlock. When the array is full, tasks go to an unbounded overflow queue until it is empty again.
+ * An overflow task remembers the number of tasks offered to the array before it and is not taken before
+ * all of them, so tasks of a producer are taken in the order they were offered.
+ * <p/>
+ * In thread-per-core mode the consumer also polls a {@link PolledIOSelector} each time it takes tasks, and waits
+ * on the selector instead of following its idle strategy, so it handles network IO while it has no tasks.
+ */
+final class ArrayOperationQueue implements OperationQueue {
+
+    private static final long SELECT_TIMEOUT_MILLIS = 1000;
+
+    private final ManyToOneConcurrentArrayQueue<Object> queue;
+    private final Queue<OverflowTask> overflowQueue = new ConcurrentLinkedQueue<OverflowTask>();
+    private final AtomicInteger overflowCount = new AtomicInteger();
+    private final IdleStrategy idleStrategy;
+    private final PolledIOSelector ioSelector;
+    private volatile Thread consumer;
+    private volatile boolean consumerIdle;
+
+    ArrayOperationQueue(int capacity, IdleStrategy idleStrategy) {
+        this(capacity, idleStrategy, null);
+    }
+
+    ArrayOperationQueue(int capacity, IdleStrategy idleStrategy, PolledIOSelector ioSelector) {
+        this.queue = new ManyToOneConcurrentArrayQueue<Object>(capacity);
+        this.idleStrategy = idleStrategy;
+        this.ioSelector = ioSelector;
+    }
+
+    @Override
+    public boolean offer(Object task) {
+        // once a task overflowed, following tasks overflow too until the overflow queue is drained
+        if (overflowCount.get() > 0 || !queue.offer(task)) {
+            overflowCount.incrementAndGet();
+            overflowQueue.offer(new OverflowTask(task, queue.offeredCount()));
+        }
+        if (consumerIdle) {
+            if (ioSelector != null) {
+                ioSelector.wakeup();
+            } else {
+                LockSupport.unpark(consumer);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int drainTo(Object[] tasks) throws InterruptedException {
+        if (consumer == null) {
+            consumer = Thread.currentThread();
+        }
+        long idleCount = 0;
+        for (; ; ) {
+            if (ioSelector != null) {
+                // an interrupted thread would close the channels it does IO on
+                checkInterrupted();
+                ioSelector.selectNow();
+            }
+            int count = queue.drainTo(tasks, tasks.length);
+            if (count < tasks.length && overflowCount.get() > 0) {
+                count = drainOverflow(tasks, count);
+            }
+            if (count > 0) {
+                return count;
+            }
+            consumerIdle = true;
+            // checked after consumerIdle is set, so a task offered meanwhile either is seen here
+            // or its producer sees consumerIdle and unparks
+            if (queue.isEmpty() && overflowCount.get() == 0) {
+                idle(idleCount++);
+            }
+            consumerIdle = false;
+            checkInterrupted();
+        }
+    }
+
+    private void idle(long idleCount) throws InterruptedException {
+        if (ioSelector != null) {
+            checkInterrupted();
+            ioSelector.select(SELECT_TIMEOUT_MILLIS);
+        } else {
+            idleStrategy.idle(idleCount);
+        }
+    }
+
+    private static void checkInterrupted() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    private int drainOverflow(Object[] tasks, int count) {
+        final long polledCount = queue.polledCount();
+        while (count < tasks.length) {
+            final OverflowTask overflowTask = overflowQueue.peek();
+            if (overflowTask == null || overflowTask.offeredBefore > polledCount) {
+                break;
+            }
+            overflowQueue.poll();
+            overflowCount.decrementAndGet();
+            tasks[count++] = overflowTask.task;
+        }
+        return count;
+    }
+
+    @Override
+    public int size() {
+        return queue.size() + overflowCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ArrayOperationQueue{capacity=" + queue.capacity() + ", size=" + queue.size()
+                + ", overflow=" + overflowCount.get() + ", idleStrategy=" + idleStrategy
+                + ", ioSelector=" + ioSelector + '}';
+    }
+
+    private static final class OverflowTask {
+        final Object task;
+        final long offeredBefore;
+
+        OverflowTask(Object task, long offeredBefore) {
+            this.task = task;
+            this.offeredBefore = offeredBefore;
+        }
+    }
+}
@@ -19,12 +19,18 @@ package com.hazelcast.spi.impl;
 import com.hazelcast.core.PartitionAware;
 import com.hazelcast.instance.Node;
 import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.IOSelector;
 import com.hazelcast.nio.Packet;
+import com.hazelcast.nio.PolledIOSelector;
 import com.hazelcast.spi.ExecutionService;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.PartitionAwareOperation;
 import com.hazelcast.spi.UrgentSystemOperation;
+import com.hazelcast.util.concurrent.BackoffIdleStrategy;
+import com.hazelcast.util.concurrent.IdleStrategy;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
 import java.util.Random;
 import java.util.concurrent.BlockingQueue;
@@ -34,6 +40,7 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import static com.hazelcast.instance.OutOfMemoryErrorDispatcher.onOutOfMemory;
 
@@ -58,11 +65,27 @@ import static com.hazelcast.instance.OutOfMemoryErrorDispatcher.onOutOfMemory;
  * specific to a partition. E.g. a heart beat or a map.size.
  * </li>
  * </ol>
+ * <p/>
+ * The work queues of the partition operation threads are created according to the
+ * {@link com.hazelcast.instance.GroupProperties#PROP_OPERATION_QUEUE_TYPE}: either unbounded blocking queues, or
+ * lock-free array queues, which don't allocate per task until they overflow, whose threads idle according to the
+ * {@link com.hazelcast.instance.GroupProperties#PROP_OPERATION_IDLE_STRATEGY} when there is no work.
+ * Operation threads take tasks from their queues in batches.
+ * <p/>
+ * In thread-per-core mode ({@link com.hazelcast.instance.GroupProperties#PROP_IO_THREAD_PER_CORE}) there is a partition
+ * operation thread per core and each of them polls a selector used by the connection manager instead of its own
+ * IO threads. Operations read by a thread for a partition it owns are queued to itself, and the responses are
+ * written by the thread reading the request, without waking up other threads.
  */
 public final class BasicOperationScheduler {
 
     public static final int TERMINATION_TIMEOUT_SECONDS = 3;
 
+    private static final int BACKOFF_MAX_SPINS = 100;
+    private static final int BACKOFF_MAX_YIELDS = 10;
+    private static final long BACKOFF_MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
     private final ILogger logger;
 
     private final Node node;
@@ -71,7 +94,7 @@ public final class BasicOperationScheduler {
 
     //the generic workqueues are shared between all generic operation threads, so that work can be stolen
     //and a task gets processed as quickly as possible.
-    private final BlockingQueue genericWorkQueue = new LinkedBlockingQueue();
+    private final OperationQueue genericWorkQueue = new BlockingOperationQueue();
     private final ConcurrentLinkedQueue genericPriorityWorkQueue = new ConcurrentLinkedQueue();
 
     //all operations for specific partitions will be executed on these threads, .e.g map.put(key,value).
@@ -91,6 +114,11 @@ public final class BasicOperationScheduler {
 
     private volatile boolean shutdown;
 
+    private final int drainBatchSize;
+
+    //the selectors polled by the partition operation threads in thread-per-core mode, null otherwise.
+    private final PolledIOSelector[] partitionIOSelectors;
+
     //The trigger is used when a priority message is send and offered to the operation-thread priority queue.
     //To wakeup the thread, a priorityTaskTrigger is send to the regular blocking queue to wake up the operation
     //thread.
@@ -112,11 +140,15 @@ public final class BasicOperationScheduler {
         this.logger = node.getLogger(BasicOperationScheduler.class);
         this.node = node;
         this.processor = processor;
+        this.drainBatchSize = Math.max(1, node.getGroupProperties().OPERATION_DRAIN_BATCH_SIZE.getInteger());
 
         this.genericOperationThreads = new OperationThread[getGenericOperationThreadCount()];
         initOperationThreads(genericOperationThreads, new GenericOperationThreadFactory());
 
-        this.partitionOperationThreads = new OperationThread[getPartitionOperationThreadCount()];
+        final boolean threadPerCore = node.getGroupProperties().IO_THREAD_PER_CORE.getBoolean();
+        final int partitionThreadCount = getPartitionOperationThreadCount(threadPerCore);
+        this.partitionIOSelectors = threadPerCore ? newPartitionIOSelectors(partitionThreadCount) : null;
+        this.partitionOperationThreads = new OperationThread[partitionThreadCount];
         initOperationThreads(partitionOperationThreads, new PartitionOperationThreadFactory());
 
         this.responseThread = new ResponseThread();
@@ -143,11 +175,48 @@ public final class BasicOperationScheduler {
         return threadCount;
     }
 
-    private int getPartitionOperationThreadCount() {
+    private PolledIOSelector[] newPartitionIOSelectors(int threadCount) {
+        final PolledIOSelector[] selectors = new PolledIOSelector[threadCount];
+        for (int threadId = 0; threadId < threadCount; threadId++) {
+            String name = node.getThreadPoolNamePrefix("partition-operation") + threadId;
+            selectors[threadId] = new PolledIOSelector(name, node.getLogger(PolledIOSelector.class));
+        }
+        return selectors;
+    }
+
+    private OperationQueue newPartitionWorkQueue(int threadId) {
+        if (partitionIOSelectors != null) {
+            final int capacity = node.getGroupProperties().OPERATION_QUEUE_CAPACITY.getInteger();
+            return new ArrayOperationQueue(capacity, newIdleStrategy(), partitionIOSelectors[threadId]);
+        }
+        final String queueType = node.getGroupProperties().OPERATION_QUEUE_TYPE.getString();
+        if ("blocking".equalsIgnoreCase(queueType)) {
+            return new BlockingOperationQueue();
+        } else if ("array".equalsIgnoreCase(queueType)) {
+            final int capacity = node.getGroupProperties().OPERATION_QUEUE_CAPACITY.getInteger();
+            return new ArrayOperationQueue(capacity, newIdleStrategy());
+        }
+        throw new IllegalArgumentException("Unknown operation queue type: " + queueType);
+    }
+
+    private IdleStrategy newIdleStrategy() {
+        final String idleStrategy = node.getGroupProperties().OPERATION_IDLE_STRATEGY.getString();
+        if ("backoff".equalsIgnoreCase(idleStrategy)) {
+            return new BackoffIdleStrategy(BACKOFF_MAX_SPINS, BACKOFF_MAX_YIELDS, BACKOFF_MIN_PARK_NANOS, MAX_PARK_NANOS);
+        } else if ("park".equalsIgnoreCase(idleStrategy)) {
+            return new BackoffIdleStrategy(0, 0, MAX_PARK_NANOS, MAX_PARK_NANOS);
+        } else if ("busyspin".equalsIgnoreCase(idleStrategy)) {
+            return new BackoffIdleStrategy(Long.MAX_VALUE, 0, MAX_PARK_NANOS, MAX_PARK_NANOS);
+        }
+        throw new IllegalArgumentException("Unknown operation idle strategy: " + idleStrategy);
+    }
+
+    private int getPartitionOperationThreadCount(boolean threadPerCore) {
         int threadCount = node.getGroupProperties().PARTITION_OPERATION_THREAD_COUNT.getInteger();
         if (threadCount <= 0) {
             int coreSize = Runtime.getRuntime().availableProcessors();
-            threadCount = coreSize * 2;
+            //threads doing their own IO don't wait for it, so there is no need for more threads than cores.
+            threadCount = threadPerCore ? coreSize : coreSize * 2;
         }
         return threadCount;
     }
@@ -232,6 +301,22 @@ public final class BasicOperationScheduler {
         return responseThread.workQueue.size();
     }
 
+    public List<OperationThreadStats> getOperationThreadStats() {
+        final List<OperationThreadStats> stats
+                = new ArrayList<OperationThreadStats>(partitionOperationThreads.length + genericOperationThreads.length);
+        for (OperationThread t : partitionOperationThreads) {
+            stats.add(t.getStats());
+        }
+        for (OperationThread t : genericOperationThreads) {
+            stats.add(t.getStats());
+        }
+        return stats;
+    }
+
+    public IOSelector[] getPartitionIOSelectors() {
+        return partitionIOSelectors;
+    }
+
     public void execute(Operation op) {
         String executorName = op.getExecutorName();
         if (executorName == null) {
@@ -282,7 +367,7 @@ public final class BasicOperationScheduler {
             throw new NullPointerException();
         }
 
-        BlockingQueue workQueue;
+        OperationQueue workQueue;
         Queue priorityWorkQueue;
         if (partitionId < 0) {
             workQueue = genericWorkQueue;
@@ -294,20 +379,18 @@ public final class BasicOperationScheduler {
         }
 
         if (priority) {
-            offerWork(priorityWorkQueue, task);
-            offerWork(workQueue, priorityTaskTrigger);
+            offerWork(priorityWorkQueue.offer(task), task);
+            offerWork(workQueue.offer(priorityTaskTrigger), priorityTaskTrigger);
         } else {
-            offerWork(workQueue, task);
+            offerWork(workQueue.offer(task), task);
         }
     }
 
-    private void offerWork(Queue queue, Object task) {
+    private void offerWork(boolean offered, Object task) {
         //in 3.3 we are going to apply backpressure on overload and then we are going to do something
         //with the return values of the offer methods.
         //Currently the queues are all unbound, so this can't happen anyway.
-
-        boolean offer = queue.offer(task);
-        if (!offer) {
+        if (!offered) {
             logger.severe("Failed to offer " + task + " to BasicOperationScheduler due to overload");
         }
     }
@@ -322,6 +405,11 @@ public final class BasicOperationScheduler {
         interruptAll(genericOperationThreads);
         awaitTermination(partitionOperationThreads);
         awaitTermination(genericOperationThreads);
+        if (partitionIOSelectors != null) {
+            for (PolledIOSelector ioSelector : partitionIOSelectors) {
+                ioSelector.shutdown();
+            }
+        }
     }
 
     private static void interruptAll(OperationThread[] operationThreads) {
@@ -353,8 +441,9 @@ public final class BasicOperationScheduler {
         @Override
         public OperationThread newThread(Runnable ignore) {
             String threadName = node.getThreadPoolNamePrefix("generic-operation") + threadId;
+            //generic threads take a single task at a time, so work on the shared queue can be stolen by idle threads.
             OperationThread thread = new OperationThread(threadName, false, threadId, genericWorkQueue,
-                    genericPriorityWorkQueue);
+                    genericPriorityWorkQueue, 1);
             threadId++;
             return thread;
         }
@@ -368,9 +457,10 @@ public final class BasicOperationScheduler {
             String threadName = node.getThreadPoolNamePrefix("partition-operation") + threadId;
             //each partition operation thread, has its own workqueues because operations are partition specific and can't
             //be executed by other threads.
-            LinkedBlockingQueue workQueue = new LinkedBlockingQueue();
+            OperationQueue workQueue = newPartitionWorkQueue(threadId);
             ConcurrentLinkedQueue priorityWorkQueue = new ConcurrentLinkedQueue();
-            OperationThread thread = new OperationThread(threadName, true, threadId, workQueue, priorityWorkQueue);
+            OperationThread thread = new OperationThread(threadName, true, threadId, workQueue, priorityWorkQueue,
+                    drainBatchSize);
             threadId++;
             return thread;
         }
@@ -380,17 +470,27 @@ public final class BasicOperationScheduler {
 
         private final int threadId;
         private final boolean isPartitionSpecific;
-        private final BlockingQueue workQueue;
+        private final OperationQueue workQueue;
         private final Queue priorityWorkQueue;
+        private final Object[] batch;
+        private final AtomicLongArray queueDepthHistogram = new AtomicLongArray(OperationThreadStats.HISTOGRAM_BUCKETS);
+        private final AtomicLongArray drainBatchHistogram = new AtomicLongArray(OperationThreadStats.HISTOGRAM_BUCKETS);
+        private volatile long processedCount;
 
-        public OperationThread(String name, boolean isPartitionSpecific,
-                               int threadId, BlockingQueue workQueue, Queue priorityWorkQueue) {
+        public OperationThread(String name, boolean isPartitionSpecific, int threadId,
+                               OperationQueue workQueue, Queue priorityWorkQueue, int drainBatchSize) {
             super(node.threadGroup, name);
             setContextClassLoader(node.getConfigClassLoader());
             this.isPartitionSpecific = isPartitionSpecific;
             this.workQueue = workQueue;
             this.priorityWorkQueue = priorityWorkQueue;
             this.threadId = threadId;
+            this.batch = new Object[drainBatchSize];
+        }
+
+        OperationThreadStats getStats() {
+            return new OperationThreadStats(getName(), isPartitionSpecific, workQueue.size(), processedCount,
+                    queueDepthHistogram, drainBatchHistogram);
         }
 
         @Override
@@ -406,9 +506,9 @@ public final class BasicOperationScheduler {
 
         private void doRun() {
             for (; ; ) {
-                Object task;
+                int count;
                 try {
-                    task = workQueue.take();
+                    count = workQueue.drainTo(batch);
                 } catch (InterruptedException e) {
                     if (shutdown) {
                         return;
@@ -420,11 +520,27 @@ public final class BasicOperationScheduler {
                     return;
                 }
 
-                processPriorityMessages();
-                process(task);
+                record(count);
+                for (int i = 0; i < count; i++) {
+                    Object task = batch[i];
+                    batch[i] = null;
+                    processPriorityMessages();
+                    process(task);
+                }
+                processedCount += count;
             }
         }
 
+        //only called by this thread, so the histograms have a single writer.
+        private void record(int count) {
+            increment(drainBatchHistogram, OperationThreadStats.bucketOf(count));
+            increment(queueDepthHistogram, OperationThreadStats.bucketOf(count + workQueue.size()));
+        }
+
+        private void increment(AtomicLongArray histogram, int bucket) {
+            histogram.lazySet(bucket, histogram.get(bucket) + 1);
+        }
+
         private void process(Object task) {
             try {
                 processor.process(task);
@@ -25,8 +25,10 @@ import com.hazelcast.instance.OutOfMemoryErrorDispatcher;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.Address;
 import com.hazelcast.nio.Connection;
+import com.hazelcast.nio.IOSelector;
 import com.hazelcast.nio.Packet;
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.DataCompressor;
 import com.hazelcast.partition.InternalPartition;
 import com.hazelcast.partition.InternalPartitionService;
 import com.hazelcast.partition.ReplicaErrorLogger;
@@ -105,6 +107,7 @@ final class BasicOperationService implements InternalOperationService {
     final ConcurrentMap<Long, BasicInvocation> invocations;
 
     private final long defaultCallTimeout;
+    private final int packetCompressionThreshold;
     private final ExecutionService executionService;
     final BasicOperationScheduler scheduler;
 
@@ -113,6 +116,7 @@ final class BasicOperationService implements InternalOperationService {
         this.node = nodeEngine.getNode();
         this.logger = node.getLogger(OperationService.class);
         this.defaultCallTimeout = node.getGroupProperties().OPERATION_CALL_TIMEOUT_MILLIS.getLong();
+        this.packetCompressionThreshold = node.getGroupProperties().PACKET_COMPRESSION_THRESHOLD.getInteger();
         this.executionService = nodeEngine.getExecutionService();
 
         int coreSize = Runtime.getRuntime().availableProcessors();
@@ -163,6 +167,16 @@ final class BasicOperationService implements InternalOperationService {
         return scheduler.getPriorityOperationExecutorQueueSize();
     }
 
+    @Override
+    public List<OperationThreadStats> getOperationThreadStats() {
+        return scheduler.getOperationThreadStats();
+    }
+
+    @Override
+    public IOSelector[] getPartitionIOSelectors() {
+        return scheduler.getPartitionIOSelectors();
+    }
+
     @Override
     public InvocationBuilder createInvocationBuilder(String serviceName, Operation op, int partitionId) {
         if (partitionId < 0) {
@@ -623,7 +637,7 @@ final class BasicOperationService implements InternalOperationService {
         if (nodeEngine.getThisAddress().equals(target)) {
             throw new IllegalArgumentException("Target is this node! -> " + target + ", response: " + response);
         }
-        Data data = nodeEngine.toData(response);
+        Data data = compress(nodeEngine.toData(response));
         Packet packet = new Packet(data, nodeEngine.getSerializationContext());
         packet.setHeader(Packet.HEADER_OP);
         packet.setHeader(Packet.HEADER_RESPONSE);
@@ -634,7 +648,7 @@ final class BasicOperationService implements InternalOperationService {
     }
 
     private boolean send(final Operation op, final Connection connection) {
-        Data data = nodeEngine.toData(op);
+        Data data = compress(nodeEngine.toData(op));
 
         //enable this line to get some logging of sizes of operations.
         //System.out.println(op.getClass()+" "+data.bufferSize());
@@ -647,6 +661,14 @@ final class BasicOperationService implements InternalOperationService {
         return nodeEngine.send(packet, connection);
     }
 
+    // the receiving member decompresses the packet when converting it to an object
+    private Data compress(Data data) {
+        if (packetCompressionThreshold > 0 && data.bufferSize() >= packetCompressionThreshold) {
+            return DataCompressor.compress(data);
+        }
+        return data;
+    }
+
     public long registerInvocation(BasicInvocation invocation) {
         long callId = callIdGen.getAndIncrement();
         Operation op = invocation.op;
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Unbounded {@link OperationQueue} based on a {@link LinkedBlockingQueue}, a waiting consumer blocks on the queue.
+ * <p/>
+ * Can be consumed by multiple threads, so it is used by the generic operation threads sharing a single queue.
+ */
+final class BlockingOperationQueue implements OperationQueue {
+
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<Object>();
+
+    @Override
+    public boolean offer(Object task) {
+        return queue.offer(task);
+    }
+
+    @Override
+    public int drainTo(Object[] tasks) throws InterruptedException {
+        tasks[0] = queue.take();
+        int count = 1;
+        while (count < tasks.length) {
+            final Object task = queue.poll();
+            if (task == null) {
+                break;
+            }
+            tasks[count++] = task;
+        }
+        return count;
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public String toString() {
+        return "BlockingOperationQueue{size=" + queue.size() + '}';
+    }
+}
@@ -17,10 +17,13 @@
 package com.hazelcast.spi.impl;
 
 import com.hazelcast.instance.MemberImpl;
+import com.hazelcast.nio.IOSelector;
 import com.hazelcast.nio.Packet;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.OperationService;
 
+import java.util.List;
+
 /**
  * This is the interface that needs to be implemented by actual InternalOperationService. Currently there is a single
  * InternalOperationService: {@link com.hazelcast.spi.impl.BasicOperationService}, but in the future others can be added.
@@ -38,6 +41,21 @@ public interface InternalOperationService extends OperationService {
 
     void notifyBackupCall(long callId);
 
+    /**
+     * Returns queue depth and batch statistics of the threads executing operations.
+     *
+     * @return statistics of the partition and generic operation threads.
+     */
+    List<OperationThreadStats> getOperationThreadStats();
+
+    /**
+     * Returns the selectors polled by the partition operation threads in thread-per-core mode,
+     * see {@link com.hazelcast.instance.GroupProperties#PROP_IO_THREAD_PER_CORE}.
+     *
+     * @return a selector per partition operation thread, or <tt>null</tt> if thread-per-core mode is disabled.
+     */
+    IOSelector[] getPartitionIOSelectors();
+
     /**
      * Shuts down this InternalOperationService.
      */
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl;
+
+/**
+ * Work queue feeding an operation thread of the {@link BasicOperationScheduler}.
+ * <p/>
+ * Any thread can offer tasks, tasks are taken in batches by the operation thread(s) consuming the queue.
+ */
+interface OperationQueue {
+
+    /**
+     * Offers a task, can be called by any thread.
+     *
+     * @return <tt>false</tt> if the task could not be queued due to overload.
+     */
+    boolean offer(Object task);
+
+    /**
+     * Waits until there is at least one task and moves available tasks into the given array.
+     *
+     * @param tasks array to move tasks into, its length limits the size of the batch.
+     * @return number of moved tasks.
+     * @throws InterruptedException if the consumer thread is interrupted while waiting.
+     */
+    int drainTo(Object[] tasks) throws InterruptedException;
+
+    int size();
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Snapshot of the statistics of an operation thread.
+ * <p/>
+ * Histograms have power of two buckets, bucket <tt>i</tt> counts the values in <tt>[2^i, 2^(i+1))</tt>.
+ * Queue depth is sampled each time the thread takes a batch of tasks from its queue.
+ */
+public final class OperationThreadStats {
+
+    static final int HISTOGRAM_BUCKETS = 32;
+
+    private final String threadName;
+    private final boolean partitionSpecific;
+    private final int queueSize;
+    private final long processedCount;
+    private final long[] queueDepthHistogram;
+    private final long[] drainBatchHistogram;
+
+    OperationThreadStats(String threadName, boolean partitionSpecific, int queueSize, long processedCount,
+                         AtomicLongArray queueDepthHistogram, AtomicLongArray drainBatchHistogram) {
+        this.threadName = threadName;
+        this.partitionSpecific = partitionSpecific;
+        this.queueSize = queueSize;
+        this.processedCount = processedCount;
+        this.queueDepthHistogram = toArray(queueDepthHistogram);
+        this.drainBatchHistogram = toArray(drainBatchHistogram);
+    }
+
+    static int bucketOf(int value) {
+        return value < 1 ? 0 : Integer.SIZE - 1 - Integer.numberOfLeadingZeros(value);
+    }
+
+    private static long[] toArray(AtomicLongArray histogram) {
+        int length = histogram.length();
+        while (length > 0 && histogram.get(length - 1) == 0) {
+            length--;
+        }
+        final long[] result = new long[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = histogram.get(i);
+        }
+        return result;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public boolean isPartitionSpecific() {
+        return partitionSpecific;
+    }
+
+    /**
+     * @return size of the work queue of the thread, shared with other threads for generic operation threads.
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public long getProcessedCount() {
+        return processedCount;
+    }
+
+    public long[] getQueueDepthHistogram() {
+        return queueDepthHistogram.clone();
+    }
+
+    public long[] getDrainBatchHistogram() {
+        return drainBatchHistogram.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "OperationThreadStats{"
+                + "threadName=" + threadName
+                + ", partitionSpecific=" + partitionSpecific
+                + ", queueSize=" + queueSize
+                + ", processedCount=" + processedCount
+                + ", queueDepthHistogram=" + Arrays.toString(queueDepthHistogram)
+                + ", drainBatchHistogram=" + Arrays.toString(drainBatchHistogram)
+                + '}';
+    }
+}
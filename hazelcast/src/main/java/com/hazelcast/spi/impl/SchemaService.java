@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.spi.impl;
+
+import com.hazelcast.instance.MemberImpl;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Schema;
+import com.hazelcast.nio.serialization.SchemaRegistry;
+import com.hazelcast.nio.serialization.SchemaReplicator;
+import com.hazelcast.spi.AbstractOperation;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.PostJoinAwareService;
+import com.hazelcast.util.Clock;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replicates the schemas of {@link com.hazelcast.nio.serialization.CompactSerializable} classes between the members.
+ * <p/>
+ * Schemas derived on a member, or published by a client connected to it, are sent to all other members
+ * and, unless on an operation thread, acknowledged before the value using them is written; members joining later
+ * receive all known schemas after joining. A member reading a value whose schema has not arrived yet asks the other
+ * members for it, but never on an operation thread: waiting there for another member could stall all operations
+ * of its partitions or deadlock, so reading the value fails right away.
+ */
+public class SchemaService implements SchemaReplicator, PostJoinAwareService {
+
+    public static final String SERVICE_NAME = "hz:core:schemaService";
+
+    private static final int TRY_COUNT = 10;
+    private static final int TIMEOUT_SECONDS = 5;
+
+    private final NodeEngine nodeEngine;
+    private final SchemaRegistry registry;
+    private final ILogger logger;
+
+    public SchemaService(NodeEngine nodeEngine) {
+        this.nodeEngine = nodeEngine;
+        this.registry = nodeEngine.getSerializationService().getSchemaRegistry();
+        this.logger = nodeEngine.getLogger(SchemaService.class);
+        registry.setReplicator(this);
+    }
+
+    /**
+     * Registers a schema published by a client and sends it to the other members.
+     */
+    public void putSchema(Schema schema) {
+        if (registry.getLocalSchema(schema.getFingerprint()) == null) {
+            registry.registerReplicated(schema);
+            publish(schema);
+        }
+    }
+
+    @Override
+    public void publish(Schema schema) {
+        final Collection<Future> futures = new ArrayList<Future>();
+        for (MemberImpl member : nodeEngine.getClusterService().getMemberList()) {
+            if (!member.localMember()) {
+                futures.add(nodeEngine.getOperationService()
+                        .createInvocationBuilder(SERVICE_NAME, new PutSchemaOperation(schema), member.getAddress())
+                        .setTryCount(TRY_COUNT).invoke());
+            }
+        }
+        if (!isOperationThread()) {
+            // the value using the schema is written only after the members know it
+            waitFor(futures);
+        }
+    }
+
+    @Override
+    public Schema fetch(long fingerprint) {
+        if (isOperationThread()) {
+            return null;
+        }
+        final Collection<Future> futures = new ArrayList<Future>();
+        for (MemberImpl member : nodeEngine.getClusterService().getMemberList()) {
+            if (!member.localMember()) {
+                futures.add(nodeEngine.getOperationService()
+                        .createInvocationBuilder(SERVICE_NAME, new GetSchemaOperation(fingerprint), member.getAddress())
+                        .setTryCount(TRY_COUNT).invoke());
+            }
+        }
+        for (Object response : waitFor(futures)) {
+            if (response != null) {
+                return (Schema) response;
+            }
+        }
+        return null;
+    }
+
+    // waits at most TIMEOUT_SECONDS for all invocations together, failed ones are left out of the responses
+    private Collection<Object> waitFor(Collection<Future> futures) {
+        final Collection<Object> responses = new ArrayList<Object>(futures.size());
+        final long deadline = Clock.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        for (Future future : futures) {
+            try {
+                responses.add(future.get(Math.max(0, deadline - Clock.currentTimeMillis()), TimeUnit.MILLISECONDS));
+            } catch (Exception e) {
+                logger.finest(e);
+            }
+        }
+        return responses;
+    }
+
+    private static boolean isOperationThread() {
+        return Thread.currentThread() instanceof BasicOperationScheduler.OperationThread;
+    }
+
+    @Override
+    public Operation getPostJoinOperation() {
+        final Collection<Schema> schemas = registry.getSchemas();
+        return schemas.isEmpty() ? null : new PostJoinSchemaOperation(schemas);
+    }
+
+    public static class PutSchemaOperation extends AbstractOperation {
+
+        private Schema schema;
+
+        public PutSchemaOperation() {
+        }
+
+        public PutSchemaOperation(Schema schema) {
+            this.schema = schema;
+        }
+
+        @Override
+        public void run() throws Exception {
+            getNodeEngine().getSerializationService().getSchemaRegistry().registerReplicated(schema);
+        }
+
+        @Override
+        public boolean returnsResponse() {
+            return true;
+        }
+
+        @Override
+        public Object getResponse() {
+            return Boolean.TRUE;
+        }
+
+        @Override
+        protected void writeInternal(ObjectDataOutput out) throws IOException {
+            super.writeInternal(out);
+            schema.writeData(out);
+        }
+
+        @Override
+        protected void readInternal(ObjectDataInput in) throws IOException {
+            super.readInternal(in);
+            schema = new Schema();
+            schema.readData(in);
+        }
+    }
+
+    public static class GetSchemaOperation extends AbstractOperation {
+
+        private long fingerprint;
+        private Schema response;
+
+        public GetSchemaOperation() {
+        }
+
+        public GetSchemaOperation(long fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public void run() throws Exception {
+            // only the local schemas, a member missing it would otherwise ask all others again
+            response = getNodeEngine().getSerializationService().getSchemaRegistry().getLocalSchema(fingerprint);
+        }
+
+        @Override
+        public boolean returnsResponse() {
+            return true;
+        }
+
+        @Override
+        public Object getResponse() {
+            return response;
+        }
+
+        @Override
+        protected void writeInternal(ObjectDataOutput out) throws IOException {
+            super.writeInternal(out);
+            out.writeLong(fingerprint);
+        }
+
+        @Override
+        protected void readInternal(ObjectDataInput in) throws IOException {
+            super.readInternal(in);
+            fingerprint = in.readLong();
+        }
+    }
+
+    public static class PostJoinSchemaOperation extends AbstractOperation {
+
+        private Collection<Schema> schemas;
+
+        public PostJoinSchemaOperation() {
+        }
+
+        public PostJoinSchemaOperation(Collection<Schema> schemas) {
+            this.schemas = schemas;
+        }
+
+        @Override
+        public void run() throws Exception {
+            final SchemaRegistry schemaRegistry = getNodeEngine().getSerializationService().getSchemaRegistry();
+            for (Schema schema : schemas) {
+                schemaRegistry.registerReplicated(schema);
+            }
+        }
+
+        @Override
+        public String getServiceName() {
+            return SchemaService.SERVICE_NAME;
+        }
+
+        @Override
+        public boolean returnsResponse() {
+            return false;
+        }
+
+        @Override
+        protected void writeInternal(ObjectDataOutput out) throws IOException {
+            super.writeInternal(out);
+            out.writeInt(schemas.size());
+            for (Schema schema : schemas) {
+                schema.writeData(out);
+            }
+        }
+
+        @Override
+        protected void readInternal(ObjectDataInput in) throws IOException {
+            super.readInternal(in);
+            final int size = in.readInt();
+            schemas = new ArrayList<Schema>(size);
+            for (int i = 0; i < size; i++) {
+                final Schema schema = new Schema();
+                schema.readData(in);
+                schemas.add(schema);
+            }
+        }
+    }
+}
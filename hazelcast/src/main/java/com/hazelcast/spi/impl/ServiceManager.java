@@ -80,6 +80,7 @@ final class ServiceManager {
         registerService(ProxyServiceImpl.SERVICE_NAME, nodeEngine.getProxyService());
         registerService(TransactionManagerServiceImpl.SERVICE_NAME, nodeEngine.getTransactionManagerService());
         registerService(ClientEngineImpl.SERVICE_NAME, node.clientEngine);
+        registerService(SchemaService.SERVICE_NAME, new SchemaService(nodeEngine));
 
         final ServicesConfig servicesConfig = node.getConfig().getServicesConfig();
         final Map<String, Properties> serviceProps;
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.storage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link Slab} backed by a direct {@link ByteBuffer}. Memory is returned to the OS
+ * when the buffer becomes unreachable and gets collected.
+ */
+final class ByteBufferSlab extends Slab {
+
+    private ByteBuffer buffer;
+
+    ByteBufferSlab(int index, int blockSize, int blockCount) {
+        super(index, blockSize, blockCount);
+        buffer = ByteBuffer.allocateDirect(blockSize * blockCount);
+    }
+
+    @Override
+    void write(int address, byte[] src, int srcOffset, int length) {
+        buffer.position(address);
+        buffer.put(src, srcOffset, length);
+    }
+
+    @Override
+    void read(int address, byte[] dest, int destOffset, int length) {
+        buffer.position(address);
+        buffer.get(dest, destOffset, length);
+    }
+
+    @Override
+    void free() {
+        buffer = null;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.storage;
+
+import com.hazelcast.nio.serialization.ClassDefinition;
+
+/**
+ * Reference to a value stored in {@link OffHeapStorage}.
+ * <p/>
+ * Keeps only the block addresses and the on-heap part of a {@link com.hazelcast.nio.serialization.Data}
+ * (type, partition hash and class definition); value bytes live in off-heap slabs.
+ * Block addresses are updated in place when the owning segment compacts its slabs.
+ */
+final class OffHeapDataRef implements DataRef {
+
+    // object header (12) + length, type, partition-hash, class-definition and blocks fields (4 * 5)
+    private static final int HEAP_COST = 32;
+    // array header + length
+    private static final int ARRAY_HEAP_COST = 16;
+    private static final int ADDRESS_SIZE = Integer.SIZE / Byte.SIZE;
+
+    final int length;
+    final int type;
+    final int partitionHash;
+    final ClassDefinition classDefinition;
+
+    // encoded block addresses, see OffHeapStorage#address; null when the value is removed
+    int[] blocks;
+
+    OffHeapDataRef(int length, int type, int partitionHash, ClassDefinition classDefinition) {
+        this.length = length;
+        this.type = type;
+        this.partitionHash = partitionHash;
+        this.classDefinition = classDefinition;
+    }
+
+    boolean isReleased() {
+        return blocks == null;
+    }
+
+    @Override
+    public int size() {
+        return length;
+    }
+
+    @Override
+    public int heapCost() {
+        int[] b = blocks;
+        return HEAP_COST + (b == null ? 0 : ARRAY_HEAP_COST + b.length * ADDRESS_SIZE);
+    }
+}
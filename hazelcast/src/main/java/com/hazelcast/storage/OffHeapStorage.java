@@ -0,0 +1,495 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.storage;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Slab allocated off-heap {@link Storage}.
+ * <p/>
+ * Memory is split into segments selected by the hash passed to {@link #put(int, Data)},
+ * each owning an equal share of the total capacity. A segment allocates fixed size slabs lazily;
+ * each slab is dedicated to a single size class and is carved into equally sized blocks.
+ * Size classes start from the configured chunk size and double up to the slab size. A value is stored
+ * in the smallest block it fits in; values larger than the biggest block span multiple blocks.
+ * <p/>
+ * Slabs which become empty are released, except the last one of a size class which is kept
+ * to avoid allocation churn. When a segment runs out of capacity it compacts its size classes
+ * by moving blocks out of the sparsest slabs into fuller ones and releasing emptied slabs,
+ * so that memory held by one size class can be reused by others.
+ */
+public class OffHeapStorage implements Storage<DataRef> {
+
+    static final int BLOCK_BITS = 16;
+    static final int MAX_BLOCKS_PER_SLAB = 1 << BLOCK_BITS;
+    static final int MAX_SLABS_PER_SEGMENT = 1 << (Integer.SIZE - 1 - BLOCK_BITS);
+
+    private static final int BLOCK_MASK = MAX_BLOCKS_PER_SLAB - 1;
+    private static final int[] EMPTY_BLOCKS = new int[0];
+    private static final int SEGMENTS_PER_CORE = 2;
+
+    private static final int STAT_USED = 0;
+    private static final int STAT_ALLOCATED = 1;
+    private static final int STAT_COMMITTED = 2;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final int slabSize;
+    private final int[] blockSizes;
+    private final int maxBlockSize;
+    private final int minBlockShift;
+    private final boolean useUnsafe;
+
+    public OffHeapStorage(long totalSize, int chunkSize, int slabSize, boolean useUnsafe) {
+        this(totalSize, chunkSize, slabSize, Runtime.getRuntime().availableProcessors() * SEGMENTS_PER_CORE, useUnsafe);
+    }
+
+    public OffHeapStorage(long totalSize, int chunkSize, int slabSize, int segmentCount, boolean useUnsafe) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive! -> " + chunkSize);
+        }
+        if (slabSize < chunkSize) {
+            throw new IllegalArgumentException("Slab size (" + slabSize + ") cannot be smaller than chunk size ("
+                    + chunkSize + ")!");
+        }
+        if (totalSize < slabSize) {
+            throw new IllegalArgumentException("Total size (" + totalSize + ") cannot be smaller than slab size ("
+                    + slabSize + ")!");
+        }
+        int minBlockSize = nextPowerOfTwo(chunkSize);
+        this.slabSize = Math.min(nextPowerOfTwo(slabSize), minBlockSize * MAX_BLOCKS_PER_SLAB);
+        this.minBlockShift = Integer.numberOfTrailingZeros(minBlockSize);
+        this.blockSizes = new int[Integer.numberOfTrailingZeros(this.slabSize) - minBlockShift + 1];
+        for (int i = 0; i < blockSizes.length; i++) {
+            blockSizes[i] = minBlockSize << i;
+        }
+        this.maxBlockSize = blockSizes[blockSizes.length - 1];
+        this.useUnsafe = useUnsafe;
+
+        long totalSlabs = totalSize / this.slabSize;
+        int count = (int) Math.min(nextPowerOfTwo(Math.max(segmentCount, 1)), Long.highestOneBit(totalSlabs));
+        int slabsPerSegment = (int) Math.min(totalSlabs / count, MAX_SLABS_PER_SEGMENT);
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(slabsPerSegment);
+        }
+        this.segmentMask = count - 1;
+    }
+
+    @Override
+    public DataRef put(int hash, Data data) {
+        int length = data.bufferSize();
+        OffHeapDataRef ref = new OffHeapDataRef(length, data.getType(), data.getPartitionHash(),
+                data.getClassDefinition());
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            segment.store(ref, data.getBuffer());
+        } finally {
+            segment.lock.unlock();
+        }
+        return ref;
+    }
+
+    @Override
+    public Data get(int hash, DataRef ref) {
+        OffHeapDataRef offHeapRef = (OffHeapDataRef) ref;
+        Segment segment = segmentFor(hash);
+        byte[] buffer;
+        segment.lock.lock();
+        try {
+            if (offHeapRef.isReleased() || segment.destroyed) {
+                return null;
+            }
+            buffer = segment.load(offHeapRef);
+        } finally {
+            segment.lock.unlock();
+        }
+        return new Data(offHeapRef.type, buffer, offHeapRef.partitionHash, offHeapRef.classDefinition);
+    }
+
+    @Override
+    public void remove(int hash, DataRef ref) {
+        OffHeapDataRef offHeapRef = (OffHeapDataRef) ref;
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            segment.free(offHeapRef);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Compacts all segments, moving blocks out of sparsely used slabs and releasing slabs that become empty.
+     */
+    public void compact() {
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.compact();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.destroy();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public long getTotalMemory() {
+        return (long) segments.length * segments[0].slabs.length * slabSize;
+    }
+
+    @Override
+    public long getUsedMemory() {
+        return sum(STAT_USED);
+    }
+
+    @Override
+    public long getFreeMemory() {
+        return getTotalMemory() - sum(STAT_ALLOCATED);
+    }
+
+    @Override
+    public long getFragmentedMemory() {
+        return sum(STAT_ALLOCATED) - sum(STAT_USED);
+    }
+
+    /**
+     * @return memory currently reserved by allocated slabs
+     */
+    public long getCommittedMemory() {
+        return sum(STAT_COMMITTED);
+    }
+
+    private long sum(int stat) {
+        long total = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                total += stat == STAT_USED ? segment.usedMemory
+                        : (stat == STAT_ALLOCATED ? segment.allocatedMemory : segment.committedMemory);
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return total;
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[(hash ^ (hash >>> BLOCK_BITS)) & segmentMask];
+    }
+
+    private int sizeClassOf(int length) {
+        int size = nextPowerOfTwo(length);
+        return Math.max(Integer.numberOfTrailingZeros(size) - minBlockShift, 0);
+    }
+
+    private static int address(Slab slab, int block) {
+        return (slab.index << BLOCK_BITS) | block;
+    }
+
+    private static int slabIndex(int address) {
+        return address >>> BLOCK_BITS;
+    }
+
+    private static int blockIndex(int address) {
+        return address & BLOCK_MASK;
+    }
+
+    private static int nextPowerOfTwo(int value) {
+        int highestOneBit = Integer.highestOneBit(value);
+        return value == highestOneBit ? value : highestOneBit << 1;
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapStorage{"
+                + "segments=" + segments.length
+                + ", slabSize=" + slabSize
+                + ", minBlockSize=" + blockSizes[0]
+                + ", maxBlockSize=" + maxBlockSize
+                + ", totalMemory=" + getTotalMemory()
+                + ", unsafe=" + useUnsafe
+                + '}';
+    }
+
+    private final class Segment {
+
+        final ReentrantLock lock = new ReentrantLock();
+        final Slab[] slabs;
+        // slabs having at least one free block, per size class; allocation is done from the last one
+        final List<Slab>[] available;
+
+        long usedMemory;
+        long allocatedMemory;
+        long committedMemory;
+
+        boolean destroyed;
+
+        @SuppressWarnings("unchecked")
+        Segment(int slabCount) {
+            slabs = new Slab[slabCount];
+            available = new List[blockSizes.length];
+            for (int i = 0; i < available.length; i++) {
+                available[i] = new ArrayList<Slab>();
+            }
+        }
+
+        void store(OffHeapDataRef ref, byte[] value) {
+            if (destroyed) {
+                throw new HazelcastException("Off-heap storage is already destroyed!");
+            }
+            int length = ref.length;
+            if (length == 0) {
+                ref.blocks = EMPTY_BLOCKS;
+                return;
+            }
+            int fullBlocks = length / maxBlockSize;
+            int remainder = length % maxBlockSize;
+            int[] blocks = new int[fullBlocks + (remainder > 0 ? 1 : 0)];
+            ref.blocks = blocks;
+            for (int i = 0; i < blocks.length; i++) {
+                int sizeClass = i < fullBlocks ? blockSizes.length - 1 : sizeClassOf(remainder);
+                int address = allocateOrCompact(sizeClass, ref);
+                if (address == -1) {
+                    rollback(ref, i);
+                    throw new OffHeapOutOfMemoryException("Cannot allocate " + length + " bytes! Segment capacity: "
+                            + ((long) slabs.length * slabSize) + ", allocated: " + allocatedMemory);
+                }
+                blocks[i] = address;
+                int offset = i * maxBlockSize;
+                slabs[slabIndex(address)].write(blockIndex(address), 0, value, offset, Math.min(maxBlockSize, length - offset));
+            }
+            usedMemory += length;
+        }
+
+        byte[] load(OffHeapDataRef ref) {
+            int length = ref.length;
+            if (length == 0) {
+                return null;
+            }
+            byte[] buffer = new byte[length];
+            int[] blocks = ref.blocks;
+            for (int i = 0; i < blocks.length; i++) {
+                Slab slab = slabs[slabIndex(blocks[i])];
+                int offset = i * maxBlockSize;
+                slab.read(blockIndex(blocks[i]), 0, buffer, offset, Math.min(maxBlockSize, length - offset));
+            }
+            return buffer;
+        }
+
+        void free(OffHeapDataRef ref) {
+            int[] blocks = ref.blocks;
+            if (blocks == null) {
+                return;
+            }
+            ref.blocks = null;
+            if (destroyed) {
+                return;
+            }
+            for (int address : blocks) {
+                release(address);
+            }
+            usedMemory -= ref.length;
+        }
+
+        private int allocateOrCompact(int sizeClass, OffHeapDataRef owner) {
+            int address = allocate(sizeClass, owner);
+            if (address == -1) {
+                compact();
+                address = allocate(sizeClass, owner);
+            }
+            return address;
+        }
+
+        private void rollback(OffHeapDataRef ref, int allocatedBlocks) {
+            for (int i = 0; i < allocatedBlocks; i++) {
+                release(ref.blocks[i]);
+            }
+            ref.blocks = null;
+        }
+
+        private int allocate(int sizeClass, OffHeapDataRef owner) {
+            List<Slab> list = available[sizeClass];
+            Slab slab;
+            if (list.isEmpty()) {
+                slab = newSlab(sizeClass);
+                if (slab == null) {
+                    return -1;
+                }
+                list.add(slab);
+            } else {
+                slab = list.get(list.size() - 1);
+            }
+            int block = slab.allocate(owner);
+            if (slab.isFull()) {
+                list.remove(list.size() - 1);
+            }
+            allocatedMemory += slab.blockSize;
+            return address(slab, block);
+        }
+
+        private void release(int address) {
+            Slab slab = slabs[slabIndex(address)];
+            List<Slab> list = available[sizeClassOf(slab.blockSize)];
+            if (slab.isFull()) {
+                list.add(slab);
+            }
+            slab.release(blockIndex(address));
+            allocatedMemory -= slab.blockSize;
+            if (slab.isEmpty() && list.size() > 1) {
+                list.remove(slab);
+                freeSlab(slab);
+            }
+        }
+
+        private Slab newSlab(int sizeClass) {
+            for (int i = 0; i < slabs.length; i++) {
+                if (slabs[i] == null) {
+                    int blockSize = blockSizes[sizeClass];
+                    Slab slab = useUnsafe
+                            ? new UnsafeSlab(i, blockSize, slabSize / blockSize)
+                            : new ByteBufferSlab(i, blockSize, slabSize / blockSize);
+                    slabs[i] = slab;
+                    committedMemory += slabSize;
+                    return slab;
+                }
+            }
+            return null;
+        }
+
+        private void freeSlab(Slab slab) {
+            slabs[slab.index] = null;
+            slab.free();
+            committedMemory -= slabSize;
+        }
+
+        void compact() {
+            for (int sizeClass = 0; sizeClass < available.length; sizeClass++) {
+                List<Slab> list = available[sizeClass];
+                if (!list.isEmpty()) {
+                    compact(list);
+                }
+            }
+        }
+
+        /**
+         * Evacuates the sparsest slabs of a size class into the fullest ones, as long as
+         * the remaining slabs have enough free blocks to hold them. Empty slabs are always released.
+         */
+        private void compact(List<Slab> list) {
+            Collections.sort(list, UsageComparator.INSTANCE);
+            List<Slab> targets = new ArrayList<Slab>(list);
+            byte[] buffer = new byte[list.get(0).blockSize];
+            for (Slab source : list) {
+                targets.remove(source);
+                int freeBlocks = 0;
+                for (Slab target : targets) {
+                    freeBlocks += target.freeCount();
+                }
+                if (freeBlocks < source.usedCount()) {
+                    targets.add(0, source);
+                    break;
+                }
+                evacuate(source, targets, buffer);
+                freeSlab(source);
+            }
+            list.clear();
+            for (Slab slab : targets) {
+                if (!slab.isFull()) {
+                    list.add(slab);
+                }
+            }
+        }
+
+        private void evacuate(Slab source, List<Slab> targets, byte[] buffer) {
+            int targetIndex = targets.size() - 1;
+            for (int block = 0; block < source.blockCount && !source.isEmpty(); block++) {
+                OffHeapDataRef owner = source.owner(block);
+                if (owner == null) {
+                    continue;
+                }
+                Slab target = targets.get(targetIndex);
+                while (target.isFull()) {
+                    target = targets.get(--targetIndex);
+                }
+                int newBlock = target.allocate(owner);
+                source.copyBlock(block, target, newBlock, buffer);
+                source.release(block);
+                int oldAddress = address(source, block);
+                int[] blocks = owner.blocks;
+                for (int i = 0; i < blocks.length; i++) {
+                    if (blocks[i] == oldAddress) {
+                        blocks[i] = address(target, newBlock);
+                        break;
+                    }
+                }
+            }
+        }
+
+        void destroy() {
+            destroyed = true;
+            for (int i = 0; i < slabs.length; i++) {
+                Slab slab = slabs[i];
+                if (slab != null) {
+                    slab.free();
+                    slabs[i] = null;
+                }
+            }
+            for (List<Slab> list : available) {
+                list.clear();
+            }
+            usedMemory = 0;
+            allocatedMemory = 0;
+            committedMemory = 0;
+        }
+    }
+
+    /**
+     * Orders slabs by ascending number of used blocks.
+     */
+    private static final class UsageComparator implements Comparator<Slab> {
+
+        static final UsageComparator INSTANCE = new UsageComparator();
+
+        @Override
+        public int compare(Slab o1, Slab o2) {
+            int u1 = o1.usedCount();
+            int u2 = o2.usedCount();
+            return u1 < u2 ? -1 : (u1 == u2 ? 0 : 1);
+        }
+    }
+}
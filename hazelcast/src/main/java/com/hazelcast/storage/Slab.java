@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.storage;
+
+/**
+ * A fixed size region of off-heap memory carved into equally sized blocks.
+ * <p/>
+ * Slabs are not thread-safe, all access is guarded by the owning segment of {@link OffHeapStorage}.
+ */
+abstract class Slab {
+
+    final int index;
+    final int blockSize;
+    final int blockCount;
+
+    private final int[] freeBlocks;
+    private final OffHeapDataRef[] owners;
+    private int freeCount;
+
+    Slab(int index, int blockSize, int blockCount) {
+        this.index = index;
+        this.blockSize = blockSize;
+        this.blockCount = blockCount;
+        this.freeBlocks = new int[blockCount];
+        this.owners = new OffHeapDataRef[blockCount];
+        // push in reverse order so that blocks are handed out from the start of the slab
+        for (int i = blockCount - 1; i >= 0; i--) {
+            freeBlocks[freeCount++] = i;
+        }
+    }
+
+    final int allocate(OffHeapDataRef owner) {
+        int block = freeBlocks[--freeCount];
+        owners[block] = owner;
+        return block;
+    }
+
+    final void release(int block) {
+        owners[block] = null;
+        freeBlocks[freeCount++] = block;
+    }
+
+    final OffHeapDataRef owner(int block) {
+        return owners[block];
+    }
+
+    final int freeCount() {
+        return freeCount;
+    }
+
+    final int usedCount() {
+        return blockCount - freeCount;
+    }
+
+    final boolean isFull() {
+        return freeCount == 0;
+    }
+
+    final boolean isEmpty() {
+        return freeCount == blockCount;
+    }
+
+    final long size() {
+        return (long) blockSize * blockCount;
+    }
+
+    final void write(int block, int offset, byte[] src, int srcOffset, int length) {
+        write(block * blockSize + offset, src, srcOffset, length);
+    }
+
+    final void read(int block, int offset, byte[] dest, int destOffset, int length) {
+        read(block * blockSize + offset, dest, destOffset, length);
+    }
+
+    final void copyBlock(int block, Slab target, int targetBlock, byte[] buffer) {
+        read(block, 0, buffer, 0, blockSize);
+        target.write(targetBlock, 0, buffer, 0, blockSize);
+    }
+
+    abstract void write(int address, byte[] src, int srcOffset, int length);
+
+    abstract void read(int address, byte[] dest, int destOffset, int length);
+
+    abstract void free();
+}
@@ -33,4 +33,24 @@ public interface Storage<REF extends DataRef> {
     void remove(int hash, REF ref);
 
     void destroy();
+
+    /**
+     * @return total memory capacity of this storage in bytes
+     */
+    long getTotalMemory();
+
+    /**
+     * @return number of bytes occupied by stored values
+     */
+    long getUsedMemory();
+
+    /**
+     * @return number of bytes still available for new values
+     */
+    long getFreeMemory();
+
+    /**
+     * @return number of bytes allocated but not occupied by values, due to allocation granularity
+     */
+    long getFragmentedMemory();
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.storage;
+
+import static com.hazelcast.nio.UnsafeHelper.BYTE_ARRAY_BASE_OFFSET;
+import static com.hazelcast.nio.UnsafeHelper.UNSAFE;
+
+/**
+ * {@link Slab} backed by memory allocated via <tt>sun.misc.Unsafe</tt>. Memory is released
+ * eagerly on {@link #free()}, so no access is allowed after that.
+ */
+final class UnsafeSlab extends Slab {
+
+    private long address;
+
+    UnsafeSlab(int index, int blockSize, int blockCount) {
+        super(index, blockSize, blockCount);
+        address = UNSAFE.allocateMemory((long) blockSize * blockCount);
+    }
+
+    @Override
+    void write(int offset, byte[] src, int srcOffset, int length) {
+        UNSAFE.copyMemory(src, BYTE_ARRAY_BASE_OFFSET + srcOffset, null, address + offset, length);
+    }
+
+    @Override
+    void read(int offset, byte[] dest, int destOffset, int length) {
+        UNSAFE.copyMemory(null, address + offset, dest, BYTE_ARRAY_BASE_OFFSET + destOffset, length);
+    }
+
+    @Override
+    void free() {
+        if (address != 0L) {
+            UNSAFE.freeMemory(address);
+            address = 0L;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.concurrent;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Idle strategy which first spins, then yields and then parks with an exponentially growing period.
+ * <p/>
+ * A strategy without spins and yields parks right away, a strategy with <tt>Long.MAX_VALUE</tt> spins never parks.
+ */
+public final class BackoffIdleStrategy implements IdleStrategy {
+
+    private final long maxSpins;
+    private final long maxYields;
+    private final long minParkPeriodNanos;
+    private final long maxParkPeriodNanos;
+    private final int maxShift;
+
+    public BackoffIdleStrategy(long maxSpins, long maxYields, long minParkPeriodNanos, long maxParkPeriodNanos) {
+        if (maxSpins < 0 || maxYields < 0) {
+            throw new IllegalArgumentException("Spins and yields can't be negative!");
+        }
+        if (minParkPeriodNanos < 1 || maxParkPeriodNanos < minParkPeriodNanos) {
+            throw new IllegalArgumentException("Invalid park periods! min: " + minParkPeriodNanos
+                    + ", max: " + maxParkPeriodNanos);
+        }
+        this.maxSpins = maxSpins;
+        this.maxYields = maxYields;
+        this.minParkPeriodNanos = minParkPeriodNanos;
+        this.maxParkPeriodNanos = maxParkPeriodNanos;
+        this.maxShift = Long.numberOfLeadingZeros(minParkPeriodNanos) - Long.numberOfLeadingZeros(maxParkPeriodNanos);
+    }
+
+    @Override
+    public void idle(long n) {
+        if (n < maxSpins) {
+            return;
+        }
+        if (n < maxSpins + maxYields) {
+            Thread.yield();
+            return;
+        }
+        final long parks = n - maxSpins - maxYields;
+        final int shift = (int) Math.min(parks, maxShift);
+        LockSupport.parkNanos(Math.min(minParkPeriodNanos << shift, maxParkPeriodNanos));
+    }
+
+    @Override
+    public String toString() {
+        return "BackoffIdleStrategy{maxSpins=" + maxSpins + ", maxYields=" + maxYields
+                + ", minParkPeriodNanos=" + minParkPeriodNanos + ", maxParkPeriodNanos=" + maxParkPeriodNanos + '}';
+    }
+}
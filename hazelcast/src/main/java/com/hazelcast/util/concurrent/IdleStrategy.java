@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.concurrent;
+
+/**
+ * Strategy of a thread polling for work when there is nothing to do.
+ */
+public interface IdleStrategy {
+
+    /**
+     * Idles the calling thread for a while.
+     *
+     * @param n number of times the thread idled in a row, starting from zero.
+     */
+    void idle(long n);
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, array based, lock-free queue for many producers and a single consumer.
+ * <p/>
+ * Producers claim a slot by advancing the tail with a CAS and then publish the item into the slot.
+ * The consumer is the only thread advancing the head, so {@link #poll()}, {@link #peek()} and
+ * {@link #drainTo(Object[], int)} should only be called by a single thread. Unlike linked queues,
+ * no node is allocated per offered item.
+ * <p/>
+ * A claimed slot whose item is not published yet is seen as empty by the consumer, so an item may become visible
+ * slightly after {@link #size()} already counts it.
+ *
+ * @param <E> type of the items
+ */
+public final class ManyToOneConcurrentArrayQueue<E> extends AbstractQueue<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> buffer;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    /**
+     * Last head seen by producers, to avoid reading the consumer's head on every offer.
+     */
+    private volatile long headCache;
+
+    /**
+     * @param requestedCapacity capacity of the queue, rounded up to the next power of two.
+     */
+    public ManyToOneConcurrentArrayQueue(int requestedCapacity) {
+        if (requestedCapacity < 1) {
+            throw new IllegalArgumentException("Capacity should be positive! -> " + requestedCapacity);
+        }
+        int capacity = 1;
+        while (capacity < requestedCapacity) {
+            capacity <<= 1;
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.buffer = new AtomicReferenceArray<E>(capacity);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of items offered to the queue so far, including the ones not published yet.
+     */
+    public long offeredCount() {
+        return tail.get();
+    }
+
+    /**
+     * @return number of items taken from the queue so far.
+     */
+    public long polledCount() {
+        return head.get();
+    }
+
+    /**
+     * Offers an item to the queue, can be called by any thread.
+     *
+     * @return <tt>false</tt> if the queue is full.
+     */
+    @Override
+    public boolean offer(E item) {
+        if (item == null) {
+            throw new NullPointerException("Item can't be null!");
+        }
+        long currentTail;
+        do {
+            currentTail = tail.get();
+            if (currentTail - headCache >= capacity) {
+                headCache = head.get();
+                if (currentTail - headCache >= capacity) {
+                    return false;
+                }
+            }
+        } while (!tail.compareAndSet(currentTail, currentTail + 1));
+        buffer.lazySet((int) currentTail & mask, item);
+        return true;
+    }
+
+    /**
+     * Removes the head of the queue, should only be called by the consumer thread.
+     */
+    @Override
+    public E poll() {
+        final long currentHead = head.get();
+        final int index = (int) currentHead & mask;
+        final E item = buffer.get(index);
+        if (item == null) {
+            return null;
+        }
+        buffer.lazySet(index, null);
+        head.lazySet(currentHead + 1);
+        return item;
+    }
+
+    /**
+     * Moves up to <tt>limit</tt> items into the given array, should only be called by the consumer thread.
+     *
+     * @return number of moved items.
+     */
+    public int drainTo(Object[] items, int limit) {
+        final int max = Math.min(limit, items.length);
+        long currentHead = head.get();
+        int count = 0;
+        while (count < max) {
+            final int index = (int) currentHead & mask;
+            final E item = buffer.get(index);
+            if (item == null) {
+                break;
+            }
+            buffer.lazySet(index, null);
+            items[count++] = item;
+            currentHead++;
+        }
+        if (count > 0) {
+            head.lazySet(currentHead);
+        }
+        return count;
+    }
+
+    @Override
+    public E peek() {
+        return buffer.get((int) head.get() & mask);
+    }
+
+    @Override
+    public int size() {
+        // head is read first, so the difference can't be negative
+        final long currentHead = head.get();
+        final long size = tail.get() - currentHead;
+        return (int) Math.min(size, capacity);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    /**
+     * Not supported, items of this queue can only be consumed in order.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String toString() {
+        return "ManyToOneConcurrentArrayQueue{capacity=" + capacity + ", size=" + size() + '}';
+    }
+}
@@ -133,11 +133,33 @@ public class DelegatingFuture<V> implements ICompletableFuture<V> {
 
     @Override
     public void andThen(ExecutionCallback<V> callback) {
-        future.andThen(callback);
+        future.andThen(new DelegatingExecutionCallback(callback));
     }
 
     @Override
     public void andThen(ExecutionCallback<V> callback, Executor executor) {
-        future.andThen(callback, executor);
+        future.andThen(new DelegatingExecutionCallback(callback), executor);
+    }
+
+    /**
+     * Hands the callback the same value {@link #get()} returns, instead of the serialized response.
+     */
+    private final class DelegatingExecutionCallback implements ExecutionCallback {
+
+        private final ExecutionCallback<V> callback;
+
+        private DelegatingExecutionCallback(ExecutionCallback<V> callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void onResponse(Object response) {
+            callback.onResponse(getResult(response));
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+            callback.onFailure(t);
+        }
     }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.util.executor;
+
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.core.ICompletableFuture;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.spi.impl.AbstractCompletableFuture;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A future completed with the results of other futures reduced into one, without blocking a thread to wait
+ * for them: the results are collected by callbacks and reduced by the callback of the last one.
+ * <p/>
+ * The future fails with the first failure of the futures, or the failure of {@link #reduce(List)}.
+ *
+ * @param <V> the type of the reduced result.
+ */
+public abstract class ReducingFuture<V> extends AbstractCompletableFuture<V> {
+
+    private final ExecutorService asyncExecutor;
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private final AtomicReferenceArray<Object> results;
+    private final AtomicInteger pending;
+
+    protected ReducingFuture(List<? extends ICompletableFuture> futures, ExecutorService asyncExecutor, ILogger logger) {
+        super(null, logger);
+        this.asyncExecutor = asyncExecutor;
+        this.results = new AtomicReferenceArray<Object>(futures.size());
+        this.pending = new AtomicInteger(futures.size());
+        if (futures.isEmpty()) {
+            complete();
+            return;
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            final int index = i;
+            futures.get(i).andThen(new ExecutionCallback<Object>() {
+                public void onResponse(Object response) {
+                    results.set(index, response);
+                    if (pending.decrementAndGet() == 0) {
+                        complete();
+                    }
+                }
+
+                public void onFailure(Throwable t) {
+                    setResult(t);
+                }
+            }, asyncExecutor);
+        }
+    }
+
+    /**
+     * Reduces the results of the futures, in the order of the futures, into the result of this future.
+     */
+    protected abstract V reduce(List<Object> results) throws Exception;
+
+    private void complete() {
+        final List<Object> list = new ArrayList<Object>(results.length());
+        for (int i = 0; i < results.length(); i++) {
+            list.add(results.get(i));
+        }
+        Object result;
+        try {
+            result = reduce(list);
+        } catch (Throwable t) {
+            result = t;
+        }
+        setResult(result);
+    }
+
+    @Override
+    public void setResult(Object result) {
+        super.setResult(result);
+        latch.countDown();
+    }
+
+    @Override
+    public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (!latch.await(timeout, unit)) {
+            throw new TimeoutException("Timeout reached while waiting for " + results.length() + " results");
+        }
+        final Object result = this.result;
+        if (result instanceof Throwable) {
+            throw result instanceof ExecutionException
+                    ? (ExecutionException) result : new ExecutionException((Throwable) result);
+        }
+        return (V) result;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return false;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return false;
+    }
+
+    @Override
+    protected ExecutorService getAsyncExecutor() {
+        return asyncExecutor;
+    }
+}
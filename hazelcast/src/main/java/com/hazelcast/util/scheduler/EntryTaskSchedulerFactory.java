@@ -27,28 +27,26 @@ public final class EntryTaskSchedulerFactory {
     }
 
     /**
-     * Creates a new EntryTaskScheduler that will run all second operations in bulk.
-     * Imagine a write-behind map where dirty entries will be stored in bulk.
-     * Note that each key can be only once; meaning you cannot delay the execution
-     * Once an entry is marked as dirty for example, it will run in write-delay-seconds,
-     * even if the entry is updated again within write-delay-seconds.
-     * So two things to
-     * remember:
-     * 1. a key cannot be re-scheduled (postponing its execution).
-     * 2. all entries scheduled for a given second will be executed in once by your
-     * SecondBulkExecutor implementation.
+     * Creates a new EntryTaskScheduler that will run all operations due in the same tick in bulk.
+     * Delays are ceiled to the next tick of {@value TimingWheelEntryTaskScheduler#DEFAULT_TICK_MILLIS} milliseconds,
+     * all entries due in the same tick are passed to the given {@link ScheduledEntryProcessor} at once.
+     * How an entry which is already scheduled is handled depends on the {@link ScheduleType}:
+     * 1. POSTPONE: the existing scheduling is replaced (postponing its execution).
+     * 2. SCHEDULE_IF_NEW: the entry is not re-scheduled until it is executed.
+     * 3. FOR_EACH: every scheduling is executed separately.
      * Once a key is executed, it can be re-scheduled for another execution.
      * <p/>
      * EntryTaskScheduler implementation is thread-safe.
      *
-     * @param scheduledExecutorService ScheduledExecutorService instance to execute the second
+     * @param scheduledExecutorService ScheduledExecutorService instance to advance the scheduler
      * @param entryProcessor           bulk processor
+     * @param scheduleType             how re-scheduling an entry is handled
      * @return EntryTaskScheduler
      */
     public static <K, V> EntryTaskScheduler<K, V> newScheduler(ScheduledExecutorService scheduledExecutorService,
                                                                ScheduledEntryProcessor entryProcessor,
                                                                ScheduleType scheduleType) {
-        return new SecondsBasedEntryTaskScheduler<K, V>(scheduledExecutorService, entryProcessor, scheduleType);
+        return new TimingWheelEntryTaskScheduler<K, V>(scheduledExecutorService, entryProcessor, scheduleType);
     }
 
 }
@@ -0,0 +1,433 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.scheduler;
+
+import com.hazelcast.util.Clock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hashed timing wheel based {@link EntryTaskScheduler}.
+ * <p/>
+ * Time is divided into ticks of <tt>tickMillis</tt> and every tick is mapped to one of the buckets
+ * of a fixed size wheel. An entry is linked into the bucket of the tick it is due, entries which are due
+ * after one or more rotations of the wheel share buckets with nearer ones and are skipped until their tick comes.
+ * Scheduling and cancelling an entry only (un)links it from its bucket, so both are O(1); no task is submitted
+ * to the executor per entry or per due time. A single ticker task, which is only active while there are
+ * scheduled entries, advances the wheel and passes all entries expired in a tick to the
+ * {@link ScheduledEntryProcessor} at once.
+ * <p/>
+ * Delays are ceiled to the next tick, entries due in the same tick are processed in bulk.
+ */
+final class TimingWheelEntryTaskScheduler<K, V> implements EntryTaskScheduler<K, V> {
+
+    /**
+     * Default duration of a tick in milliseconds.
+     */
+    public static final long DEFAULT_TICK_MILLIS = 100;
+
+    /**
+     * Default number of buckets of the wheel, one rotation takes 51.2 seconds with the default tick.
+     */
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private static final int INITIAL_CAPACITY = 1000;
+    private static final double MILLIS_PER_SECOND = 1000d;
+
+    private static final Comparator<ScheduledEntry> SCHEDULED_ENTRIES_COMPARATOR = new Comparator<ScheduledEntry>() {
+        @Override
+        public int compare(ScheduledEntry o1, ScheduledEntry o2) {
+            if (o1.getScheduleStartTimeInNanos() > o2.getScheduleStartTimeInNanos()) {
+                return 1;
+            } else if (o1.getScheduleStartTimeInNanos() < o2.getScheduleStartTimeInNanos()) {
+                return -1;
+            }
+            return 0;
+        }
+    };
+
+    private final ConcurrentMap<Object, TimerEntry<K, V>> entries
+            = new ConcurrentHashMap<Object, TimerEntry<K, V>>(INITIAL_CAPACITY);
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final ScheduledEntryProcessor entryProcessor;
+    private final ScheduleType scheduleType;
+    private final long tickMillis;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long startTimeMillis;
+    private final AtomicBoolean ticking = new AtomicBoolean();
+    private final Runnable ticker = new Ticker();
+    /**
+     * Last tick which is (or is being) processed, only written by the ticker.
+     */
+    private volatile long currentTick;
+
+    TimingWheelEntryTaskScheduler(ScheduledExecutorService scheduledExecutorService,
+                                  ScheduledEntryProcessor entryProcessor, ScheduleType scheduleType) {
+        this(scheduledExecutorService, entryProcessor, scheduleType, DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE);
+    }
+
+    TimingWheelEntryTaskScheduler(ScheduledExecutorService scheduledExecutorService,
+                                  ScheduledEntryProcessor entryProcessor, ScheduleType scheduleType,
+                                  long tickMillis, int wheelSize) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("Tick duration should be positive! -> " + tickMillis);
+        }
+        if (wheelSize < 1 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size should be a power of two! -> " + wheelSize);
+        }
+        this.scheduledExecutorService = scheduledExecutorService;
+        this.entryProcessor = entryProcessor;
+        this.scheduleType = scheduleType;
+        this.tickMillis = tickMillis;
+        this.wheel = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheelSize - 1;
+        this.startTimeMillis = Clock.currentTimeMillis();
+    }
+
+    @Override
+    public boolean schedule(long delayMillis, K key, V value) {
+        if (scheduleType.equals(ScheduleType.POSTPONE)) {
+            return schedulePostponeEntry(delayMillis, key, value);
+        } else if (scheduleType.equals(ScheduleType.SCHEDULE_IF_NEW)) {
+            return scheduleIfNew(delayMillis, key, value);
+        } else if (scheduleType.equals(ScheduleType.FOR_EACH)) {
+            return scheduleEntry(delayMillis, key, value);
+        } else {
+            throw new RuntimeException("Undefined schedule type.");
+        }
+    }
+
+    @Override
+    public ScheduledEntry<K, V> cancel(K key) {
+        if (scheduleType.equals(ScheduleType.FOR_EACH)) {
+            ScheduledEntry<K, V> result = null;
+            for (TimeKey timeKey : findTimeKeys(key)) {
+                final ScheduledEntry<K, V> cancelled = cancelInternal(timeKey);
+                if (cancelled != null) {
+                    result = cancelled;
+                }
+            }
+            return result;
+        }
+        return cancelInternal(key);
+    }
+
+    @Override
+    public ScheduledEntry<K, V> get(K key) {
+        if (scheduleType.equals(ScheduleType.FOR_EACH)) {
+            ScheduledEntry<K, V> result = null;
+            for (TimeKey timeKey : findTimeKeys(key)) {
+                final TimerEntry<K, V> entry = entries.get(timeKey);
+                if (entry != null) {
+                    result = entry.scheduledEntry;
+                }
+            }
+            return result;
+        }
+        final TimerEntry<K, V> entry = entries.get(key);
+        return entry == null ? null : entry.scheduledEntry;
+    }
+
+    @Override
+    public Set<K> flush(Set<K> keys) {
+        final List<ScheduledEntry<K, V>> flushed = new ArrayList<ScheduledEntry<K, V>>(keys.size());
+        final Set<K> processedKeys = new HashSet<K>();
+        final boolean forEach = scheduleType.equals(ScheduleType.FOR_EACH);
+        for (K key : keys) {
+            if (forEach) {
+                for (TimeKey timeKey : findTimeKeys(key)) {
+                    final ScheduledEntry<K, V> entry = cancelInternal(timeKey);
+                    if (entry != null) {
+                        flushed.add(entry);
+                        processedKeys.add(key);
+                    }
+                }
+            } else {
+                final ScheduledEntry<K, V> entry = cancelInternal(key);
+                if (entry != null) {
+                    flushed.add(entry);
+                    processedKeys.add(key);
+                }
+            }
+        }
+        process(flushed);
+        return processedKeys;
+    }
+
+    @Override
+    public void cancelAll() {
+        entries.clear();
+        for (Bucket bucket : wheel) {
+            synchronized (bucket) {
+                bucket.clear();
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    private boolean schedulePostponeEntry(long delayMillis, K key, V value) {
+        final TimerEntry<K, V> entry = newEntry(key, delayMillis, key, value, System.nanoTime());
+        final TimerEntry<K, V> existing = entries.put(key, entry);
+        if (existing != null) {
+            unlink(existing);
+        }
+        link(entry);
+        return existing == null || existing.deadlineTick != entry.deadlineTick;
+    }
+
+    private boolean scheduleIfNew(long delayMillis, K key, V value) {
+        final TimerEntry<K, V> entry = newEntry(key, delayMillis, key, value, System.nanoTime());
+        if (entries.putIfAbsent(key, entry) != null) {
+            return false;
+        }
+        link(entry);
+        return true;
+    }
+
+    private boolean scheduleEntry(long delayMillis, K key, V value) {
+        final long time = System.nanoTime();
+        final TimeKey timeKey = new TimeKey(key, time);
+        final TimerEntry<K, V> entry = newEntry(timeKey, delayMillis, key, value, time);
+        entries.put(timeKey, entry);
+        link(entry);
+        return true;
+    }
+
+    private TimerEntry<K, V> newEntry(Object mapKey, long delayMillis, K key, V value, long startTimeNanos) {
+        final long deadlineMillis = Clock.currentTimeMillis() + Math.max(0L, delayMillis) - startTimeMillis;
+        final long deadlineTick = (deadlineMillis + tickMillis - 1) / tickMillis;
+        final int delaySeconds = (int) Math.ceil(delayMillis / MILLIS_PER_SECOND);
+        final ScheduledEntry<K, V> scheduledEntry
+                = new ScheduledEntry<K, V>(key, value, delayMillis, delaySeconds, startTimeNanos);
+        return new TimerEntry<K, V>(mapKey, scheduledEntry, deadlineTick);
+    }
+
+    private ScheduledEntry<K, V> cancelInternal(Object mapKey) {
+        final TimerEntry<K, V> entry = entries.remove(mapKey);
+        if (entry == null) {
+            return null;
+        }
+        unlink(entry);
+        return entry.scheduledEntry;
+    }
+
+    private Set<TimeKey> findTimeKeys(Object key) {
+        final Set<TimeKey> timeKeys = new HashSet<TimeKey>();
+        for (Object mapKey : entries.keySet()) {
+            final TimeKey timeKey = (TimeKey) mapKey;
+            if (key.equals(timeKey.getKey())) {
+                timeKeys.add(timeKey);
+            }
+        }
+        return timeKeys;
+    }
+
+    private void link(TimerEntry<K, V> entry) {
+        while (true) {
+            // an entry cannot be linked to a tick which is already processed
+            final long tick = Math.max(entry.deadlineTick, currentTick + 1);
+            final Bucket bucket = wheel[(int) (tick & mask)];
+            synchronized (bucket) {
+                if (bucket.processedTick < tick) {
+                    entry.tick = tick;
+                    bucket.add(entry);
+                    break;
+                }
+            }
+        }
+        if (ticking.compareAndSet(false, true)) {
+            scheduleTicker();
+        }
+    }
+
+    private void unlink(TimerEntry<K, V> entry) {
+        final Bucket bucket = entry.bucket;
+        if (bucket == null) {
+            return;
+        }
+        synchronized (bucket) {
+            if (entry.bucket == bucket) {
+                bucket.remove(entry);
+            }
+        }
+    }
+
+    private void scheduleTicker() {
+        scheduledExecutorService.schedule(ticker, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private long nowTick() {
+        return (Clock.currentTimeMillis() - startTimeMillis) / tickMillis;
+    }
+
+    private void advance() {
+        final long nowTick = nowTick();
+        long tick = currentTick;
+        if (nowTick - tick > wheel.length) {
+            // each bucket needs to be visited only once to catch up
+            tick = nowTick - wheel.length;
+        }
+        List<ScheduledEntry<K, V>> expired = null;
+        while (tick < nowTick) {
+            tick++;
+            currentTick = tick;
+            expired = expire(wheel[(int) (tick & mask)], tick, expired);
+        }
+        process(expired);
+    }
+
+    private List<ScheduledEntry<K, V>> expire(Bucket bucket, long tick, List<ScheduledEntry<K, V>> expiredEntries) {
+        List<ScheduledEntry<K, V>> expired = expiredEntries;
+        TimerEntry<K, V> entry;
+        synchronized (bucket) {
+            bucket.processedTick = tick;
+            entry = bucket.head;
+            while (entry != null) {
+                final TimerEntry<K, V> next = entry.next;
+                if (entry.tick <= tick) {
+                    bucket.remove(entry);
+                    // entry may have been cancelled or rescheduled concurrently
+                    if (entries.remove(entry.mapKey, entry)) {
+                        if (expired == null) {
+                            expired = new ArrayList<ScheduledEntry<K, V>>();
+                        }
+                        expired.add(entry.scheduledEntry);
+                    }
+                }
+                entry = next;
+            }
+        }
+        return expired;
+    }
+
+    private void process(List<ScheduledEntry<K, V>> scheduledEntries) {
+        if (scheduledEntries == null || scheduledEntries.isEmpty()) {
+            return;
+        }
+        //sort entries asc by schedule times and send to processor.
+        Collections.sort(scheduledEntries, SCHEDULED_ENTRIES_COMPARATOR);
+        entryProcessor.process(this, scheduledEntries);
+    }
+
+    @Override
+    public String toString() {
+        return "EntryTaskScheduler{"
+                + "entries="
+                + entries.size()
+                + ", tickMillis="
+                + tickMillis
+                + ", wheelSize="
+                + wheel.length
+                + '}';
+    }
+
+    private final class Ticker implements Runnable {
+        @Override
+        public void run() {
+            try {
+                advance();
+            } finally {
+                if (!entries.isEmpty()) {
+                    scheduleTicker();
+                } else {
+                    ticking.set(false);
+                    // an entry may have been linked after the emptiness check, before ticking is reset
+                    if (!entries.isEmpty() && ticking.compareAndSet(false, true)) {
+                        scheduleTicker();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Doubly linked list of the entries mapped to a bucket of the wheel, guarded by its own monitor.
+     */
+    private static final class Bucket {
+        private TimerEntry head;
+        private long processedTick = -1L;
+
+        void add(TimerEntry entry) {
+            entry.bucket = this;
+            entry.next = head;
+            if (head != null) {
+                head.prev = entry;
+            }
+            head = entry;
+        }
+
+        void remove(TimerEntry entry) {
+            if (entry.prev != null) {
+                entry.prev.next = entry.next;
+            } else {
+                head = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.prev = entry.prev;
+            }
+            entry.prev = null;
+            entry.next = null;
+            entry.bucket = null;
+        }
+
+        void clear() {
+            TimerEntry entry = head;
+            while (entry != null) {
+                final TimerEntry next = entry.next;
+                entry.prev = null;
+                entry.next = null;
+                entry.bucket = null;
+                entry = next;
+            }
+            head = null;
+        }
+    }
+
+    private static final class TimerEntry<K, V> {
+        final Object mapKey;
+        final ScheduledEntry<K, V> scheduledEntry;
+        final long deadlineTick;
+        long tick;
+        TimerEntry<K, V> prev;
+        TimerEntry<K, V> next;
+        volatile Bucket bucket;
+
+        TimerEntry(Object mapKey, ScheduledEntry<K, V> scheduledEntry, long deadlineTick) {
+            this.mapKey = mapKey;
+            this.scheduledEntry = scheduledEntry;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
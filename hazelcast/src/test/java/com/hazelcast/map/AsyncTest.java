@@ -18,6 +18,8 @@ package com.hazelcast.map;
 
 import com.hazelcast.core.EntryAdapter;
 import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.core.ICompletableFuture;
 import com.hazelcast.core.IMap;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import com.hazelcast.test.HazelcastTestSupport;
@@ -28,10 +30,15 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.*;
 
@@ -126,4 +133,86 @@ public class AsyncTest extends HazelcastTestSupport {
         Future<String> f1 = map.removeAsync(key);
         TestCase.assertNull(f1.get());
     }
+
+    @Test
+    public void testSingleKeyAsyncOperations() throws Exception {
+        IMap<String, String> map = createHazelcastInstance().getMap("map:test:singleKeyAsync");
+        assertNull(map.setAsync(key, value1).get());
+        assertEquals(value1, map.putIfAbsentAsync(key, value2).get());
+        assertTrue(map.containsKeyAsync(key).get());
+        assertFalse(map.replaceAsync(key, value2, value1).get());
+        assertEquals(value1, map.replaceAsync(key, value2).get());
+        assertTrue(map.replaceAsync(key, value2, value1).get());
+        assertEquals(value1, map.get(key));
+        assertFalse(map.containsKeyAsync("missing").get());
+    }
+
+    @Test
+    public void testMultiKeyAsyncOperations() throws Exception {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        IMap<Integer, Integer> map = factory.newHazelcastInstance().getMap("map:test:multiKeyAsync");
+        factory.newHazelcastInstance();
+        Map<Integer, Integer> entries = new HashMap<Integer, Integer>();
+        for (int i = 0; i < 1000; i++) {
+            entries.put(i, i);
+        }
+        assertNull(map.putAllAsync(entries).get());
+        assertEquals(1000, map.size());
+        assertEquals(entries, map.getAllAsync(entries.keySet()).get());
+
+        Set<Integer> keys = new HashSet<Integer>();
+        for (int i = 0; i < 100; i++) {
+            keys.add(i);
+        }
+        Map<Integer, Object> results = map.executeOnKeysAsync(keys, new IncrementingEntryProcessor()).get();
+        assertEquals(100, results.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i + 1, results.get(i));
+            assertEquals(i + 1, (int) map.get(i));
+        }
+    }
+
+    @Test
+    public void testCallbacksReceiveDeserializedValues() throws Exception {
+        IMap<String, String> map = createHazelcastInstance().getMap("map:test:asyncCallbacks");
+        map.put(key, value1);
+        final CountDownLatch latch = new CountDownLatch(2);
+        final AtomicReference<Object> getResponse = new AtomicReference<Object>();
+        final AtomicReference<Object> getAllResponse = new AtomicReference<Object>();
+        map.getAsync(key).andThen(new ExecutionCallback<String>() {
+            public void onResponse(String response) {
+                getResponse.set(response);
+                latch.countDown();
+            }
+
+            public void onFailure(Throwable t) {
+                getResponse.set(t);
+                latch.countDown();
+            }
+        });
+        ICompletableFuture<Map<String, String>> future = map.getAllAsync(new HashSet<String>(map.keySet()));
+        future.andThen(new ExecutionCallback<Map<String, String>>() {
+            public void onResponse(Map<String, String> response) {
+                getAllResponse.set(response.get(key));
+                latch.countDown();
+            }
+
+            public void onFailure(Throwable t) {
+                getAllResponse.set(t);
+                latch.countDown();
+            }
+        });
+        assertOpenEventually(latch);
+        assertEquals(value1, getResponse.get());
+        assertEquals(value1, getAllResponse.get());
+    }
+
+    private static class IncrementingEntryProcessor extends AbstractEntryProcessor<Integer, Integer> {
+        @Override
+        public Object process(Map.Entry<Integer, Integer> entry) {
+            int value = entry.getValue() + 1;
+            entry.setValue(value);
+            return value;
+        }
+    }
 }
@@ -21,6 +21,8 @@ import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.monitor.LocalMapStats;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import com.hazelcast.test.HazelcastSerialClassRunner;
 import com.hazelcast.test.HazelcastTestSupport;
@@ -33,7 +35,9 @@ import org.junit.runner.RunWith;
 import java.io.Serializable;
 
 import static junit.framework.Assert.assertNotSame;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
@@ -96,6 +100,110 @@ public class InMemoryFormatTest extends HazelcastTestSupport {
         assertTrue(objectMap2.containsValue(v1));
     }
 
+    @Test
+    public void offHeap() {
+        Config config = new Config();
+        config.setProperty(GroupProperties.PROP_ELASTIC_MEMORY_ENABLED, "true");
+        config.setProperty(GroupProperties.PROP_ELASTIC_MEMORY_TOTAL_SIZE, "8M");
+        config.addMapConfig(new MapConfig("offHeapMap").setInMemoryFormat(InMemoryFormat.OFFHEAP));
+
+        HazelcastInstance hz = createHazelcastInstance(config);
+        IMap<String, Pair> offHeapMap = hz.getMap("offHeapMap");
+
+        Pair pair = new Pair("a", "1");
+        offHeapMap.put("1", pair);
+        offHeapMap.put("2", new Pair("b", "2"));
+        assertEquals(pair, offHeapMap.get("1"));
+        assertTrue(offHeapMap.containsValue(pair));
+
+        LocalMapStats stats = offHeapMap.getLocalMapStats();
+        assertTrue(stats.getOffHeapUsedMemory() > 0);
+        assertTrue(stats.getOffHeapFreeMemory() > 0);
+
+        offHeapMap.remove("1");
+        assertNull(offHeapMap.get("1"));
+        offHeapMap.destroy();
+        assertEquals(0, hz.getMap("offHeapMap").getLocalMapStats().getOffHeapUsedMemory());
+    }
+
+    @Test
+    public void offHeapRecordStore() {
+        Config config = new Config();
+        config.addMapConfig(new MapConfig("offHeapStore").setRecordStoreType(MapConfig.RecordStoreType.OFFHEAP));
+
+        HazelcastInstance hz = createHazelcastInstance(config);
+        IMap<String, Pair> map = hz.getMap("offHeapStore");
+
+        for (int i = 0; i < 1000; i++) {
+            map.put(String.valueOf(i), new Pair("a" + i, "b"));
+        }
+        assertEquals(1000, map.size());
+        assertEquals(new Pair("a1", "x"), map.get("1"));
+        assertTrue(map.containsValue(new Pair("a2", "b")));
+        assertEquals(1000, map.values().size());
+
+        map.lock("3");
+        map.clear();
+        assertEquals(1, map.size());
+        assertEquals(new Pair("a3", "x"), map.get("3"));
+        map.unlock("3");
+
+        map.put("4", new Pair("a4", "b"));
+        map.remove("3");
+        assertNull(map.get("3"));
+
+        LocalMapStats stats = map.getLocalMapStats();
+        assertTrue(stats.getOffHeapUsedMemory() > 0);
+        assertEquals(0, stats.getHeapCost());
+        map.destroy();
+        assertEquals(0, hz.getMap("offHeapStore").getLocalMapStats().getOffHeapUsedMemory());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void offHeapRecordStoreWithObjectFormat() {
+        new MapConfig("offHeapObjectStore").setRecordStoreType(MapConfig.RecordStoreType.OFFHEAP)
+                .setInMemoryFormat(InMemoryFormat.OBJECT);
+    }
+
+    @Test
+    public void compression() {
+        Config config = new Config();
+        config.setProperty(GroupProperties.PROP_PACKET_COMPRESSION_THRESHOLD, "1024");
+        config.addMapConfig(new MapConfig("compressed").setCompressionThreshold(1024));
+        config.addMapConfig(new MapConfig("plain"));
+
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance hz1 = factory.newHazelcastInstance(config);
+        HazelcastInstance hz2 = factory.newHazelcastInstance(config);
+        IMap<String, String> compressed = hz1.getMap("compressed");
+        IMap<String, String> plain = hz1.getMap("plain");
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            sb.append("{\"id\":").append(i).append(",\"name\":\"item\"}");
+        }
+        String large = sb.toString();
+        for (int i = 0; i < 100; i++) {
+            compressed.put(String.valueOf(i), large + i);
+            plain.put(String.valueOf(i), large + i);
+        }
+        compressed.put("small", "value");
+
+        IMap<String, String> compressedOnOther = hz2.getMap("compressed");
+        for (int i = 0; i < 100; i++) {
+            assertEquals(large + i, compressedOnOther.get(String.valueOf(i)));
+        }
+        assertEquals("value", compressedOnOther.get("small"));
+        assertTrue(compressed.containsValue(large + 7));
+        assertTrue(compressed.replace("7", large + 7, "replaced"));
+        assertEquals("replaced", compressedOnOther.get("7"));
+
+        long compressedCost = compressed.getLocalMapStats().getHeapCost()
+                + compressedOnOther.getLocalMapStats().getHeapCost();
+        long plainCost = plain.getLocalMapStats().getHeapCost() + hz2.getMap("plain").getLocalMapStats().getHeapCost();
+        assertTrue("compressed: " + compressedCost + ", plain: " + plainCost, compressedCost * 3 < plainCost);
+    }
+
     public static final class Pair implements Serializable {
         private final String significant;
         private final String insignificant;
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.SerializationService;
+import com.hazelcast.nio.serialization.SerializationServiceBuilder;
+import org.junit.Ignore;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Prints the bytes allocated per operation by all threads for serializing keys and values and for
+ * {@link IMap#put(Object, Object)} and {@link IMap#get(Object)} on a single member.
+ * <p/>
+ * Needs a JVM that measures thread allocation, like HotSpot. The operation count can be given as argument.
+ */
+@Ignore("not a JUnit test")
+public class MapAllocationPerformanceTest {
+
+    private static final int ROUNDS = 5;
+    private static final int KEY_COUNT = 1000;
+
+    private final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        final int operations = args.length == 0 ? 1000000 : Integer.parseInt(args[0]);
+        final MapAllocationPerformanceTest test = new MapAllocationPerformanceTest();
+        final SerializationService ss = new SerializationServiceBuilder().build();
+        final Config config = new Config();
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        final HazelcastInstance hz = Hazelcast.newHazelcastInstance(config);
+        try {
+            final IMap<Integer, String> map = hz.getMap("default");
+            for (int round = 0; round < ROUNDS; round++) {
+                test.serialize(ss, operations);
+                test.put(map, operations);
+                test.get(map, operations);
+            }
+        } finally {
+            hz.getLifecycleService().shutdown();
+        }
+    }
+
+    private void serialize(SerializationService ss, int operations) {
+        final String value = "value";
+        final long start = allocatedBytes();
+        for (int i = 0; i < operations; i++) {
+            final Data data = ss.toData(value);
+            ss.toObject(data);
+        }
+        print("toData/toObject", start, operations);
+    }
+
+    private void put(IMap<Integer, String> map, int operations) {
+        final long start = allocatedBytes();
+        for (int i = 0; i < operations; i++) {
+            map.put(i % KEY_COUNT, "value");
+        }
+        print("put", start, operations);
+    }
+
+    private void get(IMap<Integer, String> map, int operations) {
+        final long start = allocatedBytes();
+        for (int i = 0; i < operations; i++) {
+            map.get(i % KEY_COUNT);
+        }
+        print("get", start, operations);
+    }
+
+    private void print(String operation, long start, int operations) {
+        System.out.println(operation + ": " + (allocatedBytes() - start) / operations + " bytes/op");
+    }
+
+    private long allocatedBytes() {
+        long total = 0;
+        for (long allocated : threadMXBean.getThreadAllocatedBytes(threadMXBean.getAllThreadIds())) {
+            if (allocated > 0) {
+                total += allocated;
+            }
+        }
+        return total;
+    }
+}
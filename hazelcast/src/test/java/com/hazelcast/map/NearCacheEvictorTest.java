@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map;
+
+import com.hazelcast.monitor.impl.NearCacheStatsImpl;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(QuickTest.class)
+public class NearCacheEvictorTest {
+
+    private final ConcurrentMap<Integer, Record> cache = new ConcurrentHashMap<Integer, Record>();
+    private final NearCacheStatsImpl stats = new NearCacheStatsImpl();
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        NearCacheEvictor<Integer, Record> evictor = new NearCacheEvictor<Integer, Record>(cache, false, stats);
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, new Record(100 + i, 10 - i));
+        }
+        cache.get(3).lastAccessTime = 50;
+
+        assertEquals(1, evictor.evict(10));
+        assertEquals(9, cache.size());
+        assertFalse(cache.containsKey(3));
+    }
+
+    @Test
+    public void testLeastFrequentlyUsedIsEvicted() {
+        NearCacheEvictor<Integer, Record> evictor = new NearCacheEvictor<Integer, Record>(cache, true, stats);
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, new Record(100 + i, 10 + i));
+        }
+        cache.get(7).hits = 1;
+
+        assertEquals(1, evictor.evict(10));
+        assertFalse(cache.containsKey(7));
+        assertEquals(0, evictor.evict(10));
+    }
+
+    @Test
+    public void testFullCacheIsKeptAtMaxSize() {
+        final int maxSize = 1000;
+        NearCacheEvictor<Integer, Record> evictor = new NearCacheEvictor<Integer, Record>(cache, false, stats);
+        for (int i = 0; i < 10 * maxSize; i++) {
+            if (cache.size() >= maxSize) {
+                evictor.evict(maxSize);
+            }
+            cache.put(i, new Record(i, 0));
+        }
+
+        assertEquals(maxSize, cache.size());
+        assertEquals(9 * maxSize, stats.getEvictions());
+        assertTrue(stats.getTotalEvictionNanos() > 0);
+        // sampling keeps mostly recent entries
+        int recent = 0;
+        for (Integer key : cache.keySet()) {
+            if (key >= 8 * maxSize) {
+                recent++;
+            }
+        }
+        assertTrue("recent entries: " + recent, recent > maxSize / 2);
+    }
+
+    static class Record implements NearCacheEvictor.Evictable {
+        volatile long lastAccessTime;
+        volatile int hits;
+
+        Record(long lastAccessTime, int hits) {
+            this.lastAccessTime = lastAccessTime;
+            this.hits = hits;
+        }
+
+        public long getLastAccessTime() {
+            return lastAccessTime;
+        }
+
+        public int getHits() {
+            return hits;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map;
+
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.BitSet;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(QuickTest.class)
+public class NearCacheSequenceTrackerTest {
+
+    private final NearCacheSequenceTracker tracker = new NearCacheSequenceTracker(4);
+
+    @Test
+    public void testConsecutiveSequences() {
+        assertNull(tracker.track(invalidation("a", 1, 7)));
+        assertNull(tracker.track(invalidation("a", 1, 8)));
+        assertNull(tracker.track(invalidation("a", 2, 1)));
+        // duplicates and late arrivals are harmless
+        assertNull(tracker.track(invalidation("a", 1, 8)));
+        assertNull(tracker.track(announcement("a", 1, 8)));
+    }
+
+    @Test
+    public void testGapIsDetected() {
+        tracker.track(invalidation("a", 1, 7));
+        assertEquals(partitions(1), tracker.track(invalidation("a", 1, 9)));
+        assertNull(tracker.track(invalidation("a", 1, 10)));
+        assertEquals(partitions(1), tracker.track(announcement("a", 1, 12)));
+    }
+
+    @Test
+    public void testOwnerChangeIsDetected() {
+        tracker.track(invalidation("a", 3, 7));
+        assertEquals(partitions(3), tracker.track(invalidation("b", 3, 1)));
+        assertNull(tracker.track(invalidation("b", 3, 2)));
+    }
+
+    @Test
+    public void testFirstAnnouncementDropsPartition() {
+        assertEquals(partitions(2), tracker.track(announcement("a", 2, 5)));
+        assertNull(tracker.track(announcement("a", 2, 5)));
+    }
+
+    private static NearCacheInvalidationBatch invalidation(String source, int partitionId, long sequence) {
+        return batch(source, new Data(), partitionId, sequence);
+    }
+
+    private static NearCacheInvalidationBatch announcement(String source, int partitionId, long sequence) {
+        return batch(source, null, partitionId, sequence);
+    }
+
+    private static NearCacheInvalidationBatch batch(String source, Data key, int partitionId, long sequence) {
+        return new NearCacheInvalidationBatch("map", source, Collections.singletonList(key),
+                new int[]{partitionId}, new long[]{sequence});
+    }
+
+    private static BitSet partitions(int partitionId) {
+        BitSet partitions = new BitSet();
+        partitions.set(partitionId);
+        return partitions;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.eviction;
+
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.map.record.ObjectRecordFactory;
+import com.hazelcast.map.record.Record;
+import com.hazelcast.map.record.RecordFactory;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.SerializationService;
+import com.hazelcast.nio.serialization.SerializationServiceBuilder;
+import org.junit.Ignore;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Compares the time spent for choosing and removing LRU entries by sorting all records
+ * (as eviction did before {@link EvictionPool}) and by sampling, on maps with 1M and 10M entries.
+ * <p/>
+ * Run with a large heap, e.g. <tt>-Xmx8G</tt>. Entry counts can be given as arguments.
+ * Besides the elapsed time, the average rank of evicted entries is printed;
+ * the lower, the closer the eviction is to an exact LRU.
+ */
+@Ignore("not a JUnit test")
+public class EvictionPerformanceTest {
+
+    private static final int EVICTION_PERCENTAGE = 25;
+    private static final int ROUNDS = 3;
+
+    private final SerializationService ss = new SerializationServiceBuilder().build();
+    private final RecordFactory recordFactory = new ObjectRecordFactory(new MapConfig(), ss);
+
+    public static void main(String[] args) {
+        final int[] sizes = args.length == 0 ? new int[]{1000000, 10000000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+        EvictionPerformanceTest test = new EvictionPerformanceTest();
+        for (int size : sizes) {
+            for (int round = 0; round < ROUNDS; round++) {
+                test.run(size, false);
+                test.run(size, true);
+            }
+        }
+    }
+
+    private void run(int size, boolean sampling) {
+        final ConcurrentMap<Data, Record> records = createRecords(size);
+        final int evictableSize = size * EVICTION_PERCENTAGE / 100;
+        final long start = System.nanoTime();
+        final long rankSum = sampling ? evictBySampling(records, evictableSize) : evictBySorting(records, evictableSize);
+        final long elapsedMillis = (System.nanoTime() - start) / 1000000;
+        System.out.println((sampling ? "sampling" : "sorting ") + " entries: " + size
+                + ", evicted: " + (size - records.size()) + ", time: " + elapsedMillis + " ms"
+                + ", average rank of evicted: " + (100D * rankSum / Math.max(1, size - records.size()) / size) + "%");
+    }
+
+    private ConcurrentMap<Data, Record> createRecords(int size) {
+        final ConcurrentMap<Data, Record> records = new ConcurrentHashMap<Data, Record>(size);
+        final long[] criteria = new long[size];
+        for (int i = 0; i < size; i++) {
+            criteria[i] = i;
+        }
+        final Random random = new Random(size);
+        for (int i = size - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final long tmp = criteria[i];
+            criteria[i] = criteria[j];
+            criteria[j] = tmp;
+        }
+        for (int i = 0; i < size; i++) {
+            final Data key = ss.toData(i);
+            final Record record = recordFactory.newRecord(key, i);
+            record.setEvictionCriteriaNumber(criteria[i]);
+            records.put(key, record);
+        }
+        return records;
+    }
+
+    private long evictBySampling(Map<Data, Record> records, int evictableSize) {
+        final EvictionPool pool = new EvictionPool(8);
+        long rankSum = 0;
+        for (int i = 0; i < evictableSize; i++) {
+            final Data key = pool.pollCandidate(records, MapConfig.EvictionPolicy.LRU);
+            rankSum += records.remove(key).getEvictionCriteriaNumber();
+        }
+        return rankSum;
+    }
+
+    private long evictBySorting(Map<Data, Record> records, int evictableSize) {
+        final long[] criterias = new long[records.size()];
+        int index = 0;
+        for (Record record : records.values()) {
+            criterias[index++] = record.getEvictionCriteriaNumber();
+        }
+        Arrays.sort(criterias);
+        final long criteriaValue = criterias[Math.min(evictableSize, index - 1)];
+        long rankSum = 0;
+        int evicted = 0;
+        for (Map.Entry<Data, Record> entry : records.entrySet()) {
+            final long value = entry.getValue().getEvictionCriteriaNumber();
+            if (value <= criteriaValue) {
+                records.remove(entry.getKey());
+                rankSum += value;
+                evicted++;
+            }
+            if (evicted >= evictableSize) {
+                break;
+            }
+        }
+        return rankSum;
+    }
+}
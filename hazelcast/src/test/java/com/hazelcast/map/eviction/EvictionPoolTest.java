@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.eviction;
+
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.map.record.ObjectRecordFactory;
+import com.hazelcast.map.record.Record;
+import com.hazelcast.map.record.RecordFactory;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.SerializationService;
+import com.hazelcast.nio.serialization.SerializationServiceBuilder;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class EvictionPoolTest {
+
+    private final SerializationService ss = new SerializationServiceBuilder().build();
+    private final RecordFactory recordFactory = new ObjectRecordFactory(new MapConfig(), ss);
+    private final Map<Data, Record> records = new ConcurrentHashMap<Data, Record>();
+
+    @Test
+    public void testEmptyRecords() {
+        EvictionPool pool = new EvictionPool(4);
+        assertNull(pool.pollCandidate(records, MapConfig.EvictionPolicy.LRU));
+    }
+
+    @Test
+    public void testPollsLowestCriteria_whenAllRecordsSampled() {
+        for (int i = 0; i < 10; i++) {
+            put(i, 100 - i);
+        }
+        EvictionPool pool = new EvictionPool(16);
+        Data candidate = pool.pollCandidate(records, MapConfig.EvictionPolicy.LFU);
+        assertEquals(key(9), candidate);
+        records.remove(candidate);
+        assertEquals(key(8), pool.pollCandidate(records, MapConfig.EvictionPolicy.LFU));
+    }
+
+    @Test
+    public void testReRanksAccessedCandidates() {
+        for (int i = 0; i < 10; i++) {
+            put(i, i);
+        }
+        EvictionPool pool = new EvictionPool(16);
+        assertEquals(key(0), pool.pollCandidate(records, MapConfig.EvictionPolicy.LRU));
+        records.remove(key(0));
+        records.get(key(1)).setEvictionCriteriaNumber(1000);
+        assertEquals(key(2), pool.pollCandidate(records, MapConfig.EvictionPolicy.LRU));
+    }
+
+    @Test
+    public void testSkipsRemovedCandidates() {
+        for (int i = 0; i < 10; i++) {
+            put(i, i);
+        }
+        EvictionPool pool = new EvictionPool(16);
+        records.remove(pool.pollCandidate(records, MapConfig.EvictionPolicy.LRU));
+        records.remove(key(1));
+        records.remove(key(2));
+        assertEquals(key(3), pool.pollCandidate(records, MapConfig.EvictionPolicy.LRU));
+    }
+
+    @Test
+    public void testSamplingPrefersLeastUsed() {
+        final int count = 10000;
+        for (int i = 0; i < count; i++) {
+            put(i, i);
+        }
+        EvictionPool pool = new EvictionPool(16);
+        final int evictCount = count / 10;
+        Set<Data> evicted = new HashSet<Data>();
+        long totalCriteria = 0;
+        for (int i = 0; i < evictCount; i++) {
+            Data key = pool.pollCandidate(records, MapConfig.EvictionPolicy.LRU);
+            assertNotNull(key);
+            assertTrue(evicted.add(key));
+            totalCriteria += records.remove(key).getEvictionCriteriaNumber();
+        }
+        assertEquals(count - evictCount, records.size());
+        // uniform choice would average around half of the count
+        assertTrue(totalCriteria / evictCount < count / 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEvictionPolicyNone() {
+        put(1, 1);
+        new EvictionPool(4).pollCandidate(records, MapConfig.EvictionPolicy.NONE);
+    }
+
+    private void put(int key, long criteria) {
+        Record record = recordFactory.newRecord(key(key), key);
+        record.setEvictionCriteriaNumber(criteria);
+        records.put(record.getKey(), record);
+    }
+
+    private Data key(int i) {
+        return ss.toData(i);
+    }
+}
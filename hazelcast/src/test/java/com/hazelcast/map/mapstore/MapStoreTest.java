@@ -1477,7 +1477,7 @@ public class MapStoreTest extends HazelcastTestSupport {
 
     /**
      * At least sleep 1 second so entries can fall different time slices in
-     * {@link com.hazelcast.util.scheduler.SecondsBasedEntryTaskScheduler}
+     * write behind queue.
      */
     @Test
     @Category(NightlyTest.class)
@@ -102,6 +102,41 @@ public class NearCacheTest extends HazelcastTestSupport {
 
     }
 
+    @Test
+    public void testNearCacheInvalidationsAreCounted() {
+        String mapName = "testNearCacheInvalidationsAreCounted";
+        Config config = new Config();
+        config.getMapConfig(mapName).setNearCacheConfig(new NearCacheConfig().setInvalidateOnChange(true));
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance[] instances = factory.newInstances(config);
+        IMap<Object, Object> map1 = instances[0].getMap(mapName);
+        IMap<Object, Object> map2 = instances[1].getMap(mapName);
+
+        int count = 1000;
+        for (int i = 0; i < count; i++) {
+            map1.put(i, i);
+        }
+        for (int i = 0; i < count; i++) {
+            map2.get(i);
+        }
+        final NearCache nearCache = getNearCache(mapName, instances[1]);
+        assertTrue(nearCache.size() > 0);
+
+        for (int i = 0; i < count; i++) {
+            map1.put(i, i * 2);
+        }
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                assertEquals(0, nearCache.size());
+                // keys owned by the first instance are invalidated by its batches
+                assertTrue(nearCache.getNearCacheStats().getInvalidations() > 0);
+            }
+        });
+        assertEquals(0, nearCache.getNearCacheStats().getRepairs());
+    }
+
     private NearCache getNearCache(String mapName, HazelcastInstance instance) {
         NodeEngineImpl nodeEngine = TestUtil.getNode(instance).nodeEngine;
         MapService service = nodeEngine.getService(MapService.SERVICE_NAME);
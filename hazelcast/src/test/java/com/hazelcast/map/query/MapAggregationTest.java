@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.query;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.aggregation.Aggregators;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.SampleObjects.Employee;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(QuickTest.class)
+public class MapAggregationTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    @Test(timeout = 60000)
+    public void testAggregateAllEntries() {
+        IMap<Integer, Employee> map = createMap(false);
+
+        assertEquals(ENTRY_COUNT, (long) map.aggregate(Aggregators.<Integer, Employee>count()));
+        long ageSum = 0;
+        double salarySum = 0;
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            ageSum += i % 50;
+            salarySum += i;
+        }
+        assertEquals(ageSum, (long) map.aggregate(Aggregators.<Integer, Employee>longSum("age")));
+        assertEquals(salarySum, map.aggregate(Aggregators.<Integer, Employee>doubleSum("salary")), 0.0);
+        assertEquals(ageSum / (double) ENTRY_COUNT, map.aggregate(Aggregators.<Integer, Employee>average("age")), 0.0001);
+        assertEquals(0, (int) map.aggregate(Aggregators.<Integer, Employee, Integer>min("age")));
+        assertEquals(49, (int) map.aggregate(Aggregators.<Integer, Employee, Integer>max("age")));
+        assertEquals(50, map.aggregate(Aggregators.<Integer, Employee, Integer>distinct("age")).size());
+    }
+
+    @Test(timeout = 60000)
+    public void testAggregateWithPredicate() {
+        testAggregateWithPredicate(false);
+    }
+
+    @Test(timeout = 60000)
+    public void testAggregateWithIndexedPredicate() {
+        testAggregateWithPredicate(true);
+    }
+
+    private void testAggregateWithPredicate(boolean indexed) {
+        IMap<Integer, Employee> map = createMap(indexed);
+        Predicate predicate = Predicates.and(Predicates.equal("active", true), Predicates.lessThan("age", 10));
+        Aggregator<Map.Entry<Integer, Employee>, Long> ageSum = Aggregators.longSum("age");
+
+        long expectedAgeSum = 0;
+        Set<Integer> expectedAges = new HashSet<Integer>();
+        for (Employee employee : map.values(predicate)) {
+            expectedAgeSum += employee.getAge();
+            expectedAges.add(employee.getAge());
+        }
+
+        assertEquals(map.values(predicate).size(), (long) map.aggregate(Aggregators.<Integer, Employee>count(), predicate));
+        assertEquals(expectedAgeSum, (long) map.aggregate(ageSum, predicate));
+        // the aggregator passed is not changed, so it can be used again
+        assertEquals(expectedAgeSum, (long) map.aggregate(ageSum, predicate));
+        assertEquals(expectedAges, map.aggregate(Aggregators.<Integer, Employee, Integer>distinct("age"), predicate));
+    }
+
+    @Test(timeout = 60000)
+    public void testAggregateNoEntries() {
+        HazelcastInstance instance = createHazelcastInstance();
+        IMap<Integer, Employee> map = instance.getMap(randomMapName());
+
+        assertEquals(0, (long) map.aggregate(Aggregators.<Integer, Employee>count()));
+        assertNull(map.aggregate(Aggregators.<Integer, Employee>average("age")));
+        assertNull(map.aggregate(Aggregators.<Integer, Employee, Integer>max("age")));
+    }
+
+    private IMap<Integer, Employee> createMap(boolean indexed) {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(3);
+        HazelcastInstance instance = factory.newHazelcastInstance();
+        factory.newHazelcastInstance();
+        factory.newHazelcastInstance();
+        IMap<Integer, Employee> map = instance.getMap(randomMapName());
+        if (indexed) {
+            map.addIndex("active", false);
+            map.addIndex("age", true);
+        }
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, new Employee(i, "name" + i, i % 50, i % 2 == 0, i));
+        }
+        return map;
+    }
+}
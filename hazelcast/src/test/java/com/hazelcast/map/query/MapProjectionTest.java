@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.query;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.projection.Projections;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.SampleObjects.Employee;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(QuickTest.class)
+public class MapProjectionTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    @Test(timeout = 60000)
+    public void testSingleAttribute() {
+        IMap<Integer, Employee> map = createMap(false);
+
+        Collection<String> names = map.project(Projections.<Integer, Employee, String>singleAttribute("name"));
+
+        assertEquals(ENTRY_COUNT, names.size());
+        Set<String> expected = new HashSet<String>();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            expected.add("name" + i);
+        }
+        assertEquals(expected, new HashSet<String>(names));
+    }
+
+    @Test(timeout = 60000)
+    public void testMultiAttributeWithPredicate() {
+        testMultiAttributeWithPredicate(false);
+    }
+
+    @Test(timeout = 60000)
+    public void testMultiAttributeWithIndexedPredicate() {
+        testMultiAttributeWithPredicate(true);
+    }
+
+    private void testMultiAttributeWithPredicate(boolean indexed) {
+        IMap<Integer, Employee> map = createMap(indexed);
+        Predicate predicate = Predicates.and(Predicates.equal("active", true), Predicates.lessThan("age", 10));
+
+        Collection<Object[]> tuples = map.project(
+                Projections.<Integer, Employee>multiAttribute("__key", "name", "age"), predicate);
+
+        assertEquals(map.keySet(predicate).size(), tuples.size());
+        for (Object[] tuple : tuples) {
+            int key = (Integer) tuple[0];
+            assertEquals("name" + key, tuple[1]);
+            assertEquals(key % 50, tuple[2]);
+            assertTrue(key % 2 == 0 && key % 50 < 10);
+        }
+    }
+
+    private IMap<Integer, Employee> createMap(boolean indexed) {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(3);
+        HazelcastInstance instance = factory.newHazelcastInstance();
+        factory.newHazelcastInstance();
+        factory.newHazelcastInstance();
+        IMap<Integer, Employee> map = instance.getMap(randomMapName());
+        if (indexed) {
+            map.addIndex("active", false);
+            map.addIndex("age", true);
+        }
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, new Employee(i, "name" + i, i % 50, i % 2 == 0, i));
+        }
+        return map;
+    }
+}
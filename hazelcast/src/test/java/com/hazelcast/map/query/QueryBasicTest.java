@@ -8,6 +8,7 @@ import com.hazelcast.query.EntryObject;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.PredicateBuilder;
 import com.hazelcast.query.Predicates;
+import com.hazelcast.query.QueryPlan;
 import com.hazelcast.query.SampleObjects;
 import com.hazelcast.query.SqlPredicate;
 import com.hazelcast.test.HazelcastParallelClassRunner;
@@ -63,6 +64,31 @@ public class QueryBasicTest extends HazelcastTestSupport {
         assertEquals(values.size(), 0);
     }
 
+    @Test(timeout = 1000 * 60)
+    public void testExplain() {
+        HazelcastInstance instance = createHazelcastInstance();
+        IMap<String, Employee> map = instance.getMap("employees");
+        map.addIndex("name", false);
+        map.addIndex("age", true);
+        for (int i = 0; i < 100; i++) {
+            map.put(String.valueOf(i), new Employee("name" + i % 10, i, i % 2 == 0, i));
+        }
+        Collection<QueryPlan> plans = map.explain(new SqlPredicate("age > 5 AND name = 'name3'"));
+        assertEquals(1, plans.size());
+        QueryPlan plan = plans.iterator().next();
+        assertTrue(plan.isIndexed());
+        assertEquals(9, plan.getResultSize());
+        assertEquals(2, plan.getSteps().size());
+        assertTrue(plan.toString(), plan.getSteps().get(0).startsWith("index lookup: name=name3"));
+        assertTrue(plan.toString(), plan.getSteps().get(1).startsWith("filter: age>5"));
+        assertTrue(plan.getPartitionDurationsNanos().isEmpty());
+
+        plan = map.explain(new SqlPredicate("salary > 49")).iterator().next();
+        assertFalse(plan.isIndexed());
+        assertEquals(50, plan.getResultSize());
+        assertEquals(instance.getPartitionService().getPartitions().size(), plan.getPartitionDurationsNanos().size());
+    }
+
     @Test(timeout = 1000 * 60)
     public void testInnerIndex() {
         HazelcastInstance instance = createHazelcastInstance();
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.query;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.map.QueryCache;
+import com.hazelcast.query.PagingPredicate;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.SampleObjects.Employee;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(QuickTest.class)
+public class QueryCacheTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 100;
+
+    @Test(timeout = 120000)
+    public void testQueryCacheFollowsTheMap() {
+        final IMap<Integer, Employee> map = createMap();
+        final QueryCache<Integer, Employee> queryCache = map.getQueryCache("young", Predicates.lessThan("age", 10));
+        queryCache.addIndex("age", true);
+
+        assertEquals(20, queryCache.size());
+        assertEquals(map.keySet(Predicates.lessThan("age", 10)), queryCache.keySet());
+
+        map.put(1000, new Employee(1000, "name1000", 5, true, 1000));
+        map.put(0, new Employee(0, "name0", 60, true, 0));
+        map.remove(1);
+        map.put(2, new Employee(2, "renamed2", 2, true, 2));
+
+        assertTrueEventually(new AssertTask() {
+            public void run() {
+                assertEquals(19, queryCache.size());
+                assertTrue(queryCache.containsKey(1000));
+                assertFalse(queryCache.containsKey(0));
+                assertFalse(queryCache.containsKey(1));
+                assertEquals("renamed2", queryCache.get(2).getName());
+            }
+        });
+        assertEquals(map.keySet(Predicates.lessThan("age", 10)), queryCache.keySet());
+        Predicate predicate = Predicates.equal("age", 5);
+        assertEquals(map.keySet(predicate), queryCache.keySet(predicate));
+        assertEquals(3, queryCache.values(predicate).size());
+    }
+
+    @Test(timeout = 120000)
+    public void testDestroy() {
+        final IMap<Integer, Employee> map = createMap();
+        final QueryCache<Integer, Employee> queryCache = map.getQueryCache("young", Predicates.lessThan("age", 10));
+        assertSame(queryCache, map.getQueryCache("young", Predicates.lessThan("age", 10)));
+
+        queryCache.destroy();
+        map.put(1000, new Employee(1000, "name1000", 5, true, 1000));
+
+        assertTrue(queryCache.isEmpty());
+        assertNull(queryCache.get(1000));
+        QueryCache<Integer, Employee> recreated = map.getQueryCache("young", Predicates.lessThan("age", 10));
+        assertNotSame(queryCache, recreated);
+        assertEquals(21, recreated.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPagingPredicateNotAllowed() {
+        createHazelcastInstance().getMap(randomMapName()).getQueryCache("paged", new PagingPredicate(10));
+    }
+
+    private IMap<Integer, Employee> createMap() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance instance = factory.newHazelcastInstance();
+        factory.newHazelcastInstance();
+        IMap<Integer, Employee> map = instance.getMap(randomMapName());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, new Employee(i, "name" + i, i % 50, true, i));
+        }
+        return map;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.query;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.PartitionService;
+import com.hazelcast.map.MapService;
+import com.hazelcast.map.QueryCursorPage;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.SampleObjects.Employee;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(QuickTest.class)
+public class QueryPageIteratorTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    @Test(timeout = 60000)
+    public void testQueryIterator() {
+        IMap<Integer, Employee> map = createMap(3);
+        Predicate predicate = Predicates.lessThan("age", 10);
+
+        Set<Integer> keys = new HashSet<Integer>();
+        Iterator<Map.Entry<Integer, Employee>> iterator = map.queryIterator(predicate, 7);
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Employee> entry = iterator.next();
+            assertTrue("duplicate key " + entry.getKey(), keys.add(entry.getKey()));
+            assertEquals(entry.getKey() % 50, entry.getValue().getAge());
+        }
+        assertEquals(map.keySet(predicate), keys);
+    }
+
+    @Test(timeout = 60000)
+    public void testQueryIteratorWithoutPredicate() {
+        IMap<Integer, Employee> map = createMap(2);
+
+        int count = 0;
+        for (Iterator<Map.Entry<Integer, Employee>> iterator = map.queryIterator(null, 100); iterator.hasNext(); ) {
+            iterator.next();
+            count++;
+        }
+        assertEquals(ENTRY_COUNT, count);
+        map.clear();
+        assertFalse(map.queryIterator(null, 100).hasNext());
+    }
+
+    @Test(timeout = 60000)
+    public void testRetriedAndLostPages() {
+        HazelcastInstance instance = createHazelcastInstance();
+        IMap<Integer, Integer> map = instance.getMap(randomMapName());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, i);
+        }
+        MapService mapService = getNode(instance).nodeEngine.getService(MapService.SERVICE_NAME);
+        int partitionId = instance.getPartitionService().getPartition(0).getPartitionId();
+
+        QueryCursorPage first = mapService.fetchQueryPage(map.getName(), null, partitionId, "cursor", 0, 1);
+        assertSame(first, mapService.fetchQueryPage(map.getName(), null, partitionId, "cursor", 0, 1));
+        try {
+            mapService.fetchQueryPage(map.getName(), null, partitionId, "cursor", 2, 1);
+            fail();
+        } catch (ConcurrentModificationException expected) {
+        }
+        try {
+            mapService.fetchQueryPage(map.getName(), null, partitionId, "cursor", 1, 1);
+            fail();
+        } catch (ConcurrentModificationException expected) {
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testOffHeapCursorIsLostWhenTableIsResized() {
+        Config config = new Config();
+        config.getMapConfig("offheap*").setRecordStoreType(MapConfig.RecordStoreType.OFFHEAP);
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance.getMap("offheap" + randomMapName());
+        PartitionService partitionService = instance.getPartitionService();
+        int partitionId = partitionService.getPartition(0).getPartitionId();
+        int key = 0;
+        for (int count = 0; count < 3; key++) {
+            if (partitionService.getPartition(key).getPartitionId() == partitionId) {
+                map.put(key, key);
+                count++;
+            }
+        }
+        MapService mapService = getNode(instance).nodeEngine.getService(MapService.SERVICE_NAME);
+        assertEquals(1, mapService.fetchQueryPage(map.getName(), null, partitionId, "cursor", 0, 1).size());
+
+        // grows the table of the partition beyond its initial capacity
+        for (int count = 0; count < 100; key++) {
+            if (partitionService.getPartition(key).getPartitionId() == partitionId) {
+                map.put(key, key);
+                count++;
+            }
+        }
+        try {
+            mapService.fetchQueryPage(map.getName(), null, partitionId, "cursor", 1, 1);
+            fail();
+        } catch (ConcurrentModificationException expected) {
+        }
+    }
+
+    private IMap<Integer, Employee> createMap(int nodeCount) {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(nodeCount);
+        HazelcastInstance[] instances = factory.newInstances();
+        IMap<Integer, Employee> map = instances[0].getMap(randomMapName());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, new Employee(i, "name" + i, i % 50, true, i));
+        }
+        return map;
+    }
+}
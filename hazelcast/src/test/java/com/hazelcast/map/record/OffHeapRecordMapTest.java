@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.record;
+
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.SerializationService;
+import com.hazelcast.nio.serialization.SerializationServiceBuilder;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class OffHeapRecordMapTest {
+
+    private final SerializationService ss = new SerializationServiceBuilder().build();
+    private final OffHeapRecordMap map = new OffHeapRecordMap(ss.getSerializationContext(), true);
+
+    @After
+    public void tearDown() {
+        map.clear();
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        final int count = 10000;
+        for (int i = 0; i < count; i++) {
+            assertNull(map.put(key(i), newRecord(i, "value" + i)));
+        }
+        assertEquals(count, map.size());
+        for (int i = 0; i < count; i++) {
+            Record record = map.get(key(i));
+            assertNotNull(record);
+            assertEquals(key(i), record.getKey());
+            assertEquals("value" + i, ss.toObject(record.getValue()));
+        }
+        for (int i = 0; i < count; i += 2) {
+            Record removed = map.remove(key(i));
+            assertEquals("value" + i, ss.toObject(removed.getValue()));
+        }
+        assertEquals(count / 2, map.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i % 2 != 0, map.containsKey(key(i)));
+        }
+        assertTrue(map.getUsedMemory() > 0);
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(0, map.getUsedMemory());
+        assertNull(map.get(key(1)));
+    }
+
+    @Test
+    public void testPutReturnsDetachedPreviousRecord() {
+        map.put(key(1), newRecord(1, "a"));
+        Record previous = map.put(key(1), newRecord(1, "b"));
+        assertEquals("a", ss.toObject(previous.getValue()));
+        assertEquals("b", ss.toObject(map.get(key(1)).getValue()));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testRecordViewWritesThrough() {
+        Record<Data> heapRecord = newRecord(1, "a");
+        heapRecord.setTtl(100);
+        heapRecord.setVersion(3);
+        heapRecord.getStatistics().setHits(7);
+        map.put(key(1), heapRecord);
+
+        Record<Data> view = map.get(key(1));
+        assertEquals(100, view.getTtl());
+        assertEquals(3, view.getVersion());
+        assertEquals(7, view.getStatistics().getHits());
+
+        view.onAccess();
+        view.onUpdate();
+        view.setEvictionCriteriaNumber(42);
+        view.setValue(ss.toData("b"));
+
+        Record<Data> other = map.get(key(1));
+        assertEquals(8, other.getStatistics().getHits());
+        assertEquals(4, other.getVersion());
+        assertEquals(42, other.getEvictionCriteriaNumber());
+        assertEquals("b", ss.toObject(other.getValue()));
+    }
+
+    @Test
+    public void testRecordViewSurvivesResize() {
+        map.put(key(0), newRecord(0, "0"));
+        Record view = map.get(key(0));
+        for (int i = 1; i < 1000; i++) {
+            map.put(key(i), newRecord(i, String.valueOf(i)));
+        }
+        view.setTtl(5);
+        assertEquals(5, map.get(key(0)).getTtl());
+        assertEquals("0", ss.toObject(view.getValue()));
+
+        map.remove(key(0));
+        assertNull(view.getValue());
+        assertEquals(0, view.getTtl());
+    }
+
+    @Test
+    public void testIterators() {
+        final int count = 1000;
+        for (int i = 0; i < count; i++) {
+            map.put(key(i), newRecord(i, String.valueOf(i)));
+        }
+        Set<Data> keys = new HashSet<Data>(map.keySet());
+        assertEquals(count, keys.size());
+        for (Record record : map.values()) {
+            assertTrue(keys.contains(record.getKey()));
+        }
+        Iterator<Data> iterator = map.keySet().iterator();
+        while (iterator.hasNext()) {
+            Data key = iterator.next();
+            if ((Integer) ss.toObject(key) % 2 == 0) {
+                iterator.remove();
+            }
+        }
+        assertEquals(count / 2, map.size());
+        assertEquals(count / 2, map.entrySet().size());
+        assertFalse(map.containsKey(key(0)));
+        assertTrue(map.keySet().remove(key(1)));
+        assertFalse(map.containsKey(key(1)));
+    }
+
+    @Test
+    public void testReusesRemovedSlots() {
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 100; i++) {
+                map.put(key(i), newRecord(i, "v"));
+            }
+            for (int i = 0; i < 100; i++) {
+                map.remove(key(i));
+            }
+        }
+        assertTrue(map.isEmpty());
+        map.put(key(1), newRecord(1, "v"));
+        assertEquals(1, map.size());
+        assertEquals("v", ss.toObject(map.get(key(1)).getValue()));
+    }
+
+    private Data key(int i) {
+        return ss.toData(i);
+    }
+
+    private Record<Data> newRecord(int key, Object value) {
+        return new DataRecordWithStats(key(key), ss.toData(value));
+    }
+}
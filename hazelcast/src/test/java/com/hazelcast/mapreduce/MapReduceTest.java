@@ -14,6 +14,8 @@
 
 package com.hazelcast.mapreduce;
 
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JobTrackerConfig;
 import com.hazelcast.core.ExecutionCallback;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.ICompletableFuture;
@@ -317,6 +319,47 @@ public class MapReduceTest
         }
     }
 
+    @Test(timeout = 60000)
+    public void testMapperReducerSpilled()
+            throws Exception {
+        Config config = new Config();
+        JobTrackerConfig jobTrackerConfig = new JobTrackerConfig().setName("spilling");
+        jobTrackerConfig.setSpillThreshold(1);
+        config.addJobTrackerConfig(jobTrackerConfig);
+        TestHazelcastInstanceFactory nodeFactory = createHazelcastInstanceFactory(3);
+
+        HazelcastInstance h1 = nodeFactory.newHazelcastInstance(config);
+        HazelcastInstance h2 = nodeFactory.newHazelcastInstance(config);
+        HazelcastInstance h3 = nodeFactory.newHazelcastInstance(config);
+
+        IMap<Integer, Integer> m1 = h1.getMap(MAP_NAME);
+        for (int i = 0; i < 1000; i++) {
+            m1.put(i, i);
+        }
+
+        JobTracker tracker = h1.getJobTracker("spilling");
+        Job<Integer, Integer> job = tracker.newJob(KeyValueSource.fromMap(m1));
+        ICompletableFuture<Map<String, Integer>> future =
+                job.chunkSize(10)
+                        .mapper(new GroupingTestMapper())
+                        .reducer(new TestReducerFactory())
+                        .submit();
+
+        Map<String, Integer> result = future.get();
+
+        // Precalculate results
+        int[] expectedResults = new int[4];
+        for (int i = 0; i < 1000; i++) {
+            int index = i % 4;
+            expectedResults[index] += i;
+        }
+
+        assertEquals(4, result.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(expectedResults[i], (int) result.get(String.valueOf(i)));
+        }
+    }
+
     @Test(timeout = 60000)
     public void testMapperReducerChunked()
             throws Exception {
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.mapreduce.impl.task;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.mapreduce.Reducer;
+import com.hazelcast.mapreduce.ReducerFactory;
+import com.hazelcast.mapreduce.impl.AbstractJobTracker;
+import com.hazelcast.nio.serialization.SerializationServiceBuilder;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class ChunkSpillStoreTest {
+
+    private File directory;
+    private ChunkSpillStore store;
+
+    @Before
+    public void setup() {
+        directory = new File(System.getProperty("java.io.tmpdir"), "chunk-spill-" + System.nanoTime());
+        assertTrue(directory.mkdirs());
+        store = new ChunkSpillStore(new SerializationServiceBuilder().build(), directory, "test-");
+    }
+
+    @After
+    public void tearDown() {
+        store.destroy();
+        directory.delete();
+    }
+
+    @Test
+    public void testReduceMergesRunsAndMemory()
+            throws Exception {
+        for (int i = 0; i < 100; i++) {
+            store.add("key" + (i % 7), i);
+            if (i % 30 == 29) {
+                assertTrue(store.spill() > 0);
+            }
+        }
+        store.add("key0", Arrays.asList(1000, 2000));
+        assertEquals(3, store.getRunCount());
+
+        Map<Object, Object> result = store.reduce(new SumReducerFactory());
+
+        assertEquals(7, result.size());
+        for (int k = 0; k < 7; k++) {
+            int expected = k == 0 ? 3000 : 0;
+            for (int i = k; i < 100; i += 7) {
+                expected += i;
+            }
+            assertEquals(expected, result.get("key" + k));
+        }
+    }
+
+    @Test
+    public void testReduceMergesRunsInPassesKeepingValueOrder()
+            throws Exception {
+        ChunkSpillStore narrowStore = new ChunkSpillStore(new SerializationServiceBuilder().build(), directory, "narrow-", 2);
+        try {
+            for (int i = 0; i < 100; i++) {
+                narrowStore.add("key" + (i % 3), i);
+                if (i % 10 == 9) {
+                    narrowStore.spill();
+                }
+            }
+            narrowStore.add("key0", 100);
+            assertEquals(10, narrowStore.getRunCount());
+
+            Map<Object, Object> result = narrowStore.reduce(new ListReducerFactory());
+
+            assertEquals(2, narrowStore.getRunCount());
+            assertEquals(2, directory.list().length);
+            assertEquals(3, result.size());
+            for (int k = 0; k < 3; k++) {
+                List<Integer> expected = new ArrayList<Integer>();
+                for (int i = k; i < 100; i += 3) {
+                    expected.add(i);
+                }
+                if (k == 0) {
+                    expected.add(100);
+                }
+                assertEquals(expected, result.get("key" + k));
+            }
+        } finally {
+            narrowStore.destroy();
+        }
+    }
+
+    @Test
+    public void testLargestStoreIsSpilled()
+            throws Exception {
+        ChunkSpillStore largeStore = new ChunkSpillStore(new SerializationServiceBuilder().build(), directory, "large-");
+        try {
+            store.add("a", 1);
+            long size = 0;
+            for (int i = 0; i < 10; i++) {
+                size += largeStore.add("b" + i, i);
+            }
+
+            assertEquals(size, ChunkSpillStore.spillLargest(Arrays.asList(store, largeStore)));
+            assertEquals(0, store.getRunCount());
+            assertEquals(1, largeStore.getRunCount());
+        } finally {
+            largeStore.destroy();
+        }
+    }
+
+    @Test
+    public void testReduceWithoutSpill()
+            throws Exception {
+        store.add("a", 1);
+        store.add("b", 2);
+        store.add("a", 3);
+
+        Map<Object, Object> result = store.reduce(new SumReducerFactory());
+
+        assertEquals(0, store.getRunCount());
+        assertEquals(4, result.get("a"));
+        assertEquals(2, result.get("b"));
+    }
+
+    @Test
+    public void testDestroyDeletesRuns()
+            throws Exception {
+        long size = store.add("a", 1);
+        assertEquals(size, store.spill());
+        store.add("b", 2);
+        assertEquals(1, directory.list().length);
+
+        assertTrue(store.destroy() > 0);
+        assertEquals(0, directory.list().length);
+        assertEquals(0, store.getRunCount());
+    }
+
+    @Test
+    public void testChunksAfterDestroyAreDroppedWithoutReservingMemory()
+            throws Exception {
+        Config config = new Config();
+        config.getJobTrackerConfig("spill").setSpillThreshold(Long.MAX_VALUE);
+        HazelcastInstance instance = new TestHazelcastInstanceFactory(1).newHazelcastInstance(config);
+        try {
+            AbstractJobTracker jobTracker = (AbstractJobTracker) instance.getJobTracker("spill");
+            store.addChunk(Collections.singletonMap("a", 1), jobTracker);
+            assertTrue(jobTracker.getChunkMemory() > 0);
+            jobTracker.releaseChunkMemory(store.destroy());
+            assertEquals(0, jobTracker.getChunkMemory());
+
+            store.addChunk(Collections.singletonMap("b", 2), jobTracker);
+            assertEquals(0, jobTracker.getChunkMemory());
+            assertEquals(0, store.destroy());
+            assertEquals(0, store.reduce(new SumReducerFactory()).size());
+        } finally {
+            instance.shutdown();
+        }
+    }
+
+    private static class ListReducerFactory
+            implements ReducerFactory<String, Integer, List<Integer>> {
+
+        @Override
+        public Reducer<String, Integer, List<Integer>> newReducer(String key) {
+            return new Reducer<String, Integer, List<Integer>>() {
+                private final List<Integer> values = new ArrayList<Integer>();
+
+                @Override
+                public void reduce(Integer value) {
+                    values.add(value);
+                }
+
+                @Override
+                public List<Integer> finalizeReduce() {
+                    return values;
+                }
+            };
+        }
+    }
+
+    private static class SumReducerFactory
+            implements ReducerFactory<String, Integer, Integer> {
+
+        @Override
+        public Reducer<String, Integer, Integer> newReducer(String key) {
+            return new Reducer<String, Integer, Integer>() {
+                private final List<Integer> values = new ArrayList<Integer>();
+
+                @Override
+                public void reduce(Integer value) {
+                    values.add(value);
+                }
+
+                @Override
+                public Integer finalizeReduce() {
+                    int sum = 0;
+                    for (Integer value : values) {
+                        sum += value;
+                    }
+                    return sum;
+                }
+            };
+        }
+    }
+}
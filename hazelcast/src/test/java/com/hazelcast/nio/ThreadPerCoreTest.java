@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.instance.TestUtil;
+import com.hazelcast.spi.impl.InternalOperationService;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class ThreadPerCoreTest {
+
+    @Before
+    @After
+    public void killAllHazelcastInstances() {
+        Hazelcast.shutdownAll();
+    }
+
+    @Test(timeout = 120000)
+    public void testMapOperations() throws InterruptedException {
+        Config config = newConfig(true);
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(config);
+        TestUtil.warmUpPartitions(h1, h2);
+        assertEquals(2, h1.getCluster().getMembers().size());
+
+        InternalOperationService operationService = (InternalOperationService) TestUtil.getNode(h1).nodeEngine
+                .getOperationService();
+        assertEquals(2, operationService.getPartitionIOSelectors().length);
+        assertNoIOThreads(h1);
+
+        IMap<Integer, Integer> map1 = h1.getMap("test");
+        IMap<Integer, Integer> map2 = h2.getMap("test");
+        for (int i = 0; i < 1000; i++) {
+            map1.put(i, i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), map2.get(i));
+        }
+        assertEquals(1000, map2.size());
+
+        h1.getLifecycleService().shutdown();
+        assertEquals(1000, map2.size());
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig(false));
+        InternalOperationService operationService = (InternalOperationService) TestUtil.getNode(h1).nodeEngine
+                .getOperationService();
+        assertNull(operationService.getPartitionIOSelectors());
+    }
+
+    private static void assertNoIOThreads(HazelcastInstance hz) {
+        String ioThreadPrefix = TestUtil.getNode(hz).getThreadPoolNamePrefix("IO");
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            assertFalse(thread.getName(), thread.getName().startsWith(ioThreadPrefix + "in-"));
+            assertFalse(thread.getName(), thread.getName().startsWith(ioThreadPrefix + "out-"));
+        }
+    }
+
+    private static Config newConfig(boolean threadPerCore) {
+        Config config = new Config();
+        if (threadPerCore) {
+            config.setProperty(GroupProperties.PROP_IO_THREAD_PER_CORE, "true");
+        }
+        config.setProperty(GroupProperties.PROP_PARTITION_OPERATION_THREAD_COUNT, "2");
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+        return config;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.Member;
+import com.hazelcast.instance.TestUtil;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.SerializationService;
+import com.hazelcast.nio.serialization.SerializationServiceBuilder;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class WriteHandlerTest {
+
+    private final SerializationService ss = new SerializationServiceBuilder().build();
+
+    @Before
+    @After
+    public void killAllHazelcastInstances() {
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testWriteToExceptValue_sameBytesAsWriteTo() {
+        byte[] value = new byte[10000];
+        Arrays.fill(value, (byte) 7);
+        Data data = ss.toData(value);
+
+        byte[] expected = writeAll(newPacket(data), 64, false);
+        byte[] actual = writeAll(newPacket(data), 64, true);
+        assertArrayEquals(expected, actual);
+
+        Packet packet = new Packet(ss.getSerializationContext());
+        assertTrue(packet.readFrom(ByteBuffer.wrap(actual)));
+        assertEquals(42, packet.getPartitionId());
+        assertArrayEquals(value, (byte[]) ss.toObject(packet.getData()));
+    }
+
+    @Test(timeout = 120000)
+    public void testWriteMetrics() throws Exception {
+        HazelcastInstance h1 = Hazelcast.newHazelcastInstance(newConfig());
+        HazelcastInstance h2 = Hazelcast.newHazelcastInstance(newConfig());
+        TestUtil.warmUpPartitions(h1, h2);
+
+        IMap<Integer, byte[]> map = h1.getMap("test");
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, new byte[WriteHandler.GATHERING_WRITE_MIN_VALUE_SIZE * 2]);
+        }
+        assertEquals(1000, h2.getMap("test").size());
+
+        Address address = TestUtil.getNode(h2).getThisAddress();
+        TcpIpConnection connection = (TcpIpConnection) TestUtil.getNode(h1).getConnectionManager().getConnection(address);
+        assertNotNull(connection);
+        assertTrue(connection.getWriteCount() > 0);
+        assertTrue(connection.getWrittenPackets() > 0);
+        assertTrue(connection.getWrittenBytes() > 1000L * WriteHandler.GATHERING_WRITE_MIN_VALUE_SIZE);
+        assertTrue(connection.getPacketsPerWrite() > 0);
+        assertTrue(connection.getBytesPerWrite() > 0);
+
+        // packets queued while the selector is busy are written together
+        long writeCount = connection.getWriteCount();
+        long writtenPackets = connection.getWrittenPackets();
+        final CountDownLatch selectorBlocked = new CountDownLatch(1);
+        final CountDownLatch releaseSelector = new CountDownLatch(1);
+        connection.getWriteHandler().getIOSelector().addTask(new Runnable() {
+            public void run() {
+                selectorBlocked.countDown();
+                try {
+                    releaseSelector.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        });
+        connection.getWriteHandler().getIOSelector().wakeup();
+        assertTrue(selectorBlocked.await(30, TimeUnit.SECONDS));
+        int queued = 0;
+        List<Future> futures = new ArrayList<Future>();
+        Member owner = h2.getCluster().getLocalMember();
+        for (int i = 0; queued < 100; i++) {
+            if (owner.equals(h1.getPartitionService().getPartition(i).getOwner())) {
+                futures.add(map.putAsync(i, new byte[16]));
+                queued++;
+            }
+        }
+        releaseSelector.countDown();
+        for (Future future : futures) {
+            future.get();
+        }
+        long packets = connection.getWrittenPackets() - writtenPackets;
+        long writes = connection.getWriteCount() - writeCount;
+        assertTrue(packets >= queued);
+        assertTrue("packets: " + packets + ", writes: " + writes, packets > writes);
+    }
+
+    private Packet newPacket(Data data) {
+        Packet packet = new Packet(data, 42, ss.getSerializationContext());
+        packet.setHeader(Packet.HEADER_OP);
+        return packet;
+    }
+
+    /**
+     * Writes the packet through a small buffer the way {@link WriteHandler} does, draining at most half
+     * of the pending value per round to mimic partial gathering writes.
+     */
+    private static byte[] writeAll(Packet packet, int bufferSize, boolean exceptValue) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+        ByteBuffer pendingValue = null;
+        boolean complete = false;
+        while (!complete || pendingValue != null) {
+            if (pendingValue == null) {
+                if (exceptValue) {
+                    pendingValue = packet.writeToExceptValue(buffer);
+                }
+                if (pendingValue == null) {
+                    complete = packet.writeTo(buffer);
+                }
+            }
+            buffer.flip();
+            out.write(buffer.array(), 0, buffer.limit());
+            buffer.clear();
+            if (pendingValue != null) {
+                int length = Math.max(1, pendingValue.remaining() / 2);
+                out.write(pendingValue.array(), pendingValue.position(), length);
+                pendingValue.position(pendingValue.position() + length);
+                if (!pendingValue.hasRemaining()) {
+                    pendingValue = null;
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static Config newConfig() {
+        Config config = new Config();
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+        return config;
+    }
+}
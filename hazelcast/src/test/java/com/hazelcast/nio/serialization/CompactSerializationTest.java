@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.nio.serialization;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.query.SqlPredicate;
+import com.hazelcast.query.impl.AttributeType;
+import com.hazelcast.query.impl.QueryEntry;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(QuickTest.class)
+public class CompactSerializationTest extends HazelcastTestSupport {
+
+    @Test
+    public void testRoundTrip() {
+        SerializationService ss = new SerializationServiceBuilder().build();
+        Person person = new Person("joe", 42, new Address("Istanbul", 34000),
+                new Address[]{new Address("Ankara", 6000), null});
+        person.scores = new int[]{1, 2, 3};
+
+        Data data = ss.toData(person);
+        assertEquals(SerializationConstants.DEFAULT_TYPE_COMPACT, data.getType());
+        Person read = ss.toObject(data);
+        assertEquals("joe", read.name);
+        assertEquals(42, read.age);
+        assertEquals(1.75, read.height, 0);
+        assertEquals("Istanbul", read.address.city);
+        assertEquals(34000, read.address.zip);
+        assertEquals("Ankara", read.previous[0].city);
+        assertNull(read.previous[1]);
+        assertTrue(Arrays.equals(new int[]{1, 2, 3}, read.scores));
+
+        Person empty = ss.toObject(ss.toData(new Person(null, 0, null, null)));
+        assertNull(empty.name);
+        assertNull(empty.address);
+        assertNull(empty.previous);
+    }
+
+    @Test
+    public void testEvolution() throws Exception {
+        SerializationService ss = new SerializationServiceBuilder().build();
+        Data data = ss.toData(new Address("Istanbul", 34000));
+        Schema written = ss.getSchemaRegistry().getLocalSchema(ss.createObjectDataInput(data).readLong());
+
+        // the same fields as an older version of Address2, which has an extra field and no zip
+        Schema asAddress2 = new Schema(Address2.class.getName(), written.getFields());
+        SerializationService ss2 = new SerializationServiceBuilder().build();
+        ss2.getSchemaRegistry().registerReplicated(asAddress2);
+        byte[] buffer = data.getBuffer().clone();
+        writeLong(buffer, asAddress2.getFingerprint());
+
+        Address2 read = ss2.toObject(new Data(data.getType(), buffer));
+        assertEquals("Istanbul", read.city);
+        assertEquals("unknown", read.country);
+    }
+
+    @Test
+    public void testQueryReadsFieldsWithoutDeserializing() throws Exception {
+        SerializationService ss = new SerializationServiceBuilder().build();
+        Data value = ss.toData(new Person("joe", 42, new Address("Istanbul", 34000), null));
+        QueryEntry entry = new QueryEntry(ss, ss.toData(1), 1, value);
+
+        assertEquals("Istanbul", entry.getAttribute("address.city"));
+        assertEquals(34000, entry.getAttribute("address.zip"));
+        assertEquals(42, entry.getAttribute("age"));
+        assertEquals(AttributeType.INTEGER, entry.getAttributeType("age"));
+        assertEquals(AttributeType.STRING, entry.getAttributeType("address.city"));
+        assertTrue(new SqlPredicate("age > 40 and address.city = 'Istanbul'").apply(entry));
+
+        CompactReader reader = ss.createCompactReader(value);
+        assertNull(reader.getFieldType("address.country"));
+        assertNull(reader.getFieldType("address"));
+        assertEquals(FieldType.DOUBLE, reader.getFieldType("height"));
+    }
+
+    @Test(timeout = 600000)
+    public void testSchemasAreReplicated() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(3);
+        HazelcastInstance h1 = factory.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = factory.newHazelcastInstance(new Config());
+        IMap<Integer, Person> map = h1.getMap("people");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, new Person("p" + i, i, new Address("city" + (i % 10), i), null));
+        }
+        // the member joining later gets the schemas after joining
+        HazelcastInstance h3 = factory.newHazelcastInstance(new Config());
+
+        assertEquals("p7", h2.<Integer, Person>getMap("people").get(7).name);
+        Collection<Person> result = h3.<Integer, Person>getMap("people").values(new SqlPredicate("address.city = 'city3'"));
+        assertEquals(10, result.size());
+    }
+
+    @Test(timeout = 600000)
+    public void testSchemaIsAcknowledgedBeforeValueIsWritten() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance h1 = factory.newHazelcastInstance(new Config());
+        HazelcastInstance h2 = factory.newHazelcastInstance(new Config());
+        SchemaRegistry registry = getNode(h2).getSerializationService().getSchemaRegistry();
+        assertTrue(registry.getSchemas().isEmpty());
+
+        h1.getMap("people").put(1, new Person("joe", 30, new Address("city", 1), null));
+
+        // both schemas are known without asking for them, so operations on h2 can read the value
+        assertEquals(2, registry.getSchemas().size());
+    }
+
+    private static void writeLong(byte[] buffer, long v) {
+        for (int i = 0; i < 8; i++) {
+            buffer[i] = (byte) (v >>> (56 - 8 * i));
+        }
+    }
+
+    static class Person implements CompactSerializable {
+        String name;
+        int age;
+        double height = 1.75;
+        Address address;
+        Address[] previous;
+        int[] scores;
+        transient int ignored;
+
+        Person() {
+        }
+
+        Person(String name, int age, Address address, Address[] previous) {
+            this.name = name;
+            this.age = age;
+            this.address = address;
+            this.previous = previous;
+        }
+    }
+
+    static class Address implements CompactSerializable {
+        String city;
+        int zip;
+
+        Address() {
+        }
+
+        Address(String city, int zip) {
+            this.city = city;
+            this.zip = zip;
+        }
+    }
+
+    static class Address2 implements CompactSerializable {
+        String city;
+        String country = "unknown";
+    }
+}
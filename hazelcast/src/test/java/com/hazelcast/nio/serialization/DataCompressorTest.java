@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.serialization;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(QuickTest.class)
+public class DataCompressorTest {
+
+    @Test
+    public void testCodecRoundTrip() {
+        Random random = new Random(1);
+        int[] lengths = {0, 1, 4, 12, 13, 14, 20, 100, 270, 1000, 70000, 300000};
+        for (int length : lengths) {
+            // random bytes, long runs and repeated short patterns cover literal runs and matches of all lengths
+            byte[] randomBytes = new byte[length];
+            random.nextBytes(randomBytes);
+            assertRoundTrip(randomBytes);
+
+            byte[] run = new byte[length];
+            Arrays.fill(run, (byte) 7);
+            assertRoundTrip(run);
+
+            byte[] pattern = new byte[length];
+            for (int i = 0; i < length; i++) {
+                pattern[i] = (byte) (i % 13 < 9 ? i % 5 : random.nextInt());
+            }
+            assertRoundTrip(pattern);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCodecRejectsMalformedInput() {
+        byte[] src = new byte[1000];
+        byte[] compressed = new byte[Lz4Codec.maxCompressedLength(src.length)];
+        int length = Lz4Codec.compress(src, compressed, 0);
+        Lz4Codec.decompress(compressed, 0, length, new byte[src.length - 1]);
+    }
+
+    @Test
+    public void testCompressedData() {
+        SerializationService ss = new SerializationServiceBuilder().build();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            sb.append("{\"id\":").append(i).append(",\"name\":\"item\",\"active\":true}");
+        }
+        String value = sb.toString();
+        Data data = ss.toData(value);
+        Data compressed = DataCompressor.compress(data);
+
+        assertTrue(DataCompressor.isCompressed(compressed));
+        assertTrue(compressed.bufferSize() * 3 < data.bufferSize());
+        assertEquals(data.getPartitionHash(), compressed.getPartitionHash());
+        assertSame(compressed, DataCompressor.compress(compressed));
+        assertEquals(data, DataCompressor.decompress(compressed));
+        assertEquals(value, ss.toObject(compressed));
+
+        double[] doubles = new double[100];
+        Random random = new Random();
+        for (int i = 0; i < doubles.length; i++) {
+            doubles[i] = random.nextDouble();
+        }
+        Data incompressible = ss.toData(doubles);
+        assertSame(incompressible, DataCompressor.compress(incompressible));
+        assertFalse(DataCompressor.isCompressed(incompressible));
+    }
+
+    @Test
+    public void testDecompressRejectsInvalidLength() {
+        SerializationService ss = new SerializationServiceBuilder().build();
+        char[] chars = new char[1000];
+        Arrays.fill(chars, 'a');
+        Data compressed = DataCompressor.compress(ss.toData(new String(chars)));
+        assertTrue(DataCompressor.isCompressed(compressed));
+
+        for (int length : new int[]{-1, Integer.MAX_VALUE, compressed.bufferSize() * 256}) {
+            byte[] buffer = compressed.getBuffer().clone();
+            for (int i = 0; i < 4; i++) {
+                buffer[4 + i] = (byte) (length >>> (8 * (3 - i)));
+            }
+            try {
+                DataCompressor.decompress(new Data(compressed.getType(), buffer));
+                fail("Length " + length + " should be rejected");
+            } catch (HazelcastSerializationException expected) {
+                // the buffer was not allocated
+            }
+        }
+    }
+
+    private static void assertRoundTrip(byte[] src) {
+        byte[] compressed = new byte[Lz4Codec.maxCompressedLength(src.length) + 3];
+        int length = Lz4Codec.compress(src, compressed, 3);
+        byte[] decompressed = new byte[src.length];
+        Lz4Codec.decompress(compressed, 3, length, decompressed);
+        assertTrue(Arrays.equals(src, decompressed));
+    }
+}
@@ -29,9 +29,11 @@ import java.io.IOException;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
 /**
@@ -174,6 +176,45 @@ public class PortableTest {
         return builder2.build();
     }
 
+    @Test
+    public void testPathReader() throws IOException {
+        final SerializationService serializationService = createSerializationService(1);
+        NamedPortable[] nn = {new NamedPortable("a", 1), new NamedPortable("b", 2), new NamedPortable("c", 3)};
+        InnerPortable inner = new InnerPortable(new byte[]{0, 1, 2}, new char[]{'c', 'h', 'a', 'r'},
+                new short[]{3, 4, 5}, new int[]{9, 8, 7, 6}, new long[]{0, 1, 5, 7, 9, 11},
+                new float[]{0.6543f, -3.56f, 45.67f}, new double[]{456.456, 789.789, 321.321}, nn);
+        MainPortable main = new MainPortable((byte) 113, true, 'x', (short) -500, 56789, -50992225L, 900.5678f,
+                -897543.3678909d, "main", inner);
+
+        PortablePathReader reader = serializationService.createPortablePathReader(serializationService.toData(main));
+        assertEquals(FieldType.INT, reader.getFieldType("i"));
+        assertEquals(FieldType.UTF, reader.getFieldType("p.nn[any].name"));
+        assertEquals(FieldType.LONG, reader.getFieldType("p.l[2]"));
+        assertNull(reader.getFieldType("p"));
+        assertNull(reader.getFieldType("p.l"));
+        assertNull(reader.getFieldType("p.nn.name"));
+        assertNull(reader.getFieldType("p.unknown"));
+        assertNull(reader.getFieldType("p.nn[x].name"));
+
+        assertEquals(56789, reader.read("i"));
+        assertEquals("main", reader.read("str"));
+        assertEquals('r', reader.read("p.c[3]"));
+        assertEquals(5L, reader.read("p.l[2]"));
+        assertEquals(789.789, reader.read("p.d[1]"));
+        assertNull(reader.read("p.d[3]"));
+        assertEquals("b", reader.read("p.nn[1].name"));
+        assertEquals(3, reader.read("p.nn[2].myint"));
+        assertNull(reader.read("p.nn[3].myint"));
+        assertEquals(Arrays.asList("a", "b", "c"), reader.read("p.nn[any].name"));
+        assertEquals(Arrays.asList((short) 3, (short) 4, (short) 5), reader.read("p.s[any]"));
+
+        MainPortable withoutInner = new MainPortable((byte) 1, false, 'y', (short) 1, 1, 1L, 1f, 1d, null, null);
+        reader = serializationService.createPortablePathReader(serializationService.toData(withoutInner));
+        assertNull(reader.read("str"));
+        assertNull(reader.read("p.nn[0].name"));
+        assertEquals(Collections.emptyList(), reader.read("p.nn[any].name"));
+    }
+
     @Test
     public void testRawData() {
         final SerializationService serializationService = createSerializationService(1);
@@ -19,6 +19,8 @@ package com.hazelcast.nio.serialization;
 import com.hazelcast.config.GlobalSerializerConfig;
 import com.hazelcast.config.SerializationConfig;
 import com.hazelcast.config.SerializerConfig;
+import com.hazelcast.nio.BufferObjectDataInput;
+import com.hazelcast.nio.BufferObjectDataOutput;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.test.HazelcastSerialClassRunner;
@@ -36,6 +38,7 @@ import java.util.LinkedList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -193,6 +196,112 @@ public class SerializationTest {
         Assert.assertFalse("Objects should not be identical!", foo == foo.getBar().getFoo());
     }
 
+    @Test
+    public void testPooledBuffersAreReused() {
+        SerializationServiceImpl ss = (SerializationServiceImpl) new SerializationServiceBuilder().build();
+        BufferObjectDataOutput out = ss.pop();
+        ss.push(out);
+        assertSame(out, ss.pop());
+
+        Data data = ss.toData("value");
+        BufferObjectDataInput in = ss.popInput(data);
+        ss.pushInput(in);
+        assertNull(((ByteArrayObjectDataInput) in).buffer);
+        assertSame(in, ss.popInput(data));
+        assertSame(data.getBuffer(), ((ByteArrayObjectDataInput) in).buffer);
+    }
+
+    @Test
+    public void testPooledBuffersAreDetachedAndCapped() throws IOException {
+        SerializationServiceImpl ss = (SerializationServiceImpl) new SerializationServiceBuilder().build();
+        ByteArrayObjectDataOutput out = (ByteArrayObjectDataOutput) ss.pop();
+        int initialSize = out.buffer.length;
+        out.write(new byte[initialSize * 6]);
+        ss.push(out);
+        assertNull(out.service);
+        assertTrue(out.buffer.length <= initialSize * BufferPool.MAX_RETAINED_GROWTH);
+        assertSame(out, ss.pop());
+        assertSame(ss, out.service);
+
+        BufferObjectDataInput in = ss.popInput(ss.toData("value"));
+        ss.pushInput(in);
+        assertNull(((ByteArrayObjectDataInput) in).service);
+    }
+
+    @Test
+    public void testNestedSerializationWithPooledBuffers() {
+        NestedValueSerializer serializer = new NestedValueSerializer();
+        SerializationConfig serializationConfig = new SerializationConfig().addSerializerConfig(
+                new SerializerConfig().setTypeClass(NestedValue.class).setImplementation(serializer));
+        SerializationService ss = new SerializationServiceBuilder().setConfig(serializationConfig).build();
+        serializer.ss = ss;
+
+        // nests deeper than the buffers pooled per thread
+        NestedValue value = null;
+        for (int i = 0; i < BufferPool.MAX_POOLED * 2; i++) {
+            value = new NestedValue("level" + i, value);
+        }
+        for (int i = 0; i < 3; i++) {
+            NestedValue deserialized = ss.toObject(ss.toData(value));
+            assertEquals(value, deserialized);
+        }
+    }
+
+    private static class NestedValue {
+        final String name;
+        final NestedValue child;
+
+        NestedValue(String name, NestedValue child) {
+            this.name = name;
+            this.child = child;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof NestedValue)) {
+                return false;
+            }
+            NestedValue that = (NestedValue) o;
+            return name.equals(that.name) && (child == null ? that.child == null : child.equals(that.child));
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode();
+        }
+    }
+
+    // serializes the child to a separate Data, so each level takes its own buffers from the pool
+    private static class NestedValueSerializer implements StreamSerializer<NestedValue> {
+        SerializationService ss;
+
+        public void write(ObjectDataOutput out, NestedValue v) throws IOException {
+            out.writeUTF(v.name);
+            out.writeBoolean(v.child != null);
+            if (v.child != null) {
+                ss.toData(v.child).writeData(out);
+            }
+        }
+
+        public NestedValue read(ObjectDataInput in) throws IOException {
+            String name = in.readUTF();
+            NestedValue child = null;
+            if (in.readBoolean()) {
+                Data data = new Data();
+                data.readData(in);
+                child = ss.toObject(data);
+            }
+            return new NestedValue(name, child);
+        }
+
+        public int getTypeId() {
+            return 124;
+        }
+
+        public void destroy() {
+        }
+    }
+
     private static class Foo implements Serializable {
         public Bar bar;
 
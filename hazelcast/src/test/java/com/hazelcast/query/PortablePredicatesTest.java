@@ -17,7 +17,10 @@
 package com.hazelcast.query;
 
 import com.hazelcast.nio.serialization.*;
+import com.hazelcast.query.impl.MultiResult;
+import com.hazelcast.query.impl.QueryContext;
 import com.hazelcast.query.impl.QueryEntry;
+import com.hazelcast.query.impl.QueryableEntry;
 import com.hazelcast.test.HazelcastSerialClassRunner;
 import com.hazelcast.test.annotation.QuickTest;
 import org.junit.Test;
@@ -30,6 +33,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -38,7 +42,8 @@ import static org.junit.Assert.assertTrue;
 public class PortablePredicatesTest {
 
     private static final int FACTORY_ID = 1;
-    private final SerializationService ss = new SerializationServiceBuilder().addPortableFactory(FACTORY_ID, new TestPortableFactory()).build();
+    private final TestPortableFactory factory = new TestPortableFactory();
+    private final SerializationService ss = new SerializationServiceBuilder().addPortableFactory(FACTORY_ID, factory).build();
 
     @Test
     public void testPortablePredicate() {
@@ -48,6 +53,44 @@ public class PortablePredicatesTest {
         assertFalse(new SqlPredicate("character == 'Bizarro'").apply(toQueryEntry("1", data)));
     }
 
+    @Test
+    public void testNestedPortablePredicates() {
+        Customer customer = new Customer("joe", new Address("London", 1000),
+                new Item("apple", 3), new Item("pear", 5), new Item("plum", 7));
+        QueryEntry entry = toQueryEntry("1", ss.toData(customer));
+        assertTrue(Predicates.equal("address.city", "London").apply(entry));
+        assertFalse(Predicates.equal("address.city", "Paris").apply(entry));
+        assertTrue(Predicates.greaterThan("address.zip", 999).apply(entry));
+        assertTrue(Predicates.equal("items[1].sku", "pear").apply(entry));
+        assertFalse(Predicates.equal("items[3].sku", "pear").apply(entry));
+        assertTrue(Predicates.equal("items[any].sku", "plum").apply(entry));
+        assertFalse(Predicates.equal("items[any].sku", "kiwi").apply(entry));
+        assertTrue(Predicates.notEqual("items[any].sku", "kiwi").apply(entry));
+        assertTrue(Predicates.greaterThan("items[any].quantity", 6).apply(entry));
+        assertFalse(Predicates.greaterThan("items[any].quantity", 7).apply(entry));
+        assertTrue(Predicates.between("items[any].quantity", 4, 6).apply(entry));
+        assertTrue(Predicates.in("items[any].sku", "kiwi", "apple").apply(entry));
+        assertTrue(Predicates.like("items[any].sku", "pe%").apply(entry));
+        assertTrue(new SqlPredicate("address.city = 'London' and address.zip = 1000").apply(entry));
+
+        QueryEntry homeless = toQueryEntry("2", ss.toData(new Customer("jane", null)));
+        assertFalse(Predicates.equal("address.city", "London").apply(homeless));
+        assertTrue(Predicates.equal("address.city", null).apply(homeless));
+        assertFalse(Predicates.equal("items[any].sku", "plum").apply(homeless));
+
+        // the values were read from the serialized customers
+        assertEquals(0, factory.createdCustomers);
+    }
+
+    @Test
+    public void testCustomPredicateIsAppliedToEachValue() {
+        Customer customer = new Customer("joe", new Address("London", 1000), new Item("apple", 3), new Item("plum", 7));
+        QueryEntry entry = toQueryEntry("1", ss.toData(customer));
+        assertTrue(new StartsWithPredicate("items[any].sku", "pl").apply(entry));
+        assertFalse(new StartsWithPredicate("items[any].sku", "ki").apply(entry));
+        assertTrue(new StartsWithPredicate("address.city", "Lon").apply(entry));
+    }
+
     private PortableData createData(String id,
                                     String firstName,
                                     String lastName,
@@ -66,15 +109,174 @@ public class PortablePredicatesTest {
         return new QueryEntry(ss, ss.toData(key), key, value);
     }
 
+    // handles single values itself and leaves multi-valued attributes to the base class
+    private static class StartsWithPredicate extends Predicates.AbstractPredicate {
+
+        private final String prefix;
+
+        StartsWithPredicate(String attribute, String prefix) {
+            super(attribute);
+            this.prefix = prefix;
+        }
+
+        @Override
+        public boolean apply(Map.Entry entry) {
+            Comparable value = readAttribute(entry);
+            if (value instanceof MultiResult) {
+                return applyForAttribute(entry, value);
+            }
+            return value instanceof String && ((String) value).startsWith(prefix);
+        }
+
+        @Override
+        public Set<QueryableEntry> filter(QueryContext queryContext) {
+            return null;
+        }
+    }
+
     class TestPortableFactory implements PortableFactory {
 
+        int createdCustomers;
+
         @Override
         public Portable create(int classId) {
-            if (PortableData.CLASS_ID == classId) {
-                return new PortableData();
+            switch (classId) {
+                case PortableData.CLASS_ID:
+                    return new PortableData();
+                case Customer.CLASS_ID:
+                    createdCustomers++;
+                    return new Customer();
+                case Address.CLASS_ID:
+                    return new Address();
+                case Item.CLASS_ID:
+                    return new Item();
+                default:
+                    return null;
+            }
+        }
+    }
+
+    private static class Customer implements Portable {
+
+        static final int CLASS_ID = 2;
+
+        private String name;
+        private Address address;
+        private Item[] items;
+
+        Customer() {
+        }
+
+        Customer(String name, Address address, Item... items) {
+            this.name = name;
+            this.address = address;
+            this.items = items;
+        }
+
+        @Override
+        public int getFactoryId() {
+            return FACTORY_ID;
+        }
+
+        @Override
+        public int getClassId() {
+            return CLASS_ID;
+        }
+
+        @Override
+        public void writePortable(PortableWriter writer) throws IOException {
+            writer.writeUTF("name", name);
+            if (address == null) {
+                writer.writeNullPortable("address", FACTORY_ID, Address.CLASS_ID);
             } else {
-                return null;
+                writer.writePortable("address", address);
             }
+            writer.writePortableArray("items", items);
+        }
+
+        @Override
+        public void readPortable(PortableReader reader) throws IOException {
+            name = reader.readUTF("name");
+            address = reader.readPortable("address");
+            Portable[] portables = reader.readPortableArray("items");
+            items = new Item[portables.length];
+            System.arraycopy(portables, 0, items, 0, portables.length);
+        }
+    }
+
+    private static class Address implements Portable {
+
+        static final int CLASS_ID = 3;
+
+        private String city;
+        private int zip;
+
+        Address() {
+        }
+
+        Address(String city, int zip) {
+            this.city = city;
+            this.zip = zip;
+        }
+
+        @Override
+        public int getFactoryId() {
+            return FACTORY_ID;
+        }
+
+        @Override
+        public int getClassId() {
+            return CLASS_ID;
+        }
+
+        @Override
+        public void writePortable(PortableWriter writer) throws IOException {
+            writer.writeUTF("city", city);
+            writer.writeInt("zip", zip);
+        }
+
+        @Override
+        public void readPortable(PortableReader reader) throws IOException {
+            city = reader.readUTF("city");
+            zip = reader.readInt("zip");
+        }
+    }
+
+    private static class Item implements Portable {
+
+        static final int CLASS_ID = 4;
+
+        private String sku;
+        private int quantity;
+
+        Item() {
+        }
+
+        Item(String sku, int quantity) {
+            this.sku = sku;
+            this.quantity = quantity;
+        }
+
+        @Override
+        public int getFactoryId() {
+            return FACTORY_ID;
+        }
+
+        @Override
+        public int getClassId() {
+            return CLASS_ID;
+        }
+
+        @Override
+        public void writePortable(PortableWriter writer) throws IOException {
+            writer.writeUTF("sku", sku);
+            writer.writeInt("quantity", quantity);
+        }
+
+        @Override
+        public void readPortable(PortableReader reader) throws IOException {
+            sku = reader.readUTF("sku");
+            quantity = reader.readInt("quantity");
         }
     }
 
@@ -19,6 +19,7 @@ package com.hazelcast.query.impl;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.*;
+import com.hazelcast.query.Predicate;
 import com.hazelcast.query.Predicates.AndPredicate;
 import com.hazelcast.query.Predicates.EqualPredicate;
 import com.hazelcast.test.HazelcastSerialClassRunner;
@@ -28,9 +29,18 @@ import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 
 import static com.hazelcast.instance.TestUtil.toData;
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterEqual;
+import static com.hazelcast.query.Predicates.greaterThan;
+import static com.hazelcast.query.Predicates.lessEqual;
+import static com.hazelcast.query.Predicates.lessThan;
+import static com.hazelcast.query.Predicates.or;
 import static org.junit.Assert.*;
 
 @RunWith(HazelcastSerialClassRunner.class)
@@ -98,6 +108,176 @@ public class IndexTest {
         assertEquals(1, is.query(new AndPredicate(new EqualPredicate("d", "1"), new EqualPredicate("bool", false))).size());
     }
 
+    @Test
+    public void testCompositeIndex() throws QueryException {
+        IndexService is = new IndexService();
+        Index compositeIndex = is.addOrGetIndex("bool, d", true);
+        assertEquals("bool,d", compositeIndex.getAttributeName());
+        assertSame(compositeIndex, is.addOrGetIndex("bool,d", false));
+        for (int i = 0; i < 1000; i++) {
+            Data key = ss.toData(i);
+            Data value = ss.toData(new MainPortable(i % 2 == 0, i, "joe" + i));
+            is.saveEntryIndex(new QueryEntry(ss, key, key, value));
+        }
+        assertEquals(1, count(is.query(and(equal("bool", true), equal("d", 10d)))));
+        assertEquals(0, count(is.query(and(equal("bool", false), equal("d", 10)))));
+        assertEquals(49, count(is.query(and(equal("bool", true), greaterThan("d", 900)))));
+        assertEquals(5, count(is.query(and(lessEqual("d", 9), equal("bool", false)))));
+        assertEquals(1, count(is.query(and(and(equal("bool", true), lessThan("d", 4)), equal("str", "joe2")))));
+        for (int i = 0; i < 1000; i++) {
+            Data key = ss.toData(i);
+            Data value = ss.toData(new MainPortable(true, i, "joe" + i));
+            is.saveEntryIndex(new QueryEntry(ss, key, key, value));
+        }
+        assertEquals(1, count(is.query(and(equal("bool", true), equal("d", 11d)))));
+        assertEquals(0, count(is.query(and(equal("bool", false), lessThan("d", 10)))));
+        is.removeEntryIndex(ss.toData(11));
+        assertEquals(0, count(is.query(and(equal("bool", true), equal("d", 11d)))));
+    }
+
+    @Test
+    public void testBitmapIndex() throws QueryException {
+        IndexService is = new IndexService();
+        Index boolIndex = is.addOrGetIndex("bool", false, true);
+        Index strIndex = is.addOrGetIndex("str", false, true);
+        assertTrue(boolIndex.isBitmap());
+        for (int i = 0; i < 1000; i++) {
+            Data key = ss.toData(i);
+            Data value = ss.toData(new MainPortable(i % 2 == 0, i, "joe" + i % 10));
+            is.saveEntryIndex(new QueryEntry(ss, key, key, value));
+        }
+        assertEquals(500, boolIndex.getRecords(true).size());
+        assertEquals(100, strIndex.getRecords("joe3").size());
+        assertEquals(200, strIndex.getRecords(new Comparable[]{"joe3", "joe4"}).size());
+        assertEquals(900, strIndex.getSubRecords(ComparisonType.NOT_EQUAL, "joe3").size());
+        assertEquals(300, strIndex.getSubRecordsBetween("joe1", "joe3").size());
+
+        Set<QueryableEntry> result = is.query(and(equal("bool", true), equal("str", "joe4")));
+        assertEquals(100, result.size());
+        assertEquals(100, count(result));
+        assertEquals(0, count(is.query(and(equal("bool", true), equal("str", "joe3")))));
+        assertEquals(200, count(is.query(or(equal("str", "joe3"), equal("str", "joe4")))));
+        assertEquals(50, count(is.query(and(equal("str", "joe4"), greaterEqual("d", 500)))));
+
+        for (int i = 0; i < 1000; i++) {
+            Data key = ss.toData(i);
+            Data value = ss.toData(new MainPortable(false, i, "joe" + i % 10));
+            is.saveEntryIndex(new QueryEntry(ss, key, key, value));
+        }
+        assertEquals(0, boolIndex.getRecords(true).size());
+        assertEquals(1000, boolIndex.getRecords(false).size());
+        for (int i = 0; i < 500; i++) {
+            is.removeEntryIndex(ss.toData(i));
+        }
+        assertEquals(500, boolIndex.getRecords(false).size());
+        assertEquals(50, count(strIndex.getRecords("joe3")));
+    }
+
+    @Test
+    public void testBitmapResultSkipsIdsReusedAfterLookup() throws QueryException {
+        IndexService is = new IndexService();
+        Index boolIndex = is.addOrGetIndex("bool", false, true);
+        Index strIndex = is.addOrGetIndex("str", false, true);
+        Data key1 = ss.toData(1);
+        is.saveEntryIndex(new QueryEntry(ss, key1, key1, ss.toData(new MainPortable(true, 1, "joe"))));
+        BitmapResultSet joes = (BitmapResultSet) strIndex.getRecords("joe");
+
+        // the entry of key 2 gets the id of the removed entry of key 1
+        is.removeEntryIndex(key1);
+        Data key2 = ss.toData(2);
+        is.saveEntryIndex(new QueryEntry(ss, key2, key2, ss.toData(new MainPortable(false, 2, "jim"))));
+        BitmapResultSet falses = (BitmapResultSet) boolIndex.getRecords(false);
+
+        QueryEntry jim = new QueryEntry(ss, key2, key2, ss.toData(new MainPortable(false, 2, "jim")));
+        assertEquals(0, count(joes));
+        assertFalse(joes.contains(jim));
+        assertEquals(key2, falses.iterator().next().getIndexKey());
+        assertTrue(joes.isCompatible(falses));
+        assertEquals(0, count(joes.and(falses)));
+    }
+
+    @Test
+    public void testIndexStatistics() throws QueryException {
+        IndexService is = new IndexService();
+        Index dIndex = is.addOrGetIndex("d", true);
+        Index strIndex = is.addOrGetIndex("str", false);
+        Index boolIndex = is.addOrGetIndex("bool", false, true);
+        for (int i = 0; i < 1000; i++) {
+            Data key = ss.toData(i);
+            Data value = ss.toData(new MainPortable(i % 2 == 0, i, i < 500 ? "joe" : "joe" + i));
+            is.saveEntryIndex(new QueryEntry(ss, key, key, value));
+        }
+        IndexStatistics dStatistics = dIndex.getStatistics();
+        assertEquals(1000, dStatistics.getEntryCount());
+        assertEquals(1000, dStatistics.getDistinctValueCount());
+        assertTrue(dStatistics.getBucketCount() > 1);
+        assertEquals(1, dStatistics.estimateEqual(10d));
+        assertEstimate(100, dStatistics.estimateComparison(ComparisonType.LESSER, 100d));
+        assertEstimate(100, dStatistics.estimateComparison(ComparisonType.GREATER_EQUAL, 900));
+        assertEstimate(100, dStatistics.estimateBetween(200d, 299d));
+
+        IndexStatistics strStatistics = strIndex.getStatistics();
+        assertEquals(501, strStatistics.getDistinctValueCount());
+        assertEquals(0, strStatistics.getBucketCount());
+        assertEquals(500, strStatistics.estimateEqual("joe"));
+        assertEquals(1, strStatistics.estimateEqual("joe700"));
+
+        IndexStatistics boolStatistics = boolIndex.getStatistics();
+        assertEquals(500, boolStatistics.estimateEqual(true));
+        assertEquals(500, boolStatistics.estimateComparison(ComparisonType.NOT_EQUAL, false));
+
+        for (int i = 0; i < 500; i++) {
+            Data key = ss.toData(i);
+            Data value = ss.toData(new MainPortable(true, 5000 + i, "joe"));
+            is.saveEntryIndex(new QueryEntry(ss, key, key, value));
+        }
+        assertEstimate(500, dIndex.getStatistics().estimateComparison(ComparisonType.GREATER_EQUAL, 5000d));
+        assertEquals(750, boolIndex.getStatistics().estimateEqual(true));
+    }
+
+    private static void assertEstimate(long expected, long estimate) {
+        assertTrue("estimate " + estimate + " instead of " + expected, Math.abs(expected - estimate) <= expected / 5);
+    }
+
+    @Test
+    public void testQueryPlan() throws QueryException {
+        IndexService is = new IndexService();
+        is.addOrGetIndex("d", true);
+        is.addOrGetIndex("str", false);
+        for (int i = 0; i < 1000; i++) {
+            Data key = ss.toData(i);
+            Data value = ss.toData(new MainPortable(i % 2 == 0, i, "joe" + i % 100));
+            is.saveEntryIndex(new QueryEntry(ss, key, key, value));
+        }
+        QueryContext queryContext = new QueryContext(is, true);
+        assertEquals(9, count(is.query(and(greaterThan("d", 10), equal("str", "joe5")), queryContext)));
+        List<String> plan = queryContext.getPlan();
+        assertEquals(2, plan.size());
+        assertTrue(plan.toString(), plan.get(0).startsWith("index lookup: str=joe5"));
+        assertTrue(plan.toString(), plan.get(1).startsWith("filter: d>10"));
+
+        queryContext = new QueryContext(is, true);
+        assertEquals(0, count(is.query(and(equal("str", "joe5"), lessThan("d", 5)), queryContext)));
+        assertTrue(queryContext.getPlan().toString(), queryContext.getPlan().get(0).startsWith("index lookup: d<5"));
+
+        queryContext = new QueryContext(is, true);
+        Predicate predicate = and(equal("bool", true), and(equal("str", "joe6"), lessThan("d", 500)));
+        assertEquals(5, count(is.query(predicate, queryContext)));
+        plan = queryContext.getPlan();
+        assertEquals(3, plan.size());
+        assertTrue(plan.toString(), plan.get(0).startsWith("index lookup: str=joe6"));
+        assertTrue(plan.toString(), plan.get(1).startsWith("filter: d<500"));
+        assertEquals("filter: bool=true (not indexed)", plan.get(2));
+    }
+
+    private static int count(Set<QueryableEntry> entries) {
+        int count = 0;
+        for (QueryableEntry ignored : entries) {
+            count++;
+        }
+        return count;
+    }
+
     private class TestPortableFactory implements PortableFactory {
 
         public Portable create(int classId) {
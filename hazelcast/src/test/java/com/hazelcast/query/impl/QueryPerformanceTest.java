@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.nio.serialization.SerializationService;
+import com.hazelcast.nio.serialization.SerializationServiceBuilder;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import org.junit.Ignore;
+
+import java.util.Random;
+
+/**
+ * Compares the time full scans spend evaluating predicates when attributes are read by reflective getters and
+ * by generated extractors, on 5M entries kept as objects.
+ * <p/>
+ * Run with a large heap, e.g. <tt>-Xmx4G</tt>. The entry count can be given as argument.
+ */
+@Ignore("not a JUnit test")
+public class QueryPerformanceTest {
+
+    private static final int ROUNDS = 5;
+
+    private final SerializationService ss = new SerializationServiceBuilder().build();
+
+    public static void main(String[] args) {
+        final int size = args.length == 0 ? 5000000 : Integer.parseInt(args[0]);
+        final QueryPerformanceTest test = new QueryPerformanceTest();
+        final QueryEntry[] entries = test.createEntries(size);
+        final Predicate[] predicates = {
+                Predicates.greaterThan("age", 50),
+                Predicates.between("salary", 1000.0, 2000.0),
+                Predicates.equal("active", true),
+                Predicates.equal("department.name", "dept7"),
+        };
+        for (int round = 0; round < ROUNDS; round++) {
+            for (Predicate predicate : predicates) {
+                test.run(entries, predicate, false);
+                test.run(entries, predicate, true);
+            }
+        }
+    }
+
+    private void run(QueryEntry[] entries, Predicate predicate, boolean compiled) {
+        System.setProperty("hazelcast.query.compiled.getters", String.valueOf(compiled));
+        ReflectionHelper.reset();
+        final long start = System.nanoTime();
+        int matches = 0;
+        for (QueryEntry entry : entries) {
+            if (predicate.apply(entry)) {
+                matches++;
+            }
+        }
+        final long elapsedMillis = (System.nanoTime() - start) / 1000000;
+        System.out.println((compiled ? "compiled  " : "reflective") + " " + predicate
+                + ": " + elapsedMillis + " ms, " + matches + " matches");
+    }
+
+    private QueryEntry[] createEntries(int size) {
+        final Random random = new Random();
+        final Department[] departments = new Department[10];
+        for (int i = 0; i < departments.length; i++) {
+            departments[i] = new Department("dept" + i);
+        }
+        final QueryEntry[] entries = new QueryEntry[size];
+        for (int i = 0; i < size; i++) {
+            final Employee employee = new Employee(random.nextInt(100), random.nextDouble() * 5000,
+                    random.nextBoolean(), departments[random.nextInt(departments.length)]);
+            entries[i] = new QueryEntry(ss, ss.toData(i), i, employee);
+        }
+        return entries;
+    }
+
+    public static class Employee {
+        private final int age;
+        private final double salary;
+        private final boolean active;
+        private final Department department;
+
+        public Employee(int age, double salary, boolean active, Department department) {
+            this.age = age;
+            this.salary = salary;
+            this.active = active;
+            this.department = department;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public double getSalary() {
+            return salary;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public Department getDepartment() {
+            return department;
+        }
+    }
+
+    public static class Department {
+        private final String name;
+
+        public Department(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
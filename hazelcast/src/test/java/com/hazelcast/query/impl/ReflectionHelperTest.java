@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.nio.serialization.SerializationService;
+import com.hazelcast.nio.serialization.SerializationServiceBuilder;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(QuickTest.class)
+public class ReflectionHelperTest {
+
+    private final SerializationService ss = new SerializationServiceBuilder().build();
+
+    @Test
+    public void testCompiledGetters() {
+        Person person = new Person(30, 1.5, new Address("Istanbul"));
+        QueryEntry entry = newEntry(1, person);
+        assertEquals(30, entry.getAttribute("age"));
+        assertEquals(1.5, entry.getAttribute("height"));
+        assertEquals(true, entry.getAttribute("adult"));
+        assertEquals("Istanbul", entry.getAttribute("address.city"));
+        assertEquals(8, entry.getAttribute("address.city.length"));
+        assertEquals(AttributeType.INTEGER, entry.getAttributeType("age"));
+
+        assertEquals(0, entry.compareAttribute("age", 30));
+        assertEquals(1, entry.compareAttribute("age", 29));
+        assertEquals(-1, entry.compareAttribute("height", 2.0));
+        assertEquals(0, entry.compareAttribute("id", 30L));
+        assertEquals(0, entry.compareAttribute("id", 30));
+        // values of other types are converted to the attribute's type before comparing
+        assertEquals(QueryEntry.NOT_COMPARABLE, entry.compareAttribute("age", 30L));
+        assertEquals(QueryEntry.NOT_COMPARABLE, entry.compareAttribute("address.city.length", 8));
+
+        QueryEntry homeless = newEntry(2, new Person(10, 1.2, null));
+        assertNull(homeless.getAttribute("address.city"));
+        assertNull(homeless.getAttribute("address.city.length"));
+    }
+
+    @Test
+    public void testNonPublicClassesAreReadReflectively() {
+        QueryEntry entry = newEntry(1, new Hidden(5));
+        assertEquals(5, entry.getAttribute("value"));
+        assertEquals(QueryEntry.NOT_COMPARABLE, entry.compareAttribute("value", 5));
+    }
+
+    @Test
+    public void testPredicatesOnPrimitives() {
+        QueryEntry entry = newEntry(1, new Person(30, 1.5, new Address("Istanbul")));
+        assertTrue(Predicates.equal("age", 30).apply(entry));
+        assertTrue(Predicates.equal("age", 30L).apply(entry));
+        assertFalse(Predicates.notEqual("age", 30).apply(entry));
+        assertTrue(Predicates.greaterThan("age", 29).apply(entry));
+        assertFalse(Predicates.greaterThan("age", 30).apply(entry));
+        assertTrue(Predicates.greaterEqual("age", 30).apply(entry));
+        assertTrue(Predicates.lessThan("height", 1.6).apply(entry));
+        assertTrue(Predicates.lessThan("id", 31).apply(entry));
+        assertTrue(Predicates.between("age", 30, 40).apply(entry));
+        assertFalse(Predicates.between("age", 31, 40).apply(entry));
+        assertTrue(Predicates.between("height", 1.0, "2").apply(entry));
+    }
+
+    private QueryEntry newEntry(Object key, Object value) {
+        return new QueryEntry(ss, ss.toData(key), key, value);
+    }
+
+    public static class Person {
+        public final Address address;
+        private final int age;
+        private final double height;
+
+        public Person(int age, double height, Address address) {
+            this.age = age;
+            this.height = height;
+            this.address = address;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public long getId() {
+            return age;
+        }
+
+        public double getHeight() {
+            return height;
+        }
+
+        public boolean isAdult() {
+            return age >= 18;
+        }
+    }
+
+    public static class Address {
+        private final String city;
+
+        public Address(String city) {
+            this.city = city;
+        }
+
+        public String getCity() {
+            return city;
+        }
+    }
+
+    static class Hidden {
+        private final int value;
+
+        Hidden(int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(QuickTest.class)
+public class SparseBitmapTest {
+
+    @Test
+    public void testAddRemove() {
+        SparseBitmap bitmap = new SparseBitmap();
+        assertTrue(bitmap.isEmpty());
+        assertTrue(bitmap.add(3));
+        assertTrue(bitmap.add(100000));
+        assertFalse(bitmap.add(3));
+        assertEquals(2, bitmap.cardinality());
+        assertTrue(bitmap.contains(3));
+        assertTrue(bitmap.contains(100000));
+        assertFalse(bitmap.contains(4));
+        assertTrue(bitmap.remove(3));
+        assertFalse(bitmap.remove(3));
+        assertFalse(bitmap.contains(3));
+        assertEquals(1, bitmap.cardinality());
+    }
+
+    @Test
+    public void testAgainstBitSet() {
+        Random random = new Random(1);
+        SparseBitmap bitmap1 = new SparseBitmap();
+        SparseBitmap bitmap2 = new SparseBitmap();
+        BitSet bitSet1 = new BitSet();
+        BitSet bitSet2 = new BitSet();
+        for (int i = 0; i < 5000; i++) {
+            int id = random.nextInt(50000);
+            bitmap1.add(id);
+            bitSet1.set(id);
+            id = random.nextInt(50000);
+            bitmap2.add(id);
+            bitSet2.set(id);
+            if (i % 3 == 0) {
+                id = random.nextInt(50000);
+                bitmap1.remove(id);
+                bitSet1.clear(id);
+            }
+        }
+        assertSame(bitSet1, bitmap1);
+
+        BitSet and = (BitSet) bitSet1.clone();
+        and.and(bitSet2);
+        assertSame(and, bitmap1.and(bitmap2));
+
+        BitSet or = (BitSet) bitSet1.clone();
+        or.or(bitSet2);
+        assertSame(or, bitmap1.or(bitmap2));
+
+        BitSet andNot = (BitSet) bitSet1.clone();
+        andNot.andNot(bitSet2);
+        assertSame(andNot, bitmap1.andNot(bitmap2));
+
+        assertSame(bitSet1, bitmap1.copy());
+    }
+
+    private static void assertSame(BitSet expected, SparseBitmap actual) {
+        assertEquals(expected.cardinality(), actual.cardinality());
+        SparseBitmap.IdIterator it = actual.iterator();
+        for (int id = expected.nextSetBit(0); id >= 0; id = expected.nextSetBit(id + 1)) {
+            assertTrue(it.hasNext());
+            assertEquals(id, it.next());
+            assertTrue(actual.contains(id));
+        }
+        assertFalse(it.hasNext());
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl;
+
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import com.hazelcast.util.concurrent.BackoffIdleStrategy;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class ArrayOperationQueueTest {
+
+    private final ArrayOperationQueue queue = new ArrayOperationQueue(4,
+            new BackoffIdleStrategy(0, 0, TimeUnit.MICROSECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(1)));
+
+    @Test
+    public void testOverflowKeepsOrder() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertEquals(10, queue.size());
+
+        Object[] tasks = new Object[3];
+        int expected = 0;
+        while (expected < 11) {
+            int count = queue.drainTo(tasks);
+            for (int i = 0; i < count; i++) {
+                assertEquals(expected++, tasks[i]);
+            }
+            // overflowed tasks are queued after the ones offered meanwhile to the array
+            if (expected == 3) {
+                queue.offer(10);
+            }
+        }
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testIdleConsumerIsWokenUp() throws InterruptedException {
+        final CountDownLatch drained = new CountDownLatch(1);
+        Thread consumer = new Thread() {
+            public void run() {
+                try {
+                    queue.drainTo(new Object[1]);
+                    drained.countDown();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        };
+        consumer.start();
+        Thread.sleep(100);
+        queue.offer("task");
+        assertTrue(drained.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = InterruptedException.class)
+    public void testDrainToInterrupted() throws InterruptedException {
+        Thread.currentThread().interrupt();
+        queue.drainTo(new Object[1]);
+    }
+}
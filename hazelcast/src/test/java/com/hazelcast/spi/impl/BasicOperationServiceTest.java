@@ -16,9 +16,11 @@
 
 package com.hazelcast.spi.impl;
 
+import com.hazelcast.config.Config;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
 import com.hazelcast.core.IQueue;
+import com.hazelcast.instance.GroupProperties;
 import com.hazelcast.test.AssertTask;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import com.hazelcast.test.HazelcastTestSupport;
@@ -29,6 +31,7 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
@@ -121,6 +124,47 @@ public class BasicOperationServiceTest extends HazelcastTestSupport {
         assertNoLitterInOpService(hz2);
     }
 
+    @Test
+    public void testArrayOperationQueue() throws InterruptedException {
+        Config config = new Config();
+        config.setProperty(GroupProperties.PROP_OPERATION_QUEUE_TYPE, "array");
+        config.setProperty(GroupProperties.PROP_OPERATION_QUEUE_CAPACITY, "16");
+        config.setProperty(GroupProperties.PROP_OPERATION_IDLE_STRATEGY, "park");
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance hz = factory.newHazelcastInstance(config);
+        HazelcastInstance hz2 = factory.newHazelcastInstance(config);
+        warmUpPartitions(hz2, hz);
+
+        final IMap<Object, Object> map = hz.getMap("test");
+        final int count = 2000;
+        for (int i = 0; i < count; i++) {
+            map.putAsync(i, i);
+        }
+        assertTrueEventually(new AssertTask() {
+            public void run() {
+                assertEquals(count, map.size());
+            }
+        });
+        assertEquals(count / 2, map.get(count / 2));
+
+        final BasicOperationService operationService = (BasicOperationService) getNode(hz).nodeEngine.getOperationService();
+        List<OperationThreadStats> stats = operationService.getOperationThreadStats();
+        assertEquals(operationService.getPartitionOperationThreadCount() + operationService.getGenericOperationThreadCount(),
+                stats.size());
+        long processed = 0;
+        for (OperationThreadStats threadStats : stats) {
+            if (threadStats.isPartitionSpecific()) {
+                processed += threadStats.getProcessedCount();
+                if (threadStats.getProcessedCount() > 0) {
+                    assertTrue(threadStats.getDrainBatchHistogram().length > 0);
+                    assertTrue(threadStats.getQueueDepthHistogram().length > 0);
+                }
+            }
+        }
+        assertTrue(processed >= count);
+        assertNoLitterInOpService(hz);
+    }
+
     private void assertNoLitterInOpService(HazelcastInstance hz) {
         final BasicOperationService operationService = (BasicOperationService) getNode(hz).nodeEngine.getOperationService();
 
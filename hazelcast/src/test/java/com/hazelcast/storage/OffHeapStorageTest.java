@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.storage;
+
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class OffHeapStorageTest {
+
+    private static final int KB = 1024;
+    private static final int MB = KB * KB;
+
+    private final Random random = new Random();
+    private OffHeapStorage storage;
+
+    @After
+    public void tearDown() {
+        if (storage != null) {
+            storage.destroy();
+        }
+    }
+
+    @Test
+    public void testPutGetRemove_directBuffer() {
+        storage = new OffHeapStorage(16 * MB, KB, MB, 4, false);
+        testPutGetRemove();
+    }
+
+    @Test
+    public void testPutGetRemove_unsafe() {
+        storage = new OffHeapStorage(16 * MB, KB, MB, 4, true);
+        testPutGetRemove();
+    }
+
+    private void testPutGetRemove() {
+        int[] sizes = {0, 1, 100, KB, KB + 1, 10 * KB, MB, MB + 100, 3 * MB};
+        for (int size : sizes) {
+            Data data = newData(size);
+            int hash = random.nextInt();
+            DataRef ref = storage.put(hash, data);
+            assertEquals(size, ref.size());
+            Data loaded = storage.get(hash, ref);
+            assertEquals(data, loaded);
+            assertEquals(data.getPartitionHash(), loaded.getPartitionHash());
+            storage.remove(hash, ref);
+            assertNull(storage.get(hash, ref));
+        }
+        assertEquals(0, storage.getUsedMemory());
+        assertEquals(storage.getTotalMemory(), storage.getFreeMemory());
+    }
+
+    @Test
+    public void testMemoryStats() {
+        storage = new OffHeapStorage(4 * MB, KB, MB, 1, false);
+        DataRef ref1 = storage.put(1, newData(KB));
+        DataRef ref2 = storage.put(1, newData(KB + 1));
+        assertEquals(2 * KB + 1, storage.getUsedMemory());
+        // second value is placed in a 2K block
+        assertEquals(KB - 1, storage.getFragmentedMemory());
+        assertEquals(4 * MB - 3 * KB, storage.getFreeMemory());
+        assertEquals(2 * MB, storage.getCommittedMemory());
+
+        storage.remove(1, ref1);
+        storage.remove(1, ref2);
+        assertEquals(0, storage.getUsedMemory());
+        assertEquals(0, storage.getFragmentedMemory());
+        assertEquals(4 * MB, storage.getFreeMemory());
+    }
+
+    @Test(expected = OffHeapOutOfMemoryException.class)
+    public void testOutOfMemory() {
+        storage = new OffHeapStorage(2 * MB, KB, MB, 1, false);
+        for (int i = 0; i < 3; i++) {
+            storage.put(1, newData(MB));
+        }
+    }
+
+    @Test
+    public void testCompaction_releasesMemoryForOtherSizeClasses() {
+        storage = new OffHeapStorage(4 * MB, KB, MB, 1, false);
+        // fill 4 slabs with 1K blocks
+        List<DataRef> refs = new ArrayList<DataRef>();
+        List<Data> values = new ArrayList<Data>();
+        for (int i = 0; i < 4 * KB; i++) {
+            Data data = newData(KB);
+            values.add(data);
+            refs.add(storage.put(1, data));
+        }
+        // free every other block, leaving all slabs half full
+        for (int i = 0; i < refs.size(); i += 2) {
+            storage.remove(1, refs.get(i));
+        }
+        assertEquals(4 * MB, storage.getCommittedMemory());
+
+        // a 2K value needs a new slab, which is only possible after compaction
+        Data large = newData(2 * KB);
+        DataRef largeRef = storage.put(1, large);
+        assertEquals(large, storage.get(1, largeRef));
+        assertTrue(storage.getCommittedMemory() <= 4 * MB);
+
+        for (int i = 1; i < refs.size(); i += 2) {
+            assertEquals(values.get(i), storage.get(1, refs.get(i)));
+        }
+    }
+
+    @Test
+    public void testDestroy() {
+        storage = new OffHeapStorage(2 * MB, KB, MB, 1, true);
+        DataRef ref = storage.put(1, newData(KB));
+        storage.destroy();
+        assertNull(storage.get(1, ref));
+        assertEquals(0, storage.getCommittedMemory());
+        try {
+            storage.put(1, newData(KB));
+            fail("Put should fail after destroy!");
+        } catch (Exception expected) {
+        }
+        storage = null;
+    }
+
+    private Data newData(int size) {
+        byte[] bytes = null;
+        if (size > 0) {
+            bytes = new byte[size];
+            random.nextBytes(bytes);
+        }
+        return new Data(1, bytes);
+    }
+
+    @Test
+    public void testLoadedDataPreservesBuffer() {
+        storage = new OffHeapStorage(2 * MB, KB, MB, 1, false);
+        Data data = newData(5 * KB);
+        DataRef ref = storage.put(7, data);
+        assertArrayEquals(data.getBuffer(), storage.get(7, ref).getBuffer());
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.concurrent;
+
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class ManyToOneConcurrentArrayQueueTest {
+
+    @Test
+    public void testCapacityIsRoundedToPowerOfTwo() {
+        assertEquals(16, new ManyToOneConcurrentArrayQueue<Integer>(10).capacity());
+        assertEquals(1, new ManyToOneConcurrentArrayQueue<Integer>(1).capacity());
+    }
+
+    @Test
+    public void testOfferPollInOrder() {
+        ManyToOneConcurrentArrayQueue<Integer> queue = new ManyToOneConcurrentArrayQueue<Integer>(4);
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(queue.offer(i));
+            }
+            assertFalse(queue.offer(5));
+            assertEquals(4, queue.size());
+            assertEquals(Integer.valueOf(0), queue.peek());
+            for (int i = 0; i < 4; i++) {
+                assertEquals(Integer.valueOf(i), queue.poll());
+            }
+            assertTrue(queue.isEmpty());
+        }
+    }
+
+    @Test
+    public void testDrainTo() {
+        ManyToOneConcurrentArrayQueue<Integer> queue = new ManyToOneConcurrentArrayQueue<Integer>(8);
+        for (int i = 0; i < 6; i++) {
+            queue.offer(i);
+        }
+        Object[] items = new Object[4];
+        assertEquals(4, queue.drainTo(items, 4));
+        assertEquals(3, items[3]);
+        assertEquals(2, queue.drainTo(items, 4));
+        assertEquals(5, items[1]);
+        assertEquals(0, queue.drainTo(items, 4));
+        assertEquals(0, queue.size());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testOfferNull() {
+        new ManyToOneConcurrentArrayQueue<Integer>(4).offer(null);
+    }
+
+    @Test
+    public void testConcurrentProducers() throws InterruptedException {
+        final ManyToOneConcurrentArrayQueue<Integer> queue = new ManyToOneConcurrentArrayQueue<Integer>(64);
+        final int producerCount = 4;
+        final int itemsPerProducer = 100000;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        Thread[] producers = new Thread[producerCount];
+        for (int p = 0; p < producerCount; p++) {
+            final int producer = p;
+            producers[p] = new Thread() {
+                public void run() {
+                    try {
+                        startLatch.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < itemsPerProducer; i++) {
+                        while (!queue.offer(producer * itemsPerProducer + i)) {
+                            Thread.yield();
+                        }
+                    }
+                }
+            };
+            producers[p].start();
+        }
+        startLatch.countDown();
+
+        int[] lastSeen = new int[producerCount];
+        for (int p = 0; p < producerCount; p++) {
+            lastSeen[p] = -1;
+        }
+        Object[] items = new Object[16];
+        int received = 0;
+        while (received < producerCount * itemsPerProducer) {
+            int count = queue.drainTo(items, items.length);
+            for (int i = 0; i < count; i++) {
+                int item = (Integer) items[i];
+                int producer = item / itemsPerProducer;
+                int sequence = item % itemsPerProducer;
+                // items of a producer are received in the order they are offered
+                assertEquals(lastSeen[producer] + 1, sequence);
+                lastSeen[producer] = sequence;
+            }
+            received += count;
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertTrue(queue.isEmpty());
+    }
+}
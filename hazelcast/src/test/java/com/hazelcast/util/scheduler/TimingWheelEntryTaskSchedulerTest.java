@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2008-2013, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.scheduler;
+
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class TimingWheelEntryTaskSchedulerTest {
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    private final RecordingProcessor processor = new RecordingProcessor();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testEntriesAreProcessed() throws InterruptedException {
+        EntryTaskScheduler<Integer, String> scheduler = newScheduler(ScheduleType.POSTPONE);
+        final int count = 1000;
+        processor.expect(count);
+        for (int i = 0; i < count; i++) {
+            assertTrue(scheduler.schedule(i % 300, i, "value" + i));
+        }
+        assertTrue(processor.await());
+        assertEquals(0, scheduler.size());
+        assertEquals(count, new HashSet<ScheduledEntry<Integer, String>>(processor.entries).size());
+    }
+
+    @Test
+    public void testSubSecondResolution() throws InterruptedException {
+        EntryTaskScheduler<Integer, String> scheduler = newScheduler(ScheduleType.POSTPONE);
+        processor.expect(1);
+        final long start = System.nanoTime();
+        scheduler.schedule(50, 1, "a");
+        assertTrue(processor.await());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500);
+    }
+
+    @Test
+    public void testDelayLongerThanRotation() throws InterruptedException {
+        EntryTaskScheduler<Integer, String> scheduler = newScheduler(ScheduleType.POSTPONE);
+        processor.expect(1);
+        final long start = System.nanoTime();
+        // wheel of the test rotates in 80 milliseconds
+        scheduler.schedule(300, 1, "a");
+        assertTrue(processor.await());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 290);
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        EntryTaskScheduler<Integer, String> scheduler = newScheduler(ScheduleType.POSTPONE);
+        processor.expect(1);
+        scheduler.schedule(100, 1, "a");
+        scheduler.schedule(100, 2, "b");
+        assertEquals(2, scheduler.size());
+        ScheduledEntry<Integer, String> cancelled = scheduler.cancel(1);
+        assertEquals("a", cancelled.getValue());
+        assertNull(scheduler.cancel(1));
+        assertNull(scheduler.get(1));
+        assertTrue(processor.await());
+        Thread.sleep(200);
+        assertEquals(1, processor.entries.size());
+        assertEquals(Integer.valueOf(2), processor.entries.get(0).getKey());
+    }
+
+    @Test
+    public void testPostpone() throws InterruptedException {
+        EntryTaskScheduler<Integer, String> scheduler = newScheduler(ScheduleType.POSTPONE);
+        processor.expect(1);
+        scheduler.schedule(100, 1, "a");
+        assertTrue(scheduler.schedule(400, 1, "b"));
+        assertEquals(1, scheduler.size());
+        assertEquals("b", scheduler.get(1).getValue());
+        Thread.sleep(200);
+        assertTrue(processor.entries.isEmpty());
+        assertTrue(processor.await());
+        assertEquals("b", processor.entries.get(0).getValue());
+    }
+
+    @Test
+    public void testScheduleIfNew() {
+        EntryTaskScheduler<Integer, String> scheduler = newScheduler(ScheduleType.SCHEDULE_IF_NEW);
+        assertTrue(scheduler.schedule(10000, 1, "a"));
+        assertFalse(scheduler.schedule(100, 1, "b"));
+        assertEquals("a", scheduler.get(1).getValue());
+    }
+
+    @Test
+    public void testForEach() throws InterruptedException {
+        EntryTaskScheduler<Integer, String> scheduler = newScheduler(ScheduleType.FOR_EACH);
+        processor.expect(2);
+        scheduler.schedule(100, 1, "a");
+        scheduler.schedule(100, 1, "b");
+        assertEquals(2, scheduler.size());
+        assertNotNull(scheduler.get(1));
+        assertTrue(processor.await());
+        assertEquals(2, processor.entries.size());
+    }
+
+    @Test
+    public void testFlush() {
+        EntryTaskScheduler<Integer, String> scheduler = newScheduler(ScheduleType.POSTPONE);
+        scheduler.schedule(10000, 1, "a");
+        scheduler.schedule(10000, 2, "b");
+        assertEquals(Collections.singleton(1), scheduler.flush(Collections.singleton(1)));
+        assertEquals(1, processor.entries.size());
+        assertEquals(1, scheduler.size());
+        scheduler.cancelAll();
+        assertEquals(0, scheduler.size());
+        assertNull(scheduler.get(2));
+    }
+
+    @Test
+    public void testReschedulingFromProcessor() throws InterruptedException {
+        final AtomicInteger remaining = new AtomicInteger(5);
+        final CountDownLatch latch = new CountDownLatch(1);
+        EntryTaskScheduler<Integer, String> scheduler = EntryTaskSchedulerFactory.newScheduler(executor,
+                new ScheduledEntryProcessor<Integer, String>() {
+                    @Override
+                    public void process(EntryTaskScheduler<Integer, String> scheduler,
+                                        Collection<ScheduledEntry<Integer, String>> entries) {
+                        if (remaining.decrementAndGet() > 0) {
+                            scheduler.schedule(10, 1, "a");
+                        } else {
+                            latch.countDown();
+                        }
+                    }
+                }, ScheduleType.POSTPONE);
+        scheduler.schedule(10, 1, "a");
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
+    private <K, V> EntryTaskScheduler<K, V> newScheduler(ScheduleType scheduleType) {
+        return new TimingWheelEntryTaskScheduler<K, V>(executor, processor, scheduleType, 10, 8);
+    }
+
+    private static class RecordingProcessor implements ScheduledEntryProcessor<Integer, String> {
+        final List<ScheduledEntry<Integer, String>> entries = new CopyOnWriteArrayList<ScheduledEntry<Integer, String>>();
+        volatile CountDownLatch latch = new CountDownLatch(0);
+
+        void expect(int count) {
+            latch = new CountDownLatch(count);
+        }
+
+        boolean await() throws InterruptedException {
+            return latch.await(10, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public void process(EntryTaskScheduler<Integer, String> scheduler,
+                            Collection<ScheduledEntry<Integer, String>> scheduledEntries) {
+            entries.addAll(scheduledEntries);
+            for (int i = 0; i < scheduledEntries.size(); i++) {
+                latch.countDown();
+            }
+        }
+    }
+}